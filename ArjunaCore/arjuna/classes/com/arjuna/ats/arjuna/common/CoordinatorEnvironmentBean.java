@@ -6,6 +6,7 @@ package com.arjuna.ats.arjuna.common;
 
 import com.arjuna.ats.arjuna.coordinator.CheckedActionFactory;
 import com.arjuna.ats.arjuna.coordinator.TransactionReaper;
+import com.arjuna.ats.arjuna.coordinator.TxStatsExporter;
 import com.arjuna.ats.arjuna.utils.Utility;
 import com.arjuna.ats.internal.arjuna.coordinator.CheckedActionFactoryImple;
 import com.arjuna.ats.internal.arjuna.objectstore.HashedActionStore;
@@ -13,6 +14,8 @@ import com.arjuna.common.internal.util.ClassloadingUtility;
 import com.arjuna.common.internal.util.propertyservice.FullPropertyName;
 import com.arjuna.common.internal.util.propertyservice.PropertyPrefix;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 
 /**
@@ -48,6 +51,9 @@ public class CoordinatorEnvironmentBean implements CoordinatorEnvironmentBeanMBe
     private volatile boolean readonlyOptimisation = true;
     private volatile boolean classicPrepare = false;
     private volatile boolean enableStatistics = false;
+    private volatile List<String> statisticsExporterClassNames = new ArrayList<String>();
+    private volatile List<TxStatsExporter> statisticsExporters = null;
+    private volatile long statisticsExportPeriod = 60000; // milliseconds
     @Deprecated
     private volatile boolean sharedTransactionLog = false;
     private volatile boolean startDisabled = false; // rename/repurpose to 'enable'?
@@ -181,9 +187,13 @@ public class CoordinatorEnvironmentBean implements CoordinatorEnvironmentBeanMBe
     }
 
     /**
-     * Returns true if separate virtual threads are to be used to prepare resources when running in asynchronous mode
+     * Returns true if virtual threads are to be used for the work that the coordinator hands off to other threads,
+     * namely asynchronous prepare, commit and rollback of resources, asynchronous before and after completion
+     * synchronizations and the transaction reaper worker which cancels timed out transactions.
      * @see CoordinatorEnvironmentBean#asyncPrepare
      * <p>
+     * Default: true
+     * <p>
      * @return true if virtual threads will be used
      */
     public boolean isUseVirtualThreadsForTwoPhaseCommitThreads() {
@@ -191,10 +201,11 @@ public class CoordinatorEnvironmentBean implements CoordinatorEnvironmentBeanMBe
     }
 
     /**
-     * Enables the use of virtual threads for preparing resources
+     * Enables the use of virtual threads for asynchronous two phase commit, asynchronous synchronizations and
+     * the transaction reaper worker.
      * The setting will only take effect when running on JRE 21 and above.
      * <p>
-     * @param enableVT true if virtual threads should be used to prepare resources when running in asynchronous mode
+     * @param enableVT true if virtual threads should be used for work the coordinator runs asynchronously
      */
     public void setUseVirtualThreadsForTwoPhaseCommitThreads(boolean enableVT) {
         useVirtualThreadsForTwoPhaseCommitThreads = enableVT;
@@ -342,7 +353,7 @@ public class CoordinatorEnvironmentBean implements CoordinatorEnvironmentBeanMBe
 
     /**
      * Returns true if transaction statistics should be recorded.
-     * Note: Enabling statistics may have a slight performance impact due to locking on the counter variables.
+     * Note: Enabling statistics has a small performance cost for timing the phases of each transaction.
      *
      * Default: false
      * Equivalent deprecated property: com.arjuna.ats.arjuna.coordinator.enableStatistics
@@ -365,6 +376,112 @@ public class CoordinatorEnvironmentBean implements CoordinatorEnvironmentBeanMBe
         this.enableStatistics = enableStatistics;
     }
 
+    /**
+     * Returns a list of names of classes that implement TxStatsExporter, to which the
+     * transaction statistics are periodically handed while statistics are enabled.
+     * The returned list is a copy. May return an empty list, will not return null.
+     *
+     * Default: empty list.
+     * Effect: read once, when transaction statistics are first used.
+     *
+     * @return a list of TxStatsExporter implementation class names.
+     */
+    public List<String> getStatisticsExporterClassNames()
+    {
+        synchronized (this) {
+            return new ArrayList<String>(statisticsExporterClassNames);
+        }
+    }
+
+    /**
+     * Sets the statistics exporters.
+     * List elements should be names of classes that implement TxStatsExporter.
+     * The provided list will be copied, not retained.
+     *
+     * @param statisticsExporterClassNames a list of TxStatsExporter implementation class names.
+     */
+    public void setStatisticsExporterClassNames(List<String> statisticsExporterClassNames)
+    {
+        synchronized (this) {
+            if (statisticsExporterClassNames == null) {
+                this.statisticsExporters = new ArrayList<TxStatsExporter>();
+                this.statisticsExporterClassNames = new ArrayList<String>();
+            } else if (!statisticsExporterClassNames.equals(this.statisticsExporterClassNames)) {
+                this.statisticsExporters = null;
+                this.statisticsExporterClassNames = new ArrayList<String>(statisticsExporterClassNames);
+            }
+        }
+    }
+
+    /**
+     * Returns the set of TxStatsExporter instances.
+     * The returned list is a copy. May return an empty list, will not return null.
+     * <p>
+     * If there is no pre-instantiated instance set and classloading or instantiation of one or more
+     * elements fails, this method will log an appropriate warning and return a non-null set with
+     * fewer elements.
+     *
+     * @return the set of TxStatsExporter instances.
+     */
+    public List<TxStatsExporter> getStatisticsExporters()
+    {
+        synchronized (this) {
+            if (statisticsExporters == null) {
+                statisticsExporters = ClassloadingUtility.loadAndInstantiateClassesWithInit(TxStatsExporter.class, statisticsExporterClassNames);
+            }
+            return new ArrayList<TxStatsExporter>(statisticsExporters);
+        }
+    }
+
+    /**
+     * Sets the instances of TxStatsExporter.
+     * The provided list will be copied, not retained.
+     *
+     * @param statisticsExporters the set of TxStatsExporter instances.
+     */
+    public void setStatisticsExporters(List<TxStatsExporter> statisticsExporters)
+    {
+        synchronized (this) {
+            if (statisticsExporters == null) {
+                this.statisticsExporters = new ArrayList<TxStatsExporter>();
+                this.statisticsExporterClassNames = new ArrayList<String>();
+            } else {
+                this.statisticsExporters = new ArrayList<TxStatsExporter>(statisticsExporters);
+                this.statisticsExporterClassNames = ClassloadingUtility.getNamesForClasses(this.statisticsExporters);
+            }
+        }
+    }
+
+    /**
+     * Returns the interval, in milliseconds, at which the statistics are handed to the statistics exporters.
+     *
+     * Default: 60000 milliseconds
+     * Effect: read once, when transaction statistics are first used. A period which is not positive is
+     * replaced by the default.
+     *
+     * @return the statistics export period in milliseconds.
+     */
+    public long getStatisticsExportPeriod()
+    {
+        if (statisticsExportPeriod <= 0)
+        {
+            return 60000;
+        }
+
+        return statisticsExportPeriod;
+    }
+
+    /**
+     * Sets the interval, in milliseconds, at which the statistics are handed to the statistics exporters.
+     * A period which is not positive is replaced by the default.
+     *
+     * @param statisticsExportPeriod the statistics export period in milliseconds.
+     */
+    public void setStatisticsExportPeriod(long statisticsExportPeriod)
+    {
+        this.statisticsExportPeriod = statisticsExportPeriod;
+    }
+
     /**
      * Returns if the transaction log should be run in shared mode or not.
      *
@@ -415,6 +532,9 @@ public class CoordinatorEnvironmentBean implements CoordinatorEnvironmentBeanMBe
 
     /**
      * Returns the operating mode of the transaction timeout processing system.
+     * One of "DYNAMIC", "PERIODIC" or "TIMING_WHEEL". TIMING_WHEEL behaves like
+     * DYNAMIC but tracks transactions in a hierarchical timing wheel, which scales
+     * better when many threads begin and end transactions concurrently.
      *
      * Default: "DYNAMIC"
      * Equivalent deprecated property: com.arjuna.ats.arjuna.coordinator.txReaperMode
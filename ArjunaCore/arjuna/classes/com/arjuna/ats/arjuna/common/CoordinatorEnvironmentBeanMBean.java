@@ -4,6 +4,8 @@
  */
 package com.arjuna.ats.arjuna.common;
 
+import java.util.List;
+
 /**
  * A JMX MBean interface containing configuration for the core transaction coordinator.
  *
@@ -31,6 +33,10 @@ public interface CoordinatorEnvironmentBeanMBean
 
     void setEnableStatistics(boolean enableStatistics);
 
+    List<String> getStatisticsExporterClassNames();
+
+    long getStatisticsExportPeriod();
+
     @Deprecated
     boolean isSharedTransactionLog();
 
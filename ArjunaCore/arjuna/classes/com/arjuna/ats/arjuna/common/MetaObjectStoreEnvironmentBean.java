@@ -85,6 +85,16 @@ public class MetaObjectStoreEnvironmentBean extends ObjectStoreEnvironmentBean {
         instances.forEach(i -> i.setCacheStoreHash(cacheStoreHash));
     }
 
+    @Override
+    public int getCacheStoreWorkers() {
+        return actionStoreEnvironmentBean.getCacheStoreWorkers();
+    }
+
+    @Override
+    public void setCacheStoreWorkers(int cacheStoreWorkers) {
+        instances.forEach(i -> i.setCacheStoreWorkers(cacheStoreWorkers));
+    }
+
     @Override
     public String getLocalOSRoot() {
         return actionStoreEnvironmentBean.getLocalOSRoot();
@@ -205,6 +215,46 @@ public class MetaObjectStoreEnvironmentBean extends ObjectStoreEnvironmentBean {
         instances.forEach(i -> i.setTxLogSize(txLogSize));
     }
 
+    @Override
+    public boolean isTxLogGroupCommit() {
+        return actionStoreEnvironmentBean.isTxLogGroupCommit();
+    }
+
+    @Override
+    public void setTxLogGroupCommit(boolean txLogGroupCommit) {
+        instances.forEach(i -> i.setTxLogGroupCommit(txLogGroupCommit));
+    }
+
+    @Override
+    public int getTxLogGroupCommitBatchSize() {
+        return actionStoreEnvironmentBean.getTxLogGroupCommitBatchSize();
+    }
+
+    @Override
+    public void setTxLogGroupCommitBatchSize(int txLogGroupCommitBatchSize) {
+        instances.forEach(i -> i.setTxLogGroupCommitBatchSize(txLogGroupCommitBatchSize));
+    }
+
+    @Override
+    public long getTxLogGroupCommitWaitTime() {
+        return actionStoreEnvironmentBean.getTxLogGroupCommitWaitTime();
+    }
+
+    @Override
+    public void setTxLogGroupCommitWaitTime(long txLogGroupCommitWaitTime) {
+        instances.forEach(i -> i.setTxLogGroupCommitWaitTime(txLogGroupCommitWaitTime));
+    }
+
+    @Override
+    public boolean isChangeTracking() {
+        return actionStoreEnvironmentBean.isChangeTracking();
+    }
+
+    @Override
+    public void setChangeTracking(boolean changeTracking) {
+        instances.forEach(i -> i.setChangeTracking(changeTracking));
+    }
+
     @Override
     public long getPurgeTime() {
         return actionStoreEnvironmentBean.getPurgeTime();
@@ -255,6 +305,26 @@ public class MetaObjectStoreEnvironmentBean extends ObjectStoreEnvironmentBean {
         instances.forEach(i -> i.setCreateTable(createTable));
     }
 
+    @Override
+    public boolean isJdbcGroupCommit() {
+        return actionStoreEnvironmentBean.isJdbcGroupCommit();
+    }
+
+    @Override
+    public void setJdbcGroupCommit(boolean jdbcGroupCommit) {
+        instances.forEach(i -> i.setJdbcGroupCommit(jdbcGroupCommit));
+    }
+
+    @Override
+    public int getJdbcGroupCommitBatchSize() {
+        return actionStoreEnvironmentBean.getJdbcGroupCommitBatchSize();
+    }
+
+    @Override
+    public void setJdbcGroupCommitBatchSize(int jdbcGroupCommitBatchSize) {
+        instances.forEach(i -> i.setJdbcGroupCommitBatchSize(jdbcGroupCommitBatchSize));
+    }
+
     @Override
     public boolean getExposeAllLogRecordsAsMBeans() {
         return actionStoreEnvironmentBean.getExposeAllLogRecordsAsMBeans();
@@ -52,6 +52,8 @@ public class ObjectStoreEnvironmentBean implements ObjectStoreEnvironmentBeanMBe
     private volatile int cacheStoreWorkItems = 100;
     @FullPropertyName(name = "com.arjuna.ats.internal.arjuna.objectstore.cacheStore.hash")
     private volatile int cacheStoreHash = 128;
+    @FullPropertyName(name = "com.arjuna.ats.internal.arjuna.objectstore.cacheStore.workers")
+    private volatile int cacheStoreWorkers = 4;
 
     @FullPropertyName(name = "com.arjuna.ats.arjuna.coordinator.transactionLog.synchronousRemoval")
     private volatile boolean synchronousRemoval = true;
@@ -59,6 +61,9 @@ public class ObjectStoreEnvironmentBean implements ObjectStoreEnvironmentBeanMBe
     private volatile long txLogSize = 10 * 1024 * 1024;  // default maximum log txLogSize in bytes;
     @FullPropertyName(name = "com.arjuna.ats.arjuna.coordinator.transactionLog.purgeTime")
     private volatile long purgeTime = 100000; // in milliseconds
+    private volatile boolean txLogGroupCommit = false;
+    private volatile int txLogGroupCommitBatchSize = 128;
+    private volatile long txLogGroupCommitWaitTime = 0; // in microseconds
 
     private volatile boolean androidDirCheck = false;
     
@@ -71,6 +76,12 @@ public class ObjectStoreEnvironmentBean implements ObjectStoreEnvironmentBeanMBe
 	private volatile boolean dropTable;
 	
 	private volatile boolean createTable = true;
+
+	private volatile boolean jdbcGroupCommit = false;
+
+	private volatile int jdbcGroupCommitBatchSize = 128;
+
+	private volatile boolean changeTracking = false;
     
     private volatile boolean exposeAllLogRecordsAsMBeans = false;
 
@@ -261,6 +272,38 @@ public class ObjectStoreEnvironmentBean implements ObjectStoreEnvironmentBeanMBe
         this.cacheStoreHash = cacheStoreHash;
     }
 
+    /**
+     * Returns the number of threads which write the cache work queue out to disk.
+     * All the work for a given Uid is done by the same thread, in the order it was queued.
+     *
+     * This property is used by the following object store implementations: CacheStore.
+     *
+     * Default: 4
+     *
+     * @return the number of threads writing out the cache.
+     */
+    public int getCacheStoreWorkers()
+    {
+        if (cacheStoreWorkers <= 0)
+        {
+            return 1;
+        }
+
+        return cacheStoreWorkers;
+    }
+
+    /**
+     * Sets the number of threads which write the cache work queue out to disk.
+     *
+     * This property is used by the following object store implementations: CacheStore.
+     *
+     * @param cacheStoreWorkers the number of threads.
+     */
+    public void setCacheStoreWorkers(int cacheStoreWorkers)
+    {
+        this.cacheStoreWorkers = cacheStoreWorkers;
+    }
+
 
     /**
      * Returns the local ObjectStore root directory name. This should be a path element, not a complete path.
@@ -674,6 +717,97 @@ public class ObjectStoreEnvironmentBean implements ObjectStoreEnvironmentBeanMBe
         this.purgeTime = purgeTime;
     }
 
+    /**
+     * Returns true if the LogStore should group concurrent log writes into a single
+     * write and disk sync rather than writing and syncing each entry individually.
+     *
+     * This property is used by the following object store implementations: LogStore.
+     *
+     * Default: false
+     *
+     * @return true if group commit is enabled, false otherwise.
+     */
+    public boolean isTxLogGroupCommit()
+    {
+        return txLogGroupCommit;
+    }
+
+    /**
+     * Sets if the LogStore should group concurrent log writes into a single write and disk sync.
+     *
+     * This property is used by the following object store implementations: LogStore.
+     *
+     * @param txLogGroupCommit true to enable group commit, false to disable.
+     */
+    public void setTxLogGroupCommit(boolean txLogGroupCommit)
+    {
+        this.txLogGroupCommit = txLogGroupCommit;
+    }
+
+    /**
+     * Returns the maximum number of log entries the LogStore will write in one group commit batch.
+     *
+     * This property is used by the following object store implementations: LogStore.
+     *
+     * Default: 128
+     *
+     * @return the maximum number of entries in a batch.
+     */
+    public int getTxLogGroupCommitBatchSize()
+    {
+        if (txLogGroupCommitBatchSize < 1)
+        {
+            return 1;
+        }
+
+        return txLogGroupCommitBatchSize;
+    }
+
+    /**
+     * Sets the maximum number of log entries the LogStore will write in one group commit batch.
+     *
+     * This property is used by the following object store implementations: LogStore.
+     *
+     * @param txLogGroupCommitBatchSize the maximum number of entries in a batch.
+     */
+    public void setTxLogGroupCommitBatchSize(int txLogGroupCommitBatchSize)
+    {
+        this.txLogGroupCommitBatchSize = txLogGroupCommitBatchSize;
+    }
+
+    /**
+     * Returns the maximum time, in microseconds, that the LogStore will hold back a group commit
+     * batch waiting for further writers to join it. Regardless of this value, writers which arrive
+     * while a batch is being synced to disk are always written together in the next batch.
+     *
+     * This property is used by the following object store implementations: LogStore.
+     *
+     * Default: 0 microseconds
+     *
+     * @return the maximum batch wait time in microseconds.
+     */
+    public long getTxLogGroupCommitWaitTime()
+    {
+        if (txLogGroupCommitWaitTime < 0)
+        {
+            return 0;
+        }
+
+        return txLogGroupCommitWaitTime;
+    }
+
+    /**
+     * Sets the maximum time, in microseconds, that the LogStore will hold back a group commit batch.
+     *
+     * This property is used by the following object store implementations: LogStore.
+     *
+     * @param txLogGroupCommitWaitTime the maximum batch wait time in microseconds.
+     */
+    public void setTxLogGroupCommitWaitTime(long txLogGroupCommitWaitTime)
+    {
+        this.txLogGroupCommitWaitTime = txLogGroupCommitWaitTime;
+    }
+
 	/**
 	 * Returns an instance of a class implementing JDBCAccess.
 	 * 
@@ -772,6 +906,92 @@ public class ObjectStoreEnvironmentBean implements ObjectStoreEnvironmentBeanMBe
 		this.createTable = createTable;
 	}
 
+	/**
+	 * Returns true if the JDBCStore should gather concurrent state writes and
+	 * removals into batched statements sharing a single database commit,
+	 * rather than giving each its own connection and commit.
+	 *
+	 * This property is used by the following object store implementations: JDBCStore.
+	 *
+	 * Default: false
+	 *
+	 * @return true if group commit is enabled, false otherwise.
+	 */
+	public boolean isJdbcGroupCommit() {
+		return jdbcGroupCommit;
+	}
+
+	/**
+	 * Sets if the JDBCStore should batch concurrent state writes and removals into a single commit.
+	 *
+	 * This property is used by the following object store implementations: JDBCStore.
+	 *
+	 * @param jdbcGroupCommit true to enable group commit, false to disable.
+	 */
+	public void setJdbcGroupCommit(boolean jdbcGroupCommit) {
+		this.jdbcGroupCommit = jdbcGroupCommit;
+	}
+
+	/**
+	 * Returns the maximum number of state writes and removals the JDBCStore will
+	 * execute in one group commit.
+	 *
+	 * This property is used by the following object store implementations: JDBCStore.
+	 *
+	 * Default: 128
+	 *
+	 * @return the maximum number of operations in a batch.
+	 */
+	public int getJdbcGroupCommitBatchSize() {
+		if (jdbcGroupCommitBatchSize < 1) {
+			return 1;
+		}
+
+		return jdbcGroupCommitBatchSize;
+	}
+
+	/**
+	 * Sets the maximum number of state writes and removals the JDBCStore will execute in one group commit.
+	 *
+	 * This property is used by the following object store implementations: JDBCStore.
+	 *
+	 * @param jdbcGroupCommitBatchSize the maximum number of operations in a batch.
+	 */
+	public void setJdbcGroupCommitBatchSize(int jdbcGroupCommitBatchSize) {
+		this.jdbcGroupCommitBatchSize = jdbcGroupCommitBatchSize;
+	}
+
+	/**
+	 * Returns true if the store should keep an in memory index of the Uids
+	 * present for each type, so that allObjUids and changedObjUids can be
+	 * answered without listing the store's directories. The index for a type
+	 * is built by one scan the first time it is needed and is then maintained
+	 * by the store's own writes and removals, so it should only be enabled
+	 * when no other process modifies the store.
+	 *
+	 * This property is used by the following object store implementations:
+	 * ShadowingStore, ShadowNoFileLockStore, HashedStore, ActionStore, HashedActionStore.
+	 *
+	 * Default: false
+	 *
+	 * @return true if change tracking is enabled, false otherwise.
+	 */
+	public boolean isChangeTracking() {
+		return changeTracking;
+	}
+
+	/**
+	 * Sets if the store should keep an in memory index of the Uids present for each type.
+	 *
+	 * This property is used by the following object store implementations:
+	 * ShadowingStore, ShadowNoFileLockStore, HashedStore, ActionStore, HashedActionStore.
+	 *
+	 * @param changeTracking true to enable change tracking, false to disable.
+	 */
+	public void setChangeTracking(boolean changeTracking) {
+		this.changeTracking = changeTracking;
+	}
+
     /**
      * @return Whether basic information about all log reccords are exposed
      */
@@ -25,6 +25,8 @@ public interface ObjectStoreEnvironmentBeanMBean
 
     int getCacheStoreHash();
 
+    int getCacheStoreWorkers();
+
     String getLocalOSRoot();
 
     String getObjectStoreDir();
@@ -48,6 +50,12 @@ public interface ObjectStoreEnvironmentBeanMBean
     long getTxLogSize();
 
     long getPurgeTime();
+
+    boolean isTxLogGroupCommit();
+
+    int getTxLogGroupCommitBatchSize();
+
+    long getTxLogGroupCommitWaitTime();
     
 	/**
 	 * Get the JDBCAccess details.
@@ -92,4 +100,25 @@ public interface ObjectStoreEnvironmentBeanMBean
 	 */
 	public void setDropTable(boolean dropTable);
 
+	/**
+	 * Should the store batch concurrent writes and removals into a single commit
+	 *
+	 * @return Whether JDBC group commit is enabled
+	 */
+	public boolean isJdbcGroupCommit();
+
+	/**
+	 * Get the maximum number of operations in a JDBC group commit
+	 *
+	 * @return The maximum batch size
+	 */
+	public int getJdbcGroupCommitBatchSize();
+
+	/**
+	 * Should the store keep an in memory index of the Uids present for each type
+	 *
+	 * @return Whether change tracking is enabled
+	 */
+	public boolean isChangeTracking();
+
 }
\ No newline at end of file
@@ -42,6 +42,9 @@ public class RecoveryEnvironmentBean implements RecoveryEnvironmentBeanMBean {
     private volatile boolean waitForWorkLeftToDo = false;
     private volatile boolean waitForHeuristicDuringSuspension = false;
 
+    private volatile int recoveryReplayThreads = 1;
+    private volatile int recoveryReplayEndpointConcurrency = 0;
+
     @ConcatenationPrefix(prefix = "com.arjuna.ats.arjuna.recovery.expiryScanner")
     private volatile List<String> expiryScannerClassNames = new ArrayList<String>();
     private volatile List<ExpiryScanner> expiryScanners = null;
@@ -593,4 +596,51 @@ public class RecoveryEnvironmentBean implements RecoveryEnvironmentBeanMBean {
     public void setWaitForHeuristicDuringSuspension(boolean waitForHeuristicDuringSuspension) {
         this.waitForHeuristicDuringSuspension = waitForHeuristicDuringSuspension;
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the number of threads the AtomicActionRecoveryModule uses to replay
+     * the second phase of the transactions it finds in a recovery pass. With a
+     * single thread the transactions are replayed one after another on the
+     * recovery thread.
+     * <p>
+     * Default: 1
+     *
+     * @return the number of replay threads.
+     */
+    public int getRecoveryReplayThreads() {
+        return recoveryReplayThreads;
+    }
+
+    /**
+     * Sets the number of threads used to replay transactions during recovery.
+     *
+     * @param recoveryReplayThreads the number of replay threads.
+     */
+    public void setRecoveryReplayThreads(int recoveryReplayThreads) {
+        this.recoveryReplayThreads = recoveryReplayThreads;
+    }
+
+    /**
+     * Returns the maximum number of transactions which may be replayed at the
+     * same time against any one participant endpoint, as identified by
+     * {@link com.arjuna.ats.arjuna.coordinator.AbstractRecord#getRecoveryEndpoint()},
+     * when transactions are replayed by more than one thread.
+     * <p>
+     * Default: 0 (no limit)
+     *
+     * @return the maximum number of concurrent replays per endpoint, or 0 for no limit.
+     */
+    public int getRecoveryReplayEndpointConcurrency() {
+        return recoveryReplayEndpointConcurrency;
+    }
+
+    /**
+     * Sets the maximum number of transactions replayed at the same time against
+     * any one participant endpoint.
+     *
+     * @param recoveryReplayEndpointConcurrency the maximum number of concurrent replays per endpoint, or 0 for no limit.
+     */
+    public void setRecoveryReplayEndpointConcurrency(int recoveryReplayEndpointConcurrency) {
+        this.recoveryReplayEndpointConcurrency = recoveryReplayEndpointConcurrency;
+    }
+}
@@ -41,4 +41,8 @@ public interface RecoveryEnvironmentBeanMBean
 
     @Deprecated(forRemoval = true)
     boolean isWaitForWorkLeftToDo();
+
+    int getRecoveryReplayThreads();
+
+    int getRecoveryReplayEndpointConcurrency();
 }
\ No newline at end of file
@@ -423,6 +423,21 @@ public abstract class AbstractRecord extends StateManager
 	    return true;
 	}
 
+	/**
+	 * Identify the endpoint, such as a resource manager, which this record
+	 * contacts in order to complete. When transactions are replayed in
+	 * parallel by recovery, the number replaying against the same endpoint
+	 * at once may be limited. When statistics are enabled the participants
+	 * of each endpoint are also timed apart, see {@link TxStats}.
+	 *
+	 * @return an identifier for the endpoint, or <code>null</code> if it is
+	 *         not known. Replay is not limited for records which return
+	 *         <code>null</code>, which is the default.
+	 */
+	public String getRecoveryEndpoint() {
+	    return null;
+	}
+
 	/**
 	 * Perform a top-level one phase commit.
 	 *
@@ -529,6 +544,23 @@ public abstract class AbstractRecord extends StateManager
 
 	public abstract boolean shouldReplace (AbstractRecord a);
 
+	/**
+	 * Is the position of this record in the intentions list determined by its
+	 * ordering alone, i.e., do shouldAdd, shouldAlter, shouldMerge and
+	 * shouldReplace always return <code>false</code> whatever record is
+	 * presented? If so a long list can locate the insertion point by a binary
+	 * search rather than by presenting the record to every entry in turn.
+	 *
+	 * Only override this if it also holds for every subclass.
+	 *
+	 * @return <code>false</code> by default.
+	 */
+
+	public boolean orderedInsertOnly ()
+	{
+		return false;
+	}
+
 	/**
 	 * The current record is about to replace the one presented. This method is
 	 * invoked to give the current record a chance to copy information, for
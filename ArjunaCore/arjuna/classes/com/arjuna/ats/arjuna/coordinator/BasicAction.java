@@ -1528,7 +1528,8 @@ public class BasicAction extends StateManager
                 return Abort();
             }
 
-            Long startTime = TxStats.enabled() ? System.nanoTime() : null;
+            boolean timed = TxStats.enabled();
+            long startTime = timed ? System.nanoTime() : 0L;
 
             if (pendingList != null)
             {
@@ -1585,7 +1586,7 @@ public class BasicAction extends StateManager
                 {
                     if (heuristicDecision != TwoPhaseOutcome.HEURISTIC_ROLLBACK)
                     {
-                        if (startTime == null)
+                        if (!timed)
                             TxStats.getInstance().incrementCommittedTransactions(0L);
                         else
                             TxStats.getInstance().incrementCommittedTransactions(System.nanoTime() - startTime);
@@ -1723,6 +1724,9 @@ public class BasicAction extends StateManager
 
             checkChildren(false);
 
+            boolean timed = TxStats.enabled();
+            long startTime = timed ? System.nanoTime() : 0L;
+
             if (pendingList != null)
             {
                 actionStatus = ActionStatus.ABORTING;
@@ -1748,6 +1752,9 @@ public class BasicAction extends StateManager
 
                 if (applicationAbort)
                     TxStats.getInstance().incrementApplicationRollbacks();
+
+                if (timed)
+                    TxStats.getInstance().recordRollbackTime(System.nanoTime() - startTime);
             }
 
             return actionStatus;
@@ -1925,7 +1932,8 @@ public class BasicAction extends StateManager
             }
             else
             {
-                Long startTime = TxStats.enabled() ? System.nanoTime() : null;
+                boolean timed = TxStats.enabled();
+                long startTime = timed ? System.nanoTime() : 0L;
 
                 criticalStart();
 
@@ -2001,11 +2009,14 @@ public class BasicAction extends StateManager
                 if (TxStats.enabled()) {
                     if (heuristicDecision != TwoPhaseOutcome.HEURISTIC_ROLLBACK) {
                         // NB statistics monitoring could have been dynamically enabled after starting this transaction
-                        if (startTime == null)
+                        if (!timed)
                             TxStats.getInstance().incrementCommittedTransactions(0L);
                         else
                             TxStats.getInstance().incrementCommittedTransactions(System.nanoTime() - startTime);
                     }
+
+                    if (timed)
+                        TxStats.getInstance().recordPhase2CommitTime(System.nanoTime() - startTime);
                 }
 
             }
@@ -2053,6 +2064,9 @@ public class BasicAction extends StateManager
                         + get_uid());
             }
 
+            boolean timed = TxStats.enabled();
+            long startTime = timed ? System.nanoTime() : 0L;
+
             criticalStart();
 
             actionStatus = ActionStatus.ABORTING;
@@ -2101,6 +2115,9 @@ public class BasicAction extends StateManager
                 else
                     TxStats.getInstance().incrementResourceRollbacks();
                 TxStats.getInstance().incrementAbortedTransactions();
+
+                if (timed)
+                    TxStats.getInstance().recordRollbackTime(System.nanoTime() - startTime);
             }
         } finally {
             synchronizationLock.unlock();
@@ -2195,6 +2212,9 @@ public class BasicAction extends StateManager
     {
         synchronizationLock.lock();
 
+        boolean timed = TxStats.enabled();
+        long startTime = timed ? System.nanoTime() : 0L;
+
         try {
             if (tsLogger.logger.isTraceEnabled()) {
                 tsLogger.logger.trace("BasicAction::prepare () for action-id "
@@ -2416,7 +2436,7 @@ public class BasicAction extends StateManager
                 {
                     try
                     {
-                        if (!transactionStore.write_committed(u, tn, state)) {
+                        if (!writeIntentionList(u, tn, state)) {
                             tsLogger.i18NLogger.warn_coordinator_BasicAction_46(get_uid());
 
                             criticalEnd();
@@ -2446,6 +2466,9 @@ public class BasicAction extends StateManager
             else
                 return TwoPhaseOutcome.PREPARE_OK;
         } finally {
+            if (timed && TxStats.enabled())
+                TxStats.getInstance().recordPrepareTime(System.nanoTime() - startTime);
+
             synchronizationLock.unlock();
         }
     }
@@ -2481,7 +2504,8 @@ public class BasicAction extends StateManager
             return;
         }
 
-        Long startTime = TxStats.enabled() ? System.nanoTime() : null;
+        boolean timed = TxStats.enabled();
+        long startTime = timed ? System.nanoTime() : 0L;
 
         actionStatus = ActionStatus.COMMITTING;
 
@@ -2503,9 +2527,15 @@ public class BasicAction extends StateManager
 
         recordBeingHandled = pendingList.getFront();
 
+        boolean recordTimed = TxStats.enabled();
+        long recordStartTime = recordTimed ? System.nanoTime() : 0L;
+
         int p = ((actionType == ActionType.TOP_LEVEL) ? recordBeingHandled.topLevelOnePhaseCommit()
                 : recordBeingHandled.nestedOnePhaseCommit());
 
+        if (recordTimed)
+            TxStats.getInstance().recordParticipantCommitTime(recordBeingHandled, System.nanoTime() - recordStartTime);
+
         if ((p == TwoPhaseOutcome.FINISH_OK)
                 || (p == TwoPhaseOutcome.PREPARE_READONLY))
         {
@@ -2631,7 +2661,7 @@ public class BasicAction extends StateManager
             if (actionStatus == ActionStatus.ABORTED) {
                 TxStats.getInstance().incrementAbortedTransactions();
             } else {
-                if (startTime == null)
+                if (!timed)
                     TxStats.getInstance().incrementCommittedTransactions(0L);
                 else
                     TxStats.getInstance().incrementCommittedTransactions(System.nanoTime() - startTime);
@@ -2828,10 +2858,15 @@ public class BasicAction extends StateManager
          */
 
         int p = TwoPhaseOutcome.PREPARE_NOTOK;
+        boolean timed = TxStats.enabled();
+        long startTime = timed ? System.nanoTime() : 0L;
 
         p = ((actionType == ActionType.TOP_LEVEL) ? record.topLevelPrepare()
                 : record.nestedPrepare());
 
+        if (timed)
+            TxStats.getInstance().recordParticipantPrepareTime(record, System.nanoTime() - startTime);
+
         if (tsLogger.logger.isTraceEnabled()) {
             tsLogger.logger.tracef(
                     "BasicAction::doPrepare() result for action-id (%s) on record id: (%s) is (%s) node id: (%s)",
@@ -3069,7 +3104,15 @@ public class BasicAction extends StateManager
         {
             if (actionType == ActionType.TOP_LEVEL)
             {
-                if ((ok = recordBeingHandled.topLevelCommit()) == TwoPhaseOutcome.FINISH_OK)
+                boolean timed = TxStats.enabled();
+                long startTime = timed ? System.nanoTime() : 0L;
+
+                ok = recordBeingHandled.topLevelCommit();
+
+                if (timed)
+                    TxStats.getInstance().recordParticipantCommitTime(recordBeingHandled, System.nanoTime() - startTime);
+
+                if (ok == TwoPhaseOutcome.FINISH_OK)
                 {
                     /*
                      * Record successfully committed, we can delete it now.
@@ -3199,11 +3242,17 @@ public class BasicAction extends StateManager
 
         if (recordBeingHandled != null)
         {
+            boolean timed = TxStats.enabled();
+            long startTime = timed ? System.nanoTime() : 0L;
+
             if (actionType == ActionType.TOP_LEVEL)
                 ok = recordBeingHandled.topLevelAbort();
             else
                 ok = recordBeingHandled.nestedAbort();
 
+            if (timed)
+                TxStats.getInstance().recordParticipantRollbackTime(recordBeingHandled, System.nanoTime() - startTime);
+
             if ((actionType != ActionType.TOP_LEVEL)
                     && (recordBeingHandled.propagateOnAbort()))
             {
@@ -3403,6 +3452,24 @@ public class BasicAction extends StateManager
         }
     }
 
+    /**
+     * Write the intentions list to the log, timing the write if statistics are enabled.
+     */
+
+    private boolean writeIntentionList (Uid u, String tn, OutputObjectState state) throws ObjectStoreException
+    {
+        if (!TxStats.enabled())
+            return transactionStore.write_committed(u, tn, state);
+
+        long startTime = System.nanoTime();
+
+        try {
+            return transactionStore.write_committed(u, tn, state);
+        } finally {
+            TxStats.getInstance().recordLogWriteTime(System.nanoTime() - startTime);
+        }
+    }
+
     protected void updateState ()
     {
         if (tsLogger.logger.isTraceEnabled()) {
@@ -3457,7 +3524,7 @@ public class BasicAction extends StateManager
                 {
                     try
                     {
-                        if (!transactionStore.write_committed(u, tn, state)) {
+                        if (!writeIntentionList(u, tn, state)) {
                             tsLogger.i18NLogger.warn_coordinator_BasicAction_65();
                         }
                     }
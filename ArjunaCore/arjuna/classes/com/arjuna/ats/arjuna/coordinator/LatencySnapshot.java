@@ -0,0 +1,97 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+package com.arjuna.ats.arjuna.coordinator;
+
+import com.arjuna.ats.arjuna.coordinator.internal.LatencyHistogram;
+
+/**
+ * A point in time copy of one of the latency histograms kept by {@link TxStats}.
+ * All values are in nanoseconds. Percentiles are accurate to within one histogram
+ * bucket, that is to within 1/{@value LatencyHistogram#SUB_BUCKETS} of the value.
+ */
+public class LatencySnapshot
+{
+    private final long[] counts;
+    private final long count;
+    private final long total;
+    private final long max;
+
+    public LatencySnapshot(long[] counts, long total, long max)
+    {
+        long count = 0;
+
+        for (long c : counts)
+            count += c;
+
+        this.counts = counts;
+        this.count = count;
+        this.total = total;
+        this.max = max;
+    }
+
+    /**
+     * @return the number of values recorded
+     */
+    public long getCount()
+    {
+        return count;
+    }
+
+    /**
+     * @return the sum of all of the values recorded
+     */
+    public long getTotal()
+    {
+        return total;
+    }
+
+    /**
+     * @return the mean of the values recorded, or 0 if there are none
+     */
+    public long getMean()
+    {
+        return (count == 0) ? 0 : total / count;
+    }
+
+    /**
+     * @return the largest value recorded, or 0 if there are none
+     */
+    public long getMax()
+    {
+        return max;
+    }
+
+    /**
+     * Return the value below which the given percentage of the recorded values fall.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the highest value equivalent to the percentile, or 0 if nothing has been recorded
+     */
+    public long getValueAtPercentile(double percentile)
+    {
+        if (count == 0)
+            return 0;
+
+        double p = Math.min(Math.max(percentile, 0.0), 100.0);
+        long rank = Math.max(1, (long) Math.ceil(p / 100.0 * count));
+        long seen = 0;
+
+        for (int i = 0; i < counts.length; i++)
+        {
+            seen += counts[i];
+
+            if (seen >= rank)
+                return Math.min(LatencyHistogram.bucketUpperBound(i), max);
+        }
+
+        return max;
+    }
+
+    public String toString()
+    {
+        return "count=" + count + " mean=" + getMean() + " p50=" + getValueAtPercentile(50)
+                + " p99=" + getValueAtPercentile(99) + " p99.9=" + getValueAtPercentile(99.9) + " max=" + max;
+    }
+}
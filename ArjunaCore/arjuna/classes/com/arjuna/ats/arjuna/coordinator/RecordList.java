@@ -5,6 +5,8 @@
 package com.arjuna.ats.arjuna.coordinator;
 
 import java.io.PrintWriter;
+import java.util.Comparator;
+import java.util.TreeMap;
 
 import com.arjuna.ats.arjuna.logging.tsLogger;
 
@@ -22,6 +24,12 @@ import com.arjuna.ats.arjuna.logging.tsLogger;
  * instances of this class are only used from within synchronized classes.
  * Applications should not use this class.
  * 
+ * Walking the list makes enlisting N records O(N^2). So while every record in
+ * the list is positioned by its ordering alone (see
+ * AbstractRecord.orderedInsertOnly) and the list is strictly increasing, a
+ * long list also maintains an ordered index of its records and a new record of
+ * the same kind finds its place with a binary search of the index instead.
+ * 
  * @author Mark Little (mark@arjuna.com)
  * @version $Id: RecordList.java 2342 2006-03-30 13:06:17Z $
  * @since JTS 1.0.
@@ -42,6 +50,7 @@ public class RecordList
         listHead = copy.listHead;
         listTail = copy.listTail;
         noEntries = copy.noEntries;
+        ordered = copy.ordered;
     }
 
     /**
@@ -68,6 +77,9 @@ public class RecordList
             noEntries--;
         }
 
+        if (temp != null)
+            unlinked(temp);
+
         return temp;
     }
 
@@ -94,6 +106,9 @@ public class RecordList
             noEntries--;
         }
 
+        if (temp != null)
+            unlinked(temp);
+
         return temp;
     }
 
@@ -113,6 +128,9 @@ public class RecordList
 
     public final boolean insert (AbstractRecord newRecord)
     {
+        if (ordered && (noEntries >= INDEX_THRESHOLD) && newRecord.orderedInsertOnly())
+            return indexedInsert(newRecord);
+
         /* Do the insert starting at the head of the list */
         return insert(newRecord, listHead);
     }
@@ -149,6 +167,8 @@ public class RecordList
         }
 
         noEntries++;
+
+        linked(newRecord);
     }
 
     /**
@@ -172,6 +192,8 @@ public class RecordList
         }
 
         noEntries++;
+
+        linked(newRecord);
     }
 
     public final AbstractRecord peekFront ()
@@ -202,6 +224,8 @@ public class RecordList
         {
             listHead = listTail = null;
             noEntries = 0;
+
+            unlinked(oldRecord);
         }
         else if (noEntries > 1)
         {
@@ -239,6 +263,8 @@ public class RecordList
             }
 
             noEntries--;
+
+            unlinked(oldRecord);
         }
 
         return true;
@@ -414,6 +440,8 @@ public class RecordList
             listHead = newRecord;
 
         noEntries++;
+
+        linked(newRecord);
     }
 
     private final void replace (AbstractRecord newRecord,
@@ -432,13 +460,135 @@ public class RecordList
         else
             listTail = newRecord;
 
+        if ((index != null) && (index.remove(oldRecord) != oldRecord))
+            index = null;
+
+        linked(newRecord);
+
         oldRecord = null;
     }
 
+    /**
+     * Insert a record which is positioned by its ordering alone using the
+     * index. This is the first step of the algorithm described for 'insert'
+     * applied to the first record which is not less than the new one: every
+     * record before that point is less than the new record, so the walk would
+     * have stepped over it, and since the list is strictly increasing it
+     * cannot be equal to any later record.
+     */
+
+    private final boolean indexedInsert (AbstractRecord newRecord)
+    {
+        if (index == null)
+        {
+            index = new TreeMap<AbstractRecord, AbstractRecord>(ORDERING);
+
+            for (AbstractRecord rec = listHead; rec != null; rec = rec.getNext())
+                index.put(rec, rec);
+        }
+
+        AbstractRecord current = index.ceilingKey(newRecord);
+
+        if (current == null)
+        {
+            if (tsLogger.logger.isTraceEnabled()) {
+                tsLogger.logger.trace("RecordList::insert("+this+") : appending "+newRecord.type()+" for "+newRecord.order());
+            }
+
+            putRear(newRecord);
+        }
+        else
+        {
+            if (newRecord.equals(current))
+                return false;
+
+            if (tsLogger.logger.isTraceEnabled()) {
+                tsLogger.logger.trace("RecordList::insert("+this+") : inserting "+
+                        newRecord.type()+" for "+newRecord.order()+" before "+current.type());
+            }
+
+            insertBefore(newRecord, current);
+        }
+
+        return true;
+    }
+
+    /**
+     * The record has been chained into the list. Check that the list is still
+     * strictly increasing and made up only of records positioned by their
+     * ordering, and if so add it to the index.
+     */
+
+    private final void linked (AbstractRecord rec)
+    {
+        if (ordered)
+        {
+            AbstractRecord prev = rec.getPrevious();
+            AbstractRecord next = rec.getNext();
+
+            if (!rec.orderedInsertOnly() || ((prev != null) && !precedes(prev, rec)) ||
+                    ((next != null) && !precedes(rec, next)))
+            {
+                ordered = false;
+
+                index = null;
+            }
+            else if (index != null)
+                index.put(rec, rec);
+        }
+    }
+
+    /**
+     * The record has been removed from the list. Removal leaves an increasing
+     * list increasing, and an empty one can start again.
+     */
+
+    private final void unlinked (AbstractRecord rec)
+    {
+        if (noEntries == 0)
+        {
+            ordered = true;
+
+            index = null;
+        }
+        else if ((index != null) && (index.remove(rec) != rec))
+        {
+            ordered = false;
+
+            index = null;
+        }
+    }
+
+    private static final boolean precedes (AbstractRecord first, AbstractRecord second)
+    {
+        return (first.order() != null) && (second.order() != null) && first.lessThan(second);
+    }
+
+    /*
+     * Uid ordering is only partial, e.g., Uids from different hosts may not be
+     * comparable. The records in the index always form a strictly increasing
+     * chain so are totally ordered amongst themselves, and a record being
+     * looked up is only ever compared against them as either equal, less
+     * than, or otherwise "after", which is monotonic along the chain, so the
+     * search finds the same record as walking the list would.
+     */
+
+    private static final Comparator<AbstractRecord> ORDERING = (r1, r2) -> r1.equals(r2) ? 0 : (r1.lessThan(r2) ? -1 : 1);
+
+    /*
+     * Shorter lists are just walked.
+     */
+
+    private static final int INDEX_THRESHOLD = 16;
+
     protected AbstractRecord listHead;
 
     private AbstractRecord listTail;
 
     private int noEntries;
 
+    private boolean ordered = true;
+
+    private TreeMap<AbstractRecord, AbstractRecord> index;
+
 }
\ No newline at end of file
@@ -10,13 +10,17 @@ import java.util.Vector;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 import com.arjuna.ats.arjuna.common.arjPropertyManager;
 import com.arjuna.ats.arjuna.coordinator.listener.ReaperMonitor;
 import com.arjuna.ats.arjuna.logging.tsLogger;
 import com.arjuna.ats.internal.arjuna.coordinator.ReaperElement;
 import com.arjuna.ats.internal.arjuna.coordinator.ReaperElementManager;
+import com.arjuna.ats.internal.arjuna.coordinator.ReaperElementQueue;
 import com.arjuna.ats.internal.arjuna.coordinator.ReaperThread;
+import com.arjuna.ats.internal.arjuna.coordinator.ReaperTimingWheel;
 import com.arjuna.ats.internal.arjuna.coordinator.ReaperWorkerThread;
 
 /**
@@ -38,14 +42,21 @@ public class TransactionReaper
 
     public static final String PERIODIC = "PERIODIC"; // the new name for 'NORMAL'
 
-    private TransactionReaper(long checkPeriod)
+    /**
+     * As DYNAMIC, but transactions are tracked in a hierarchical timing wheel so
+     * that inserts and removes on begin and end do not contend with each other.
+     */
+    public static final String TIMING_WHEEL = "TIMING_WHEEL";
+
+    private TransactionReaper(long checkPeriod, ReaperElementQueue reaperElements)
     {
         if (tsLogger.logger.isTraceEnabled()) {
             tsLogger.logger.trace("TransactionReaper::TransactionReaper ( " + checkPeriod
-                    + " )");
+                    + ", " + reaperElements.getClass().getName() + " )");
         }
 
         _checkPeriod = checkPeriod;
+        _reaperElements = reaperElements;
     }
 
     public final long checkingPeriod()
@@ -178,9 +189,12 @@ public class TransactionReaper
                         // thread to process and then make sure a worker
                         // thread is awake
 
-                        synchronized(_workQueue) {
+                        _workQueueLock.lock();
+                        try {
                             _workQueue.add(reaperElement);
-                            _workQueue.notifyAll();
+                            _workAvailable.signalAll();
+                        } finally {
+                            _workQueueLock.unlock();
                         }
                     }
                     break;
@@ -256,7 +270,6 @@ public class TransactionReaper
                         }
 
                         _reaperWorkerThread = new ReaperWorkerThread(TransactionReaper._theReaper);
-                        _reaperWorkerThread.setDaemon(true);
 
                         _reaperWorkerThread.start();
 
@@ -327,32 +340,41 @@ public class TransactionReaper
     // runs on the ReaperWorkerThread
     public final void waitForWork()
     {
-        synchronized (_workQueue) {
-            try {
-                while (_workQueue.isEmpty()) {
-                    _workQueue.wait();
-                }
-            }
-            catch (InterruptedException e) {
+        _workQueueLock.lock();
+        try {
+            while (_workQueue.isEmpty()) {
+                _workAvailable.await();
             }
         }
+        catch (InterruptedException e) {
+        }
+        finally {
+            _workQueueLock.unlock();
+        }
     }
 
-    // runs on the ReaperWorkerThread
-    public final void doWork()
+    /**
+     * runs on the ReaperWorkerThread
+     *
+     * @return true if the reaper gave up on the calling worker while it was
+     * wedged under a cancel, in which case the worker must exit
+     */
+    public final boolean doWork()
     {
         for (; ;) {
             ReaperElement e;
 
             // see if we have any work to process
 
-            synchronized (_workQueue) {
-                try {
-                    e = _workQueue.remove(0);
-                }
-                catch (IndexOutOfBoundsException ioobe) {
-                    break;
-                }
+            _workQueueLock.lock();
+            try {
+                e = _workQueue.remove(0);
+            }
+            catch (IndexOutOfBoundsException ioobe) {
+                break;
+            }
+            finally {
+                _workQueueLock.unlock();
             }
 
             // perhaps we're just taking a thread snapshot, not cancelling the tx
@@ -367,7 +389,7 @@ public class TransactionReaper
                     e._status = ReaperElement.RUN;
                 }
 
-                return; // the reaper re-queued the element already, so we don't have to.
+                return false; // the reaper re-queued the element already, so we don't have to.
             }
 
             // ok, if we get here current status must be SCHEDULE_CANCEL.
@@ -430,9 +452,6 @@ public class TransactionReaper
                     // transactions list and started another
                     // worker thread.
 
-                    ReaperWorkerThread worker = (ReaperWorkerThread) Thread.currentThread();
-                    worker.shutdown();
-
                     synchronized(this) {
                         _zombieCount--;
                     }
@@ -440,11 +459,9 @@ public class TransactionReaper
                     tsLogger.i18NLogger.warn_coordinator_TransactionReaper_13(Thread.currentThread().toString(),
                             e._control.get_uid(), Integer.toString(_zombieCount));
 
-                    // this gets us out of the for(;;) loop and
-                    // the shutdown call above makes sure we exit
-                    // after returning
+                    // tell the worker to exit after returning
 
-                    break;
+                    return true;
                 } else if (cancelled &&
                         e._status == ReaperElement.CANCEL_INTERRUPTED) {
                     // ok the call to cancel() returned true but
@@ -501,6 +518,8 @@ public class TransactionReaper
 
             removeElementReaper(e);
         }
+
+        return false;
     }
 
     /**
@@ -741,11 +760,14 @@ public class TransactionReaper
 
         // the reaper worker thread synchronizes and wais on the work queue
 
-        synchronized (_workQueue) {
+        _workQueueLock.lock();
+        try {
             _reaperWorkerThread.shutdown();
-            _workQueue.notifyAll();
+            _workAvailable.signalAll();
             // hmm, not sure we really need to do this but . . .
             _reaperWorkerThread.interrupt();
+        } finally {
+            _workQueueLock.unlock();
         }
 
         try {
@@ -866,11 +888,19 @@ public class TransactionReaper
                 tsLogger.i18NLogger.warn_coordinator_TransactionReaper_19();
             }
 
+            ReaperElementQueue reaperElements;
+
+            if (mode.compareTo(TransactionReaper.TIMING_WHEEL) == 0) {
+                reaperElements = new ReaperTimingWheel();
+            } else {
+                reaperElements = new ReaperElementManager();
+            }
+
             long checkPeriod = Long.MAX_VALUE;
             if (!TransactionReaper._dynamic) {
                 checkPeriod = arjPropertyManager.getCoordinatorEnvironmentBean().getTxReaperTimeout();
             }
-            TransactionReaper._theReaper = new TransactionReaper(checkPeriod);
+            TransactionReaper._theReaper = new TransactionReaper(checkPeriod, reaperElements);
 
             TransactionReaper._theReaper._cancelWaitPeriod = arjPropertyManager.getCoordinatorEnvironmentBean().getTxReaperCancelWaitPeriod();
 
@@ -909,7 +939,6 @@ public class TransactionReaper
             _reaperThread.setDaemon(true);
 
             _reaperWorkerThread = new ReaperWorkerThread(TransactionReaper._theReaper);
-            _reaperWorkerThread.setDaemon(true);
 
             _reaperThread.start();
 
@@ -975,7 +1004,7 @@ public class TransactionReaper
         _theReaper = null;
     }
 
-    private final ReaperElementManager _reaperElements = new ReaperElementManager();
+    private final ReaperElementQueue _reaperElements;
 
     // The keys are actually Reapable, as that's what insert takes. However, some functions use get(Object)
     // and rely on clever hashcode/equals behaviour, especially for the JTS. Thus the generics key type is Object.
@@ -983,6 +1012,11 @@ public class TransactionReaper
 
     private final List<ReaperElement> _workQueue = new LinkedList<ReaperElement>();
 
+    // the worker may be a virtual thread so it waits for work on a j.u.c lock rather than a
+    // monitor, otherwise an idle worker would stay pinned to its carrier thread on JDK 21 to 23
+    private final ReentrantLock _workQueueLock = new ReentrantLock();
+    private final Condition _workAvailable = _workQueueLock.newCondition();
+
     private final Vector<ReaperMonitor> _listeners = new Vector<ReaperMonitor>(); // TODO sync properly
 
     private long _checkPeriod = 0;
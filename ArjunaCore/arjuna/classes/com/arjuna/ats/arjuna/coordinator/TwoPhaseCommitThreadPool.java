@@ -50,6 +50,22 @@ public class TwoPhaseCommitThreadPool {
         executor.submit(job);
     }
 
+    /**
+     * Create, but do not start, a daemon thread for long running coordinator work that is not
+     * suited to the pooled executor, such as the transaction reaper worker.
+     *
+     * @param task the work the thread will run
+     * @param name the name to give the thread
+     * @return the unstarted thread
+     */
+    public static Thread newThread(Runnable task, String name) {
+        Thread thread = new Thread(task, name);
+
+        thread.setDaemon(true);
+
+        return thread;
+    }
+
     public static CompletionService<Boolean> getNewCompletionService() {
         return new ExecutorCompletionService<Boolean>(executor);
     }
@@ -4,17 +4,36 @@
  */
 package com.arjuna.ats.arjuna.coordinator;
 
-import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 import com.arjuna.ats.arjuna.common.CoordinatorEnvironmentBean;
 import com.arjuna.ats.arjuna.common.arjPropertyManager;
-import com.arjuna.ats.arjuna.coordinator.internal.TxCommitStatistic;
+import com.arjuna.ats.arjuna.coordinator.internal.LatencyHistogram;
+import com.arjuna.ats.arjuna.logging.tsLogger;
 
 /**
  * This class is used to maintain statistics on transactions that have been
  * created. This includes the number of transactions, their termination status
  * (committed or rolled back), ...
+ * <p>
+ * Counters are {@link LongAdder}s and latencies are recorded into
+ * {@link LatencyHistogram}s, so recording does not make concurrently
+ * completing transactions contend with each other. The latencies kept are
+ * named by the <code>*_TIME</code> constants, plus a prepare, commit and
+ * rollback latency for each kind of participant, named by
+ * {@link #participantMetricName(String, String)}. Participants which know
+ * their {@link AbstractRecord#getRecoveryEndpoint() endpoint}, such as XA
+ * resource managers, are kept apart by endpoint, named by
+ * {@link #participantMetricName(String, String, String)}, up to
+ * {@link #MAX_PARTICIPANT_ENDPOINTS} endpoints for each kind of participant.
  * 
  * @author Mark Little (mark@arjuna.com)
  * @version $Id: TxStats.java 2342 2006-03-30 13:06:17Z $
@@ -23,11 +42,48 @@ import com.arjuna.ats.arjuna.coordinator.internal.TxCommitStatistic;
 
 public class TxStats implements TxStatsMBean
 {
+    /**
+     * Time taken by a transaction from the request to commit until it has committed.
+     */
+    public static final String COMMIT_TIME = "commit";
+
+    /**
+     * Time taken by the first (prepare) phase of two phase commit.
+     */
+    public static final String PREPARE_TIME = "prepare";
+
+    /**
+     * Time taken by the second phase of two phase commit for committing transactions.
+     */
+    public static final String PHASE2_COMMIT_TIME = "phase2-commit";
+
+    /**
+     * Time taken to roll back the participants of an aborting transaction.
+     */
+    public static final String ROLLBACK_TIME = "rollback";
+
+    /**
+     * Time taken to write the transaction log to the object store.
+     */
+    public static final String LOG_WRITE_TIME = "log-write";
+
+    /**
+     * The number of endpoints whose participants are timed apart for each kind
+     * of participant. Participants of any further endpoints are timed together
+     * with those which do not know their endpoint.
+     */
+    public static final int MAX_PARTICIPANT_ENDPOINTS = 64;
+
     private static TxStats _instance = new TxStats();
 
     private static CoordinatorEnvironmentBean _environmentBean;
 
     private TxStats() {
+        latencies.put(COMMIT_TIME, commitTime);
+        latencies.put(PREPARE_TIME, prepareTime);
+        latencies.put(PHASE2_COMMIT_TIME, phase2CommitTime);
+        latencies.put(ROLLBACK_TIME, rollbackTime);
+        latencies.put(LOG_WRITE_TIME, logWriteTime);
     }
 
     public static boolean enabled() {
@@ -39,6 +95,9 @@ public class TxStats implements TxStatsMBean
     }
 
     public static TxStats getInstance() {
+        if (!_instance.exportersStarted)
+            _instance.startExporters();
+
         return _instance;
     }
 
@@ -47,7 +106,7 @@ public class TxStats implements TxStatsMBean
 	 */
 	public long getNumberOfTransactions()
 	{
-        return numberOfTransactions.longValue();
+        return numberOfTransactions.sum();
 	}
     
     /**
@@ -55,7 +114,7 @@ public class TxStats implements TxStatsMBean
 	 */
 	public long getNumberOfNestedTransactions()
 	{
-        return numberOfNestedTransactions.longValue();
+        return numberOfNestedTransactions.sum();
 	}
 
 	/**
@@ -64,7 +123,7 @@ public class TxStats implements TxStatsMBean
 	 */
 	public long getNumberOfHeuristics()
 	{
-        return numberOfHeuristics.get();
+        return numberOfHeuristics.sum();
 	}
 
 	/**
@@ -72,14 +131,16 @@ public class TxStats implements TxStatsMBean
 	 */
 	public long getNumberOfCommittedTransactions()
 	{
-        return commitStatistic.get().getNumberOfCommittedTransactions();
+        return numberOfCommittedTransactions.sum();
 	}
 
 	/**
 	 * @return the average time, in nanoseconds, it has taken to commit a transaction.
 	 */
 	public long getAverageCommitTime() {
-		return commitStatistic.get().getAverageCommitTime();
+		long committed = numberOfCommittedTransactions.sum();
+
+		return (committed == 0) ? 0 : totalCommitTime.sum() / committed;
 	}
 
 	/**
@@ -87,7 +148,7 @@ public class TxStats implements TxStatsMBean
 	 */
 	public long getNumberOfAbortedTransactions()
 	{
-        return numberOfAbortedTransactions.get();
+        return numberOfAbortedTransactions.sum();
 	}
 	
 	/**
@@ -103,7 +164,7 @@ public class TxStats implements TxStatsMBean
 	 */
 	public long getNumberOfTimedOutTransactions()
 	{
-        return numberOfTimeouts.get();
+        return numberOfTimeouts.sum();
 	}
 	
 	/**
@@ -111,7 +172,7 @@ public class TxStats implements TxStatsMBean
 	 */
 	public long getNumberOfApplicationRollbacks()
 	{
-        return numberOfApplicationAborts.get();
+        return numberOfApplicationAborts.sum();
 	}
 
 	/**
@@ -120,7 +181,7 @@ public class TxStats implements TxStatsMBean
 	 */
 	public long getNumberOfSystemRollbacks()
 	{
-		return numberOfSystemAborts.get();
+		return numberOfSystemAborts.sum();
 	}
 
 	/**
@@ -128,7 +189,7 @@ public class TxStats implements TxStatsMBean
 	 */
 	public long getNumberOfResourceRollbacks()
 	{
-        return numberOfResourceAborts.get();
+        return numberOfResourceAborts.sum();
 	}
 
 	/**
@@ -160,21 +221,111 @@ public class TxStats implements TxStatsMBean
 				+ getNumberOfResourceRollbacks());
 		pw.println("Average time (in nanosecs) to commit a transaction: "
 				+ getAverageCommitTime());
+
+		for (Map.Entry<String, LatencySnapshot> latency : getLatencySnapshots().entrySet())
+			pw.println("Latency (in nanosecs) of " + latency.getKey() + ": " + latency.getValue());
+	}
+
+	/**
+	 * @return the names of the latency metrics recorded so far, in alphabetical order.
+	 */
+	public String[] getLatencyMetricNames()
+	{
+		return new TreeMap<String, LatencyHistogram>(latencies).keySet().toArray(new String[0]);
+	}
+
+	/**
+	 * @param metric the name of a latency metric
+	 * @return the number of latencies recorded for the metric, or -1 if there is no such metric.
+	 */
+	public long getLatencyCount(String metric)
+	{
+		LatencySnapshot snapshot = getLatencySnapshot(metric);
+
+		return (snapshot == null) ? -1 : snapshot.getCount();
+	}
+
+	/**
+	 * @param metric the name of a latency metric
+	 * @param percentile the percentile, between 0 and 100
+	 * @return the latency, in nanoseconds, at the percentile, or -1 if there is no such metric.
+	 */
+	public long getLatencyPercentile(String metric, double percentile)
+	{
+		LatencySnapshot snapshot = getLatencySnapshot(metric);
+
+		return (snapshot == null) ? -1 : snapshot.getValueAtPercentile(percentile);
+	}
+
+	/**
+	 * @param metric the name of a latency metric
+	 * @return a snapshot of the latencies recorded for the metric, or null if there is no such metric.
+	 */
+	public LatencySnapshot getLatencySnapshot(String metric)
+	{
+		LatencyHistogram histogram = (metric == null) ? null : latencies.get(metric);
+
+		return (histogram == null) ? null : histogram.snapshot();
+	}
+
+	/**
+	 * @return a snapshot of each of the latency metrics, keyed and ordered by metric name.
+	 */
+	public Map<String, LatencySnapshot> getLatencySnapshots()
+	{
+		Map<String, LatencySnapshot> snapshots = new TreeMap<String, LatencySnapshot>();
+
+		for (Map.Entry<String, LatencyHistogram> latency : latencies.entrySet())
+			snapshots.put(latency.getKey(), latency.getValue().snapshot());
+
+		return snapshots;
+	}
+
+	/**
+	 * Pass the current statistics to an exporter.
+	 *
+	 * @param exporter the exporter
+	 */
+	public void export(TxStatsExporter exporter)
+	{
+		exporter.export(this, getLatencySnapshots());
+	}
+
+	/**
+	 * @param participantType the class name of the participant's {@link AbstractRecord}
+	 * @param phase one of {@link #PREPARE_TIME}, {@link #COMMIT_TIME} or {@link #ROLLBACK_TIME}
+	 * @return the name of the metric for the time taken by participants of the type in the phase
+	 */
+	public static String participantMetricName(String participantType, String phase)
+	{
+		return "participant:" + participantType + ":" + phase;
+	}
+
+	/**
+	 * @param participantType the class name of the participant's {@link AbstractRecord}
+	 * @param endpoint the participant's {@link AbstractRecord#getRecoveryEndpoint() endpoint}
+	 * @param phase one of {@link #PREPARE_TIME}, {@link #COMMIT_TIME} or {@link #ROLLBACK_TIME}
+	 * @return the name of the metric for the time taken by participants of the type
+	 * at the endpoint in the phase
+	 */
+	public static String participantMetricName(String participantType, String endpoint, String phase)
+	{
+		return participantMetricName(participantType + "@" + endpoint, phase);
 	}
 
 	void incrementTransactions()
 	{
-        numberOfTransactions.incrementAndGet();
+        numberOfTransactions.increment();
 	}
 
 	void incrementNestedTransactions()
 	{
-        numberOfNestedTransactions.incrementAndGet();
+        numberOfNestedTransactions.increment();
 	}
 
 	void incrementAbortedTransactions()
 	{
-        numberOfAbortedTransactions.incrementAndGet();
+        numberOfAbortedTransactions.increment();
 	}
 
 	/**
@@ -186,74 +337,203 @@ public class TxStats implements TxStatsMBean
         incrementCommittedTransactions(0L);
 	}
 
-	/**
-	 * Calculate a moving average:
-	 *
-	 * @param duration the new datum for updating the average
-	 * @param prevCount the previous number of datums
-	 * @param prevAvg the average of the previous prevCount datums
-	 * @return the new average that includes the new datum according to the
-	 * standard formula:
-	 *   nextAvg = (duration  + prevCount * prevAvg) / (prevCount + 1)
-	 */
-	private long nextAverage(long duration, long prevCount, long prevAvg) {
-		long nCount = prevCount + 1;
-		double d1 = duration / nCount;
-		double d2 = (prevAvg / nCount) * prevCount;
-
-		return Math.round(d1 + d2);
-	}
-
 	/**
 	 * @param duration the time in nanoseconds it took for the 2PC phase to complete. The averaged commit
 	 *                   time is available by calling {@link #getAverageCommitTime()}
 	 */
 	void incrementCommittedTransactions(long duration) {
-		TxCommitStatistic prev, next;
-
-		do {
-			prev = commitStatistic.get();
-
-			long prevCount = prev.getNumberOfCommittedTransactions();
-			long nextAvg = nextAverage(duration, prevCount, prev.getAverageCommitTime());
+		numberOfCommittedTransactions.increment();
+		totalCommitTime.add(duration);
 
-			next = new TxCommitStatistic(prevCount + 1, nextAvg);
-		} while (!commitStatistic.compareAndSet(prev, next));
+		// a zero duration means the start was not timed because statistics were enabled part way through
+		if (duration > 0)
+			commitTime.record(duration);
 	}
 
 	void incrementHeuristics()
 	{
-        numberOfHeuristics.incrementAndGet();
+        numberOfHeuristics.increment();
 	}
 	
 	void incrementTimeouts ()
 	{
-        numberOfTimeouts.incrementAndGet();
+        numberOfTimeouts.increment();
 	}
 
 	void incrementApplicationRollbacks ()
 	{
-        numberOfApplicationAborts.incrementAndGet();
+        numberOfApplicationAborts.increment();
 	}
 
 	void incrementSystemRollbacks ()
 	{
-		numberOfSystemAborts.incrementAndGet();
+		numberOfSystemAborts.increment();
 	}
 
 	void incrementResourceRollbacks ()
 	{
-        numberOfResourceAborts.incrementAndGet();
+        numberOfResourceAborts.increment();
+	}
+
+	void recordPrepareTime(long duration)
+	{
+		prepareTime.record(duration);
+	}
+
+	void recordPhase2CommitTime(long duration)
+	{
+		phase2CommitTime.record(duration);
+	}
+
+	void recordRollbackTime(long duration)
+	{
+		rollbackTime.record(duration);
+	}
+
+	void recordLogWriteTime(long duration)
+	{
+		logWriteTime.record(duration);
+	}
+
+	void recordParticipantPrepareTime(AbstractRecord record, long duration)
+	{
+		participantLatencies.get(record.getClass()).forRecord(record).prepare.record(duration);
+	}
+
+	void recordParticipantCommitTime(AbstractRecord record, long duration)
+	{
+		participantLatencies.get(record.getClass()).forRecord(record).commit.record(duration);
+	}
+
+	void recordParticipantRollbackTime(AbstractRecord record, long duration)
+	{
+		participantLatencies.get(record.getClass()).forRecord(record).rollback.record(duration);
+	}
+
+	/*
+	 * Exporters are started the first time the statistics are used rather than
+	 * when the class is initialised, so that a problem starting them cannot
+	 * leave TxStats unusable.
+	 */
+	private synchronized void startExporters()
+	{
+		if (exportersStarted)
+			return;
+
+		exportersStarted = true;
+
+		final List<TxStatsExporter> exporters = arjPropertyManager.getCoordinatorEnvironmentBean().getStatisticsExporters();
+
+		if (exporters.isEmpty())
+			return;
+
+		long period = arjPropertyManager.getCoordinatorEnvironmentBean().getStatisticsExportPeriod();
+		ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "Transaction Statistics Exporter");
+
+			thread.setDaemon(true);
+
+			return thread;
+		});
+
+		scheduler.scheduleWithFixedDelay(() -> {
+			if (!enabled())
+				return;
+
+			for (TxStatsExporter exporter : exporters) {
+				try {
+					export(exporter);
+				} catch (RuntimeException e) {
+					tsLogger.i18NLogger.warn_coordinator_TxStats_exporter(exporter.getClass().getName(), e);
+				}
+			}
+		}, period, period, TimeUnit.MILLISECONDS);
+	}
+
+	private volatile boolean exportersStarted = false;
+
+	/*
+	 * The latencies kept for each class of participant, created the first
+	 * time the class is seen. Looking them up through a ClassValue avoids
+	 * building the metric name for every record.
+	 */
+	private final ClassValue<ParticipantType> participantLatencies = new ClassValue<ParticipantType>() {
+		@Override
+		protected ParticipantType computeValue(Class<?> type) {
+			return new ParticipantType(type.getName());
+		}
+	};
+
+	private final class ParticipantType
+	{
+		private final String name;
+		private final ParticipantLatencies anyEndpoint;
+		private final ConcurrentMap<String, ParticipantLatencies> endpoints = new ConcurrentHashMap<String, ParticipantLatencies>();
+
+		ParticipantType(String name)
+		{
+			this.name = name;
+			anyEndpoint = new ParticipantLatencies(name);
+		}
+
+		/*
+		 * The bound is checked without locking, so a few more endpoints than
+		 * the maximum may be kept apart if they are first seen together.
+		 */
+		ParticipantLatencies forRecord(AbstractRecord record)
+		{
+			String endpoint = record.getRecoveryEndpoint();
+
+			if (endpoint == null)
+				return anyEndpoint;
+
+			ParticipantLatencies latencies = endpoints.get(endpoint);
+
+			if (latencies == null) {
+				if (endpoints.size() >= MAX_PARTICIPANT_ENDPOINTS)
+					return anyEndpoint;
+
+				latencies = endpoints.computeIfAbsent(endpoint, e -> new ParticipantLatencies(name + "@" + e));
+			}
+
+			return latencies;
+		}
+	}
+
+	private final class ParticipantLatencies
+	{
+		final LatencyHistogram prepare;
+		final LatencyHistogram commit;
+		final LatencyHistogram rollback;
+
+		ParticipantLatencies(String participantType)
+		{
+			prepare = latency(participantMetricName(participantType, PREPARE_TIME));
+			commit = latency(participantMetricName(participantType, COMMIT_TIME));
+			rollback = latency(participantMetricName(participantType, ROLLBACK_TIME));
+		}
+
+		private LatencyHistogram latency(String metric)
+		{
+			return latencies.computeIfAbsent(metric, k -> new LatencyHistogram());
+		}
 	}
 
-	private AtomicLong numberOfTransactions = new AtomicLong(0);
-	private AtomicLong numberOfNestedTransactions = new AtomicLong(0);
-	private AtomicLong numberOfAbortedTransactions = new AtomicLong(0);
-	private AtomicLong numberOfHeuristics = new AtomicLong(0);
-	private AtomicLong numberOfTimeouts = new AtomicLong(0);
-	private AtomicLong numberOfApplicationAborts = new AtomicLong(0);
-	private AtomicLong numberOfSystemAborts = new AtomicLong(0);
-	private AtomicLong numberOfResourceAborts = new AtomicLong(0);
-	private AtomicReference<TxCommitStatistic> commitStatistic =
-			new AtomicReference<>(new TxCommitStatistic(0, 0));
+	private final LongAdder numberOfTransactions = new LongAdder();
+	private final LongAdder numberOfNestedTransactions = new LongAdder();
+	private final LongAdder numberOfAbortedTransactions = new LongAdder();
+	private final LongAdder numberOfHeuristics = new LongAdder();
+	private final LongAdder numberOfTimeouts = new LongAdder();
+	private final LongAdder numberOfApplicationAborts = new LongAdder();
+	private final LongAdder numberOfSystemAborts = new LongAdder();
+	private final LongAdder numberOfResourceAborts = new LongAdder();
+	private final LongAdder numberOfCommittedTransactions = new LongAdder();
+	private final LongAdder totalCommitTime = new LongAdder();
+
+	private final Map<String, LatencyHistogram> latencies = new ConcurrentHashMap<String, LatencyHistogram>();
+	private final LatencyHistogram commitTime = new LatencyHistogram();
+	private final LatencyHistogram prepareTime = new LatencyHistogram();
+	private final LatencyHistogram phase2CommitTime = new LatencyHistogram();
+	private final LatencyHistogram rollbackTime = new LatencyHistogram();
+	private final LatencyHistogram logWriteTime = new LatencyHistogram();
 }
\ No newline at end of file
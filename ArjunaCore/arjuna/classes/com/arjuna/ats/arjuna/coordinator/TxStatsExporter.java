@@ -0,0 +1,28 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+package com.arjuna.ats.arjuna.coordinator;
+
+import java.util.Map;
+
+/**
+ * Implementations publish transaction statistics to a monitoring system.
+ * <p>
+ * Exporters named in {@link com.arjuna.ats.arjuna.common.CoordinatorEnvironmentBean#getStatisticsExporterClassNames()}
+ * are called from a single background thread every
+ * {@link com.arjuna.ats.arjuna.common.CoordinatorEnvironmentBean#getStatisticsExportPeriod()} milliseconds
+ * while statistics are enabled. An exporter can also be driven directly with {@link TxStats#export(TxStatsExporter)}.
+ * Implementations should return promptly and must not throw.
+ */
+public interface TxStatsExporter
+{
+    /**
+     * Publish the current statistics.
+     *
+     * @param stats the counters, as also exposed through JMX
+     * @param latencies a snapshot of each latency histogram keyed by metric name,
+     *                  see {@link TxStats#getLatencyMetricNames()}
+     */
+    void export(TxStatsMBean stats, Map<String, LatencySnapshot> latencies);
+}
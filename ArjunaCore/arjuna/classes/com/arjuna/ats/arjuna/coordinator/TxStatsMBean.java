@@ -95,4 +95,28 @@ public interface TxStatsMBean
      * @return the number of transactions that rolled back due to resource (participant) failure.
      */
     long getNumberOfResourceRollbacks();
-}
\ No newline at end of file
+
+    /**
+     * Returns the names of the latency metrics recorded so far. These are the metrics named by the
+     * <code>*_TIME</code> constants of {@link TxStats} together with one metric for each phase of each
+     * kind of participant that has taken part in a transaction.
+     * @return the names of the latency metrics
+     */
+    String[] getLatencyMetricNames();
+
+    /**
+     * Returns the number of latencies recorded for a metric.
+     * @param metric the name of the metric
+     * @return the number of latencies recorded, or -1 if there is no such metric
+     */
+    long getLatencyCount(String metric);
+
+    /**
+     * Returns a percentile of the latencies recorded for a metric, for example 99 for the p99 latency.
+     * The value is accurate to within about 12%.
+     * @param metric the name of the metric
+     * @param percentile the percentile, between 0 and 100
+     * @return the latency in nanoseconds, or -1 if there is no such metric
+     */
+    long getLatencyPercentile(String metric, double percentile);
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright The Narayana Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package com.arjuna.ats.arjuna.coordinator.internal;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.arjuna.ats.arjuna.coordinator.LatencySnapshot;
+
+/**
+ * A histogram of durations, in nanoseconds, that can be recorded into from many threads at once.
+ * <p>
+ * Values are counted in log-linear buckets in the style of an HDR histogram: each power of two
+ * range is split into {@link #SUB_BUCKETS} equal buckets, so any value is placed in a bucket no
+ * more than 1/{@link #SUB_BUCKETS} wider than the value itself, whatever its magnitude. Each bucket
+ * is a {@link LongAdder} so that threads recording at the same time do not contend on a single
+ * counter, and recording a value is a handful of instructions with no allocation.
+ */
+public class LatencyHistogram {
+    public static final int SUB_BUCKET_BITS = 3;
+
+    public static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    // values below SUB_BUCKETS get a bucket each, then SUB_BUCKETS buckets for each power of two up to 2^63
+    static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Record a duration.
+     *
+     * @param nanos the duration in nanoseconds, negative values are counted as zero
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+
+        buckets[bucketIndex(nanos)].increment();
+        total.add(nanos);
+        max.accumulate(nanos);
+    }
+
+    /**
+     * Take a copy of the counts recorded so far. Values recorded while the copy is being taken
+     * may or may not be included.
+     *
+     * @return the snapshot
+     */
+    public LatencySnapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+        }
+
+        return new LatencySnapshot(counts, total.sum(), max.get());
+    }
+
+    /**
+     * @param value a non negative value
+     * @return the index of the bucket counting the value
+     */
+    public static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * @param index a bucket index
+     * @return the largest value counted by the bucket
+     */
+    public static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long subBucket = index % SUB_BUCKETS;
+        long lowerBound = (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+
+        return lowerBound + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+}
@@ -1660,6 +1660,14 @@ public interface arjunaI18NLogger {
 	@LogMessage(level = WARN)
 	void warn_coordinator_BasicAction_73(String cause);
 
+	@Message(id = 12418, value = "Transaction statistics exporter {0} failed", format = MESSAGE_FORMAT)
+	@LogMessage(level = WARN)
+	void warn_coordinator_TxStats_exporter(String exporter, @Cause() Throwable cause);
+
+	@Message(id = 12419, value = "JDBCImple: group commit of {0} operations failed, retrying them individually", format = MESSAGE_FORMAT)
+	@LogMessage(level = WARN)
+	void warn_objectstore_JDBCImple_groupcommitfailed(int size, @Cause() Throwable cause);
+
     /*
         Allocate new messages directly above this notice.
           - id: use the next id number in numeric sequence. Don't reuse ids.
@@ -44,6 +44,27 @@ public interface RecoveryStore extends TxLog
      */
 
     public boolean allObjUids (String s, InputObjectState buff) throws ObjectStoreException;
+
+    /**
+     * Obtain the Uids for a specified type which have been written since a
+     * previous call. Stores which track their changes return a change number
+     * which, passed back as <code>since</code>, obtains only the Uids written
+     * after this call. Stores which do not track changes return every Uid of
+     * the type, as {@link #allObjUids(String, InputObjectState)} does.
+     *
+     * @param s The type to scan for.
+     * @param buff The object state in which to store the Uids
+     * @param since The change number returned by a previous call, or 0 to obtain every Uid of the type.
+     *
+     * @return the change number to pass to the next call. If the store does
+     * not track changes, -1 if <code>buff</code> holds every Uid of the type
+     * or -2 if the Uids could not be obtained.
+     */
+
+    public default long changedObjUids (String s, InputObjectState buff, long since) throws ObjectStoreException
+    {
+        return allObjUids(s, buff) ? -1 : -2;
+    }
     
     /**
      * Obtain all types of objects stored in the object store.
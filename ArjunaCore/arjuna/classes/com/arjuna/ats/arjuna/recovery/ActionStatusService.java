@@ -69,6 +69,10 @@ public class ActionStatusService implements Service
     * Does the main work of reading in a uid and transaction type
     * from the recovery manager, retrieving the status of the
     * transaction and sending it back to the Recovery Manager.
+    *
+    * Requests on a connection are answered in the order they were
+    * received, so a client may send several before reading any of
+    * their replies (see TransactionStatusConnector#getTransactionStatuses).
     */
 
    public void doWork( InputStream is, OutputStream os )
@@ -4,8 +4,12 @@
  */
 package com.arjuna.ats.arjuna.recovery ;
 
+import java.util.SortedSet;
+import java.util.TreeSet;
+
 import com.arjuna.ats.arjuna.AtomicAction;
 import com.arjuna.ats.arjuna.common.Uid;
+import com.arjuna.ats.arjuna.coordinator.AbstractRecord;
 import com.arjuna.ats.arjuna.coordinator.ActionStatus;
 import com.arjuna.ats.arjuna.logging.tsLogger;
 import com.arjuna.ats.internal.arjuna.recovery.AtomicActionExpiryScanner;
@@ -86,6 +90,30 @@ public class RecoverAtomicAction extends AtomicAction
        }
    }
 
+   /**
+    * Returns the endpoints which replaying phase 2 will contact, as given by
+    * {@link AbstractRecord#getRecoveryEndpoint()} for the prepared participants.
+    * The set is sorted so that limits on the endpoints can always be acquired
+    * in the same order.
+    */
+   public SortedSet<String> getRecoveryEndpoints()
+   {
+       SortedSet<String> endpoints = new TreeSet<String>();
+
+       if (preparedList != null)
+       {
+           for (AbstractRecord rec = preparedList.peekFront(); rec != null; rec = preparedList.peekNext(rec))
+           {
+               String endpoint = rec.getRecoveryEndpoint();
+
+               if (endpoint != null)
+                   endpoints.add(endpoint);
+           }
+       }
+
+       return endpoints;
+   }
+
    public boolean hasPreparedParticipants()
    {
        return preparedList != null && preparedList.size() > 0;
@@ -8,11 +8,14 @@ import java.io.IOException;
 import java.net.InetAddress;
 import java.net.Socket;
 import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Vector;
 
 import com.arjuna.ats.arjuna.common.recoveryPropertyManager;
 import com.arjuna.ats.arjuna.logging.tsLogger;
 import com.arjuna.ats.arjuna.utils.Utility;
+import com.arjuna.ats.internal.arjuna.recovery.AtomicActionRecoveryModule;
 import com.arjuna.ats.internal.arjuna.recovery.PeriodicRecovery;
 import com.arjuna.ats.internal.arjuna.recovery.RecoveryManagerImple;
 import com.arjuna.ats.internal.arjuna.recovery.RecoveryManagerStatus;
@@ -305,6 +308,25 @@ public class RecoveryManager {
         return _theImple.getModules();
     }
 
+    /**
+     * Obtain the progress of the installed AtomicActionRecoveryModules through
+     * the transactions found by their current or most recent recovery pass.
+     *
+     * @return the progress of each AtomicActionRecoveryModule.
+     * @throws IllegalStateException if the recovery manager has been shutdown.
+     */
+    public final List<RecoveryProgressMBean> getRecoveryProgress() {
+        List<RecoveryProgressMBean> progress = new ArrayList<RecoveryProgressMBean>();
+
+        for (RecoveryModule module : getModules()) {
+            if (module instanceof AtomicActionRecoveryModule) {
+                progress.add(((AtomicActionRecoveryModule) module).getProgress());
+            }
+        }
+
+        return progress;
+    }
+
     /**
      * Indicates what mode (INDIRECT_MANAGEMENT or DIRECT_MANAGEMENT)
      * the recovery manager is configured for.
@@ -43,4 +43,12 @@ public interface RecoveryModule
     default boolean hasWorkLeftToDo() {
         return false;
     }
+
+    /**
+     * Called by the RecoveryManager when it is terminated, so that the module can
+     * release anything it holds between passes, such as threads or MBeans.
+     * A module which is then driven again should pick them up as needed.
+     */
+    default void terminate() {
+    }
 }
\ No newline at end of file
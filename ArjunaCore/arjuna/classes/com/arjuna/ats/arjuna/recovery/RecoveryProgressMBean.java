@@ -0,0 +1,54 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.arjuna.ats.arjuna.recovery;
+
+/**
+ * Progress of a recovery module through the transactions found by its most
+ * recent recovery pass.
+ */
+public interface RecoveryProgressMBean {
+    /**
+     * @return the type of the transactions being recovered.
+     */
+    String getTransactionType();
+
+    /**
+     * @return true if transactions are being replayed.
+     */
+    boolean isReplayInProgress();
+
+    /**
+     * @return the number of transactions found by the current or most recent pass.
+     */
+    long getRecordsFound();
+
+    /**
+     * @return the number of transactions found by the current pass which have
+     * not yet been replayed. Zero once the pass has finished.
+     */
+    long getRecordsRemaining();
+
+    /**
+     * @return the number of transactions replayed by the current or most recent pass.
+     */
+    long getRecordsReplayed();
+
+    /**
+     * @return the number of transactions whose replay failed in the current or most recent pass.
+     */
+    long getReplayFailures();
+
+    /**
+     * @return the number of transactions replayed per second by the current or
+     * most recent pass.
+     */
+    double getReplayRate();
+
+    /**
+     * @return the total number of transactions replayed since the module was created.
+     */
+    long getTotalRecordsReplayed();
+}
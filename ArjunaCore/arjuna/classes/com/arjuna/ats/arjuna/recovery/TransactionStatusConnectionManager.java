@@ -4,8 +4,14 @@
  */
 package com.arjuna.ats.arjuna.recovery ;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
 import java.util.Vector;
 
 import com.arjuna.ats.arjuna.common.Uid;
@@ -77,27 +83,89 @@ public class TransactionStatusConnectionManager
          * as the tx may be local or, if it is remote, the
          * TransactionStatusManager may have died or comms may
          * have failed.
-         * Use an ActionStatusService instance as that's what the remote
-         * recovery manager would have used, and it contains all of the logic
-         * to find and map the state type.
          */
 
         if ( status == ActionStatus.INVALID )
         {
-            ActionStatusService ass = new ActionStatusService();
+            status = getLocalTransactionStatus(transactionType, tranUid);
+        }
 
-            try
-            {
-                status = ass.getTransactionStatus(transactionType, tranUid.stringForm());
+        return status ;
+    }
+
+    /**
+     * Obtain the transaction statuses for the specified transactions, all of
+     * the specified type. The transactions are grouped by the process which
+     * created them, and the statuses of those from each remote process are
+     * obtained together in as few exchanges with its TransactionStatusManager
+     * as possible, rather than with one exchange for each transaction.
+     *
+     * @param transactionType the type of the transactions
+     * @param tranUids the Uids of the transactions
+     * @return the status of each transaction, in the same order as the Uids
+     */
+    public int[] getTransactionStatuses( String transactionType, List<Uid> tranUids )
+    {
+        int[] status = new int[tranUids.size()] ;
+        Map<String, List<Integer>> byProcess = new HashMap<String, List<Integer>>() ;
+
+        Arrays.fill(status, ActionStatus.INVALID);
+
+        for (int i = 0; i < status.length; i++) {
+            String process_id = tranUids.get(i).getHexPid();
+
+            // see getTransactionStatus for why local transactions are not sent to the TransactionStatusManager
+            if (! process_id.equals( _localUid.getHexPid()) ) {
+                byProcess.computeIfAbsent(process_id, k -> new ArrayList<Integer>()).add(i);
+            }
+        }
+
+        for (Map.Entry<String, List<Integer>> entry : byProcess.entrySet()) {
+            List<Integer> indexes = entry.getValue();
+            List<Uid> uids = new ArrayList<Uid>(indexes.size());
+
+            for (Integer index : indexes) {
+                uids.add(tranUids.get(index));
             }
-            catch ( Exception ex ) {
-                tsLogger.i18NLogger.warn_recovery_TransactionStatusConnectionManager_1(ex);
+
+            int[] remoteStatus = getRemoteTransactionStatuses(entry.getKey(), transactionType, uids);
+
+            for (int i = 0; i < remoteStatus.length; i++) {
+                status[indexes.get(i)] = remoteStatus[i];
+            }
+        }
+
+        for (int i = 0; i < status.length; i++) {
+            if ( status[i] == ActionStatus.INVALID )
+            {
+                status[i] = getLocalTransactionStatus(transactionType, tranUids.get(i));
             }
         }
 
         return status ;
     }
 
+    /**
+     * Use an ActionStatusService instance as that's what the remote
+     * recovery manager would have used, and it contains all of the logic
+     * to find and map the state type.
+     */
+    private int getLocalTransactionStatus( String transactionType, Uid tranUid )
+    {
+        int status = ActionStatus.INVALID ;
+        ActionStatusService ass = new ActionStatusService();
+
+        try
+        {
+            status = ass.getTransactionStatus(transactionType, tranUid.stringForm());
+        }
+        catch ( Exception ex ) {
+            tsLogger.i18NLogger.warn_recovery_TransactionStatusConnectionManager_1(ex);
+        }
+
+        return status ;
+    }
+
     /**
      * Use the TransactionStatusConnector to remotly query a transaction manager to get the tx status.
      *
@@ -108,7 +176,14 @@ public class TransactionStatusConnectionManager
      */
     private int getRemoteTransactionStatus(String process_id, String transactionType, Uid tranUid ) {
 
-        int status = ActionStatus.INVALID ;
+        return getRemoteTransactionStatuses(process_id, transactionType, Collections.singletonList(tranUid))[0];
+    }
+
+    private int[] getRemoteTransactionStatuses(String process_id, String transactionType, List<Uid> tranUids ) {
+
+        int[] status = new int[tranUids.size()] ;
+
+        Arrays.fill(status, ActionStatus.INVALID);
 
         // tx is not local, so use process id to index into
         // hash table to obtain transaction status connector
@@ -134,7 +209,7 @@ public class TransactionStatusConnectionManager
             }
             else
             {
-                status = tsc.getTransactionStatus( transactionType, tranUid ) ;
+                status = tsc.getTransactionStatuses( transactionType, tranUids ) ;
             }
         }
 
@@ -4,11 +4,11 @@
  */
 package com.arjuna.ats.arjuna.state;
 
-import java.io.ByteArrayInputStream;
-import java.io.DataInputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 
 import com.arjuna.ats.arjuna.logging.tsLogger;
 
@@ -16,6 +16,10 @@ import com.arjuna.ats.arjuna.logging.tsLogger;
  * An InputBuffer is used to retrieve various Java types from a byte stream
  * created using an OutputBuffer. Similar to java serialization. However,
  * InputBuffers are compatible with OTSArjuna states.
+ * <p>
+ * Values are read straight out of the backing array and, like an
+ * {@link OutputBuffer}, an instance is meant to be used by one thread at a
+ * time so the unpack methods take no lock.
  * 
  * @author Mark Little (mark@arjuna.com)
  * @version $Id: InputBuffer.java 2342 2006-03-30 13:06:17Z $
@@ -33,8 +37,7 @@ public class InputBuffer
     {
         _byteArray = null;
         _valid = false;
-        _inputStream = null;
-        _input = null;
+        _position = 0;
     }
 
     /**
@@ -45,21 +48,7 @@ public class InputBuffer
     {
         _valid = true;
 
-        _byteArray = new byte[b.length];
-
-        System.arraycopy(b, 0, _byteArray, 0, b.length);
-
-        try
-        {
-            _inputStream = new ByteArrayInputStream(_byteArray);
-            _input = new DataInputStream(_inputStream);
-
-            skipHeader();
-        }
-        catch (IOException e)
-        {
-            _valid = false;
-        }
+        init(Arrays.copyOf(b, b.length));
     }
 
     /**
@@ -70,17 +59,28 @@ public class InputBuffer
     {
         _byteArray = null;
         _valid = false;
-        _inputStream = null;
-        _input = null;
+        _position = 0;
 
         copy(buff);
     }
 
+    /**
+     * Create a new buffer holding the contents of an OutputBuffer. Unlike the
+     * byte array constructor this needs no second copy of the state.
+     */
+
+    InputBuffer(OutputBuffer buff)
+    {
+        _valid = true;
+
+        init(buff.buffer());
+    }
+
     /**
      * Is the buffer valid?
      */
 
-    public final synchronized boolean valid ()
+    public final boolean valid ()
     {
         return _valid;
     }
@@ -93,23 +93,9 @@ public class InputBuffer
     {
         if (buff._valid)
         {
-            _byteArray = new byte[buff._byteArray.length];
             _valid = true;
 
-            System.arraycopy(buff._byteArray, 0, _byteArray, 0,
-                    buff._byteArray.length);
-
-            try
-            {
-                _inputStream = new ByteArrayInputStream(_byteArray);
-                _input = new DataInputStream(_inputStream);
-
-                skipHeader();
-            }
-            catch (IOException e)
-            {
-                _valid = false;
-            }
+            init(Arrays.copyOf(buff._byteArray, buff._byteArray.length));
         }
     }
 
@@ -117,7 +103,7 @@ public class InputBuffer
      * Return the length of the byte buffer.
      */
 
-    public final synchronized int length ()
+    public final int length ()
     {
         return ((_byteArray == null) ? 0 : _byteArray.length);
     }
@@ -126,7 +112,7 @@ public class InputBuffer
      * Return the internal byte buffer.
      */
 
-    public final synchronized byte[] buffer ()
+    public final byte[] buffer ()
     {
         return _byteArray;
     }
@@ -137,18 +123,11 @@ public class InputBuffer
 
     public final synchronized void setBuffer (byte[] b)
     {
-        _byteArray = new byte[b.length];
-
-        System.arraycopy(b, 0, _byteArray, 0, b.length);
-
         try
         {
-            _inputStream = new ByteArrayInputStream(_byteArray);
-            _input = new DataInputStream(_inputStream);
-
             _valid = true;
 
-            skipHeader();
+            init(Arrays.copyOf(b, b.length));
         }
         catch (Exception e)
         {
@@ -157,19 +136,29 @@ public class InputBuffer
         }
     }
 
+    /**
+     * Set the buffer to the contents of an OutputBuffer, without the second
+     * copy that {@link #setBuffer(byte[])} would take.
+     */
+
+    final synchronized void setBuffer (OutputBuffer buff)
+    {
+        _valid = true;
+
+        init(buff.buffer());
+    }
+
     /**
      * Unpack a byte from the stream. If the next item in the buffer is not of
      * the right type then an IOException is thrown.
      */
 
-    public final synchronized byte unpackByte () throws IOException
+    public final byte unpackByte () throws IOException
     {
         if (!_valid)
             throw new IOException(tsLogger.i18NLogger.get_state_InputBuffer_1());
 
-        int i = unpackInt();
-
-        return (byte) i;
+        return (byte) readInt();
     }
 
     /**
@@ -177,17 +166,17 @@ public class InputBuffer
      * buffer is not of the right type then an IOException is thrown.
      */
 
-    public final synchronized byte[] unpackBytes () throws IOException
+    public final byte[] unpackBytes () throws IOException
     {
         if (!_valid)
             throw new IOException(tsLogger.i18NLogger.get_state_InputBuffer_2());
 
-        int size = unpackInt();
+        int size = readInt();
         byte b[] = new byte[size];
 
         if (size > 0)
         {
-            _input.read(b, 0, size);
+            read(b, size);
 
             realign(size);
         }
@@ -200,20 +189,15 @@ public class InputBuffer
      * of the right type then an IOException is thrown.
      */
 
-    public final synchronized boolean unpackBoolean () throws IOException
+    public final boolean unpackBoolean () throws IOException
     {
         if (!_valid)
             throw new IOException(tsLogger.i18NLogger.get_state_InputBuffer_3());
 
-        _valid = false;
-
-        _inputStream.skip(3);
-
-        boolean b = _input.readBoolean();
+        skip(3);
+        require(1);
 
-        _valid = true;
-
-        return b;
+        return _byteArray[_position++] != 0;
     }
 
     /**
@@ -221,14 +205,12 @@ public class InputBuffer
      * of the right type then an IOException is thrown.
      */
 
-    public final synchronized char unpackChar () throws IOException
+    public final char unpackChar () throws IOException
     {
         if (!_valid)
             throw new IOException(tsLogger.i18NLogger.get_state_InputBuffer_4());
 
-        int i = unpackInt();
-
-        return (char) i;
+        return (char) readInt();
     }
 
     /**
@@ -236,14 +218,12 @@ public class InputBuffer
      * the right type then an IOException is thrown.
      */
 
-    public final synchronized short unpackShort () throws IOException
+    public final short unpackShort () throws IOException
     {
         if (!_valid)
             throw new IOException(tsLogger.i18NLogger.get_state_InputBuffer_5());
 
-        int i = unpackInt();
-
-        return (short) i;
+        return (short) readInt();
     }
 
     /**
@@ -251,18 +231,12 @@ public class InputBuffer
      * of the right type then an IOException is thrown.
      */
 
-    public final synchronized int unpackInt () throws IOException
+    public final int unpackInt () throws IOException
     {
         if (!_valid)
             throw new IOException(tsLogger.i18NLogger.get_state_InputBuffer_6());
 
-        _valid = false;
-
-        int i = _input.readInt();
-
-        _valid = true;
-
-        return i;
+        return readInt();
     }
 
     /**
@@ -270,18 +244,12 @@ public class InputBuffer
      * the right type then an IOException is thrown.
      */
 
-    public final synchronized long unpackLong () throws IOException
+    public final long unpackLong () throws IOException
     {
         if (!_valid)
             throw new IOException(tsLogger.i18NLogger.get_state_InputBuffer_7());
 
-        _valid = false;
-
-        long l = _input.readLong();
-
-        _valid = true;
-
-        return l;
+        return readLong();
     }
 
     /**
@@ -289,18 +257,12 @@ public class InputBuffer
      * the right type then an IOException is thrown.
      */
 
-    public final synchronized float unpackFloat () throws IOException
+    public final float unpackFloat () throws IOException
     {
         if (!_valid)
             throw new IOException(tsLogger.i18NLogger.get_state_InputBuffer_8());
 
-        _valid = false;
-
-        float f = _input.readFloat();
-
-        _valid = true;
-
-        return f;
+        return Float.intBitsToFloat(readInt());
     }
 
     /**
@@ -308,18 +270,12 @@ public class InputBuffer
      * the right type then an IOException is thrown.
      */
 
-    public final synchronized double unpackDouble () throws IOException
+    public final double unpackDouble () throws IOException
     {
         if (!_valid)
             throw new IOException(tsLogger.i18NLogger.get_state_InputBuffer_9());
 
-        _valid = false;
-
-        double d = _input.readDouble();
-
-        _valid = true;
-
-        return d;
+        return Double.longBitsToDouble(readLong());
     }
 
     /**
@@ -330,30 +286,32 @@ public class InputBuffer
      * the "same" string.
      */
 
-    public final synchronized String unpackString () throws IOException
+    public final String unpackString () throws IOException
     {
         if (!_valid)
             throw new IOException(tsLogger.i18NLogger.get_state_InputBuffer_10());
 
-        int length = unpackInt();
+        int length = readInt();
 
         if (length == 0)
             return null;
 
+        if (length < 0)
+            throw new IOException(tsLogger.i18NLogger.get_state_InputBuffer_10());
+
         /*
          * We don't need the '\0' character which Arjuna puts in the buffer. We
-         * only put it in for compatibility with C++. So ignore it.
+         * only put it in for compatibility with C++. So ignore it. The string is
+         * decoded straight from the buffer.
          */
 
-        byte[] b = new byte[length - 1];
-        byte[] dummy = new byte[1];
-
-        _input.read(b, 0, length - 1);
-        _input.read(dummy, 0, 1);
+        int count = Math.min(length - 1, _byteArray.length - _position);
+        String s = new String(_byteArray, _position, count, StandardCharsets.UTF_8);
 
+        skip(count + 1);
         realign(length);
 
-        return new String(b, StandardCharsets.UTF_8);
+        return s;
     }
 
     /**
@@ -374,21 +332,11 @@ public class InputBuffer
          * byte separately.
          */
 
-        _byteArray = buff.unpackBytes();
+        byte[] b = buff.unpackBytes();
 
         _valid = true;
 
-        try
-        {
-            _inputStream = new ByteArrayInputStream(_byteArray);
-            _input = new DataInputStream(_inputStream);
-
-            skipHeader();
-        }
-        catch (IOException e)
-        {
-            _valid = false;
-        }
+        init(b);
     }
 
     /**
@@ -400,17 +348,7 @@ public class InputBuffer
         if (!_valid)
             return false;
 
-        try
-        {
-            _inputStream = new ByteArrayInputStream(_byteArray);
-            _input = new DataInputStream(_inputStream);
-
-            skipHeader();
-        }
-        catch (IOException e)
-        {
-            _valid = false;
-        }
+        skipHeader();
 
         return _valid;
     }
@@ -434,31 +372,89 @@ public class InputBuffer
             strm.println("InputBuffer : invalid.");
     }
 
-    private final void realign (int amount) throws IOException
+    private final int readInt () throws IOException
+    {
+        require(4);
+
+        int i = (int) OutputBuffer.INT.get(_byteArray, _position);
+
+        _position += 4;
+
+        return i;
+    }
+
+    private final long readLong () throws IOException
+    {
+        require(8);
+
+        long l = (long) OutputBuffer.LONG.get(_byteArray, _position);
+
+        _position += 8;
+
+        return l;
+    }
+
+    /*
+     * Copy as many bytes as are left, up to length, which is all
+     * a truncated buffer has ever given back.
+     */
+
+    private final void read (byte[] b, int length)
+    {
+        int count = Math.min(length, _byteArray.length - _position);
+
+        System.arraycopy(_byteArray, _position, b, 0, count);
+        _position += count;
+    }
+
+    /*
+     * Running off the end of the buffer leaves it invalid.
+     */
+
+    private final void require (int amount) throws EOFException
+    {
+        if (_byteArray.length - _position < amount)
+        {
+            _valid = false;
+
+            throw new EOFException();
+        }
+    }
+
+    private final void skip (int amount)
+    {
+        _position += Math.min(amount, _byteArray.length - _position);
+    }
+
+    private final void realign (int amount)
     {
         if ((amount % OutputBuffer.ALIGNMENT) > 0)
         {
             int excess = OutputBuffer.ALIGNMENT
                     - (amount % OutputBuffer.ALIGNMENT);
 
-            if (_inputStream.available() < excess)
-                excess = _inputStream.available();
-
-            _input.skipBytes(excess);
+            skip(excess);
         }
     }
 
-    private final void skipHeader () throws IOException
+    private final void init (byte[] b)
     {
-        _inputStream.skip(OutputBuffer.headerSize); // sizeof buffer header
+        _byteArray = b;
+
+        skipHeader();
     }
 
-    protected boolean _valid;
+    private final void skipHeader ()
+    {
+        _position = 0;
 
-    private DataInputStream _input;
+        skip(OutputBuffer.headerSize); // sizeof buffer header
+    }
 
-    private ByteArrayInputStream _inputStream;
+    protected boolean _valid;
 
     private byte[] _byteArray;
 
-}
\ No newline at end of file
+    private int _position;
+
+}
@@ -57,7 +57,7 @@ public InputObjectState (InputObjectState copyFrom)
 
 public InputObjectState (OutputObjectState copyFrom)
     {
-	super(copyFrom.buffer());
+	super(copyFrom);
 
 	if (tsLogger.logger.isTraceEnabled()) {
         tsLogger.logger.trace("InputObjectState::InputObjectState(" + copyFrom + ")");
@@ -112,7 +112,7 @@ public final String type ()
 
 public void copyFrom (OutputObjectState copyFrom)
     {
-	super.setBuffer(copyFrom.buffer());
+	super.setBuffer(copyFrom);
 
 	bufferUid = new Uid(copyFrom.stateUid());
 	super._valid = bufferUid.valid();
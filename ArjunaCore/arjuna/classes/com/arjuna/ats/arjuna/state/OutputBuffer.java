@@ -4,11 +4,13 @@
  */
 package com.arjuna.ats.arjuna.state;
 
-import java.io.ByteArrayOutputStream;
-import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 
 import com.arjuna.ats.arjuna.logging.tsLogger;
 
@@ -16,12 +18,19 @@ import com.arjuna.ats.arjuna.logging.tsLogger;
  * An OuptputBuffer is used to store various Java types as a byte stream.
  * Similar to java serialization. However, OutputBuffers are compatible with
  * OTSArjuna states.
+ * <p>
+ * Values are written big endian straight into a single backing array which
+ * doubles in size when it fills up, so packing a value allocates nothing. An
+ * instance is meant to be filled by one thread at a time and the pack methods
+ * take no lock. {@link #byteBuffer()} gives object stores a view of the packed
+ * bytes to write out without taking a copy.
  * 
  * @author Mark Little (mark@arjuna.com)
  * @version $Id: OutputBuffer.java 2342 2006-03-30 13:06:17Z $
  * @since JTS 1.0.
  */
 
+
 public class OutputBuffer
 {
 
@@ -31,19 +40,7 @@ public class OutputBuffer
 
     public OutputBuffer()
     {
-        _valid = true;
-
-        try
-        {
-            _outputStream = new ByteArrayOutputStream();
-            _output = new DataOutputStream(_outputStream);
-
-            initBuffer();
-        }
-        catch (IOException e)
-        {
-            _valid = false;
-        }
+        this(DEFAULT_SIZE);
     }
 
     /**
@@ -54,18 +51,10 @@ public class OutputBuffer
     public OutputBuffer(int buffSize)
     {
         _valid = true;
+        _buffer = new byte[Math.max(buffSize, headerSize)];
+        _length = 0;
 
-        try
-        {
-            _outputStream = new ByteArrayOutputStream(buffSize);
-            _output = new DataOutputStream(_outputStream);
-
-            initBuffer();
-        }
-        catch (IOException e)
-        {
-            _valid = false;
-        }
+        initBuffer();
     }
 
     /**
@@ -78,19 +67,17 @@ public class OutputBuffer
 
         try
         {
-            _outputStream = new ByteArrayOutputStream(0);
-            _output = new DataOutputStream(_outputStream);
+            _buffer = new byte[b.length + headerSize];
+            _length = 0;
 
-            _outputStream.write(b, 0, b.length);
+            write(b, 0, b.length);
 
             initBuffer();
         }
         catch (final NullPointerException ex)
         {
-            _valid = false;
-        }
-        catch (IOException e)
-        {
+            _buffer = EMPTY;
+            _length = 0;
             _valid = false;
         }
     }
@@ -103,8 +90,8 @@ public class OutputBuffer
     public OutputBuffer(OutputBuffer copyFrom)
     {
         _valid = true;
-        _outputStream = null;
-        _output = null;
+        _buffer = EMPTY;
+        _length = 0;
 
         copy(copyFrom);
     }
@@ -113,36 +100,39 @@ public class OutputBuffer
      * Is the buffer valid?
      */
 
-    public final synchronized boolean valid ()
+    public final boolean valid ()
     {
         return _valid;
     }
 
     /**
-     * Return the byte array used to store data types.
+     * Return a copy of the bytes used to store data types.
      */
 
-    public final synchronized byte[] buffer ()
+    public final byte[] buffer ()
     {
-        try
-        {
-            _output.flush();
-        }
-        catch (final IOException ex)
-        {
-            // ignore?
-        }
-        
-        return _outputStream.toByteArray();
+        return Arrays.copyOf(_buffer, _length);
+    }
+
+    /**
+     * Return a read only view of the bytes used to store data types, from
+     * position zero up to the limit {@link #length()}. No copy is taken, so the
+     * view can be handed straight to a channel or another buffer, but it is only
+     * good until this buffer is next packed into or reset.
+     */
+
+    public final java.nio.ByteBuffer byteBuffer ()
+    {
+        return java.nio.ByteBuffer.wrap(_buffer, 0, _length).asReadOnlyBuffer();
     }
 
     /**
      * Return the length of the byte array being used to store data types.
      */
 
-    public final synchronized int length ()
+    public final int length ()
     {
-        return _outputStream.size();
+        return _length;
     }
 
     /**
@@ -154,20 +144,12 @@ public class OutputBuffer
         if (b._valid)
         {
             _valid = true;
+            _buffer = new byte[b._length + headerSize];
+            _length = 0;
 
-            try
-            {
-                _outputStream = new ByteArrayOutputStream(b.length());
-                _output = new DataOutputStream(_outputStream);
-
-                _outputStream.write(b.buffer(), 0, b.length());
+            write(b._buffer, 0, b._length);
 
-                initBuffer();
-            }
-            catch (IOException e)
-            {
-                _valid = false;
-            }
+            initBuffer();
         }
     }
 
@@ -175,9 +157,9 @@ public class OutputBuffer
      * Clear the OutputBuffer and rewind the pack pointer.
      */
 
-    public final synchronized void reset () throws IOException
+    public final void reset () throws IOException
     {
-        _outputStream.reset();
+        _length = 0;
         initBuffer();
     }
 
@@ -185,12 +167,12 @@ public class OutputBuffer
      * Pack a byte. If the buffer is invalid then an IOException is thrown.
      */
 
-    public final synchronized void packByte (byte b) throws IOException
+    public final void packByte (byte b) throws IOException
     {
         if (!_valid)
             throw new IOException(tsLogger.i18NLogger.get_state_OutputBuffer_1());
 
-        packInt((byte) b);
+        writeInt(b);
     }
 
     /**
@@ -198,37 +180,29 @@ public class OutputBuffer
      * thrown.
      */
 
-    public final synchronized void packBytes (byte[] b) throws IOException
+    public final void packBytes (byte[] b) throws IOException
     {
         if (!_valid)
             throw new IOException(tsLogger.i18NLogger.get_state_OutputBuffer_2());
 
-        packInt(b.length);
-
-        if (b.length > 0)
-        {
-            _output.write(b, 0, b.length);
-            realign(b.length);
-        }
+        packBytes(b, 0, b.length);
     }
 
     /**
      * Pack the boolean. If the buffer is invalid then an IOException is thrown.
      */
 
-    public final synchronized void packBoolean (boolean b) throws IOException
+    public final void packBoolean (boolean b) throws IOException
     {
         if (!_valid)
             throw new IOException(tsLogger.i18NLogger.get_state_OutputBuffer_3());
 
-        _valid = false;
+        ensureCapacity(4);
 
-        for (int i = 0; i < 3; i++)
-            _output.write(OutputBuffer._byte, 0, 1);
-
-        _output.writeBoolean(b);
-
-        _valid = true;
+        _buffer[_length++] = 0;
+        _buffer[_length++] = 0;
+        _buffer[_length++] = 0;
+        _buffer[_length++] = (byte) (b ? 1 : 0);
     }
 
     /**
@@ -236,88 +210,72 @@ public class OutputBuffer
      * thrown.
      */
 
-    public final synchronized void packChar (char c) throws IOException
+    public final void packChar (char c) throws IOException
     {
         if (!_valid)
             throw new IOException(tsLogger.i18NLogger.get_state_OutputBuffer_4());
 
-        packInt((int) c);
+        writeInt(c);
     }
 
     /**
      * Pack the short. If the buffer is invalid then an IOException is thrown.
      */
 
-    public final synchronized void packShort (short s) throws IOException
+    public final void packShort (short s) throws IOException
     {
         if (!_valid)
             throw new IOException(tsLogger.i18NLogger.get_state_OutputBuffer_5());
 
-        packInt((int) s);
+        writeInt(s);
     }
 
     /**
      * Pack the integer. If the buffer is invalid then an IOException is thrown.
      */
 
-    public final synchronized void packInt (int i) throws IOException
+    public final void packInt (int i) throws IOException
     {
         if (!_valid)
             throw new IOException(tsLogger.i18NLogger.get_state_OutputBuffer_6());
 
-        _valid = false;
-
-        _output.writeInt(i);
-
-        _valid = true;
+        writeInt(i);
     }
 
     /**
      * Pack the long. If the buffer is invalid then an IOException is thrown.
      */
 
-    public final synchronized void packLong (long l) throws IOException
+    public final void packLong (long l) throws IOException
     {
         if (!_valid)
             throw new IOException(tsLogger.i18NLogger.get_state_OutputBuffer_7());
 
-        _valid = false;
-
-        _output.writeLong(l);
-
-        _valid = true;
+        writeLong(l);
     }
 
     /**
      * Pack the float. If the buffer is invalid then an IOException is thrown.
      */
 
-    public final synchronized void packFloat (float f) throws IOException
+    public final void packFloat (float f) throws IOException
     {
         if (!_valid)
             throw new IOException(tsLogger.i18NLogger.get_state_OutputBuffer_8());
 
-        _valid = false;
-
-        _output.writeFloat(f);
-
-        _valid = true;
+        writeInt(Float.floatToIntBits(f));
     }
 
     /**
      * Pack the double. If the buffer is invalid then an IOException is thrown.
      */
 
-    public final synchronized void packDouble (double d) throws IOException
+    public final void packDouble (double d) throws IOException
     {
         if (!_valid)
             throw new IOException(tsLogger.i18NLogger.get_state_OutputBuffer_9());
 
-        _valid = false;
-
-        _output.writeDouble(d);
-
-        _valid = true;
+        writeLong(Double.doubleToLongBits(d));
     }
 
     /**
@@ -326,33 +284,63 @@ public class OutputBuffer
      * object. If the buffer is invalid then an IOException is thrown.
      */
 
-    public final synchronized void packString (String s) throws IOException
+    public final void packString (String s) throws IOException
     {
         if (!_valid)
             throw new IOException(tsLogger.i18NLogger.get_state_OutputBuffer_10());
 
         if(s == null) {
-            packInt(0);
-        } else {
-            packStringBytes( s.getBytes(StandardCharsets.UTF_8) );
+            writeInt(0);
+
+            return;
+        }
+
+        /*
+         * Type names and the like are plain ASCII, for which the UTF-8 encoding
+         * is one byte per char, so encode those in place rather than going
+         * through an intermediate array.
+         */
+
+        int length = s.length();
+        int start = _length;
+
+        ensureCapacity(length + 8);
+
+        _length += 4;
+
+        for (int i = 0; i < length; i++)
+        {
+            char c = s.charAt(i);
+
+            if (c >= 0x80)
+            {
+                _length = start;
+
+                packStringBytes(s.getBytes(StandardCharsets.UTF_8));
+
+                return;
+            }
+
+            _buffer[_length++] = (byte) c;
         }
+
+        INT.set(_buffer, start, length + 1);
+        _buffer[_length++] = 0;
+        realign(length + 1);
     }
 
-    public final synchronized void packStringBytes(byte[] bytes) throws IOException
+    public final void packStringBytes(byte[] bytes) throws IOException
     {
         if (!_valid || bytes == null) {
             throw new IOException(tsLogger.i18NLogger.get_state_OutputBuffer_10());
         }
 
-        packInt(bytes.length+1);
-
-        _valid = false;
+        writeInt(bytes.length+1);
+        write(bytes, 0, bytes.length);
 
-        _output.write(bytes, 0, bytes.length);
-        _output.writeByte(0);
+        ensureCapacity(1);
+        _buffer[_length++] = 0;
         realign(bytes.length+1);
-
-        _valid = true;
     }
 
     /**
@@ -371,7 +359,10 @@ public class OutputBuffer
              * pack number of bytes and then pack each byte separately.
              */
 
-            buff.packBytes(buffer());
+            if (!buff._valid)
+                throw new IOException(tsLogger.i18NLogger.get_state_OutputBuffer_2());
+
+            buff.packBytes(_buffer, 0, _length);
         }
     }
 
@@ -385,10 +376,8 @@ public class OutputBuffer
         {
             strm.println("OutputBuffer : \n");
 
-            byte[] b = buffer();
-
-            for (int i = 0; i < b.length; i++)
-                strm.write((char) b[i]);
+            for (int i = 0; i < _length; i++)
+                strm.write((char) _buffer[i]);
         }
         else
             strm.println("OutputBuffer : invalid.");
@@ -403,47 +392,90 @@ public class OutputBuffer
         if (!_valid)
             return false;
 
-        try
-        {
-            _outputStream = new ByteArrayOutputStream();
-            _output = new DataOutputStream(_outputStream);
+        _length = 0;
+        initBuffer();
 
-            initBuffer();
-        }
-        catch (IOException e)
+        return _valid;
+    }
+
+    private final void packBytes (byte[] b, int offset, int length)
+    {
+        writeInt(length);
+
+        if (length > 0)
         {
-            _valid = false;
+            write(b, offset, length);
+            realign(length);
         }
-
-        return _valid;
     }
 
     /*
      * 1 = 3
      */
 
-    private final void realign (int amount) throws IOException
+    private final void realign (int amount)
     {
         if ((amount % OutputBuffer.ALIGNMENT) > 0)
         {
             int excess = OutputBuffer.ALIGNMENT
                     - (amount % OutputBuffer.ALIGNMENT);
 
-            for (int i = 0; i < excess; i++)
-                _output.write(_byte, 0, 1);
+            ensureCapacity(excess);
+
+            Arrays.fill(_buffer, _length, _length + excess, (byte) 0);
+            _length += excess;
         }
     }
 
-    private final void initBuffer () throws IOException
+    private final void initBuffer ()
+    {
+        ensureCapacity(headerSize);
+
+        _buffer[_length++] = '#';
+        _buffer[_length++] = 'B';
+        _buffer[_length++] = 'E';
+        _buffer[_length++] = 1;
+        _buffer[_length++] = 16;
+        _buffer[_length++] = 32;
+        _buffer[_length++] = 64;
+        _buffer[_length++] = 0;
+    }
+
+    private final void writeInt (int i)
+    {
+        ensureCapacity(4);
+
+        INT.set(_buffer, _length, i);
+        _length += 4;
+    }
+
+    private final void writeLong (long l)
+    {
+        ensureCapacity(8);
+
+        LONG.set(_buffer, _length, l);
+        _length += 8;
+    }
+
+    private final void write (byte[] b, int offset, int length)
+    {
+        ensureCapacity(length);
+
+        System.arraycopy(b, offset, _buffer, _length, length);
+        _length += length;
+    }
+
+    private final void ensureCapacity (int extra)
     {
-        String version = "#BE";
-
-        _output.writeBytes(version);
-        _output.writeBoolean(true);
-        _output.writeByte(16);
-        _output.writeByte(32);
-        _output.writeByte(64);
-        _output.writeByte(0);
+        int required = _length + extra;
+
+        if (required > _buffer.length)
+        {
+            if (required < 0)
+                throw new OutOfMemoryError();
+
+            _buffer = Arrays.copyOf(_buffer, Math.max(_buffer.length << 1, required));
+        }
     }
 
     protected boolean _valid;
@@ -452,10 +484,16 @@ public class OutputBuffer
 
     protected static final int ALIGNMENT = 4;
 
-    private DataOutputStream _output;
+    static final VarHandle INT = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+    static final VarHandle LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    private static final int DEFAULT_SIZE = 64;
+
+    private static final byte[] EMPTY = new byte[0];
 
-    private ByteArrayOutputStream _outputStream;
+    private byte[] _buffer;
 
-    private static final byte[] _byte = new byte[1];
+    private int _length;
 
-}
\ No newline at end of file
+}
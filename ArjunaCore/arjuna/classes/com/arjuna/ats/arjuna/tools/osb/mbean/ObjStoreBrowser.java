@@ -6,12 +6,19 @@ package com.arjuna.ats.arjuna.tools.osb.mbean;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 
 import javax.management.MBeanException;
@@ -23,6 +30,8 @@ import com.arjuna.ats.arjuna.common.arjPropertyManager;
 import com.arjuna.ats.arjuna.exceptions.ObjectStoreException;
 import com.arjuna.ats.arjuna.logging.tsLogger;
 import com.arjuna.ats.arjuna.objectstore.ObjectStoreIterator;
+import com.arjuna.ats.arjuna.objectstore.RecoveryStore;
+import com.arjuna.ats.arjuna.objectstore.StateStatus;
 import com.arjuna.ats.arjuna.objectstore.StoreManager;
 import com.arjuna.ats.arjuna.state.InputObjectState;
 import com.arjuna.ats.arjuna.tools.osb.util.JMXServer;
@@ -146,6 +155,15 @@ public class ObjStoreBrowser implements ObjStoreBrowserMBean {
 
     private static final Map<String, OSBTypeHandler> osbTypeMap = new ConcurrentHashMap<>();
 
+    // the object store states which records can be listed by
+    private static final int[] recordStates = {
+            StateStatus.OS_COMMITTED,
+            StateStatus.OS_UNCOMMITTED,
+            StateStatus.OS_HIDDEN,
+            StateStatus.OS_COMMITTED_HIDDEN,
+            StateStatus.OS_UNCOMMITTED_HIDDEN
+    };
+
     // A system property for defining extra bean types for instrumenting object store types
     // The format is OSType1=BeanType1,OSType2=BeanType2,etc
     public static final String OBJ_STORE_BROWSER_HANDLERS = "com.arjuna.ats.arjuna.tools.osb.mbean.ObjStoreBrowserHandlers";
@@ -412,14 +430,7 @@ public class ObjStoreBrowser implements ObjStoreBrowserMBean {
     }
 
     private boolean isRegistered(String type, Uid uid) {
-        List<UidWrapper> beans = registeredMBeans.get(type);
-
-        if (beans != null)
-            for (UidWrapper w : beans)
-                if (uid.equals(w.getUid()))
-                    return true;
-
-        return false;
+        return findRegistered(type, uid) != null;
     }
 
     public void viewSubordinateAtomicActions(boolean enable) {
@@ -502,6 +513,245 @@ public class ObjStoreBrowser implements ObjStoreBrowserMBean {
         registerMBeans();
     }
 
+    /**
+     * List the records in the ObjectStore one page at a time, without creating any MBeans, so that a store
+     * holding a very large number of records can be looked at. A record is named by its type and the file form
+     * of its Uid separated by a '/', as it is laid out in the store, and records are listed in order of type
+     * and then Uid. Pass the last record of a page as the cursor to get the next one.
+     * Use {@link #registerRecord(String)} to create the MBean of a record which needs looking at in detail.
+     *
+     * @param type the ObjectStore type to list, or null (or empty) to list the records of every type
+     * @param status only list records in this state (for example COMMITTED, UNCOMMITTED or HIDDEN, see
+     *               {@link StateStatus}), or null (or empty) for records in any state
+     * @param minAgeSeconds only list records created at least this many seconds ago, or 0 for records of any age.
+     *                      The creation time is read from the record header so when an age is given only records
+     *                      of the types which have a handler, and which have a committed state, are listed
+     * @param cursor the last record of the previous page, or null (or empty) to start from the first record
+     * @param pageSize the most records to return
+     * @return the names of the records, fewer than pageSize only if there are no more
+     * @throws MBeanException if the ObjectStore cannot be read or an argument is invalid
+     */
+    public String[] listRecords(String type, String status, long minAgeSeconds, String cursor, int pageSize)
+            throws MBeanException {
+        if (pageSize <= 0)
+            throw new MBeanException(new IllegalArgumentException("pageSize must be positive: " + pageSize));
+
+        int state = stateStatus(status);
+        String cursorType = null;
+        String cursorUid = null;
+
+        if (cursor != null && cursor.length() != 0) {
+            cursorType = recordType(cursor);
+            cursorUid = recordUid(cursor).fileStringForm();
+        }
+
+        Collection<String> types = (type == null || type.length() == 0) ?
+                new TreeSet<>(getTypes()) : Collections.singletonList(canonicalType(type));
+        List<String> page = new ArrayList<>(Math.min(pageSize, 1024));
+        long now = System.currentTimeMillis();
+
+        for (String t : types) {
+            int order = cursorType == null ? 1 : t.compareTo(cursorType);
+
+            if (order < 0)
+                continue; // already listed
+
+            String after = order == 0 ? cursorUid : null;
+
+            while (true) {
+                int wanted = pageSize - page.size();
+                List<Uid> uids = getUidsAfter(t, after, wanted);
+
+                for (Uid uid : uids) {
+                    if (isMatch(t, uid, state, minAgeSeconds, now)) {
+                        page.add(t + '/' + uid.fileStringForm());
+
+                        if (page.size() == pageSize)
+                            return page.toArray(new String[0]);
+                    }
+                }
+
+                if (uids.size() < wanted)
+                    break; // no more records of this type
+
+                after = uids.get(uids.size() - 1).fileStringForm();
+            }
+        }
+
+        return page.toArray(new String[0]);
+    }
+
+    /**
+     * Create and register the MBean of a single record, such as one returned by
+     * {@link #listRecords(String, String, long, String, int)}, if it has not been registered already.
+     * It stays registered until it is unregistered or the store is probed again.
+     *
+     * @param record the name of the record
+     * @return the JMX name of the MBean, or null if there is no such record or its type is not instrumented
+     * @throws MBeanException if the record name is invalid or the ObjectStore cannot be read
+     */
+    public synchronized String registerRecord(String record) throws MBeanException {
+        String type = recordType(record);
+        Uid uid = recordUid(record);
+
+        UidWrapper w = findRegistered(type, uid);
+
+        if (w != null)
+            return w.getName();
+
+        try {
+            if (StoreManager.getRecoveryStore().currentState(uid, type) == StateStatus.OS_UNKNOWN)
+                return null;
+        } catch (ObjectStoreException e) {
+            throw new MBeanException(e);
+        }
+
+        w = createBean(uid, type); // can return null if type isn't instrumented
+
+        if (w == null || !w.isAllowRegistration())
+            return null;
+
+        registeredMBeans.computeIfAbsent(type, k -> new ArrayList<>()).add(w);
+        w.register();
+
+        return w.getName();
+    }
+
+    /**
+     * Unregister the MBean of a single record registered by {@link #registerRecord(String)} or by probing
+     * the store.
+     *
+     * @param record the name of the record
+     * @return false if there is no MBean registered for the record
+     * @throws MBeanException if the record name is invalid
+     */
+    public synchronized boolean unregisterRecord(String record) throws MBeanException {
+        String type = recordType(record);
+        UidWrapper w = findRegistered(type, recordUid(record));
+
+        if (w == null)
+            return false;
+
+        registeredMBeans.get(type).remove(w);
+        w.unregister();
+
+        return true;
+    }
+
+    private UidWrapper findRegistered(String type, Uid uid) {
+        List<UidWrapper> beans = registeredMBeans.get(type);
+
+        if (beans != null)
+            for (UidWrapper w : beans)
+                if (uid.equals(w.getUid()))
+                    return w;
+
+        return null;
+    }
+
+    private static String recordType(String record) throws MBeanException {
+        int sep = record == null ? -1 : record.lastIndexOf('/');
+
+        if (sep <= 0)
+            throw new MBeanException(new IllegalArgumentException("Invalid record name: " + record));
+
+        return canonicalType(record.substring(0, sep));
+    }
+
+    private static Uid recordUid(String record) throws MBeanException {
+        Uid uid = new Uid(record.substring(record.lastIndexOf('/') + 1), true);
+
+        if (Uid.nullUid().equals(uid))
+            throw new MBeanException(new IllegalArgumentException("Invalid record name: " + record));
+
+        return uid;
+    }
+
+    private static int stateStatus(String status) throws MBeanException {
+        if (status == null || status.length() == 0)
+            return StateStatus.OS_UNKNOWN;
+
+        String name = status.trim().toUpperCase(Locale.ROOT);
+
+        if (name.startsWith("STATESTATUS."))
+            name = name.substring("STATESTATUS.".length());
+        if (name.startsWith("OS_"))
+            name = name.substring("OS_".length());
+
+        for (int state : recordStates)
+            if (StateStatus.stateStatusString(state).equals("StateStatus.OS_" + name))
+                return state;
+
+        throw new MBeanException(new IllegalArgumentException("Invalid record status: " + status));
+    }
+
+    /*
+     * The first limit Uids of a type which come after the given one in the order records are listed in, in that
+     * order. The store cannot start an enumeration part way through, so every Uid of the type is looked at, but
+     * only the limit smallest seen so far are kept, in a heap whose head is the largest of them.
+     */
+    private List<Uid> getUidsAfter(String type, String after, int limit) throws MBeanException {
+        PriorityQueue<Map.Entry<String, Uid>> smallest =
+                new PriorityQueue<>(Math.min(limit, 1024), Map.Entry.comparingByKey(Comparator.reverseOrder()));
+
+        try {
+            ObjectStoreIterator iter = new ObjectStoreIterator(StoreManager.getRecoveryStore(), type);
+
+            while (true) {
+                Uid uid = iter.iterate();
+
+                if (uid == null || Uid.nullUid().equals(uid))
+                    break;
+
+                String key = uid.fileStringForm();
+
+                if (after != null && key.compareTo(after) <= 0)
+                    continue;
+
+                if (smallest.size() < limit) {
+                    smallest.add(new AbstractMap.SimpleImmutableEntry<>(key, uid));
+                } else if (key.compareTo(smallest.peek().getKey()) < 0) {
+                    smallest.poll();
+                    smallest.add(new AbstractMap.SimpleImmutableEntry<>(key, uid));
+                }
+            }
+        } catch (ObjectStoreException | IOException e) {
+            throw new MBeanException(e);
+        }
+
+        Uid[] uids = new Uid[smallest.size()];
+
+        for (int i = uids.length - 1; i >= 0; i--)
+            uids[i] = smallest.poll().getValue();
+
+        return Arrays.asList(uids);
+    }
+
+    private boolean isMatch(String type, Uid uid, int state, long minAgeSeconds, long now) {
+        RecoveryStore store = StoreManager.getRecoveryStore();
+
+        try {
+            if (state != StateStatus.OS_UNKNOWN && store.currentState(uid, type) != state)
+                return false;
+
+            if (minAgeSeconds > 0) {
+                HeaderStateReader headerStateReader = getHeaderStateUnpacker(type);
+                HeaderState hs = headerStateReader == null ?
+                        null : headerStateReader.unpackHeader(store.read_committed(uid, type));
+
+                if (hs == null || hs.getBirthDate() <= 0 || now - hs.getBirthDate() < minAgeSeconds * 1000L)
+                    return false;
+            }
+        } catch (ObjectStoreException | IOException e) {
+            if (tsLogger.logger.isTraceEnabled())
+                tsLogger.logger.trace("ObjStoreBrowser: cannot read record " + uid + " of type " + type, e);
+
+            return false;
+        }
+
+        return true;
+    }
+
     /**
      * Register new MBeans of the requested type (or unregister ones whose
      * corresponding ObjectStore entry has been removed)
@@ -30,4 +30,16 @@ public interface ObjStoreBrowserMBean extends ObjStoreItemMBean {
 	    + "Use the text \"true\" to expose all logs as MBeans. You must invoke the probe method for the"
 	    + " change to take effect")
 	void setExposeAllRecordsAsMBeans(boolean exposeAllLogs);
+
+	@MXBeanPropertyDescription("List the records of a type (or of every type if it is empty) a page at a time,"
+	    + " without creating MBeans for them. Optionally only records in a given state (COMMITTED, UNCOMMITTED,"
+	    + " HIDDEN ...) or at least minAgeSeconds old are listed. Pass the last record of a page as the cursor"
+	    + " to get the next page")
+	String[] listRecords(String type, String status, long minAgeSeconds, String cursor, int pageSize) throws MBeanException;
+
+	@MXBeanPropertyDescription("Create the MBean of a record returned by listRecords and return its name")
+	String registerRecord(String record) throws MBeanException;
+
+	@MXBeanPropertyDescription("Remove the MBean of a record")
+	boolean unregisterRecord(String record) throws MBeanException;
 }
@@ -4,6 +4,7 @@
  */
 package com.arjuna.ats.internal.arjuna.coordinator;
 
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import com.arjuna.ats.arjuna.coordinator.Reapable;
@@ -112,6 +113,12 @@ public class ReaperElement implements Comparable<ReaperElement>
 
     public final Reapable _control;
 
+    /*
+     * the ReaperTimingWheel slot this element was last placed in, or null if it is
+     * in the wheel's sorted list. Not used by ReaperElementManager.
+     */
+    volatile Set<ReaperElement> _wheelBucket;
+
 	private long _nextCheckAbsoluteMillis;
 	private long _transactionTimeoutAbsoluteMillis;
     private final int _bias;
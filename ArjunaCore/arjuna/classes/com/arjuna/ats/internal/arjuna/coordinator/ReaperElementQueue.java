@@ -0,0 +1,43 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+package com.arjuna.ats.internal.arjuna.coordinator;
+
+/*
+ * The operations the TransactionReaper needs from the structure holding its ReaperElements.
+ *
+ * add and remove are called by application threads on transaction begin and end and should
+ * be cheap and, ideally, non-blocking. The remaining operations are called by the reaper
+ * itself and may take an instance lock.
+ *
+ * As with ReaperElementManager, additional external synchronization is needed to ensure the
+ * first element does not change between getFirst and any operation depending on its timeout
+ * value. This is the TransactionReaper's problem.
+ */
+public interface ReaperElementQueue
+{
+    /**
+     * @return the first (i.e. earliest to time out) element of the collection or null if empty
+     */
+    ReaperElement getFirst();
+
+    void add(ReaperElement reaperElement) throws IllegalStateException;
+
+    /**
+     * @param reaperElement the reaper element to reorder.
+     * @param delayMillis the amount of time to increment the element's timeout by.
+     * @return the new soonest timeout in the collection (not necessarily that of the reordered element)
+     */
+    long reorder(ReaperElement reaperElement, long delayMillis);
+
+    // use only for testing, it's potentially expensive.
+    int size();
+
+    boolean isEmpty();
+
+    // force instant expiry of every element during shutdown.
+    void setAllTimeoutsToZero();
+
+    void remove(ReaperElement reaperElement);
+}
@@ -0,0 +1,375 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+package com.arjuna.ats.internal.arjuna.coordinator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * A hierarchical timing wheel for the transaction reaper (TIMING_WHEEL mode).
+ *
+ * ReaperElementManager makes insert and remove cheap by parking new elements in a single concurrent
+ * set, but the first time the reaper needs to know the earliest element it has to sort everything in
+ * that set under the instance lock, and removals of elements that have been sorted take the same lock.
+ * With many cores beginning and ending transactions that lock, and the one shared set, become the
+ * bottleneck.
+ *
+ * Here elements are hashed by their next check time into the slots of a set of wheels. Level 0 has
+ * 256 slots of one tick (TICK_MILLIS) each, and each further level has 64 slots each spanning the
+ * whole of the level below it. Every slot is its own concurrent set, so application threads adding
+ * and removing elements on transaction begin and end touch only the slot their element hashes to:
+ * both operations are O(1), take no instance lock and do not contend with each other unless their
+ * elements share a slot.
+ *
+ * Only the reaper thread moves elements between slots. Whenever it asks for the first element the
+ * wheel is advanced to the current time: slots of the higher levels are cascaded into the lower
+ * levels as their time comes round, and level 0 slots which have become due are drained into a small
+ * sorted list, guarded by the instance lock, exactly like the sorted list in ReaperElementManager.
+ * That list only ever holds elements whose time has come, or which the reaper has rescheduled while
+ * cancelling them, so it stays short and removals rarely need the lock.
+ *
+ * An element records the slot it was last placed in (ReaperElement._wheelBucket) so that a removal
+ * can go straight to it. An element is in at most one slot or in the sorted list; moving it out of a
+ * slot is always done by a successful remove on that slot, so a concurrent removal and a move can
+ * never both succeed.
+ *
+ * The usual timing wheel race, where an application thread places an element in a slot just as the
+ * reaper finishes with it, is handled by publishing the new current tick before a slot is processed
+ * and having the inserting thread check it after the insert: if the slot may have been processed
+ * already the element is taken back out and placed in the overdue set instead.
+ *
+ * Pay careful attention to locking and performance characteristics if altering this class.
+ */
+public class ReaperTimingWheel implements ReaperElementQueue
+{
+    /**
+     * Resolution of the wheel in milliseconds. Elements are moved to the sorted list within the tick
+     * in which they become due, and then handled with full millisecond precision.
+     */
+    public static final long TICK_MILLIS = 10;
+
+    public ReaperTimingWheel() {
+        for(int level = 0; level < LEVELS; level++) {
+            wheel[level] = newBuckets(1 << LEVEL_BITS[level]);
+        }
+
+        currentTick = System.currentTimeMillis() / TICK_MILLIS;
+    }
+
+    /**
+     * @return the first (i.e. earliest to time out) element of the collection or null if empty
+     */
+    public synchronized ReaperElement getFirst() {
+        advance(System.currentTimeMillis());
+        flushOverdue();
+
+        if(!elementsOrderedByTimeout.isEmpty()) {
+            return elementsOrderedByTimeout.get(0);
+        }
+
+        // nothing due yet - find the element the reaper needs to wake for, but leave it where it is.
+        return earliestInWheel();
+    }
+
+    // Note - unsynchronized for performance.
+    public void add(ReaperElement reaperElement) throws IllegalStateException {
+        if(reaperElement._wheelBucket != null) {
+            // best effort, as for ReaperElementManager.
+            throw new IllegalStateException();
+        }
+
+        insert(reaperElement);
+    }
+
+    /**
+     * @param reaperElement the reaper element to reorder.
+     * @param delayMillis the amount of time to increment the element's timeout by.
+     * @return the new soonest timeout in the collection (not necessarily that of the reordered element)
+     */
+    public synchronized long reorder(ReaperElement reaperElement, long delayMillis) {
+        removeLocked(reaperElement);
+
+        reaperElement.setNextCheckAbsoluteMillis((System.currentTimeMillis() + delayMillis));
+
+        insert(reaperElement);
+
+        return getFirst().getNextCheckAbsoluteMillis();
+    }
+
+    // use only for testing, it's nasty from a performance perspective.
+    public synchronized int size() {
+        int size = elementsOrderedByTimeout.size() + overdue.size();
+
+        for(Set<ReaperElement>[] level : wheel) {
+            for(Set<ReaperElement> bucket : level) {
+                size += bucket.size();
+            }
+        }
+
+        return size;
+    }
+
+    public synchronized boolean isEmpty() {
+        if(!elementsOrderedByTimeout.isEmpty() || !overdue.isEmpty()) {
+            return false;
+        }
+
+        for(Set<ReaperElement>[] level : wheel) {
+            for(Set<ReaperElement> bucket : level) {
+                if(!bucket.isEmpty()) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    // strange hack to force instant expire of tx during shutdown.
+    public synchronized void setAllTimeoutsToZero() {
+        for(Set<ReaperElement>[] level : wheel) {
+            for(Set<ReaperElement> bucket : level) {
+                drain(bucket);
+            }
+        }
+
+        drain(overdue);
+
+        ArrayList<ReaperElement> elements = new ArrayList<ReaperElement>(elementsOrderedByTimeout);
+
+        elementsOrderedByTimeout.clear();
+
+        for(ReaperElement reaperElement : elements) {
+            reaperElement.setNextCheckAbsoluteMillis(0);
+            reaperElement.setTransactionTimeoutAbsoluteMillis(0);
+
+            insertSorted(reaperElement);
+        }
+    }
+
+    // Note - mostly unsynchronized for performance.
+    public void remove(ReaperElement reaperElement) {
+        Set<ReaperElement> bucket = reaperElement._wheelBucket;
+
+        if(bucket != null && bucket.remove(reaperElement)) {
+            return;
+        }
+
+        // it is either in the sorted list or is being moved by the reaper, which holds the lock while it does so.
+        synchronized(this) {
+            removeLocked(reaperElement);
+        }
+    }
+
+    ////////////
+
+    private static final int[] LEVEL_BITS = { 8, 6, 6, 6, 6 };
+    private static final int LEVELS = LEVEL_BITS.length;
+    private static final int[] SHIFTS = new int[LEVELS];
+
+    static {
+        int shift = 0;
+
+        for(int level = 0; level < LEVELS; level++) {
+            SHIFTS[level] = shift;
+            shift += LEVEL_BITS[level];
+        }
+    }
+
+    // elements further away than this are parked in the top level and cascaded down as time passes.
+    private static final long MAX_DELTA = (1L << 32) - 1;
+
+    @SuppressWarnings("unchecked")
+    private final Set<ReaperElement>[][] wheel = new Set[LEVELS][];
+    private final Set<ReaperElement> overdue = ConcurrentHashMap.newKeySet();
+
+    // guarded by the instance lock.
+    private final ArrayList<ReaperElement> elementsOrderedByTimeout = new ArrayList<ReaperElement>();
+
+    // written only by the reaper, with the instance lock held, before the slots for the tick are processed.
+    private volatile long currentTick;
+
+    @SuppressWarnings("unchecked")
+    private static Set<ReaperElement>[] newBuckets(int slots) {
+        Set<ReaperElement>[] buckets = new Set[slots];
+
+        for(int i = 0; i < slots; i++) {
+            buckets[i] = ConcurrentHashMap.newKeySet();
+        }
+
+        return buckets;
+    }
+
+    /*
+     * Place the element in the slot for its next check time. Called without the lock by application
+     * threads and with it by the reaper.
+     */
+    private void insert(ReaperElement reaperElement) {
+        for(;;) {
+            long now = currentTick;
+            long tick = reaperElement.getNextCheckAbsoluteMillis() / TICK_MILLIS;
+            long delta = tick - now;
+
+            if(delta <= 0) {
+                reaperElement._wheelBucket = overdue;
+
+                if(!overdue.add(reaperElement)) {
+                    throw new IllegalStateException();
+                }
+
+                return;
+            }
+
+            if(delta > MAX_DELTA) {
+                tick = now + MAX_DELTA;
+                delta = MAX_DELTA;
+            }
+
+            int level = 0;
+
+            while(level < LEVELS - 1 && delta >= (1L << SHIFTS[level + 1])) {
+                level++;
+            }
+
+            int shift = SHIFTS[level];
+            Set<ReaperElement> bucket = wheel[level][(int) ((tick >> shift) & ((1 << LEVEL_BITS[level]) - 1))];
+            // the tick at which the reaper will drain (level 0) or cascade (higher levels) this slot.
+            long processingTick = (tick >> shift) << shift;
+
+            reaperElement._wheelBucket = bucket;
+
+            if(!bucket.add(reaperElement)) {
+                throw new IllegalStateException();
+            }
+
+            if(currentTick < processingTick || !bucket.remove(reaperElement)) {
+                // either the slot is still to be processed, or the reaper has already moved the element on.
+                return;
+            }
+
+            // we raced with the reaper processing the slot - go round again, now with an up to date tick.
+        }
+    }
+
+    // called with the instance lock held.
+    private void removeLocked(ReaperElement reaperElement) {
+        Set<ReaperElement> bucket = reaperElement._wheelBucket;
+
+        if(bucket != null) {
+            if(bucket.remove(reaperElement)) {
+                return;
+            }
+        }
+
+        int location = Collections.binarySearch(elementsOrderedByTimeout, reaperElement);
+        if(location >= 0) {
+            elementsOrderedByTimeout.remove(location);
+        }
+    }
+
+    /*
+     * Move the wheel on to the given time, cascading and draining slots as their ticks come round.
+     * Called with the instance lock held.
+     */
+    private void advance(long nowMillis) {
+        long targetTick = nowMillis / TICK_MILLIS;
+        long tick = currentTick;
+
+        while(tick < targetTick) {
+            tick++;
+
+            // publish before touching the slots, see insert.
+            currentTick = tick;
+
+            // highest level first, so that elements cascaded down can be cascaded again if their slot is also due.
+            for(int level = LEVELS - 1; level > 0; level--) {
+                int shift = SHIFTS[level];
+
+                if((tick & ((1L << shift) - 1)) == 0) {
+                    cascade(wheel[level][(int) ((tick >> shift) & ((1 << LEVEL_BITS[level]) - 1))]);
+                }
+            }
+
+            drain(wheel[0][(int) (tick & ((1 << LEVEL_BITS[0]) - 1))]);
+        }
+    }
+
+    private void cascade(Set<ReaperElement> bucket) {
+        Iterator<ReaperElement> iter = bucket.iterator();
+
+        while(iter.hasNext()) {
+            ReaperElement reaperElement = iter.next();
+
+            // insert/remove not locked, so only move elements we managed to take out of the slot ourselves.
+            if(bucket.remove(reaperElement)) {
+                insert(reaperElement);
+            }
+        }
+    }
+
+    private void drain(Set<ReaperElement> bucket) {
+        Iterator<ReaperElement> iter = bucket.iterator();
+
+        while(iter.hasNext()) {
+            ReaperElement reaperElement = iter.next();
+
+            if(bucket.remove(reaperElement)) {
+                reaperElement._wheelBucket = null;
+                insertSorted(reaperElement);
+            }
+        }
+    }
+
+    private void flushOverdue() {
+        if(!overdue.isEmpty()) {
+            drain(overdue);
+        }
+    }
+
+    /*
+     * Within a level the slots hold disjoint, increasing ranges of ticks, so the first non-empty slot of
+     * each level, in time order, holds that level's earliest element. Elements in the lower levels are
+     * not necessarily earlier than those in the higher ones, as they may have been placed at different
+     * times, so look at every level.
+     */
+    private ReaperElement earliestInWheel() {
+        long now = currentTick;
+        ReaperElement earliest = null;
+
+        for(int level = 0; level < LEVELS; level++) {
+            int shift = SHIFTS[level];
+            int slots = 1 << LEVEL_BITS[level];
+            long start = (now >> shift) + 1;
+
+            for(int i = 0; i < slots; i++) {
+                Set<ReaperElement> bucket = wheel[level][(int) ((start + i) & (slots - 1))];
+
+                if(!bucket.isEmpty()) {
+                    for(ReaperElement reaperElement : bucket) {
+                        if(earliest == null || reaperElement.compareTo(earliest) < 0) {
+                            earliest = reaperElement;
+                        }
+                    }
+
+                    break;
+                }
+            }
+        }
+
+        return earliest;
+    }
+
+    private void insertSorted(ReaperElement reaperElement) {
+        int location = Collections.binarySearch(elementsOrderedByTimeout, reaperElement);
+        if(location >= 0) {
+            throw new IllegalStateException();
+        }
+        int insertionPoint = -(location + 1);
+        elementsOrderedByTimeout.add(insertionPoint, reaperElement);
+    }
+}
@@ -5,17 +5,22 @@
 package com.arjuna.ats.internal.arjuna.coordinator;
 
 import com.arjuna.ats.arjuna.coordinator.TransactionReaper;
+import com.arjuna.ats.arjuna.coordinator.TwoPhaseCommitThreadPool;
 import com.arjuna.ats.arjuna.logging.tsLogger;
 
 /**
  * Class to reap timed out transactions on behalf of the transaction reaper
  * thread which is dispatched to terminate a series of transactions when their
  * timeout elapses.
+ * <p>
+ * The worker runs on a thread obtained from {@link TwoPhaseCommitThreadPool#newThread}
+ * so it is a virtual thread whenever the two phase commit executor uses virtual threads.
+ * That way a worker abandoned under a wedged cancel does not tie up a platform thread.
  *
  * @author Andrew Dinn (adinn@redhat.com) 2007-07-08
  */
 
-public class ReaperWorkerThread extends Thread
+public class ReaperWorkerThread implements Runnable
 {
     /**
      * counter used to number reaper worker threads
@@ -25,7 +30,7 @@ public class ReaperWorkerThread extends Thread
     public ReaperWorkerThread (TransactionReaper arg)
     {
         // no need for synchronization when doing the increment here as worker threads are not created in parallel.
-        super("Transaction Reaper Worker " + counter++);
+        _thread = TwoPhaseCommitThreadPool.newThread(this, "Transaction Reaper Worker " + counter++);
         _theReaper = arg;
         _shutdown = false;
     }
@@ -58,7 +63,11 @@ public void run ()
                  tsLogger.logger.trace("Thread "+Thread.currentThread()+" performing transaction check work");
              }
 
-             _theReaper.doWork();
+             // the reaper has written this worker off as a zombie so exit
+             // and leave further cancellations to its replacement
+
+             if (_theReaper.doWork())
+                 _shutdown = true;
 
             // check for shutdown before we wait again
 
@@ -67,12 +76,33 @@ public void run ()
         }
     }
 
+    public void start ()
+    {
+        _thread.start();
+    }
+
     public void shutdown ()
     {
 	_shutdown = true;
     }
 
+    public void interrupt ()
+    {
+        _thread.interrupt();
+    }
+
+    public void join () throws InterruptedException
+    {
+        _thread.join();
+    }
+
+    public Thread getThread ()
+    {
+        return _thread;
+    }
+
+    private final Thread      _thread;
     private TransactionReaper _theReaper;
-    private boolean           _shutdown;
+    private volatile boolean  _shutdown;
 
-}
\ No newline at end of file
+}
@@ -4,7 +4,13 @@
  */
 package com.arjuna.ats.internal.arjuna.objectstore;
 
+import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 
 import com.arjuna.ats.arjuna.common.ObjectStoreEnvironmentBean;
 import com.arjuna.ats.arjuna.common.Uid;
@@ -130,6 +136,14 @@ public class CacheStore extends HashedStore
         return super.write_state(objUid, tName, state, ft);
     }
 
+    /*
+     * Writes and removals are queued, so the files do not yet reflect them when they return.
+     */
+    protected boolean supportsChangeTracking()
+    {
+        return false;
+    }
+
     public CacheStore(ObjectStoreEnvironmentBean objectStoreEnvironmentBean) throws ObjectStoreException
     {
         super(objectStoreEnvironmentBean);
@@ -144,7 +158,7 @@ class StoreElement
 {
 
     public StoreElement(CacheStore s, int tow, Uid ou, String tn,
-            OutputObjectState st, int ft)
+            OutputObjectState st, int ft, int b)
     {
         store = s;
         typeOfWork = tow;
@@ -152,6 +166,7 @@ class StoreElement
         tName = tn;
         state = st;
         fileType = ft;
+        bucket = b;
         removed = false;
     }
 
@@ -184,6 +199,8 @@ class StoreElement
 
     public int fileType;
 
+    public final int bucket;
+
     public boolean removed;
 
 }
@@ -198,30 +215,32 @@ class ShutdownThread extends Thread // used to flush on exit
 
     public void run ()
     {
-        CacheStore._storeManager.flush();
-
-        synchronized (CacheStore._storeManager)
-        {
-            CacheStore._storeManager.notifyAll();
-        }
+        /*
+         * We don't want to exit the VM if a worker thread is currently
+         * writing to the disk. That would be very bad :-(! Shutting down
+         * waits for any write in progress and then drains the queue.
+         */
 
-        synchronized (CacheStore._storeManager._activeLock)
-        {
-            /*
-             * We don't want to exit the VM if the worker thread is currently
-             * writing to the disk. That would be very bad :-(! So, just check
-             * that the thread isn't actively doing work.
-             */
+        CacheStore._storeManager.shutdown();
 
-          if (tsLogger.logger.isTraceEnabled()) {
-              tsLogger.logger.trace("ShutdownThread.run () - terminating");
-          }
-      }
-   }
+        if (tsLogger.logger.isTraceEnabled()) {
+            tsLogger.logger.trace("ShutdownThread.run () - terminating");
+        }
+    }
 
 }
 
-class AsyncStore extends Thread // keep priority same as app. threads
+/*
+ * The cache is a hash table of buckets, each holding the outstanding work for
+ * the Uids which hash to it, newest first, and each guarded by its own monitor.
+ * Each bucket is written out by one of a number of worker threads, which takes
+ * the work from its own queue in the order it was added. So the work for a Uid
+ * is always done in order and by the same thread, while work for different Uids
+ * goes to disk in parallel. Callers only contend with each other, or with a
+ * worker, if they touch the same bucket.
+ */
+
+class AsyncStore
 {
 
     public static final int NO_WORK = -1;
@@ -238,10 +257,9 @@ class AsyncStore extends Thread // keep priority same as app. threads
 
     public static final int NOT_PRESENT = 5;
 
+    @SuppressWarnings("unchecked")
     public AsyncStore()
     {
-        super("AsyncStoreThread");
-
         _maximumCacheSize = _defaultCacheSize;
         _maximumWorkItems = _defaultWorkItems;
         _maximumRemovedItems = _defaultRemovedItems;
@@ -249,37 +267,49 @@ class AsyncStore extends Thread // keep priority same as app. threads
 
         _workList = new LinkedList[HASH_SIZE];
 
-        setDaemon(true);
+        for (int i = 0; i < HASH_SIZE; i++)
+            _workList[i] = new LinkedList<StoreElement>();
+
+        _workers = new Worker[Math.min(WORKERS, HASH_SIZE)];
+
+        for (int i = 0; i < _workers.length; i++)
+            _workers[i] = new Worker(i);
 
         Runtime.getRuntime().addShutdownHook(new ShutdownThread());
 
-        start();
+        for (Worker w : _workers)
+            w.start();
     }
 
+    /**
+     * Write out all outstanding work before returning, including any the
+     * workers are in the middle of.
+     */
+
     public final void flush ()
     {
         /*
-         * Do it this way because by the time we get here the daemon thread has
-         * been removed by the system.
+         * Do it this way rather than waiting for the workers since by the
+         * time we get here they may have been removed by the system.
          */
 
-        boolean stop = false;
-
         do
         {
-            synchronized (_workList)
-            {
-                stop = _numberOfEntries <= 0;
-            }
-
-            if (!stop)
-            {
-                doWork();
-            }
+            for (Worker w : _workers)
+                w.drain();
         }
-        while (!stop);
+        while (_numberOfEntries.get() > 0);
+    }
 
+    /**
+     * Flush and stop the worker threads.
+     */
+
+    public final void shutdown ()
+    {
         _terminated = true;
+
+        flush();
     }
 
     public final boolean addWork (CacheStore store, int workType, Uid objUid,
@@ -292,43 +322,48 @@ class AsyncStore extends Thread // keep priority same as app. threads
          * again.
          */
 
-        boolean stop = false;
-
-        do
+        while (cacheIsFull() && !_terminated)
         {
             synchronized (_overflowLock)
             {
-                if (cacheIsFull())
+                _overflowWaiters.incrementAndGet();
+
+                try
                 {
-                    try
-                    {
-                        _overflowLock.wait();
-                    }
-                    catch (Exception ex)
-                    {
-                    }
+                    if (cacheIsFull())
+                        _overflowLock.wait(_scanPeriod);
+                }
+                catch (Exception ex)
+                {
+                }
+                finally
+                {
+                    _overflowWaiters.decrementAndGet();
                 }
-                else
-                    stop = true;
             }
         }
-        while (!stop);
 
+        int index = getIndex(objUid);
         StoreElement toAdd = new StoreElement(store, workType, objUid, tName,
-                state, ft);
+                state, ft, index);
+        LinkedList<StoreElement> list = _workList[index];
 
+        synchronized (list)
+        {
+            list.addFirst(toAdd);
 
-            LinkedList list = getList(objUid);
-            synchronized (list) {
-                list.addFirst(toAdd);
-            }
-            synchronized (_workList) {
+            if (state != null)
+                _currentCacheSize.addAndGet(state.size());
 
-                if (state != null)
-                    _currentCacheSize += state.size();
+            _numberOfEntries.incrementAndGet();
 
-                _numberOfEntries++;
-            }
+            /*
+             * Queue it while we hold the bucket so the worker sees the work for
+             * each Uid in the order it was added.
+             */
+
+            getWorker(index).add(toAdd);
+        }
 
         return true;
     }
@@ -343,460 +378,386 @@ class AsyncStore extends Thread // keep priority same as app. threads
 
     public final int removeState (Uid objUid, int ft)
     {
-        Object[] elements = null;
+        int index = getIndex(objUid);
+        LinkedList<StoreElement> list = _workList[index];
+        int status = NOT_PRESENT;
 
-        /*
-         * Check the cache first. Take a snapshot.
-         */
+        synchronized (list)
+        {
+            /*
+             * The list is newest first. Find the oldest write being removed:
+             * only commits queued after it, i.e., nearer the head, were to
+             * move the state it would have written into place. A commit
+             * queued before it belongs to a state which has already been
+             * written and must still be done.
+             */
+
+            int oldestWrite = -1;
+            int position = 0;
+
+            for (StoreElement element : list)
+            {
+                if ((element.typeOfWork == AsyncStore.WRITE) && element.objUid.equals(objUid))
+                    oldestWrite = position;
 
-        LinkedList list = getList(objUid);
-        synchronized (list) {
-            try {
-                elements = list.toArray();
-            } catch (Exception ex) {
-                // This should not happen now that the list is under a synchronized guard
-                tsLogger.i18NLogger.warn_could_not_extract_array(ex);
-                elements = null;
+                position++;
             }
-        }
 
-        int status = NOT_PRESENT;
-        
-        if (elements == null) {
-            tsLogger.logger.trace("No elements");
-            return status;
-        }
+            Iterator<StoreElement> iter = list.iterator();
 
-        for (int i = 0; i < elements.length; i++)
-        {
-            StoreElement element = (StoreElement) elements[i];
+            position = 0;
 
-            if (element != null) {
+            while (iter.hasNext())
+            {
+                StoreElement element = iter.next();
 
-                synchronized (_workList)
+                if (element.objUid.equals(objUid))
                 {
-                    synchronized (element)
+                    switch (element.typeOfWork)
                     {
-                        if (!element.removed && element.objUid.equals(objUid))
+                    case AsyncStore.WRITE:
+                        // if (element.fileType == ft)
+                    case AsyncStore.REMOVE:
+                        cancel(element);
+                        iter.remove();
+
+                        status = REMOVED;
+
+                        break;
+                    case AsyncStore.COMMIT:
+                        if (position < oldestWrite)
                         {
-                            switch (element.typeOfWork)
-                            {
-                            case AsyncStore.REMOVE:
-                                element.remove();
-                                _removedItems++;
-
-                                if (status != IN_USE)
-                                    status = REMOVED;
-
-                                break;
-                            case AsyncStore.WRITE:
-                                // if (element.fileType == ft)
-                            {
-                                if (element.state != null)
-                                    _currentCacheSize -= element.state.size();
-
-                                _removedItems++;
-
-                                element.remove();
-
-                                if (status != IN_USE)
-                                    status = REMOVED;
-                            }
-
-                                break;
-                            default:
-                                break;
-                            }
+                            cancel(element);
+                            iter.remove();
                         }
+
+                        break;
+                    default:
+                        break;
                     }
                 }
-            }
-        }
 
-        if (cacheIsFull())
-        {
-            synchronized (_workList)
-            {
-                _workList.notify();
+                position++;
             }
-        }
-        
-        /*
-         * Does the worker thread currently have it?
-         */
 
-        if (CacheStore._storeManager.currentWork(objUid, ft))
-        {
-            status = IN_USE;
+            /*
+             * Does the worker thread currently have it?
+             */
+
+            if (getWorker(index).isWorkingOn(objUid, ft))
+                status = IN_USE;
         }
 
+        cacheIsFull();
+
         return status;
     }
 
     public final int removeWriteState (Uid objUid, int ft)
     {
+        int index = getIndex(objUid);
+        LinkedList<StoreElement> list = _workList[index];
         int status = NOT_PRESENT;
-        Object[] elements = null;
-
-        LinkedList list = getList(objUid);
-        synchronized (list) {
-            try {
-                elements = list.toArray();
-            } catch (Exception ex) {
-                // This should not happen now that the list is under a synchronized guard
-                tsLogger.i18NLogger.warn_could_not_extract_array(ex);
-                elements = null;
-            }
-        }
 
-        if (elements == null) {
-            tsLogger.logger.trace("No elements");
-            return status;
-        }
-
-        for (int i = 0; i < elements.length; i++)
+        synchronized (list)
         {
-            StoreElement element = (StoreElement) elements[i];
+            Iterator<StoreElement> iter = list.iterator();
 
-            if (element != null)
+            while (iter.hasNext())
             {
-                synchronized (_workList)
+                StoreElement element = iter.next();
+
+                if (element.objUid.equals(objUid))
                 {
-                    synchronized (element) {
-                        if (!element.removed && element.objUid.equals(objUid))
-                        {
-                            switch (element.typeOfWork)
-                            {
-                            case AsyncStore.WRITE:
-                                if (ft == element.fileType)
-                                {
-                                    if (element.state != null)
-                                        _currentCacheSize -= element.state.size();
-
-                                    _removedItems++;
-
-                                    element.remove();
-
-                                    status = REMOVED;
-                                }
-                                else
-                                {
-                                    if (ft == StateType.OS_ORIGINAL)
-                                    {
-                                        if (element.fileType == StateType.OS_SHADOW)
-                                        {
-                                            if (element.state != null)
-                                                _currentCacheSize -= element.state
-                                                        .size();
-
-                                            _removedItems++;
-
-                                            element.remove();
-
-                                            status = REMOVED;
-                                        }
-                                    }
-                                }
-
-                                break;
-                            case AsyncStore.COMMIT:
-                                if (ft == StateType.OS_ORIGINAL)
-                                {
-                                    if (element.state != null)
-                                        _currentCacheSize -= element.state.size();
-
-                                    _removedItems++;
-
-                                    element.remove();
-
-                                    status = REMOVED;
-                                }
-
-                                break;
-                            default:
-                                break;
-                            }
-                        }
+                    boolean remove = false;
+
+                    switch (element.typeOfWork)
+                    {
+                    case AsyncStore.WRITE:
+                        remove = (ft == element.fileType)
+                                || ((ft == StateType.OS_ORIGINAL) && (element.fileType == StateType.OS_SHADOW));
+                        break;
+                    case AsyncStore.COMMIT:
+                        remove = (ft == StateType.OS_ORIGINAL);
+                        break;
+                    default:
+                        break;
+                    }
+
+                    if (remove)
+                    {
+                        cancel(element);
+                        iter.remove();
+
+                        status = REMOVED;
                     }
                 }
             }
         }
 
-        if (cacheIsFull())
-        {
-            synchronized (_workList)
-            {
-                _workList.notify();
-            }
-        }
-        
+        cacheIsFull();
+
         return status;
     }
 
     public final OutputObjectState getState (Uid objUid, int ft)
     {
-        LinkedList list = getList(objUid);
+        int index = getIndex(objUid);
+        LinkedList<StoreElement> list = _workList[index];
 
         synchronized (list)
         {
-            for (int i = 0; i < list.size(); i++)
+            for (StoreElement element : list)
             {
-                StoreElement element = (StoreElement) list.get(i);
-
-                if (element != null) {
-                    synchronized (element) {
-                        if (!element.removed && (element.objUid.equals(objUid)))
-                        {
-                            if (element.fileType == ft)
-                                return element.state;
-                        }
-                    }
+                if (element.objUid.equals(objUid))
+                {
+                    if (element.fileType == ft)
+                        return element.state;
                 }
             }
-        }
 
-        /*
-         * If not in cache then maybe we're working on it?
-         */
+            /*
+             * If not in cache then maybe we're working on it?
+             */
 
-        synchronized (_workList)
-        {
-            if ((_work != null) && (objUid.equals(_work.objUid)))
-                return _work.state;
+            StoreElement work = getWorker(index).getWork();
+
+            if ((work != null) && objUid.equals(work.objUid) && (work.fileType == ft))
+                return work.state;
         }
 
         return null;
     }
 
-    public void run ()
+    public boolean currentWork (Uid objUid, int ft)
     {
-        synchronized (_workList)
+        int index = getIndex(objUid);
+
+        synchronized (_workList[index])
         {
-            try
-            {
-                _workList.wait();
-            }
-            catch (Exception ex)
-            {
-            }
+            return getWorker(index).isWorkingOn(objUid, ft);
         }
+    }
 
-        while (!_terminated)
-        {
-            synchronized (_activeLock)
-            {
-                while (!queueIsEmpty()) // drain the queue
-                {
-                    doWork();
-                }
+    /*
+     * Mark an element as no longer needing to be done. It stays on its worker's
+     * queue until the worker reaches it. Must hold the element's bucket.
+     */
 
-                /*
-                 * We've drained the queue, so notify any blocked threads so
-                 * that they get a chance to add something to the queue again.
-                 */
+    private final void cancel (StoreElement element)
+    {
+        if (element.state != null)
+            _currentCacheSize.addAndGet(-element.state.size());
 
-                synchronized (_overflowLock)
-                {
-                    _overflowLock.notifyAll();
-                }
-            }
+        _removedItems.incrementAndGet();
 
-            synchronized (_workList)
-            {
-                if (!cacheIsFull())
-                {
-                    try
-                    {
-                        _workList.wait(_scanPeriod);
-                    }
-                    catch (Exception ex)
-                    {
-                    }
-                }
-            }
+        element.remove();
+    }
+
+    /**
+     * @return true if the cache is full, false otherwise. If it is full the
+     * workers are woken to drain it.
+     */
+
+    private final boolean cacheIsFull ()
+    {
+        int removedItems = _removedItems.get();
+
+        if ((_currentCacheSize.get() >= _maximumCacheSize)
+                || (removedItems >= _maximumRemovedItems)
+                || (_numberOfEntries.get() - removedItems >= _maximumWorkItems))
+        {
+            for (Worker w : _workers)
+                LockSupport.unpark(w);
+
+            return true; // cache is full, so wait
         }
+        else
+            return false; // cache is ok
     }
 
-    public boolean currentWork (Uid objUid, int ft)
+    private final int getIndex (Uid objUid)
+    {
+        return Math.floorMod(objUid.hashCode(), HASH_SIZE);
+    }
+
+    private final Worker getWorker (int index)
     {
-        try
+        return _workers[index % _workers.length];
+    }
+
+    private class Worker extends Thread // keep priority same as app. threads
+    {
+        Worker (int number)
+        {
+            super("AsyncStoreThread-" + number);
+
+            setDaemon(true);
+        }
+
+        public void run ()
         {
-            synchronized (_workList)
+            while (!_terminated)
             {
-                if (_work != null)
+                if (_queue.isEmpty() || !cacheIsFull())
                 {
-                    if (_work.objUid.equals(objUid) && (_work.fileType == ft))
-                    {
-                        return true;
-                    }
+                    if (_scanPeriod > 0)
+                        LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(_scanPeriod));
+                    else
+                        LockSupport.park(this);  // only when the cache fills
                 }
+
+                drain();
             }
         }
-        catch (Exception ex)
-        {
-        }
 
-        return false;
-    }
+        /*
+         * Called by any number of threads adding work while holding the
+         * bucket for it.
+         */
 
-    private final void doWork ()
-    {
-        LinkedList list = getList();
+        void add (StoreElement element)
+        {
+            _queue.add(element);
+        }
 
-        if (list != null)
+        StoreElement getWork ()
         {
-            synchronized (list)
-            {
-                synchronized (_workList) {
-                    if (!list.isEmpty()) {
-                        _work = (StoreElement) list.removeLast();
+            return _work;
+        }
 
-                        _numberOfEntries--;
+        /*
+         * Must hold the bucket for the Uid.
+         */
 
-                        if ((_work.state != null) && !_work.removed)
-                            _currentCacheSize -= _work.state.size();
+        boolean isWorkingOn (Uid objUid, int ft)
+        {
+            StoreElement work = _work;
 
-                        if (_work.removed) {
-                            _removedItems--;
-                        }
-                    } else {
-                        _work = null;
-                    }
-                }
-            }
-        }
-        else {
-            synchronized (_workList) {
-                _work = null;
-            }
+            return (work != null) && work.objUid.equals(objUid) && (work.fileType == ft);
         }
 
-        synchronized (_workList) {
-            if ((_work != null) && !_work.removed)
+        /*
+         * Do everything on the queue. Run by this worker and by threads
+         * flushing the cache, but only by one of them at a time, so the
+         * work is still done in order.
+         */
+
+        void drain ()
+        {
+            synchronized (_activeLock)
             {
-                /*
-                 * Should write any errors to a persistent log so that an admin tool
-                 * can pick up the pieces later.
-                 */
+                StoreElement element;
 
-                try
+                while ((element = _queue.poll()) != null)
                 {
-                    switch (_work.typeOfWork) {
-                        case AsyncStore.COMMIT: {
-                            if (!_work.store.commitState(_work.objUid, _work.tName)) {
-                                tsLogger.i18NLogger.warn_objectstore_CacheStore_1(_work.objUid, _work.tName);
-                            }
-                        }
-                        break;
-                        case AsyncStore.REMOVE: {
-                            if (!_work.store.removeState(_work.objUid, _work.tName,
-                                    _work.fileType)) {
-                                tsLogger.i18NLogger.warn_objectstore_CacheStore_2(_work.objUid, _work.tName,
-                                        Integer.toString(_work.fileType));
-                            }
-                        }
-                        break;
-                        case AsyncStore.WRITE: {
-                            if (!_work.store.writeState(_work.objUid, _work.tName,
-                                    _work.state, _work.fileType)) {
-                                tsLogger.i18NLogger.warn_objectstore_CacheStore_3(_work.objUid, _work.tName,
-                                        _work.state.toString(), Integer.toString(_work.fileType));
-                            }
+                    doWork(element);
+
+                    if (_overflowWaiters.get() > 0)
+                    {
+                        synchronized (_overflowLock)
+                        {
+                            _overflowLock.notifyAll();
                         }
-                        break;
-                        default:
-                            tsLogger.i18NLogger.warn_objectstore_CacheStore_4(Integer.toString(_work.typeOfWork));
-                            break;
                     }
                 }
-                catch (ObjectStoreException ex)
-                {
-                    tsLogger.i18NLogger.warn_could_not_handle_objectstore(ex);
-                }
-                catch (Exception ex)
-                {
-                    tsLogger.i18NLogger.warn_could_not_handle_objectstore_generic(ex);
-                }
             }
         }
 
-        synchronized (_workList) {
-            // Must have the lock to write to _work
-            _work = null;
-        }
-    }
+        private void doWork (StoreElement element)
+        {
+            LinkedList<StoreElement> list = _workList[element.bucket];
 
-    /**
-     * @return true if the queue is empty, false otherwise.
-     */
+            synchronized (list)
+            {
+                if (element.removed)
+                {
+                    _removedItems.decrementAndGet();
+                    _numberOfEntries.decrementAndGet();
 
-    private final boolean queueIsEmpty ()
-    {
-        synchronized (_workList)
-        {
-            if (_numberOfEntries == 0)
-                return true;
-            else
-                return false;
-        }
-    }
+                    return;
+                }
 
-    /**
-     * @return true if the cache is full, false otherwise.
-     */
+                list.removeLastOccurrence(element);
 
-    private final boolean cacheIsFull ()
-    {
-        synchronized (_workList)
-        {
-            if ((_currentCacheSize >= _maximumCacheSize)
-                    || (_removedItems >= _maximumRemovedItems)
-                    || (_numberOfEntries - _removedItems >= _maximumWorkItems))
-            {
-                _workList.notifyAll();
+                if (element.state != null)
+                    _currentCacheSize.addAndGet(-element.state.size());
 
-                return true; // cache is full, so wait
+                _work = element;
             }
-            else
-                return false; // cache is ok
-        }
-    }
 
-    private final LinkedList getList ()
-    {
-        synchronized (_workList) {
-            for (int i = 0; i < HASH_SIZE; i++)
+            /*
+             * Should write any errors to a persistent log so that an admin tool
+             * can pick up the pieces later.
+             */
+
+            try
+            {
+                switch (element.typeOfWork) {
+                    case AsyncStore.COMMIT: {
+                        if (!element.store.commitState(element.objUid, element.tName)) {
+                            tsLogger.i18NLogger.warn_objectstore_CacheStore_1(element.objUid, element.tName);
+                        }
+                    }
+                    break;
+                    case AsyncStore.REMOVE: {
+                        if (!element.store.removeState(element.objUid, element.tName,
+                                element.fileType)) {
+                            tsLogger.i18NLogger.warn_objectstore_CacheStore_2(element.objUid, element.tName,
+                                    Integer.toString(element.fileType));
+                        }
+                    }
+                    break;
+                    case AsyncStore.WRITE: {
+                        if (!element.store.writeState(element.objUid, element.tName,
+                                element.state, element.fileType)) {
+                            tsLogger.i18NLogger.warn_objectstore_CacheStore_3(element.objUid, element.tName,
+                                    element.state.toString(), Integer.toString(element.fileType));
+                        }
+                    }
+                    break;
+                    default:
+                        tsLogger.i18NLogger.warn_objectstore_CacheStore_4(Integer.toString(element.typeOfWork));
+                        break;
+                }
+            }
+            catch (ObjectStoreException ex)
             {
-                if ((_workList[i] != null) && (!_workList[i].isEmpty()))
-                    return _workList[i];
+                tsLogger.i18NLogger.warn_could_not_handle_objectstore(ex);
             }
+            catch (Exception ex)
+            {
+                tsLogger.i18NLogger.warn_could_not_handle_objectstore_generic(ex);
+            }
+            finally
+            {
+                synchronized (list)
+                {
+                    _work = null;
+                }
 
-            return null;
+                // only now is it on disk, which is what flush waits for
+
+                _numberOfEntries.decrementAndGet();
+            }
         }
-    }
 
-    private final LinkedList getList (Uid objUid)
-    {
-        int index = objUid.hashCode() % HASH_SIZE;
+        private final Queue<StoreElement> _queue = new ConcurrentLinkedQueue<StoreElement>();
 
-        synchronized (_workList)
-        {
-            if (_workList[index] == null)
-                _workList[index] = new LinkedList();
+        private final Object _activeLock = new Object();
 
-            return _workList[index];
-        }
+        private volatile StoreElement _work = null;
     }
 
-    public Object _activeLock = new Object();
+    private final LinkedList<StoreElement>[] _workList;
 
-    private LinkedList[] _workList = null;
+    private final Worker[] _workers;
 
-    private int _numberOfEntries = 0;
+    private final AtomicInteger _numberOfEntries = new AtomicInteger();
 
-    private boolean _terminated = false;
+    private volatile boolean _terminated = false;
 
-    private int _currentCacheSize = 0;
+    private final AtomicInteger _currentCacheSize = new AtomicInteger();
 
     private int _maximumCacheSize = 0;
 
@@ -806,14 +767,16 @@ class AsyncStore extends Thread // keep priority same as app. threads
 
     private int _scanPeriod = 0;
 
-    private Object _overflowLock = new Object();
+    private final Object _overflowLock = new Object();
 
-    private StoreElement _work = null;
+    private final AtomicInteger _overflowWaiters = new AtomicInteger();
 
-    private int _removedItems = 0;
+    private final AtomicInteger _removedItems = new AtomicInteger();
 
     private static final int HASH_SIZE = arjPropertyManager.getObjectStoreEnvironmentBean().getCacheStoreHash();
 
+    private static final int WORKERS = arjPropertyManager.getObjectStoreEnvironmentBean().getCacheStoreWorkers();
+
     private static final int _defaultCacheSize = arjPropertyManager.getObjectStoreEnvironmentBean().getCacheStoreSize();
 
     private static final int _defaultRemovedItems = arjPropertyManager
@@ -823,4 +786,4 @@ class AsyncStore extends Thread // keep priority same as app. threads
 
     private static final int _defaultScanPeriod = arjPropertyManager.getObjectStoreEnvironmentBean().getCacheStoreScanPeriod();
 
-}
\ No newline at end of file
+}
@@ -14,6 +14,7 @@ import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
+import java.util.concurrent.locks.Lock;
 
 import com.arjuna.ats.arjuna.common.ObjectStoreEnvironmentBean;
 import com.arjuna.ats.arjuna.common.Uid;
@@ -128,6 +129,37 @@ public abstract class FileSystemStore extends ObjectStore
      * the Uids of objects of that type
      */
     public boolean allObjUids(final String tName, final InputObjectState state, final int match) throws ObjectStoreException
+    {
+        if (_index != null) {
+            return indexedObjUids(tName, state, match);
+        }
+
+        return scanObjUids(tName, state, match);
+    }
+
+    /**
+     * Given a type name initialise the <code>state</code> to contain the Uids
+     * of objects of that type written since change number <code>since</code>.
+     * Unless change tracking is enabled every Uid of the type is returned.
+     */
+    public long changedObjUids(String tName, InputObjectState state, long since) throws ObjectStoreException
+    {
+        if (_index == null) {
+            return super.changedObjUids(tName, state, since);
+        }
+
+        if (tsLogger.logger.isTraceEnabled()) {
+            tsLogger.logger.trace("FileSystemStore.changedObjUids(" + tName + ", " + state + ", " + since + ")");
+        }
+
+        return _index.changedUids(tName, state, since);
+    }
+
+    /**
+     * Given a type name initialise the <code>state</code> to contains all of
+     * the Uids of objects of that type, by listing the store's directories.
+     */
+    protected boolean scanObjUids(final String tName, final InputObjectState state, final int match) throws ObjectStoreException
     {
        if(System.getSecurityManager() == null) {
            return allObjUidsInternal(tName, state, match);
@@ -145,6 +177,44 @@ public abstract class FileSystemStore extends ObjectStore
        }
     }
 
+    /**
+     * Can this store keep its Uids in an ObjectStoreIndex. Only stores whose
+     * writes and removals take effect in the store before they return, and
+     * which keep one state per file, can.
+     */
+    protected boolean supportsChangeTracking()
+    {
+        return true;
+    }
+
+    private boolean indexedObjUids(String tName, InputObjectState state, int match) throws ObjectStoreException
+    {
+        if (tsLogger.logger.isTraceEnabled()) {
+            tsLogger.logger.trace("FileSystemStore.allObjUids(" + tName + ", " + state + ", " + match + ") from index");
+        }
+
+        OutputObjectState store = new OutputObjectState();
+
+        try
+        {
+            for (Uid aUid : _index.uids(tName))
+            {
+                if ((match == StateStatus.OS_UNKNOWN) || isType(aUid, tName, match))
+                    UidHelper.packInto(aUid, store);
+            }
+
+            UidHelper.packInto(Uid.nullUid(), store);
+        }
+        catch (IOException e)
+        {
+            throw new ObjectStoreException(tsLogger.i18NLogger.get_objectstore_FileSystemStore_2a(), e);
+        }
+
+        state.setBuffer(store.buffer());
+
+        return true;
+    }
+
     private RuntimeException unwrapException(PrivilegedActionException e) throws ObjectStoreException {
         Throwable c = e.getCause();
         if(c instanceof ObjectStoreException) {
@@ -316,6 +386,30 @@ public abstract class FileSystemStore extends ObjectStore
         }
     }
     private boolean remove_state_internal (final Uid u, final String tn, final int s) throws ObjectStoreException
+    {
+        if (_index == null) {
+            return remove_state_privileged(u, tn, s);
+        }
+
+        Lock lock = _index.updateLock(tn);
+
+        lock.lock();
+
+        try {
+            boolean result = remove_state_privileged(u, tn, s);
+
+            // removing one state of an object may leave another behind
+
+            if (result && currentState(u, tn) == StateStatus.OS_UNKNOWN) {
+                _index.removed(tn, u);
+            }
+
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+    private boolean remove_state_privileged (final Uid u, final String tn, final int s) throws ObjectStoreException
     {
         if(System.getSecurityManager() == null) {
             return remove_state(u, tn, s);
@@ -333,6 +427,28 @@ public abstract class FileSystemStore extends ObjectStore
         }
     }
     private boolean write_state_internal (final Uid u, final String tn, final OutputObjectState buff, final int s) throws ObjectStoreException
+    {
+        if (_index == null) {
+            return write_state_privileged(u, tn, buff, s);
+        }
+
+        Lock lock = _index.updateLock(tn);
+
+        lock.lock();
+
+        try {
+            boolean result = write_state_privileged(u, tn, buff, s);
+
+            if (result) {
+                _index.written(tn, u);
+            }
+
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+    private boolean write_state_privileged (final Uid u, final String tn, final OutputObjectState buff, final int s) throws ObjectStoreException
     {
         if(System.getSecurityManager() == null) {
             return write_state(u, tn, buff, s);
@@ -605,6 +721,12 @@ public abstract class FileSystemStore extends ObjectStore
         if ((fullStoreName == null) || !createHierarchy(fullStoreName)) {
             throw new ObjectStoreException( tsLogger.i18NLogger.get_objectstore_FileSystemStore_1(fullStoreName) );
         }
+
+        if (objectStoreEnvironmentBean.isChangeTracking() && supportsChangeTracking()) {
+            _index = new ObjectStoreIndex((tName, state) -> scanObjUids(tName, state, StateStatus.OS_UNKNOWN));
+        } else {
+            _index = null;
+        }
     }
 
     protected boolean allTypes (final OutputObjectState foundTypes, final String root) throws ObjectStoreException {
@@ -911,6 +1033,9 @@ public abstract class FileSystemStore extends ObjectStore
     private final String fullStoreName;
     protected volatile boolean doSync = true;
 
+    // the Uids present, if change tracking is enabled
+    private final ObjectStoreIndex _index;
+
     // global values (some of which may be reset on a per instance basis).
 
     private static final Hashtable fileCache = new Hashtable();
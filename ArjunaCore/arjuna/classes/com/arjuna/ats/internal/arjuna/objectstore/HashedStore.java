@@ -45,7 +45,7 @@ public class HashedStore extends ShadowNoFileLockStore
      * Uids of objects of that type
      */
 
-    public boolean allObjUids (String tName, InputObjectState state, int match) throws ObjectStoreException
+    protected boolean scanObjUids (String tName, InputObjectState state, int match) throws ObjectStoreException
     {
         if (tsLogger.logger.isTraceEnabled()) {
             tsLogger.logger.trace("HashedStore.allObjUids(" + tName + ", " + state + ", " + match + ")");
@@ -0,0 +1,322 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+package com.arjuna.ats.internal.arjuna.objectstore;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.arjuna.ats.arjuna.logging.tsLogger;
+
+/**
+ * Group commit for the LogStore. Rather than every writer opening the log,
+ * writing its entry and syncing the disk in turn, concurrent writers queue
+ * their entries on a shared batch. The first writer to find no flush in
+ * progress becomes the leader: it takes the whole batch, writes it to the
+ * log(s) with as few channel writes as possible, issues a single force and
+ * then releases every writer in the batch together. Writers that arrive while
+ * the leader is flushing form the next batch.
+ *
+ * A writer never returns before the force covering its entry has completed,
+ * so an entry that has been acknowledged to the caller is as durable as one
+ * written by the non-batched LogStore. Entries that were not acknowledged at
+ * the time of a crash look exactly like a write that never happened, which
+ * recovery already has to cope with.
+ */
+
+class LogGroupCommitter
+{
+    class WriteRequest
+    {
+        WriteRequest (final File fd, final long pos, final ByteBuffer buff, final long len)
+        {
+            file = fd;
+            position = pos;
+            data = buff;
+            fileLength = len;
+        }
+
+        final File file;
+        final long position;
+        final ByteBuffer data;
+        final long fileLength;  // the minimum size the log must be to hold this entry
+
+        boolean completed = false;
+        IOException failure = null;
+    }
+
+    public LogGroupCommitter (Object writeLock, int maxBatchSize, long maxWaitMicros, boolean sync)
+    {
+        _writeLock = writeLock;
+        _maxBatchSize = Math.max(1, maxBatchSize);
+        _maxWait = TimeUnit.MICROSECONDS.toNanos(Math.max(0, maxWaitMicros));
+        _sync = sync;
+    }
+
+    /**
+     * Add an entry to the current batch and block until the batch containing
+     * it has been written and forced to disk.
+     *
+     * @param fd the log file.
+     * @param position the offset within the log at which to write the entry.
+     * @param data the entry, ready to be written.
+     * @param fileLength the minimum length of the log file once the entry has been written.
+     * @throws IOException if the batch could not be written or synced.
+     */
+
+    public void write (File fd, long position, ByteBuffer data, long fileLength) throws IOException
+    {
+        WriteRequest request = new WriteRequest(fd, position, data, fileLength);
+        boolean interrupted = false;
+
+        synchronized (_batchLock)
+        {
+            _pending.add(request);
+
+            if (_pending.size() >= _maxBatchSize)
+                _batchLock.notifyAll();
+        }
+
+        /*
+         * A batch holds at most _maxBatchSize entries, taken in arrival order,
+         * so the batch a leader flushes need not contain its own entry. Keep
+         * leading or waiting until our entry has been flushed by someone.
+         */
+
+        while (true)
+        {
+            List<WriteRequest> batch;
+
+            synchronized (_batchLock)
+            {
+                while (!request.completed && _flushing)
+                {
+                    try
+                    {
+                        _batchLock.wait();
+                    }
+                    catch (final InterruptedException ex)
+                    {
+                        // we must not return until our entry has been dealt with
+
+                        interrupted = true;
+                    }
+                }
+
+                if (request.completed)
+                    break;
+
+                _flushing = true;
+
+                batch = gatherBatch();
+            }
+
+            IOException failure = null;
+
+            try
+            {
+                flush(batch);
+            }
+            catch (final IOException ex)
+            {
+                failure = ex;
+            }
+            catch (final RuntimeException ex)
+            {
+                failure = new IOException(ex.toString(), ex);
+            }
+
+            synchronized (_batchLock)
+            {
+                for (WriteRequest r : batch)
+                {
+                    r.failure = failure;
+                    r.completed = true;
+                }
+
+                _batches++;
+                _flushing = false;
+
+                _batchLock.notifyAll();
+            }
+        }
+
+        if (interrupted)
+            Thread.currentThread().interrupt();
+
+        if (request.failure != null)
+            throw request.failure;
+    }
+
+    /**
+     * @return the number of batches written so far.
+     */
+
+    public long getBatches ()
+    {
+        synchronized (_batchLock)
+        {
+            return _batches;
+        }
+    }
+
+    /*
+     * Called by the leader with _batchLock held. Optionally wait for other
+     * writers to join the batch before taking it.
+     */
+
+    private List<WriteRequest> gatherBatch ()
+    {
+        if (_maxWait > 0)
+        {
+            long deadline = System.nanoTime() + _maxWait;
+            long remaining = _maxWait;
+
+            while ((_pending.size() < _maxBatchSize) && (remaining > 0))
+            {
+                try
+                {
+                    TimeUnit.NANOSECONDS.timedWait(_batchLock, remaining);
+                }
+                catch (final InterruptedException ex)
+                {
+                    Thread.currentThread().interrupt();
+
+                    break;
+                }
+
+                remaining = deadline - System.nanoTime();
+            }
+        }
+
+        List<WriteRequest> batch;
+
+        if (_pending.size() <= _maxBatchSize)
+        {
+            batch = _pending;
+            _pending = new ArrayList<WriteRequest>();
+        }
+        else
+        {
+            batch = new ArrayList<WriteRequest>(_pending.subList(0, _maxBatchSize));
+            _pending = new ArrayList<WriteRequest>(_pending.subList(_maxBatchSize, _pending.size()));
+        }
+
+        return batch;
+    }
+
+    /*
+     * Write the batch. Entries are grouped per log file and written in offset
+     * order, coalescing adjacent entries into a single gathering write. Each
+     * file is forced once, after all of its entries have been written.
+     */
+
+    private void flush (List<WriteRequest> batch) throws IOException
+    {
+        Map<File, List<WriteRequest>> perLog = new LinkedHashMap<File, List<WriteRequest>>();
+
+        for (WriteRequest r : batch)
+        {
+            List<WriteRequest> entries = perLog.get(r.file);
+
+            if (entries == null)
+            {
+                entries = new ArrayList<WriteRequest>();
+                perLog.put(r.file, entries);
+            }
+
+            entries.add(r);
+        }
+
+        if (tsLogger.logger.isTraceEnabled()) {
+            tsLogger.logger.trace("LogGroupCommitter.flush - writing " + batch.size() + " entries to " + perLog.size() + " log(s)");
+        }
+
+        /*
+         * Same lock as the LogStore uses for scanning and truncating logs, so
+         * a log cannot be rewritten underneath us.
+         */
+
+        synchronized (_writeLock)
+        {
+            for (Map.Entry<File, List<WriteRequest>> e : perLog.entrySet())
+                flushLog(e.getKey(), e.getValue());
+        }
+    }
+
+    private void flushLog (File fd, List<WriteRequest> entries) throws IOException
+    {
+        entries.sort(BY_POSITION);
+
+        long requiredLength = 0;
+
+        for (WriteRequest r : entries)
+            requiredLength = Math.max(requiredLength, r.fileLength);
+
+        try (RandomAccessFile ofile = new RandomAccessFile(fd, FILE_MODE))
+        {
+            FileChannel channel = ofile.getChannel();
+            boolean metadataChanged = false;
+
+            if (ofile.length() < requiredLength)
+            {
+                ofile.setLength(requiredLength);
+
+                metadataChanged = true;
+            }
+
+            int i = 0;
+
+            while (i < entries.size())
+            {
+                int j = i + 1;
+                long end = entries.get(i).position + entries.get(i).data.remaining();
+
+                while ((j < entries.size()) && (entries.get(j).position == end))
+                {
+                    end += entries.get(j).data.remaining();
+                    j++;
+                }
+
+                ByteBuffer[] buffers = new ByteBuffer[j - i];
+
+                for (int k = i; k < j; k++)
+                    buffers[k - i] = entries.get(k).data;
+
+                channel.position(entries.get(i).position);
+
+                while (buffers[buffers.length - 1].hasRemaining())
+                    channel.write(buffers);
+
+                i = j;
+            }
+
+            if (_sync)
+                channel.force(metadataChanged);
+        }
+    }
+
+    private static final String FILE_MODE = "rw";
+
+    private static final Comparator<WriteRequest> BY_POSITION = Comparator.comparingLong(r -> r.position);
+
+    private final Object _batchLock = new Object();
+    private final Object _writeLock;
+    private final int _maxBatchSize;
+    private final long _maxWait;
+    private final boolean _sync;
+
+    private List<WriteRequest> _pending = new ArrayList<WriteRequest>();
+    private boolean _flushing = false;
+    private long _batches = 0;
+}
@@ -87,6 +87,11 @@ import com.arjuna.ats.internal.arjuna.objectstore.LogInstance.TransactionData;
  * By default we synchronously add the removal marker to the log, i.e., when remove_committed
  * returns, the marker entry has been appended to the log.
  *
+ * Optionally (txLogGroupCommit) entries from concurrent writers can be batched
+ * together by a LogGroupCommitter: one thread writes the whole batch and syncs
+ * the log once on behalf of all of them. The on-disk format is unchanged, so
+ * recovery is the same whichever mode wrote the log.
+ *
  * NOTE: there is a race where we terminate the log instance and yet transactions may
  * still be using it. This happens with other object store implementations too. However, in
  * this case we could end up with a log that should be deleted because all of the entries
@@ -652,6 +657,14 @@ public class LogStore extends FileSystemStore
         }
     }
 
+    /*
+     * Many states share each log file, so the files do not map to Uids.
+     */
+    protected boolean supportsChangeTracking()
+    {
+        return false;
+    }
+
     public LogStore(ObjectStoreEnvironmentBean objectStoreEnvironmentBean) throws ObjectStoreException
     {
         super(objectStoreEnvironmentBean);
@@ -665,6 +678,15 @@ public class LogStore extends FileSystemStore
 
         _maxFileSize = objectStoreEnvironmentBean.getTxLogSize();
 
+        if (objectStoreEnvironmentBean.isTxLogGroupCommit())
+        {
+            _groupCommitter = new LogGroupCommitter(_lock,
+                    objectStoreEnvironmentBean.getTxLogGroupCommitBatchSize(),
+                    objectStoreEnvironmentBean.getTxLogGroupCommitWaitTime(), doSync);
+        }
+        else
+            _groupCommitter = null;
+
         _purger = new LogPurger(this, _purgeTime);
         _purger.setDaemon(true);
 
@@ -673,6 +695,16 @@ public class LogStore extends FileSystemStore
         _purger.start();
     }
 
+    /**
+     * @return the number of batches written by group commit, or -1 if group
+     * commit is not enabled.
+     */
+
+    public long getGroupCommitBatches()
+    {
+        return (_groupCommitter == null) ? -1 : _groupCommitter.getBatches();
+    }
+
     /**
      * Unlock and close the file. Note that if the unlock fails we set the
      * return value to false to indicate an error but rely on the close to
@@ -745,6 +777,59 @@ public class LogStore extends FileSystemStore
                     return false;
                 }
 
+                if (_groupCommitter != null)
+                {
+                    java.nio.ByteBuffer buff = java.nio.ByteBuffer.allocate(buffSize);
+
+                    buff.put(_redzone);
+                    buff.putInt(uidString.length);
+                    buff.put(uidString);
+                    buff.putInt(imageSize);
+                    buff.put(state.byteBuffer());
+                    buff.flip();
+
+                    long fileLength = Math.max(_maxFileSize, theLogEntry.offset + buffSize);
+
+                    // may have to resize file if we keep updating this transaction info, as below
+
+                    if (theLog.remaining() < buffSize)
+                    {
+                        long size = Math.max(fd.length(), _maxFileSize) + buffSize - theLog.remaining();
+
+                        fileLength = Math.max(fileLength, size);
+
+                        theLog.resize(size);
+                    }
+
+                    try
+                    {
+                        /*
+                         * Blocks until the batch containing our entry has
+                         * been written and synced.
+                         */
+
+                        _groupCommitter.write(fd, theLogEntry.offset, buff, fileLength);
+                    }
+                    catch (IOException e)
+                    {
+                        unlock(fd);
+
+                        if (arjPropertyManager.getCoreEnvironmentBean().isLogAndRethrow()) {
+                            tsLogger.i18NLogger.warn_LogStore_1(e); // JBTM-3990
+                        }
+
+                        throw new ObjectStoreException(
+                                "LogStore::write_state() - group commit failed for "
+                                        + fname + ": " + e, e);
+                    }
+
+                    unlock(fd);
+
+                    super.addToCache(fname);
+
+                    return true;
+                }
+
                 boolean setLength = !fd.exists();
 
                 try
@@ -775,7 +860,7 @@ public class LogStore extends FileSystemStore
                     buff.putInt(uidString.length);
                     buff.put(uidString);
                     buff.putInt(imageSize);
-                    buff.put(state.buffer());
+                    buff.put(state.byteBuffer());
 
                     synchronized (_lock)
                     {
@@ -1083,7 +1168,8 @@ public class LogStore extends FileSystemStore
                     for (int i = 0; i < objectStates.size(); i++)
                     {
                         byte[] uidString = objectStates.get(i).stateUid().stringForm().getBytes(StandardCharsets.UTF_8);
-                        int buffSize = _redzone.length + uidString.length + objectStates.get(i).buffer().length + 8;
+                        byte[] image = objectStates.get(i).buffer();
+                        int buffSize = _redzone.length + uidString.length + image.length + 8;
                         java.nio.ByteBuffer buff = java.nio.ByteBuffer.allocate(buffSize);
 
                         size += buffSize;
@@ -1093,8 +1179,8 @@ public class LogStore extends FileSystemStore
                             buff.put(_redzone);
                             buff.putInt(uidString.length);
                             buff.put(uidString);
-                            buff.putInt(objectStates.get(i).buffer().length);
-                            buff.put(objectStates.get(i).buffer(),0, objectStates.get(i).buffer().length);
+                            buff.putInt(image.length);
+                            buff.put(image);
                         }
                         catch (final Exception ex)
                         {
@@ -1511,6 +1597,7 @@ public class LogStore extends FileSystemStore
     private final long _purgeTime;
 
     private final LogPurger _purger;
+    private final LogGroupCommitter _groupCommitter;
     private final boolean _synchronousRemoval;
 
     private static final byte[] _redzone = { 0x2, 0x4, 0x6, 0x8 };
@@ -0,0 +1,191 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+package com.arjuna.ats.internal.arjuna.objectstore;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.arjuna.ats.arjuna.common.Uid;
+import com.arjuna.ats.arjuna.exceptions.ObjectStoreException;
+import com.arjuna.ats.arjuna.logging.tsLogger;
+import com.arjuna.ats.arjuna.state.InputObjectState;
+import com.arjuna.ats.arjuna.state.OutputObjectState;
+import com.arjuna.ats.internal.arjuna.common.UidHelper;
+
+/**
+ * An in memory index of the Uids present in a FileSystemStore, kept per type.
+ * Each Uid is recorded with the change number of its last write, so that the
+ * store can report the Uids written since a given change as well as all of
+ * those present.
+ *
+ * The index for a type is loaded from a scan of the store the first time it is
+ * needed. Writes and removals hold the read lock for their type while they
+ * change the store and the index, so that they can proceed concurrently but
+ * cannot interleave with the scan, or with a report of the changed Uids, both
+ * of which hold the write lock.
+ */
+
+class ObjectStoreIndex
+{
+    interface Scanner
+    {
+        void scan (String tName, InputObjectState state) throws ObjectStoreException;
+    }
+
+    class TypeIndex
+    {
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        final ConcurrentMap<Uid, Long> uids = new ConcurrentHashMap<Uid, Long>();
+        volatile boolean loaded = false;
+    }
+
+    ObjectStoreIndex (Scanner scanner)
+    {
+        _scanner = scanner;
+    }
+
+    /**
+     * @return the lock a write or removal must hold while it changes the store
+     * and the index.
+     */
+
+    ReentrantReadWriteLock.ReadLock updateLock (String tName)
+    {
+        return typeIndex(tName).lock.readLock();
+    }
+
+    void written (String tName, Uid u)
+    {
+        typeIndex(tName).uids.put(u, _changes.incrementAndGet());
+    }
+
+    void removed (String tName, Uid u)
+    {
+        typeIndex(tName).uids.remove(u);
+    }
+
+    /**
+     * Pack the Uids of the type written after change number <code>since</code>
+     * into <code>state</code>, terminated by the null Uid.
+     *
+     * @return the change number which, passed as <code>since</code>, will
+     * obtain only the Uids written after this call.
+     */
+
+    long changedUids (String tName, InputObjectState state, long since) throws ObjectStoreException
+    {
+        TypeIndex index = loadedTypeIndex(tName);
+        OutputObjectState store = new OutputObjectState();
+
+        long current;
+
+        /*
+         * Writers bump the change number and then record the Uid while they
+         * hold the read lock, so holding the write lock here means that every
+         * change up to current is already visible in the index.
+         */
+
+        index.lock.writeLock().lock();
+
+        try
+        {
+            current = _changes.get();
+
+            for (Map.Entry<Uid, Long> entry : index.uids.entrySet())
+            {
+                if (entry.getValue() > since)
+                    UidHelper.packInto(entry.getKey(), store);
+            }
+
+            UidHelper.packInto(Uid.nullUid(), store);
+        }
+        catch (IOException e)
+        {
+            throw new ObjectStoreException(tsLogger.i18NLogger.get_objectstore_FileSystemStore_3(), e);
+        }
+        finally
+        {
+            index.lock.writeLock().unlock();
+        }
+
+        state.setBuffer(store.buffer());
+
+        return current;
+    }
+
+    Iterable<Uid> uids (String tName) throws ObjectStoreException
+    {
+        return loadedTypeIndex(tName).uids.keySet();
+    }
+
+    private TypeIndex loadedTypeIndex (String tName) throws ObjectStoreException
+    {
+        TypeIndex index = typeIndex(tName);
+
+        if (!index.loaded)
+        {
+            index.lock.writeLock().lock();
+
+            try
+            {
+                if (!index.loaded)
+                {
+                    InputObjectState state = new InputObjectState();
+
+                    _scanner.scan(tName, state);
+
+                    Long change = _changes.incrementAndGet();
+
+                    try
+                    {
+                        Uid u = UidHelper.unpackFrom(state);
+
+                        while (u.notEquals(Uid.nullUid()))
+                        {
+                            index.uids.putIfAbsent(new Uid(u), change);
+
+                            u = UidHelper.unpackFrom(state);
+                        }
+                    }
+                    catch (IOException e)
+                    {
+                        throw new ObjectStoreException(tsLogger.i18NLogger.get_objectstore_FileSystemStore_2a(), e);
+                    }
+
+                    index.loaded = true;
+                }
+            }
+            finally
+            {
+                index.lock.writeLock().unlock();
+            }
+        }
+
+        return index;
+    }
+
+    private TypeIndex typeIndex (String tName)
+    {
+        /*
+         * The store treats type names with and without a leading separator alike.
+         */
+
+        if (tName == null)
+            tName = "";
+        else if ((tName.length() > 0) && (tName.charAt(0) == File.separatorChar))
+            tName = tName.substring(1);
+
+        return _types.computeIfAbsent(tName, t -> new TypeIndex());
+    }
+
+    private final Scanner _scanner;
+    private final ConcurrentMap<String, TypeIndex> _types = new ConcurrentHashMap<String, TypeIndex>();
+    private final AtomicLong _changes = new AtomicLong();
+}
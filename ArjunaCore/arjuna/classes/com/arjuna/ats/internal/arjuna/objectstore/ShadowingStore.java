@@ -564,7 +564,10 @@ public class ShadowingStore extends FileSystemStore
                 {
                     ofile = new FileOutputStream(fd);
 
-                    ofile.write(state.buffer(), 0, imageSize);
+                    java.nio.ByteBuffer image = state.byteBuffer();
+
+                    while (image.hasRemaining())
+                        ofile.getChannel().write(image);
 
                     if (synchronousWrites())
                     {
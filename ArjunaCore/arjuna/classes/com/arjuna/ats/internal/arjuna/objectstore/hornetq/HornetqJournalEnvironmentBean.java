@@ -49,6 +49,8 @@ public class HornetqJournalEnvironmentBean implements HornetqJournalEnvironmentB
 
     private volatile boolean asyncIO = true;
 
+    private volatile boolean offHeapRecords = false;
+
 
     /**
      * Returns the desired size in bytes of each log file.
@@ -406,4 +408,30 @@ public class HornetqJournalEnvironmentBean implements HornetqJournalEnvironmentB
 
         this.asyncIO = asyncIO;
     }
+
+    /**
+     * Returns true if the store keeps the state of the records it holds in off-heap memory.
+     * The heap then only holds a small index entry per record, which matters when a large number
+     * of transactions are left unresolved, for example while a resource manager is unavailable.
+     * The state is copied back onto the heap on demand when a record is read.
+     *
+     * Default: false
+     *
+     * @return true if record state is held off-heap, false if it is held on the heap.
+     */
+    public boolean isOffHeapRecords()
+    {
+        return offHeapRecords;
+    }
+
+    /**
+     * Sets whether the store keeps the state of the records it holds in off-heap memory.
+     * Off-heap memory is limited by -XX:MaxDirectMemorySize.
+     *
+     * @param offHeapRecords true to hold record state off-heap, false to hold it on the heap.
+     */
+    public void setOffHeapRecords(boolean offHeapRecords)
+    {
+        this.offHeapRecords = offHeapRecords;
+    }
 }
\ No newline at end of file
@@ -40,4 +40,6 @@ public interface HornetqJournalEnvironmentBeanMBean
     public boolean isLogRates();
 
     public boolean isAsyncIO();
+
+    public boolean isOffHeapRecords();
 }
\ No newline at end of file
@@ -47,6 +47,8 @@ public class HornetqJournalStore
 
     private final boolean syncWrites;
     private final boolean syncDeletes;
+    // null unless record state is to be kept off-heap, in which case the content map holds OffHeapRecordInfo
+    private final OffHeapRecordArea offHeapRecords;
     private final AtomicLong maxID = new AtomicLong(0);
 
     private final String storeDirCanonicalPath;
@@ -80,7 +82,7 @@ public class HornetqJournalStore
             InputBuffer inputBuffer = new InputBuffer(record.data);
             Uid uid = UidHelper.unpackFrom(inputBuffer);
             String typeName = inputBuffer.unpackString();
-            getContentForType(typeName).put(uid, record);
+            release(getContentForType(typeName).put(uid, toIndexRecord(record)));
             // don't unpack the rest yet, we may never need it. read_committed does it on demand.
         }
     }
@@ -89,6 +91,7 @@ public class HornetqJournalStore
 
         syncWrites = envBean.isSyncWrites();
         syncDeletes = envBean.isSyncDeletes();
+        offHeapRecords = envBean.isOffHeapRecords() ? new OffHeapRecordArea() : null;
 
         File storeDir = new File(envBean.getStoreDir());
         if(!storeDir.exists() && !storeDir.mkdirs()) {
@@ -140,6 +143,8 @@ public class HornetqJournalStore
             RecordInfo record = getContentForType(typeName).remove(uid);
             long id = (record != null ? record.id : getId(uid, typeName));
 
+            release(record);
+
             if (!syncDeletes) {
                 // use the non blocking version which doesn't fail for I/O errors nor for `id` not found
                 journal.tryAppendDeleteRecord(id,false,null,null);
@@ -178,12 +183,15 @@ public class HornetqJournalStore
             outputBuffer.packBytes(txData.buffer());
             byte[] data = outputBuffer.buffer();
 
-            RecordInfo record = new RecordInfo(getId(uid, typeName), RECORD_TYPE, data, false, true, (short)0);
+            RecordInfo record = toIndexRecord(new RecordInfo(getId(uid, typeName), RECORD_TYPE, data, false, true, (short)0));
             previousRecord = getContentForType(typeName).putIfAbsent(uid, record);
 
             if(previousRecord != null) {
                 // the packed data may have changed so updated the map with the latest data
-                getContentForType(typeName).replace(uid,  record);
+                RecordInfo replacedRecord = getContentForType(typeName).replace(uid,  record);
+
+                // if a concurrent remove got there first it released the old record and ours never got mapped
+                release(replacedRecord != null ? replacedRecord : record);
 
                 if (!syncWrites) {
                     journal.tryAppendUpdateRecord(previousRecord.id, RECORD_TYPE, data, null, false, true);
@@ -196,7 +204,7 @@ public class HornetqJournalStore
         } catch(Exception e) {
             if (previousRecord == null) {
                 // if appendAddRecord() fails, remove record from map. Leave it there if appendUpdateRecord() fails.
-                getContentForType(typeName).remove(uid);
+                release(getContentForType(typeName).remove(uid));
             }
             throw new ObjectStoreException(e);
         }
@@ -214,15 +222,34 @@ public class HornetqJournalStore
      */
     public InputObjectState read_committed(Uid uid, String typeName) throws ObjectStoreException
     {
-        RecordInfo record = getContentForType(typeName).get(uid);
-        if(record == null) {
-            return null;
+        byte[] data;
+
+        for (;;) {
+            RecordInfo record = getContentForType(typeName).get(uid);
+            if(record == null) {
+                return null;
+            }
+
+            if (!(record instanceof OffHeapRecordInfo)) {
+                data = record.data;
+                break;
+            }
+
+            OffHeapRecordInfo offHeapRecord = (OffHeapRecordInfo) record;
+            data = offHeapRecords.read(offHeapRecord.handle, offHeapRecord.length);
+
+            // records are unmapped before their memory is released so if the record is still mapped then the
+            // copy was taken before the memory could have been reused. Otherwise it was removed or replaced
+            // during the copy, perhaps before it started so that there was nothing left to copy, so look again.
+            if (data != null && getContentForType(typeName).get(uid) == record) {
+                break;
+            }
         }
 
         // this repeated unpacking is a little inefficient - subclass RecordInfo to hold unpacked form too?
         // not too much of an issue as log reads are done for recovery only.
         try {
-            InputBuffer inputBuffer = new InputBuffer(record.data);
+            InputBuffer inputBuffer = new InputBuffer(data);
             UidHelper.unpackFrom(inputBuffer);
             inputBuffer.unpackString();
             return new InputObjectState(uid, typeName, inputBuffer.unpackBytes());
@@ -268,6 +295,31 @@ public class HornetqJournalStore
         return result;
     }
 
+    /**
+     * @return the number of bytes of record state held off-heap, or -1 if record state is kept on the heap
+     */
+    public long getOffHeapBytesInUse() {
+        return offHeapRecords == null ? -1 : offHeapRecords.getBytesInUse();
+    }
+
+    // if record state is kept off-heap then move it there, leaving just the index entry
+    private RecordInfo toIndexRecord(RecordInfo record) {
+        if (offHeapRecords == null) {
+            return record;
+        }
+
+        return new OffHeapRecordInfo(record.id, offHeapRecords.write(record.data), record.data.length);
+    }
+
+    // give up the off-heap memory of a record that is no longer in the content map
+    private void release(RecordInfo record) {
+        if (record instanceof OffHeapRecordInfo) {
+            OffHeapRecordInfo offHeapRecord = (OffHeapRecordInfo) record;
+
+            offHeapRecords.release(offHeapRecord.handle, offHeapRecord.length);
+        }
+    }
+
     private long getId(Uid uid, String typeName) {
         RecordInfo record = getContentForType(typeName).get(uid);
         if(record != null) {
@@ -276,4 +328,20 @@ public class HornetqJournalStore
             return maxID.incrementAndGet();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * The content map entry for a record whose state is held in the OffHeapRecordArea.
+     * Only the journal record id and the location of the state are kept on the heap.
+     */
+    private static final class OffHeapRecordInfo extends RecordInfo {
+        private final long handle;
+        private final int length;
+
+        OffHeapRecordInfo(long id, long handle, int length) {
+            super(id, RECORD_TYPE, null, false, true, (short)0);
+
+            this.handle = handle;
+            this.length = length;
+        }
+    }
+}
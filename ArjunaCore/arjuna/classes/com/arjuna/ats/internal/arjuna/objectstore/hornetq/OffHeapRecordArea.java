@@ -0,0 +1,241 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+package com.arjuna.ats.internal.arjuna.objectstore.hornetq;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Off-heap memory for the packed record state held by a {@link HornetqJournalStore}.
+ * <p>
+ * Records of up to {@link #MAX_BLOCK_SIZE} bytes are placed in power of two sized blocks carved
+ * out of direct buffers of {@link #CHUNK_SIZE} bytes, larger records get a direct buffer of their own.
+ * A released block is kept on a free list for its size and reused by the next record of that size,
+ * so the memory in use settles at the high water mark of live records rather than growing with the
+ * number of writes. Only the oversized buffers are ever handed back, by the garbage collector, once
+ * they are released.
+ * <p>
+ * A record is addressed by the handle returned from {@link #write}, the chunk index in the upper
+ * and the offset within the chunk in the lower 32 bits, together with its length.
+ */
+final class OffHeapRecordArea
+{
+    static final int CHUNK_SIZE = 1024 * 1024;
+
+    static final int MAX_BLOCK_SIZE = 64 * 1024;
+
+    private static final int MIN_BLOCK_SHIFT = 6;
+
+    private static final int SIZE_CLASSES = Integer.numberOfTrailingZeros(MAX_BLOCK_SIZE) - MIN_BLOCK_SHIFT + 1;
+
+    // the read lock is held while copying a record out so that its block cannot be reused underneath the copy
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final List<ByteBuffer> chunks = new ArrayList<ByteBuffer>();
+
+    private final HandleStack[] freeBlocks = new HandleStack[SIZE_CLASSES];
+
+    private final HandleStack freeChunkSlots = new HandleStack();
+
+    private ByteBuffer currentChunk;
+    private int currentChunkIndex;
+    private int currentChunkUsed;
+
+    private long bytesInUse;
+
+    OffHeapRecordArea()
+    {
+        for (int i = 0; i < SIZE_CLASSES; i++) {
+            freeBlocks[i] = new HandleStack();
+        }
+    }
+
+    /**
+     * Copy a record into off-heap memory.
+     *
+     * @param data the record
+     * @return the handle to pass, with the record length, to {@link #read} and {@link #release}
+     */
+    long write(byte[] data)
+    {
+        long handle;
+        ByteBuffer chunk;
+
+        lock.writeLock().lock();
+        try {
+            if (data.length > MAX_BLOCK_SIZE) {
+                chunk = ByteBuffer.allocateDirect(data.length);
+                handle = handle(addChunk(chunk), 0);
+            } else {
+                handle = allocateBlock(sizeClass(data.length));
+                chunk = chunks.get(chunkIndex(handle));
+            }
+
+            bytesInUse += data.length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        // nothing else can see the block until the handle is published so the copy needs no lock
+        chunk.put(offset(handle), data, 0, data.length);
+
+        return handle;
+    }
+
+    /**
+     * Copy a record back onto the heap.
+     *
+     * @param handle the handle returned when the record was written
+     * @param length the length of the record
+     * @return the record, or null if its memory has already been released and the handle no longer
+     * addresses a block that could hold it
+     */
+    byte[] read(long handle, int length)
+    {
+        lock.readLock().lock();
+        try {
+            int index = chunkIndex(handle);
+            ByteBuffer chunk = index < chunks.size() ? chunks.get(index) : null;
+
+            if (chunk == null || offset(handle) + length > chunk.capacity()) {
+                return null;
+            }
+
+            byte[] data = new byte[length];
+
+            chunk.get(offset(handle), data, 0, length);
+
+            return data;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Give up the memory holding a record. The handle must not be used again.
+     *
+     * @param handle the handle returned when the record was written
+     * @param length the length of the record
+     */
+    void release(long handle, int length)
+    {
+        lock.writeLock().lock();
+        try {
+            if (length > MAX_BLOCK_SIZE) {
+                chunks.set(chunkIndex(handle), null);
+                freeChunkSlots.push(chunkIndex(handle));
+            } else {
+                freeBlocks[sizeClass(length)].push(handle);
+            }
+
+            bytesInUse -= length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of bytes of record state currently held
+     */
+    long getBytesInUse()
+    {
+        lock.readLock().lock();
+        try {
+            return bytesInUse;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // called with the write lock held
+    private long allocateBlock(int sizeClass)
+    {
+        HandleStack free = freeBlocks[sizeClass];
+
+        if (!free.isEmpty()) {
+            return free.pop();
+        }
+
+        int blockSize = 1 << (sizeClass + MIN_BLOCK_SHIFT);
+
+        if (currentChunk == null || currentChunkUsed + blockSize > CHUNK_SIZE) {
+            currentChunk = ByteBuffer.allocateDirect(CHUNK_SIZE);
+            currentChunkIndex = addChunk(currentChunk);
+            currentChunkUsed = 0;
+        }
+
+        long handle = handle(currentChunkIndex, currentChunkUsed);
+
+        currentChunkUsed += blockSize;
+
+        return handle;
+    }
+
+    // called with the write lock held
+    private int addChunk(ByteBuffer chunk)
+    {
+        if (!freeChunkSlots.isEmpty()) {
+            int index = (int) freeChunkSlots.pop();
+
+            chunks.set(index, chunk);
+
+            return index;
+        }
+
+        chunks.add(chunk);
+
+        return chunks.size() - 1;
+    }
+
+    private static int sizeClass(int length)
+    {
+        int shift = 32 - Integer.numberOfLeadingZeros(Math.max(length, 1) - 1);
+
+        return Math.max(shift - MIN_BLOCK_SHIFT, 0);
+    }
+
+    private static long handle(int chunkIndex, int offset)
+    {
+        return ((long) chunkIndex << 32) | offset;
+    }
+
+    private static int chunkIndex(long handle)
+    {
+        return (int) (handle >>> 32);
+    }
+
+    private static int offset(long handle)
+    {
+        return (int) handle;
+    }
+
+    private static final class HandleStack
+    {
+        private long[] handles = new long[16];
+        private int size;
+
+        void push(long handle)
+        {
+            if (size == handles.length) {
+                handles = Arrays.copyOf(handles, size * 2);
+            }
+
+            handles[size++] = handle;
+        }
+
+        long pop()
+        {
+            return handles[--size];
+        }
+
+        boolean isEmpty()
+        {
+            return size == 0;
+        }
+    }
+}
@@ -0,0 +1,424 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+package com.arjuna.ats.internal.arjuna.objectstore.jdbc;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.arjuna.ats.arjuna.common.Uid;
+import com.arjuna.ats.arjuna.logging.tsLogger;
+import com.arjuna.ats.arjuna.objectstore.jdbc.JDBCAccess;
+
+/**
+ * Group commit for the JDBCStore. Rather than every writer taking its own
+ * connection, running a SELECT followed by an UPDATE or INSERT and committing,
+ * concurrent state writes and removals queue on a shared batch. The first
+ * caller to find no flush in progress becomes the leader: it takes the whole
+ * batch, executes the writes as one JDBC batch of driver specific upserts and
+ * the removals as one batch of deletes, issues a single database commit and
+ * then releases every caller in the batch together. Callers that arrive while
+ * the leader is flushing form the next batch.
+ *
+ * A caller never returns before the commit covering its operation has
+ * completed, so a state acknowledged to the caller is as durable as one
+ * written by the non-batched store.
+ *
+ * Batches are executed on a connection held by the committer, on which the
+ * prepared statements are cached. If a batch fails it is rolled back, the
+ * connection is discarded and each operation in it is retried in a
+ * transaction of its own, so that a single bad state cannot fail the writes
+ * it happened to be batched with.
+ */
+
+class JDBCGroupCommitter
+{
+    class Operation
+    {
+        Operation (final boolean write, final String typeName, final Uid uid, final int stateType, final byte[] state)
+        {
+            this.write = write;
+            this.typeName = typeName;
+            this.uid = uid;
+            this.stateType = stateType;
+            this.state = state;
+            this.key = typeName + '\u0000' + uid.stringForm() + '\u0000' + stateType;
+        }
+
+        final boolean write;
+        final String typeName;
+        final Uid uid;
+        final int stateType;
+        final byte[] state;
+        final String key;
+
+        boolean completed = false;
+        boolean result = false;
+    }
+
+    JDBCGroupCommitter (JDBCImple_driver driver, JDBCAccess jdbcAccess, String tableName, int maxBatchSize)
+    {
+        _driver = driver;
+        _jdbcAccess = jdbcAccess;
+        _maxBatchSize = Math.max(1, maxBatchSize);
+
+        _upsertSQL = driver.getUpsertStatement(tableName);
+        _updateSQL = "UPDATE " + tableName + " SET ObjectState = ? WHERE TypeName = ? AND UidString = ? AND StateType = ?";
+        _insertSQL = "INSERT INTO " + tableName + " (TypeName,UidString,StateType,Hidden,ObjectState) VALUES (?,?,?,0,?)";
+        _deleteSQL = "DELETE FROM " + tableName + " WHERE TypeName = ? AND UidString = ? AND StateType = ?";
+    }
+
+    /**
+     * Add a state write to the current batch and block until the batch containing
+     * it has been committed.
+     *
+     * @return true if the state was written, false otherwise.
+     */
+
+    boolean write (String typeName, Uid uid, int stateType, byte[] state)
+    {
+        return submit(new Operation(true, typeName, uid, stateType, state));
+    }
+
+    /**
+     * Add a state removal to the current batch and block until the batch containing
+     * it has been committed.
+     *
+     * @return true if a state was removed, false otherwise.
+     */
+
+    boolean remove (String typeName, Uid uid, int stateType)
+    {
+        return submit(new Operation(false, typeName, uid, stateType, null));
+    }
+
+    private boolean submit (Operation operation)
+    {
+        boolean interrupted = false;
+
+        synchronized (_batchLock)
+        {
+            _pending.add(operation);
+        }
+
+        /*
+         * A batch holds at most _maxBatchSize operations, taken in arrival
+         * order, so the batch a leader commits need not contain its own
+         * operation. Keep leading or waiting until our operation has been
+         * committed by someone.
+         */
+
+        while (true)
+        {
+            List<Operation> batch;
+
+            synchronized (_batchLock)
+            {
+                while (!operation.completed && _flushing)
+                {
+                    try
+                    {
+                        _batchLock.wait();
+                    }
+                    catch (final InterruptedException ex)
+                    {
+                        // we must not return until our operation has been dealt with
+
+                        interrupted = true;
+                    }
+                }
+
+                if (operation.completed)
+                    break;
+
+                _flushing = true;
+
+                batch = takeBatch();
+            }
+
+            try
+            {
+                flush(batch);
+            }
+            finally
+            {
+                synchronized (_batchLock)
+                {
+                    for (Operation op : batch)
+                        op.completed = true;
+
+                    _flushing = false;
+
+                    _batchLock.notifyAll();
+                }
+            }
+        }
+
+        if (interrupted)
+            Thread.currentThread().interrupt();
+
+        return operation.result;
+    }
+
+    /*
+     * Called by the leader with _batchLock held.
+     */
+
+    private List<Operation> takeBatch ()
+    {
+        List<Operation> batch;
+
+        if (_pending.size() <= _maxBatchSize)
+        {
+            batch = _pending;
+            _pending = new ArrayList<Operation>();
+        }
+        else
+        {
+            batch = new ArrayList<Operation>(_pending.subList(0, _maxBatchSize));
+            _pending = new ArrayList<Operation>(_pending.subList(_maxBatchSize, _pending.size()));
+        }
+
+        return batch;
+    }
+
+    private void flush (List<Operation> batch)
+    {
+        if (tsLogger.logger.isTraceEnabled()) {
+            tsLogger.logger.trace("JDBCGroupCommitter.flush - committing " + batch.size() + " operations");
+        }
+
+        try
+        {
+            execute(batch);
+
+            return;
+        }
+        catch (final SQLException | RuntimeException ex)
+        {
+            tsLogger.i18NLogger.warn_objectstore_JDBCImple_groupcommitfailed(batch.size(), ex);
+
+            closeConnection();
+        }
+
+        for (Operation op : batch)
+        {
+            try
+            {
+                execute(Collections.singletonList(op));
+            }
+            catch (final SQLException | RuntimeException ex)
+            {
+                op.result = false;
+
+                if (op.write)
+                    tsLogger.i18NLogger.warn_objectstore_JDBCImple_writefailed(ex);
+                else
+                    tsLogger.i18NLogger.warn_objectstore_JDBCImple_8(ex);
+
+                closeConnection();
+            }
+        }
+    }
+
+    /*
+     * Operations on different states can be executed in any order, so all of the
+     * writes are batched together and all of the removals are batched together.
+     * Only when an operation touches a state with an operation of the other kind
+     * already outstanding are the outstanding batches executed first, so that
+     * the operations on any one state take effect in the order they were made.
+     */
+
+    private void execute (List<Operation> batch) throws SQLException
+    {
+        Connection connection = getConnection();
+        List<Operation> writes = new ArrayList<Operation>();
+        List<Operation> removes = new ArrayList<Operation>();
+        Set<String> writeKeys = new HashSet<String>();
+        Set<String> removeKeys = new HashSet<String>();
+
+        for (Operation op : batch)
+        {
+            if (op.write ? removeKeys.contains(op.key) : writeKeys.contains(op.key))
+            {
+                executeWrites(connection, writes);
+                executeRemoves(connection, removes);
+
+                writes.clear();
+                removes.clear();
+                writeKeys.clear();
+                removeKeys.clear();
+            }
+
+            if (op.write)
+            {
+                writes.add(op);
+                writeKeys.add(op.key);
+            }
+            else
+            {
+                removes.add(op);
+                removeKeys.add(op.key);
+            }
+        }
+
+        executeWrites(connection, writes);
+        executeRemoves(connection, removes);
+
+        connection.commit();
+    }
+
+    private void executeWrites (Connection connection, List<Operation> writes) throws SQLException
+    {
+        if (writes.isEmpty())
+            return;
+
+        if (_upsertSQL != null)
+        {
+            PreparedStatement pstmt = prepare(connection, _upsertSQL);
+
+            for (Operation op : writes)
+            {
+                _driver.setUpsertParameters(pstmt, op.typeName, op.uid.stringForm(), op.stateType, op.state);
+                pstmt.addBatch();
+            }
+
+            int[] counts = pstmt.executeBatch();
+
+            for (int i = 0; i < writes.size(); i++)
+                writes.get(i).result = (i >= counts.length) || (counts[i] != Statement.EXECUTE_FAILED);
+        }
+        else
+        {
+            // no upsert for this database, but the writes still share the connection and the commit
+
+            PreparedStatement update = prepare(connection, _updateSQL);
+            PreparedStatement insert = prepare(connection, _insertSQL);
+
+            for (Operation op : writes)
+            {
+                update.setBytes(1, op.state);
+                update.setString(2, op.typeName);
+                update.setString(3, op.uid.stringForm());
+                update.setInt(4, op.stateType);
+
+                if (update.executeUpdate() != 0)
+                {
+                    op.result = true;
+                }
+                else
+                {
+                    insert.setString(1, op.typeName);
+                    insert.setString(2, op.uid.stringForm());
+                    insert.setInt(3, op.stateType);
+                    insert.setBytes(4, op.state);
+
+                    op.result = (insert.executeUpdate() != 0);
+                }
+            }
+        }
+    }
+
+    private void executeRemoves (Connection connection, List<Operation> removes) throws SQLException
+    {
+        if (removes.isEmpty())
+            return;
+
+        PreparedStatement pstmt = prepare(connection, _deleteSQL);
+
+        for (Operation op : removes)
+        {
+            pstmt.setString(1, op.typeName);
+            pstmt.setString(2, op.uid.stringForm());
+            pstmt.setInt(3, op.stateType);
+            pstmt.addBatch();
+        }
+
+        int[] counts = pstmt.executeBatch();
+
+        for (int i = 0; i < removes.size(); i++)
+            removes.get(i).result = (i >= counts.length) || (counts[i] > 0) || (counts[i] == Statement.SUCCESS_NO_INFO);
+    }
+
+    /*
+     * Only the leader uses the connection and its statements, so no locking is needed.
+     */
+
+    private Connection getConnection () throws SQLException
+    {
+        if (_connection == null)
+            _connection = _jdbcAccess.getConnection();
+
+        return _connection;
+    }
+
+    private PreparedStatement prepare (Connection connection, String sql) throws SQLException
+    {
+        PreparedStatement pstmt = _statements.get(sql);
+
+        if (pstmt == null)
+        {
+            pstmt = connection.prepareStatement(sql);
+            _statements.put(sql, pstmt);
+        }
+
+        return pstmt;
+    }
+
+    private void closeConnection ()
+    {
+        for (PreparedStatement pstmt : _statements.values())
+        {
+            try {
+                pstmt.close();
+            } catch (SQLException e) {
+                // Ignore
+            }
+        }
+
+        _statements.clear();
+
+        if (_connection != null)
+        {
+            try {
+                _connection.rollback();
+            } catch (SQLException e) {
+                // Ignore
+            }
+
+            try {
+                _connection.close();
+            } catch (SQLException e) {
+                // Ignore
+            }
+
+            _connection = null;
+        }
+    }
+
+    private final Object _batchLock = new Object();
+    private final JDBCImple_driver _driver;
+    private final JDBCAccess _jdbcAccess;
+    private final int _maxBatchSize;
+
+    private final String _upsertSQL;
+    private final String _updateSQL;
+    private final String _insertSQL;
+    private final String _deleteSQL;
+
+    private List<Operation> _pending = new ArrayList<Operation>();
+    private boolean _flushing = false;
+
+    private Connection _connection = null;
+    private final Map<String, PreparedStatement> _statements = new HashMap<String, PreparedStatement>();
+}
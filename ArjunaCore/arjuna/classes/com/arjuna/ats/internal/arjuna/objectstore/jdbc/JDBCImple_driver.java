@@ -36,6 +36,7 @@ public abstract class JDBCImple_driver {
 	// protected Connection connection;
 	protected String tableName;
 	private JDBCAccess jdbcAccess;
+	private JDBCGroupCommitter groupCommitter;
 
 	public boolean commit_state(Uid objUid, String typeName)
 			throws ObjectStoreException {
@@ -460,6 +461,9 @@ public abstract class JDBCImple_driver {
 			if ((stateType == StateStatus.OS_COMMITTED)
 					|| (stateType == StateStatus.OS_UNCOMMITTED)) {
 
+				if (groupCommitter != null)
+					return groupCommitter.remove(typeName, objUid, stateType);
+
 			    Connection connection = null;
 		        PreparedStatement pstmt = null;
 				try {
@@ -598,6 +602,10 @@ public abstract class JDBCImple_driver {
 					imageSize, getMaxStateSize());
 		} else if (imageSize > 0) {
 			byte[] b = state.buffer();
+
+			if (groupCommitter != null)
+				return groupCommitter.write(typeName, objUid, stateType, b);
+
 			ResultSet rs = null;
 
 			Connection connection = null;
@@ -745,6 +753,11 @@ public abstract class JDBCImple_driver {
 		}
 
 		this.tableName = tableName;
+
+		if (jdbcStoreEnvironmentBean.isJdbcGroupCommit()) {
+			groupCommitter = new JDBCGroupCommitter(this, jdbcAccess, tableName,
+					jdbcStoreEnvironmentBean.getJdbcGroupCommitBatchSize());
+		}
 	}
 
 	/**
@@ -766,6 +779,32 @@ public abstract class JDBCImple_driver {
 		return "bytea";
 	}
 
+	/**
+	 * Can be overridden by implementation-specific code to provide a single
+	 * statement which inserts a state, or replaces the ObjectState of the row if
+	 * the state already exists. Used by group commit to write a batch of states
+	 * without first querying for each of them. If null, as it is by default,
+	 * group commit updates each state and inserts it if there was nothing to update.
+	 *
+	 * @param tableName the name of the store table
+	 * @return the upsert statement, whose parameters are set by setUpsertParameters
+	 */
+	protected String getUpsertStatement(String tableName) {
+		return null;
+	}
+
+	/**
+	 * Set the parameters of the statement returned by getUpsertStatement. By
+	 * default these are TypeName, UidString, StateType and ObjectState, in that order.
+	 */
+	protected void setUpsertParameters(PreparedStatement pstmt, String typeName,
+			String uidString, int stateType, byte[] state) throws SQLException {
+		pstmt.setString(1, typeName);
+		pstmt.setString(2, uidString);
+		pstmt.setInt(3, stateType);
+		pstmt.setBytes(4, state);
+	}
+
 	protected abstract void checkCreateTableError(SQLException ex)
 			throws SQLException;
 
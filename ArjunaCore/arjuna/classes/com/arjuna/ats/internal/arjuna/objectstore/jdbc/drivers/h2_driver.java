@@ -30,4 +30,15 @@ public class h2_driver extends JDBCImple_driver {
 		}
 
 	}
-}
\ No newline at end of file
+
+	@Override
+	protected String getUpsertStatement(String tableName) {
+		return "MERGE INTO " + tableName + " USING (VALUES (CAST(? AS VARCHAR(255)), CAST(? AS VARCHAR(255)), "
+				+ "CAST(? AS INTEGER), CAST(? AS VARBINARY))) AS S (TypeName, UidString, StateType, ObjectState) "
+				+ "ON (" + tableName + ".TypeName = S.TypeName AND " + tableName + ".UidString = S.UidString AND "
+				+ tableName + ".StateType = S.StateType) "
+				+ "WHEN MATCHED THEN UPDATE SET ObjectState = S.ObjectState "
+				+ "WHEN NOT MATCHED THEN INSERT (TypeName, UidString, StateType, Hidden, ObjectState) "
+				+ "VALUES (S.TypeName, S.UidString, S.StateType, 0, S.ObjectState)";
+	}
+}
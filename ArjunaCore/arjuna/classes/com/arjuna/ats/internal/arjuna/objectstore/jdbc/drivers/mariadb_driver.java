@@ -36,4 +36,10 @@ public class mariadb_driver extends
 			throw ex;
 		}
 	}
-}
\ No newline at end of file
+
+	@Override
+	protected String getUpsertStatement(String tableName) {
+		return "INSERT INTO " + tableName + " (TypeName,UidString,StateType,Hidden,ObjectState) VALUES (?,?,?,0,?) "
+				+ "ON DUPLICATE KEY UPDATE ObjectState = VALUES(ObjectState)";
+	}
+}
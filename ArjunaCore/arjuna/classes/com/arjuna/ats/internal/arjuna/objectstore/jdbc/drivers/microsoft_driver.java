@@ -37,4 +37,15 @@ public class microsoft_driver extends JDBCImple_driver {
 			throw ex;
 		}
 	}
+
+	@Override
+	protected String getUpsertStatement(String tableName) {
+		return "MERGE INTO " + tableName + " WITH (HOLDLOCK) USING (VALUES (?, ?, ?, ?)) "
+				+ "AS S (TypeName, UidString, StateType, ObjectState) "
+				+ "ON (" + tableName + ".TypeName = S.TypeName AND " + tableName + ".UidString = S.UidString AND "
+				+ tableName + ".StateType = S.StateType) "
+				+ "WHEN MATCHED THEN UPDATE SET ObjectState = S.ObjectState "
+				+ "WHEN NOT MATCHED THEN INSERT (TypeName, UidString, StateType, Hidden, ObjectState) "
+				+ "VALUES (S.TypeName, S.UidString, S.StateType, 0, S.ObjectState)";
+	}
 }
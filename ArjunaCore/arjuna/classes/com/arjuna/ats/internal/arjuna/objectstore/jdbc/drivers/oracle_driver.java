@@ -5,6 +5,7 @@
 package com.arjuna.ats.internal.arjuna.objectstore.jdbc.drivers;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
 import com.arjuna.ats.internal.arjuna.objectstore.jdbc.JDBCImple_driver;
@@ -45,4 +46,25 @@ public class oracle_driver extends JDBCImple_driver {
 			throw ex;
 		}
 	}
+
+	@Override
+	protected String getUpsertStatement(String tableName) {
+		return "MERGE INTO " + tableName + " USING dual ON (TypeName = ? AND UidString = ? AND StateType = ?) "
+				+ "WHEN MATCHED THEN UPDATE SET ObjectState = ? "
+				+ "WHEN NOT MATCHED THEN INSERT (TypeName, UidString, StateType, Hidden, ObjectState) VALUES (?, ?, ?, 0, ?)";
+	}
+
+	@Override
+	protected void setUpsertParameters(PreparedStatement pstmt, String typeName,
+			String uidString, int stateType, byte[] state) throws SQLException {
+		// the key and state are needed by both branches of the MERGE
+		pstmt.setString(1, typeName);
+		pstmt.setString(2, uidString);
+		pstmt.setInt(3, stateType);
+		pstmt.setBytes(4, state);
+		pstmt.setString(5, typeName);
+		pstmt.setString(6, uidString);
+		pstmt.setInt(7, stateType);
+		pstmt.setBytes(8, state);
+	}
 }
@@ -33,4 +33,11 @@ public class postgresql_driver extends JDBCImple_driver {
 			connection.commit();
 		}
 	}
-}
\ No newline at end of file
+
+	@Override
+	protected String getUpsertStatement(String tableName) {
+		// requires PostgreSQL 9.5 or later
+		return "INSERT INTO " + tableName + " (TypeName,UidString,StateType,Hidden,ObjectState) VALUES (?,?,?,0,?) "
+				+ "ON CONFLICT (UidString, TypeName, StateType) DO UPDATE SET ObjectState = EXCLUDED.ObjectState";
+	}
+}
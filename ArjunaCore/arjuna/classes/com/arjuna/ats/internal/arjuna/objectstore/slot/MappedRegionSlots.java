@@ -0,0 +1,245 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+package com.arjuna.ats.internal.arjuna.objectstore.slot;
+
+import com.arjuna.ats.arjuna.logging.tsLogger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Memory-mapped implementation of the SlotStore backend, built for concurrent writers.
+ * <p>
+ * All slots live in a single file, each in its own page aligned region, so that syncing
+ * one slot never flushes another's data. Each slot has its own lock, so writers to
+ * different slots do not serialize, and a synced write forces only the pages of its
+ * own region rather than the whole mapping.
+ * <p>
+ * Synced writes are group committed: a writer adds its slot to the pending batch and the
+ * first writer to find no sync in progress forces every slot in the batch, coalescing
+ * adjacent regions into a single force call, then releases all of the batch's writers
+ * together. Writers which arrive while a sync is in progress form the next batch. A
+ * write does not return before the force covering it has completed.
+ * <p>
+ * The on-disk record format is the same as MappedDiskSlots, but the file layout is not,
+ * so a store directory written by one cannot be read by the other.
+ */
+public class MappedRegionSlots implements BackingSlots {
+
+    private static final int PAGE_SIZE = 4096;
+
+    private static final String FILE_NAME = "slots";
+
+    private class SyncBatch {
+        private final List<Integer> slots = new ArrayList<>();
+        private boolean done = false;
+        private IOException failure = null;
+    }
+
+    private SlotStoreEnvironmentBean config;
+    private int slotSize;
+    private int regionSize;
+    private int slotsPerSegment;
+    private FileChannel fileChannel;
+    private MappedByteBuffer[] segments;
+    private MappedByteBuffer[] slots;
+    private Object[] slotLocks;
+
+    private final Object syncLock = new Object();
+    private SyncBatch pendingBatch = new SyncBatch();
+    private boolean syncing = false;
+
+    @Override
+    public synchronized void init(SlotStoreEnvironmentBean config) throws IOException {
+        if (this.config != null) {
+            throw new IllegalStateException("already initialized");
+        }
+
+        this.config = config;
+
+        slotSize = config.getBytesPerSlot()+(2*Integer.BYTES); // overhead for size+checksum fields
+        regionSize = ((slotSize + PAGE_SIZE - 1) / PAGE_SIZE) * PAGE_SIZE;
+
+        File storeDir = new File(config.getStoreDir());
+        if (!storeDir.exists() && !storeDir.mkdirs()) {
+            throw new IOException(tsLogger.i18NLogger.get_dir_create_failed(storeDir.getCanonicalPath()));
+        }
+
+        int numberOfSlots = config.getNumberOfSlots();
+
+        // a single mapping is limited to 2GB, so large stores are split into several.
+        slotsPerSegment = Math.max(1, Math.min(numberOfSlots, Integer.MAX_VALUE / regionSize));
+        int numberOfSegments = (numberOfSlots + slotsPerSegment - 1) / slotsPerSegment;
+
+        File file = new File(storeDir, FILE_NAME);
+        fileChannel = (FileChannel) Files
+                .newByteChannel(file.toPath(), EnumSet.of(
+                        StandardOpenOption.READ,
+                        StandardOpenOption.WRITE,
+                        StandardOpenOption.CREATE));
+
+        segments = new MappedByteBuffer[numberOfSegments];
+        slots = new MappedByteBuffer[numberOfSlots];
+        slotLocks = new Object[numberOfSlots];
+
+        for (int i = 0; i < numberOfSegments; i++) {
+            int slotsInSegment = Math.min(slotsPerSegment, numberOfSlots - (i * slotsPerSegment));
+            long position = (long) i * slotsPerSegment * regionSize;
+
+            segments[i] = fileChannel.map(FileChannel.MapMode.READ_WRITE, position, (long) slotsInSegment * regionSize);
+        }
+
+        for (int i = 0; i < numberOfSlots; i++) {
+            slots[i] = segments[i / slotsPerSegment].slice((i % slotsPerSegment) * regionSize, slotSize);
+            slotLocks[i] = new Object();
+        }
+    }
+
+    @Override
+    public void write(int slot, byte[] data, boolean sync) throws IOException {
+        MappedByteBuffer mappedByteBuffer = slots[slot];
+
+        synchronized (slotLocks[slot]) {
+            mappedByteBuffer.putInt(0, data.length);
+            mappedByteBuffer.put(Integer.BYTES, data);
+            mappedByteBuffer.putInt(Integer.BYTES + data.length, checksum(data));
+        }
+
+        if (sync) {
+            sync(slot);
+        }
+    }
+
+    @Override
+    public byte[] read(int slot) throws IOException {
+        MappedByteBuffer mappedByteBuffer = slots[slot];
+
+        synchronized (slotLocks[slot]) {
+            try {
+                int dataLength = mappedByteBuffer.getInt(0);
+                if (dataLength < 0 || dataLength > slotSize - (2 * Integer.BYTES)) {
+                    return null;
+                }
+                byte[] data = new byte[dataLength];
+                mappedByteBuffer.get(Integer.BYTES, data);
+                int expectedChecksum = mappedByteBuffer.getInt(Integer.BYTES + dataLength);
+                if (expectedChecksum == checksum(data)) {
+                    return data;
+                } else {
+                    return null;
+                }
+            } catch (Exception e) {
+                return null;
+            }
+        }
+    }
+
+    @Override
+    public void clear(int slot, boolean sync) throws IOException {
+        write(slot, new byte[0], sync);
+    }
+
+    /*
+     * Block until the given slot has been forced to disk, forcing it and any
+     * other slots waiting on the same batch ourselves if no one else is.
+     */
+    private void sync(int slot) throws IOException {
+        SyncBatch batch;
+        SyncBatch toFlush = null;
+        boolean interrupted = false;
+
+        synchronized (syncLock) {
+            batch = pendingBatch;
+            batch.slots.add(slot);
+
+            while (!batch.done) {
+                if (!syncing) {
+                    syncing = true;
+                    toFlush = pendingBatch;
+                    pendingBatch = new SyncBatch();
+                    break;
+                }
+
+                try {
+                    syncLock.wait();
+                } catch (InterruptedException e) {
+                    // we must not return until our write is durable.
+                    interrupted = true;
+                }
+            }
+        }
+
+        if (toFlush != null) {
+            IOException failure = null;
+
+            try {
+                force(toFlush.slots);
+            } catch (IOException e) {
+                failure = e;
+            } catch (RuntimeException e) {
+                failure = new IOException(e);
+            }
+
+            synchronized (syncLock) {
+                toFlush.failure = failure;
+                toFlush.done = true;
+                syncing = false;
+                syncLock.notifyAll();
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (batch.failure != null) {
+            throw batch.failure;
+        }
+    }
+
+    /*
+     * Force the given slots, merging runs of adjacent regions within a segment into one call.
+     */
+    private void force(List<Integer> slotList) throws IOException {
+        int[] sorted = new int[slotList.size()];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = slotList.get(i);
+        }
+        Arrays.sort(sorted);
+
+        int i = 0;
+        while (i < sorted.length) {
+            int first = sorted[i];
+            int last = first;
+            int segment = first / slotsPerSegment;
+
+            while (i + 1 < sorted.length && sorted[i + 1] <= last + 1 && sorted[i + 1] / slotsPerSegment == segment) {
+                last = sorted[++i];
+            }
+            i++;
+
+            int offset = (first % slotsPerSegment) * regionSize;
+            int length = ((last - first) * regionSize) + slotSize;
+
+            segments[segment].force(offset, length);
+        }
+    }
+
+    private int checksum(byte[] data) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(data, 0, data.length);
+        int checksum = (int) crc32.getValue();
+        return checksum;
+    }
+}
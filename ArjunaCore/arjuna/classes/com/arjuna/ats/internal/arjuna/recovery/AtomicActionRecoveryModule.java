@@ -5,9 +5,24 @@
 
 package com.arjuna.ats.internal.arjuna.recovery;
 
-import java.util.Enumeration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.Vector;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
 
 import com.arjuna.ats.arjuna.AtomicAction;
 import com.arjuna.ats.arjuna.common.RecoveryEnvironmentBean;
@@ -21,13 +36,30 @@ import com.arjuna.ats.arjuna.objectstore.StateStatus;
 import com.arjuna.ats.arjuna.objectstore.StoreManager;
 import com.arjuna.ats.arjuna.recovery.RecoverAtomicAction;
 import com.arjuna.ats.arjuna.recovery.RecoveryModule;
+import com.arjuna.ats.arjuna.recovery.RecoveryProgressMBean;
 import com.arjuna.ats.arjuna.recovery.TransactionStatusConnectionManager;
 import com.arjuna.ats.arjuna.state.InputObjectState;
+import com.arjuna.ats.arjuna.tools.osb.util.JMXServer;
 import com.arjuna.ats.internal.arjuna.common.UidHelper;
 
 /**
  * This class is a plug-in module for the recovery manager.
  * It is responsible for recovering failed AtomicAction transactions.
+ * <p>
+ * By default the transactions found by a pass are replayed one after another.
+ * If {@link RecoveryEnvironmentBean#getRecoveryReplayThreads()} is greater than
+ * one, the transactions are partitioned and replayed by a pool of that many
+ * threads, and the number of transactions replaying against any one
+ * participant endpoint at once can be limited with
+ * {@link RecoveryEnvironmentBean#getRecoveryReplayEndpointConcurrency()}.
+ * Progress through a pass is available from {@link #getProgress()}, which is
+ * also registered with JMX.
+ * <p>
+ * If the store tracks its changes (see
+ * {@link RecoveryStore#changedObjUids(String, InputObjectState, long)}), each
+ * pass asks it only for the transactions written since the previous pass and
+ * adds them to those it has not yet seen complete, rather than listing every
+ * transaction in the store.
  */
 public class AtomicActionRecoveryModule implements RecoveryModule {
     public AtomicActionRecoveryModule() {
@@ -40,6 +72,7 @@ public class AtomicActionRecoveryModule implements RecoveryModule {
         }
 
         _transactionStatusConnectionMgr = new TransactionStatusConnectionManager();
+        _progress = new RecoveryProgress(_transactionType);
     }
 
     /**
@@ -55,13 +88,15 @@ public class AtomicActionRecoveryModule implements RecoveryModule {
 
         // uids per transaction type
         InputObjectState aa_uids = new InputObjectState();
+        long changes = -1;
 
         try {
             if (tsLogger.logger.isDebugEnabled()) {
                 tsLogger.logger.debug("AtomicActionRecoveryModule first pass");
             }
 
-            AtomicActions = _recoveryStore.allObjUids(_transactionType, aa_uids);
+            changes = _recoveryStore.changedObjUids(_transactionType, aa_uids, _lastChange);
+            AtomicActions = (changes != -2);
 
         } catch (ObjectStoreException ex) {
             problemDuringRecovery = true;
@@ -69,7 +104,19 @@ public class AtomicActionRecoveryModule implements RecoveryModule {
         }
 
         if (AtomicActions) {
-            _transactionUidVector = processTransactions(aa_uids);
+            Vector uids = processTransactions(aa_uids);
+
+            if (changes < 0) {
+                _transactionUidVector = uids;
+            } else {
+                /*
+                 * The store tracks its changes, so it only gave us the transactions
+                 * written since the last pass. Add them to those still pending.
+                 */
+                _pendingUids.addAll(uids);
+                _lastChange = changes;
+                _transactionUidVector = new Vector(_pendingUids);
+            }
         }
     }
 
@@ -78,6 +125,8 @@ public class AtomicActionRecoveryModule implements RecoveryModule {
             tsLogger.logger.debug("AtomicActionRecoveryModule second pass");
         }
 
+        registerProgress();
+
         processTransactionsStatus();
     }
 
@@ -92,18 +141,20 @@ public class AtomicActionRecoveryModule implements RecoveryModule {
 
         _transactionStatusConnectionMgr = new TransactionStatusConnectionManager();
         _transactionType = type;
+        _progress = new RecoveryProgress(_transactionType);
+    }
 
+    /**
+     * @return the progress of this module through the transactions found by its
+     * current or most recent recovery pass.
+     */
+    public RecoveryProgressMBean getProgress() {
+        return _progress;
     }
 
-    private RecoverAtomicAction doRecoverTransaction(Uid recoverUid) {
+    private RecoverAtomicAction doRecoverTransaction(Uid recoverUid, int theStatus, boolean parallel) {
         boolean commitThisTransaction = true;
 
-        /*
-         * Retrieve the transaction status from its original process.
-         * Note: this can be the status of the transaction from the object store
-         */
-        int theStatus = _transactionStatusConnectionMgr.getTransactionStatus(_transactionType, recoverUid);
-
         boolean inFlight = isTransactionInMidFlight(theStatus);
 
         String Status = ActionStatus.stringForm(theStatus);
@@ -116,19 +167,72 @@ public class AtomicActionRecoveryModule implements RecoveryModule {
 
         RecoverAtomicAction rcvAtomicAction = null;
         if (!inFlight) {
+            boolean failed = false;
+
             try {
                 rcvAtomicAction = new RecoverAtomicAction(recoverUid, theStatus);
 
-                rcvAtomicAction.replayPhase2();
+                List<Semaphore> limits = parallel ? acquireEndpointLimits(rcvAtomicAction) : Collections.<Semaphore>emptyList();
+
+                try {
+                    rcvAtomicAction.replayPhase2();
+                } finally {
+                    for (Semaphore limit : limits) {
+                        limit.release();
+                    }
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+
+                // not replayed, so try again on the next pass
+                this.hasWorkLeftToDo = true;
+                _progress.skipped();
+
+                return null;
             } catch (Exception ex) {
+                failed = true;
                 problemDuringRecovery = true;
                 tsLogger.i18NLogger.warn_recovery_AtomicActionRecoveryModule_2(recoverUid, ex);
             }
+
+            _progress.replayed(failed);
+        } else {
+            _progress.skipped();
         }
 
         return rcvAtomicAction;
     }
 
+    /*
+     * The endpoints are sorted, so acquiring their permits in order cannot deadlock.
+     */
+    private List<Semaphore> acquireEndpointLimits(RecoverAtomicAction rcvAtomicAction) throws InterruptedException {
+        int concurrency = recoveryPropertyManager.getRecoveryEnvironmentBean().getRecoveryReplayEndpointConcurrency();
+
+        if (concurrency <= 0) {
+            return Collections.emptyList();
+        }
+
+        List<Semaphore> acquired = new ArrayList<Semaphore>();
+
+        try {
+            for (String endpoint : rcvAtomicAction.getRecoveryEndpoints()) {
+                Semaphore limit = _endpointLimits.computeIfAbsent(endpoint, e -> new Semaphore(concurrency, true));
+
+                limit.acquire();
+                acquired.add(limit);
+            }
+        } catch (InterruptedException ex) {
+            for (Semaphore limit : acquired) {
+                limit.release();
+            }
+
+            throw ex;
+        }
+
+        return acquired;
+    }
+
     private boolean isTransactionInMidFlight(int status) {
         boolean inFlight = false;
 
@@ -206,44 +310,207 @@ public class AtomicActionRecoveryModule implements RecoveryModule {
          * get an NPE
          */
         if (_transactionUidVector != null) {
-            // Process the Vector of transaction Uids
-            Enumeration transactionUidEnum = _transactionUidVector.elements();
+            int threads = recoveryPropertyManager.getRecoveryEnvironmentBean().getRecoveryReplayThreads();
 
-            while (transactionUidEnum.hasMoreElements()) {
-                Uid currentUid = (Uid) transactionUidEnum.nextElement();
+            _progress.start(_transactionUidVector.size());
 
-                try {
-                    if (_recoveryStore.currentState(currentUid,
-                            _transactionType) != StateStatus.OS_UNKNOWN) {
-                        RecoverAtomicAction rcvAtomicAction = doRecoverTransaction(currentUid);
-
-                        if (Objects.nonNull(rcvAtomicAction)) {
-                            /*
-                             * hasFailedParticipants() relies on reportHeuristics being set to true
-                             * during replay_completion in RecoverAtomicAction
-                             */
-                            if (rcvAtomicAction.hasFailedParticipants() ||
-                                    rcvAtomicAction.hasPreparedParticipants() ||
-                                    (recoveryPropertyManager.getRecoveryEnvironmentBean().isWaitForHeuristicDuringSuspension() &&
-                                            rcvAtomicAction.hasHeuristicParticipants())) {
-                                this.hasWorkLeftToDo = true;
-                            } else if (rcvAtomicAction.hasHeuristicParticipants()) {
-                                tsLogger.logger.tracef(
-                                        "AtomicActionRecoveryModule.processTransactionsStatus heuristic action {0} " +
-                                                "was ignored during the assessment of leftover work.", currentUid);
-                            }
-                        }
-                    }
-                } catch (ObjectStoreException ex) {
-                    tsLogger.i18NLogger
-                            .warn_recovery_AtomicActionRecoveryModule_3(
-                                    currentUid, ex);
+            try {
+                if (threads > 1 && _transactionUidVector.size() > 1) {
+                    processTransactionsInParallel(threads);
+                } else {
+                    // Process the Vector of transaction Uids
+                    processTransactionStatuses(new ArrayList<Uid>(_transactionUidVector), false);
+                }
+            } finally {
+                _progress.finish();
+            }
+        }
+    }
+
+    /*
+     * The Uids are split into a few more partitions than there are threads, so
+     * that a thread which finishes its partition early can take another one.
+     */
+    private void processTransactionsInParallel(int threads) {
+        List<Uid> uids = new ArrayList<Uid>(_transactionUidVector);
+        int partitions = Math.min(uids.size(), threads * PARTITIONS_PER_THREAD);
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(partitions);
+
+        for (int i = 0; i < partitions; i++) {
+            final List<Uid> partition = uids.subList(i * uids.size() / partitions, (i + 1) * uids.size() / partitions);
+
+            tasks.add(() -> {
+                processTransactionStatuses(partition, true);
+
+                return null;
+            });
+        }
+
+        // the endpoint limit may have been reconfigured since the last pass
+        _endpointLimits.clear();
+
+        final AtomicInteger threadCount = new AtomicInteger(0);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, partitions), r -> {
+            Thread thread = new Thread(r, "AtomicActionRecoveryModule-replay-" + threadCount.incrementAndGet());
+
+            thread.setDaemon(true);
+
+            return thread;
+        });
+
+        try {
+            executor.invokeAll(tasks);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+
+            this.hasWorkLeftToDo = true;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /*
+     * The Uids are taken a batch at a time. Those still in the store have their
+     * statuses obtained together, so that those created by another process
+     * cost one exchange with its TransactionStatusManager per batch rather than
+     * one each, and then they are replayed.
+     */
+    private void processTransactionStatuses(List<Uid> uids, boolean parallel) {
+        for (int start = 0; start < uids.size(); start += STATUS_BATCH_SIZE) {
+            List<Uid> batch = new ArrayList<Uid>(STATUS_BATCH_SIZE);
+
+            for (Uid currentUid : uids.subList(start, Math.min(uids.size(), start + STATUS_BATCH_SIZE))) {
+                if (parallel && Thread.currentThread().isInterrupted()) {
+                    this.hasWorkLeftToDo = true;
+                    return;
+                }
+
+                if (isInStore(currentUid)) {
+                    batch.add(currentUid);
+                }
+            }
+
+            if (batch.isEmpty()) {
+                continue;
+            }
+
+            /*
+             * Retrieve the transaction statuses from their original processes.
+             * Note: this can be the status of the transaction from the object store
+             */
+            int[] statuses;
+
+            if (parallel) {
+                // the connections to the transaction status managers are not shared between threads
+                synchronized (_transactionStatusConnectionMgr) {
+                    statuses = _transactionStatusConnectionMgr.getTransactionStatuses(_transactionType, batch);
+                }
+            } else {
+                statuses = _transactionStatusConnectionMgr.getTransactionStatuses(_transactionType, batch);
+            }
+
+            for (int i = 0; i < statuses.length; i++) {
+                if (parallel && Thread.currentThread().isInterrupted()) {
+                    this.hasWorkLeftToDo = true;
+                    return;
+                }
+
+                processTransactionStatus(batch.get(i), statuses[i], parallel);
+            }
+        }
+    }
+
+    private boolean isInStore(Uid currentUid) {
+        try {
+            if (_recoveryStore.currentState(currentUid,
+                    _transactionType) != StateStatus.OS_UNKNOWN) {
+                return true;
+            } else {
+                // gone from the store, so no longer pending
+                _pendingUids.remove(currentUid);
+                _progress.skipped();
+            }
+        } catch (ObjectStoreException ex) {
+            _progress.skipped();
+
+            tsLogger.i18NLogger
+                    .warn_recovery_AtomicActionRecoveryModule_3(
+                            currentUid, ex);
+
+            // There might still be work to do if currentState throws an ObjectStoreException
+            this.problemDuringRecovery = true;
+        }
+
+        return false;
+    }
+
+    private void processTransactionStatus(Uid currentUid, int status, boolean parallel) {
+        RecoverAtomicAction rcvAtomicAction = doRecoverTransaction(currentUid, status, parallel);
+
+        if (Objects.nonNull(rcvAtomicAction)) {
+            /*
+             * hasFailedParticipants() relies on reportHeuristics being set to true
+             * during replay_completion in RecoverAtomicAction
+             */
+            if (rcvAtomicAction.hasFailedParticipants() ||
+                    rcvAtomicAction.hasPreparedParticipants() ||
+                    (recoveryPropertyManager.getRecoveryEnvironmentBean().isWaitForHeuristicDuringSuspension() &&
+                            rcvAtomicAction.hasHeuristicParticipants())) {
+                this.hasWorkLeftToDo = true;
+            } else if (rcvAtomicAction.hasHeuristicParticipants()) {
+                tsLogger.logger.tracef(
+                        "AtomicActionRecoveryModule.processTransactionsStatus heuristic action {0} " +
+                                "was ignored during the assessment of leftover work.", currentUid);
+            }
+        }
+    }
 
-                    // There might still be work to do if currentState throws an ObjectStoreException
-                    this.problemDuringRecovery = true;
+    /**
+     * Unregisters the progress MBean, which is registered again if the module is
+     * driven after this.
+     */
+    @Override
+    public synchronized void terminate() {
+        if (_progressName != null && _progressOwners.remove(_progressName, this)) {
+            try {
+                JMXServer.getAgent().getServer().unregisterMBean(_progressName);
+            } catch (JMException | RuntimeException ex) {
+                if (tsLogger.logger.isDebugEnabled()) {
+                    tsLogger.logger.debug("AtomicActionRecoveryModule could not unregister its progress", ex);
                 }
             }
         }
+
+        _progressName = null;
+        _progressRegistered = false;
+    }
+
+    private synchronized void registerProgress() {
+        if (_progressRegistered) {
+            return;
+        }
+
+        _progressRegistered = true;
+
+        try {
+            ObjectName name = new ObjectName("jboss.jta:type=RecoveryProgress,name=" + ObjectName.quote(_transactionType));
+            StandardMBean bean = new StandardMBean(_progress, RecoveryProgressMBean.class);
+
+            try {
+                JMXServer.getAgent().getServer().registerMBean(bean, name);
+            } catch (InstanceAlreadyExistsException ex) {
+                // left by a module which was not terminated, so report this one instead
+                JMXServer.getAgent().getServer().unregisterMBean(name);
+                JMXServer.getAgent().getServer().registerMBean(bean, name);
+            }
+
+            _progressOwners.put(name, this);
+            _progressName = name;
+        } catch (JMException | RuntimeException ex) {
+            if (tsLogger.logger.isDebugEnabled()) {
+                tsLogger.logger.debug("AtomicActionRecoveryModule could not register its progress", ex);
+            }
+        }
     }
 
     @Override
@@ -257,14 +524,39 @@ public class AtomicActionRecoveryModule implements RecoveryModule {
     // Array of transactions found in the object store of the AtomicAction type.
     private Vector _transactionUidVector = null;
 
+    // For stores which track changes, the transactions not yet seen to complete,
+    // and the change number to pass to the store on the next pass.
+    private final Set<Uid> _pendingUids = ConcurrentHashMap.newKeySet();
+
+    private long _lastChange = 0;
+
     // Reference to the Object Store.
     private static RecoveryStore _recoveryStore = null;
 
     // This object manages the interface to all TransactionStatusManagers processes(JVMs) on this system/node.
     private TransactionStatusConnectionManager _transactionStatusConnectionMgr;
 
-    private boolean hasWorkLeftToDo;
+    // Set by the replay threads as well as the recovery thread.
+    private volatile boolean hasWorkLeftToDo;
+
+    private volatile boolean problemDuringRecovery;
+
+    private final RecoveryProgress _progress;
+
+    private boolean _progressRegistered;
+
+    // The name of the progress MBean if this module registered it.
+    private ObjectName _progressName;
+
+    // The module whose progress is registered under each name, which is the only one to unregister it.
+    private static final ConcurrentMap<ObjectName, AtomicActionRecoveryModule> _progressOwners = new ConcurrentHashMap<ObjectName, AtomicActionRecoveryModule>();
+
+    // Limits on the number of transactions replaying against each participant endpoint.
+    private final ConcurrentMap<String, Semaphore> _endpointLimits = new ConcurrentHashMap<String, Semaphore>();
+
+    private static final int PARTITIONS_PER_THREAD = 4;
 
-    private boolean problemDuringRecovery;
+    // The number of transactions whose statuses are obtained together.
+    private static final int STATUS_BATCH_SIZE = 64;
 
 }
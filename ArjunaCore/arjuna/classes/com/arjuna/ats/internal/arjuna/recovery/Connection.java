@@ -36,6 +36,9 @@ public class Connection extends Thread
       try
       {
 	  _server_socket.setSoTimeout(0);
+
+	  // replies are small and clients may pipeline requests, so don't delay them
+	  _server_socket.setTcpNoDelay(true);
       }
       catch (java.net.SocketException ex) {
           tsLogger.i18NLogger.warn_recovery_Connection_2();
@@ -13,6 +13,7 @@ import java.util.LinkedList;
 import java.util.List;
 
 import com.arjuna.ats.arjuna.common.recoveryPropertyManager;
+import com.arjuna.ats.arjuna.coordinator.TwoPhaseCommitThreadPool;
 import com.arjuna.ats.arjuna.logging.tsLogger;
 import com.arjuna.ats.arjuna.recovery.Service;
 
@@ -84,6 +85,10 @@ public class Listener extends Thread
    /**
     * Loops waiting for connection requests from client,
     * creates a new Connection object for each connection.
+    * Each connection is run on a virtual thread where the coordinator
+    * uses them (see {@link TwoPhaseCommitThreadPool#newThread}), so that
+    * persistent status connections which are mostly idle do not each
+    * hold a platform thread.
     */
 
    public void run()
@@ -112,7 +117,7 @@ public class Listener extends Thread
                          _listener_service.getClass().getName());
              }
 
-            new_conn.start();
+            TwoPhaseCommitThreadPool.newThread(new_conn, new_conn.getName()).start();
             }
          }
          catch ( final InterruptedIOException iioex )
@@ -127,6 +127,9 @@ public class RecoveryManagerImple {
         ExpiredEntryMonitor.shutdown();
 
         _periodicRecovery.shutdown(async);
+
+        for (RecoveryModule module : _periodicRecovery.getModules())
+            module.terminate();
     }
 
     /**
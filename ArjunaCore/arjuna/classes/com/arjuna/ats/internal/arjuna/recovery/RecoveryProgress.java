@@ -0,0 +1,108 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.arjuna.ats.internal.arjuna.recovery;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.arjuna.ats.arjuna.recovery.RecoveryProgressMBean;
+
+/**
+ * Counts the transactions replayed by a recovery module. The counters are
+ * updated by the replay threads without locking.
+ */
+public class RecoveryProgress implements RecoveryProgressMBean {
+    public RecoveryProgress(String transactionType) {
+        _transactionType = transactionType;
+    }
+
+    public String getTransactionType() {
+        return _transactionType;
+    }
+
+    public boolean isReplayInProgress() {
+        return _inProgress;
+    }
+
+    public long getRecordsFound() {
+        return _found;
+    }
+
+    public long getRecordsRemaining() {
+        return _remaining.get();
+    }
+
+    public long getRecordsReplayed() {
+        return _replayed.sum();
+    }
+
+    public long getReplayFailures() {
+        return _failures.sum();
+    }
+
+    public double getReplayRate() {
+        long start = _startTime;
+
+        if (start == 0) {
+            return 0.0;
+        }
+
+        long end = _inProgress ? System.nanoTime() : _endTime;
+        long elapsed = end - start;
+
+        if (elapsed <= 0) {
+            return 0.0;
+        }
+
+        return getRecordsReplayed() * 1e9 / elapsed;
+    }
+
+    public long getTotalRecordsReplayed() {
+        return _total.sum();
+    }
+
+    void start(int found) {
+        _replayed.reset();
+        _failures.reset();
+        _found = found;
+        _remaining.set(found);
+        _startTime = System.nanoTime();
+        _inProgress = true;
+    }
+
+    void replayed(boolean failed) {
+        _replayed.increment();
+        _total.increment();
+
+        if (failed) {
+            _failures.increment();
+        }
+
+        _remaining.decrementAndGet();
+    }
+
+    void skipped() {
+        _remaining.decrementAndGet();
+    }
+
+    void finish() {
+        _endTime = System.nanoTime();
+        _remaining.set(0);
+        _inProgress = false;
+    }
+
+    private final String _transactionType;
+
+    private final AtomicLong _remaining = new AtomicLong();
+    private final LongAdder _replayed = new LongAdder();
+    private final LongAdder _failures = new LongAdder();
+    private final LongAdder _total = new LongAdder();
+
+    private volatile long _found;
+    private volatile long _startTime;
+    private volatile long _endTime;
+    private volatile boolean _inProgress;
+}
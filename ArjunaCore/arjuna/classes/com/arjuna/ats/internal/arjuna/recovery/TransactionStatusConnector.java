@@ -11,6 +11,9 @@ import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.net.Socket;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 import com.arjuna.ats.arjuna.common.Uid;
 import com.arjuna.ats.arjuna.coordinator.ActionStatus;
@@ -83,7 +86,28 @@ public class TransactionStatusConnector
 
    public int getTransactionStatus ( String transaction_type, Uid tranUid )
    {
-      int status = ActionStatus.INVALID ;
+      return getTransactionStatuses( transaction_type, Collections.singletonList( tranUid ) )[0] ;
+   }
+
+   /**
+    * Retrieve the transaction statuses for the specified transactions,
+    * all of the same type, attempts to re-establish connection if necessary.
+    *
+    * The requests are pipelined on the connection: a number of them are
+    * sent together and then their replies are read, so the statuses of
+    * many transactions cost a few round trips rather than one each. The
+    * TransactionStatusManager answers the requests on a connection in the
+    * order they were sent, so no change to it is needed for this.
+    *
+    * @return the status of each transaction, in the same order as the Uids,
+    * with ActionStatus.INVALID for any which could not be obtained.
+    */
+
+   public int[] getTransactionStatuses ( String transaction_type, List<Uid> tranUids )
+   {
+      int[] status = new int[tranUids.size()] ;
+
+      Arrays.fill( status, ActionStatus.INVALID ) ;
 
       if ( ! _dead )
       {
@@ -102,24 +126,34 @@ public class TransactionStatusConnector
          {
             try
             {
-               // Send transaction type and transaction Uid to the
-               // TransactionStatusManager.
+               /*
+                * Don't let too many requests get ahead of their replies, or
+                * both sides could block writing to full socket buffers.
+                */
 
-               _to_server.println ( transaction_type ) ;
-               _to_server.println ( tranUid.toString() ) ;
-               _to_server.flush() ;
+               for ( int start = 0; start < status.length; start += _max_pipelined_requests )
+               {
+                  int end = Math.min( status.length, start + _max_pipelined_requests ) ;
 
-	       /*
-		* TODO we should optimise this so we only close once
-		* all transactions for a particular host have been sent.
-		*/
+                  // Send transaction type and transaction Uid to the
+                  // TransactionStatusManager.
 
-               // Retrieve current status from the TransactionStatusManager.
-               String server_data = _from_server.readLine() ;
-               status = Integer.parseInt ( server_data ) ;
+                  for ( int i = start; i < end; i++ )
+                  {
+                     _to_server.println ( transaction_type ) ;
+                     _to_server.println ( tranUids.get( i ).toString() ) ;
+                  }
 
-	       //	       _to_server.close();
-	       //	       _from_server.close();
+                  _to_server.flush() ;
+
+                  // Retrieve current status from the TransactionStatusManager.
+
+                  for ( int i = start; i < end; i++ )
+                  {
+                     String server_data = _from_server.readLine() ;
+                     status[i] = Integer.parseInt ( server_data ) ;
+                  }
+               }
             }
             catch ( IOException ex ) {
                 tsLogger.i18NLogger.warn_recovery_TransactionStatusConnector_2();
@@ -131,6 +165,11 @@ public class TransactionStatusConnector
 
                 _tsmFound = false;
             }
+
+            if ( ! _tsmFound )
+            {
+               closeConnection() ;
+            }
          }
       }
 
@@ -166,6 +205,7 @@ public class TransactionStatusConnector
 
             _connector_socket = new Socket ( serverHost, serverPort ) ;
             _connector_socket.setSoTimeout ( _socket_timeout_in_msecs ) ;
+            _connector_socket.setTcpNoDelay ( true ) ;
    
             // streams to and from the TransactionStatusManager
             _from_server = new BufferedReader ( new InputStreamReader( _connector_socket.getInputStream(), StandardCharsets.UTF_8 )) ;
@@ -227,6 +267,25 @@ public class TransactionStatusConnector
       return connectionEstablished ;
    }
 
+   /**
+    * Close a connection which has failed, as a reply to an earlier
+    * request could otherwise be taken for the reply to a later one.
+    */
+   private void closeConnection()
+   {
+      try
+      {
+         if ( _connector_socket != null )
+         {
+            _connector_socket.close() ;
+         }
+      }
+      catch ( IOException ex )
+      {
+         // ignore, the connection has already failed
+      }
+   }
+
    /**
     * Retrieve host/port item stored in the object store.
     */
@@ -282,6 +341,9 @@ public class TransactionStatusConnector
    // Socket to connect to host/port pair maintained in _tsmi.
    private Socket _connector_socket ;
    private int    _socket_timeout_in_msecs = 1000 ;
+
+   // Maximum number of requests sent before reading their replies.
+   private int    _max_pipelined_requests = 64 ;
    
    // IO to/from TransactionStatusManager
    private BufferedReader _from_server;
@@ -59,6 +59,27 @@ public class TwoPhaseCommitThreadPool {//implements AutoCloseable {
         executor.submit(job);
     }
 
+    /**
+     * Create, but do not start, a daemon thread for long running coordinator work that is not
+     * suited to the pooled executor, such as the transaction reaper worker. The thread is virtual
+     * if the executor is using virtual threads.
+     *
+     * @param task the work the thread will run
+     * @param name the name to give the thread
+     * @return the unstarted thread
+     */
+    public static Thread newThread(Runnable task, String name) {
+        if (isUsingVirtualThreads) {
+            return Thread.ofVirtual().name(name).unstarted(task);
+        }
+
+        Thread thread = new Thread(task, name);
+
+        thread.setDaemon(true);
+
+        return thread;
+    }
+
     public static CompletionService<Boolean> getNewCompletionService() {
         return new ExecutorCompletionService<Boolean>(executor);
     }
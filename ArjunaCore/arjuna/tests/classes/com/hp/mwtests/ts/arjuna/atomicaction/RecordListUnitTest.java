@@ -6,19 +6,35 @@
 package com.hp.mwtests.ts.arjuna.atomicaction;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.io.ByteArrayOutputStream;
 import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
 
 import org.junit.Test;
 
+import com.arjuna.ats.arjuna.coordinator.AbstractRecord;
 import com.arjuna.ats.arjuna.coordinator.RecordList;
+import com.arjuna.ats.arjuna.coordinator.RecordListIterator;
 import com.arjuna.ats.internal.arjuna.abstractrecords.ActivationRecord;
 import com.arjuna.ats.internal.arjuna.abstractrecords.DisposeRecord;
+import com.hp.mwtests.ts.arjuna.resources.BasicRecord;
 
 public class RecordListUnitTest
 {
+    public static class OrderedRecord extends BasicRecord
+    {
+        public boolean orderedInsertOnly ()
+        {
+            return true;
+        }
+    }
+
     @Test
     public void test () throws Exception
     {
@@ -50,4 +66,97 @@ public class RecordListUnitTest
         
         assertTrue(rl.remove(dr));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testIndexedInsert () throws Exception
+    {
+        RecordList rl = new RecordList();
+        List<AbstractRecord> records = new ArrayList<AbstractRecord>();
+
+        for (int i = 0; i < 500; i++)
+            records.add(new OrderedRecord());
+
+        Collections.shuffle(records, new Random(42));
+
+        for (AbstractRecord rec : records)
+            assertTrue(rl.insert(rec));
+
+        assertEquals(records.size(), rl.size());
+        assertOrdered(rl);
+
+        // already present
+
+        for (int i = 0; i < records.size(); i += 50)
+            assertFalse(rl.insert(records.get(i)));
+
+        assertEquals(records.size(), rl.size());
+
+        // take some out and put them back
+
+        for (int i = 0; i < records.size(); i += 7)
+            assertTrue(rl.remove(records.get(i)));
+
+        AbstractRecord front = rl.getFront();
+        AbstractRecord rear = rl.getRear();
+
+        assertTrue(rl.insert(rear));
+        assertTrue(rl.insert(front));
+
+        for (int i = 0; i < records.size(); i += 7)
+            assertTrue(rl.insert(records.get(i)));
+
+        assertEquals(records.size(), rl.size());
+        assertOrdered(rl);
+    }
+
+    @Test
+    public void testMixedRecords () throws Exception
+    {
+        RecordList rl = new RecordList();
+
+        for (int i = 0; i < 100; i++)
+            assertTrue(rl.insert(new OrderedRecord()));
+
+        // walked from now on
+
+        BasicRecord basic = new BasicRecord();
+
+        assertTrue(rl.insert(basic));
+        assertFalse(rl.insert(basic));
+
+        for (int i = 0; i < 100; i++)
+            assertTrue(rl.insert(new OrderedRecord()));
+
+        assertEquals(201, rl.size());
+        assertOrdered(rl);
+
+        while (rl.size() > 0)
+            rl.getFront();
+
+        // and indexed again once empty
+
+        for (int i = 0; i < 100; i++)
+            assertTrue(rl.insert(new OrderedRecord()));
+
+        assertEquals(100, rl.size());
+        assertOrdered(rl);
+    }
+
+    private void assertOrdered (RecordList rl)
+    {
+        RecordListIterator iter = new RecordListIterator(rl);
+        AbstractRecord prev = iter.iterate();
+        AbstractRecord rec;
+        int count = (prev == null) ? 0 : 1;
+
+        while ((rec = iter.iterate()) != null)
+        {
+            assertTrue(prev.lessThan(rec));
+
+            prev = rec;
+            count++;
+        }
+
+        assertEquals(rl.size(), count);
+    }
+}
@@ -0,0 +1,179 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.hp.mwtests.ts.arjuna.atomicaction;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.arjuna.ats.arjuna.AtomicAction;
+import com.arjuna.ats.arjuna.common.arjPropertyManager;
+import com.arjuna.ats.arjuna.coordinator.ActionStatus;
+import com.arjuna.ats.arjuna.coordinator.LatencySnapshot;
+import com.arjuna.ats.arjuna.coordinator.TxStats;
+import com.arjuna.ats.arjuna.coordinator.internal.LatencyHistogram;
+import com.hp.mwtests.ts.arjuna.resources.BasicRecord;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TxStatsLatencyUnitTest {
+    private static final String PARTICIPANT_PREPARE = TxStats.participantMetricName(BasicRecord.class.getName(), "prepare");
+    private static final String PARTICIPANT_COMMIT = TxStats.participantMetricName(BasicRecord.class.getName(), "commit");
+
+    @BeforeEach
+    public void before() {
+        arjPropertyManager.getCoordinatorEnvironmentBean().setEnableStatistics(true);
+    }
+
+    @Test
+    public void testBuckets() {
+        long previous = -1;
+
+        for (int i = 0; i < 200; i++) {
+            long upper = LatencyHistogram.bucketUpperBound(i);
+
+            Assertions.assertTrue(upper > previous);
+            Assertions.assertEquals(i, LatencyHistogram.bucketIndex(upper));
+            Assertions.assertEquals(i, LatencyHistogram.bucketIndex(previous + 1));
+
+            // no bucket is wider than 1/SUB_BUCKETS of the values it counts
+            Assertions.assertTrue((upper - previous - 1) * LatencyHistogram.SUB_BUCKETS <= Math.max(previous + 1, LatencyHistogram.SUB_BUCKETS));
+
+            previous = upper;
+        }
+
+        Assertions.assertTrue(LatencyHistogram.bucketIndex(Long.MAX_VALUE) >= 0);
+    }
+
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        for (long i = 1; i <= 10000; i++) {
+            histogram.record(i * 1000);
+        }
+
+        LatencySnapshot snapshot = histogram.snapshot();
+
+        Assertions.assertEquals(10000, snapshot.getCount());
+        Assertions.assertEquals(10000000, snapshot.getMax());
+        Assertions.assertEquals(5000500, snapshot.getMean());
+
+        for (double percentile : Arrays.asList(1.0, 50.0, 90.0, 99.0, 99.9)) {
+            double exact = percentile * 100000;
+            long value = snapshot.getValueAtPercentile(percentile);
+
+            Assertions.assertTrue(value >= exact, percentile + ": " + value);
+            Assertions.assertTrue(value <= exact * (1 + 1.0 / LatencyHistogram.SUB_BUCKETS), percentile + ": " + value);
+        }
+
+        Assertions.assertEquals(10000000, snapshot.getValueAtPercentile(100));
+        Assertions.assertEquals(0, new LatencyHistogram().snapshot().getValueAtPercentile(99));
+    }
+
+    @Test
+    public void testTwoPhaseCommit() {
+        TxStats stats = TxStats.getInstance();
+        long commits = stats.getLatencyCount(TxStats.COMMIT_TIME);
+        long prepares = stats.getLatencyCount(TxStats.PREPARE_TIME);
+        long phase2Commits = stats.getLatencyCount(TxStats.PHASE2_COMMIT_TIME);
+        long logWrites = stats.getLatencyCount(TxStats.LOG_WRITE_TIME);
+        // participant metrics do not exist (-1) until a participant of the type is first seen
+        long participantPrepares = Math.max(0, stats.getLatencyCount(PARTICIPANT_PREPARE));
+
+        for (int i = 0; i < 10; i++) {
+            AtomicAction A = new AtomicAction();
+
+            A.begin();
+            A.add(new BasicRecord());
+            A.add(new BasicRecord());
+
+            Assertions.assertEquals(ActionStatus.COMMITTED, A.commit());
+        }
+
+        Assertions.assertEquals(commits + 10, stats.getLatencyCount(TxStats.COMMIT_TIME));
+        Assertions.assertEquals(prepares + 10, stats.getLatencyCount(TxStats.PREPARE_TIME));
+        Assertions.assertEquals(phase2Commits + 10, stats.getLatencyCount(TxStats.PHASE2_COMMIT_TIME));
+        Assertions.assertEquals(logWrites + 10, stats.getLatencyCount(TxStats.LOG_WRITE_TIME));
+        Assertions.assertEquals(participantPrepares + 20, stats.getLatencyCount(PARTICIPANT_PREPARE));
+        Assertions.assertTrue(Arrays.asList(stats.getLatencyMetricNames()).contains(PARTICIPANT_COMMIT));
+        Assertions.assertTrue(stats.getLatencyPercentile(TxStats.COMMIT_TIME, 99) > 0);
+        Assertions.assertTrue(stats.getLatencyPercentile(TxStats.COMMIT_TIME, 99) <= stats.getLatencySnapshot(TxStats.COMMIT_TIME).getMax());
+    }
+
+    @Test
+    public void testParticipantEndpoints() {
+        TxStats stats = TxStats.getInstance();
+        String type = EndpointRecord.class.getName();
+
+        for (int i = 0; i <= TxStats.MAX_PARTICIPANT_ENDPOINTS; i++) {
+            AtomicAction A = new AtomicAction();
+
+            A.begin();
+            A.add(new EndpointRecord("rm" + i));
+            A.add(new EndpointRecord("rm" + i));
+
+            Assertions.assertEquals(ActionStatus.COMMITTED, A.commit());
+        }
+
+        // each endpoint is timed apart, up to the maximum
+        Assertions.assertEquals(2, stats.getLatencyCount(TxStats.participantMetricName(type, "rm0", "prepare")));
+        Assertions.assertEquals(2, stats.getLatencyCount(TxStats.participantMetricName(type, "rm" + (TxStats.MAX_PARTICIPANT_ENDPOINTS - 1), "commit")));
+
+        // and any further endpoints are timed together
+        Assertions.assertEquals(-1, stats.getLatencyCount(TxStats.participantMetricName(type, "rm" + TxStats.MAX_PARTICIPANT_ENDPOINTS, "prepare")));
+        Assertions.assertEquals(2, stats.getLatencyCount(TxStats.participantMetricName(type, "prepare")));
+    }
+
+    @Test
+    public void testRollback() {
+        TxStats stats = TxStats.getInstance();
+        long rollbacks = stats.getLatencyCount(TxStats.ROLLBACK_TIME);
+
+        AtomicAction A = new AtomicAction();
+
+        A.begin();
+        A.add(new BasicRecord());
+
+        Assertions.assertEquals(ActionStatus.ABORTED, A.abort());
+        Assertions.assertEquals(rollbacks + 1, stats.getLatencyCount(TxStats.ROLLBACK_TIME));
+    }
+
+    @Test
+    public void testExport() {
+        AtomicReference<Map<String, LatencySnapshot>> exported = new AtomicReference<>();
+
+        AtomicAction A = new AtomicAction();
+
+        A.begin();
+        A.add(new BasicRecord());
+        A.commit();
+
+        TxStats.getInstance().export((stats, latencies) -> {
+            Assertions.assertSame(TxStats.getInstance(), stats);
+            exported.set(latencies);
+        });
+
+        Assertions.assertNotNull(exported.get());
+        Assertions.assertTrue(exported.get().containsKey(TxStats.COMMIT_TIME));
+        Assertions.assertTrue(exported.get().get(PARTICIPANT_COMMIT).getCount() > 0);
+        Assertions.assertEquals(-1, TxStats.getInstance().getLatencyCount("no-such-metric"));
+    }
+
+    private static class EndpointRecord extends BasicRecord {
+        private final String endpoint;
+
+        EndpointRecord(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        @Override
+        public String getRecoveryEndpoint() {
+            return endpoint;
+        }
+    }
+}
@@ -256,6 +256,31 @@ class VirtualThreadTest {
         assertTrue(ref.ranOnVT.get());
     }
 
+    @Test
+    @EnabledForJreRange(min = JRE.JAVA_21) // virtual threads require at least JRE.JAVA_21
+    // test that threads for long running coordinator work, such as the reaper worker, follow the executor
+    public void testNewThreadFollowsExecutor() throws InterruptedException {
+        AtomicBoolean ranOnVT = new AtomicBoolean(true);
+
+        restartExecutor(false);
+        Thread thread = TwoPhaseCommitThreadPool.newThread(() ->
+                ranOnVT.set(VIRTUAL_THREADS_GROUP_NAME.equals(Thread.currentThread().getThreadGroup().getName())),
+                "platform worker");
+        assertTrue(thread.isDaemon());
+        thread.start();
+        thread.join();
+        assertFalse(ranOnVT.get(), "expected a platform thread");
+
+        assertTrue(restartExecutor(true), "TwoPhaseCommitThreadPool did not restart with virtual threads");
+        thread = TwoPhaseCommitThreadPool.newThread(() ->
+                ranOnVT.set(VIRTUAL_THREADS_GROUP_NAME.equals(Thread.currentThread().getThreadGroup().getName())),
+                "virtual worker");
+        assertEquals("virtual worker", thread.getName());
+        thread.start();
+        thread.join();
+        assertTrue(ranOnVT.get(), "expected a virtual thread");
+    }
+
     @Test
     // test that prepare and commit are called on all registered records
     public void isSane() {
@@ -0,0 +1,177 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+
+
+package com.hp.mwtests.ts.arjuna.objectstore;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.junit.Test;
+
+import com.arjuna.ats.arjuna.common.ObjectStoreEnvironmentBean;
+import com.arjuna.ats.arjuna.common.Uid;
+import com.arjuna.ats.arjuna.objectstore.StateStatus;
+import com.arjuna.ats.arjuna.state.InputObjectState;
+import com.arjuna.ats.arjuna.state.OutputObjectState;
+import com.arjuna.ats.internal.arjuna.objectstore.CacheStore;
+
+public class CacheStoreWorkQueueTest
+{
+    private static final String TYPE = "/StateManager/CacheStoreWorkQueueTest";
+
+    @Test
+    public void testWriteCommitRemoveNeverReachesDisk() throws Exception
+    {
+        CacheStore store = new CacheStore(new ObjectStoreEnvironmentBean());
+        List<Uid> uids = new ArrayList<Uid>();
+
+        for (int i = 0; i < 20; i++)
+        {
+            Uid u = new Uid();
+
+            assertTrue(store.write_uncommitted(u, TYPE, state(u, i)));
+
+            InputObjectState read = store.read_uncommitted(u, TYPE);
+
+            assertNotNull(read);
+            assertEquals(i, read.unpackInt());
+
+            assertTrue(store.commit_state(u, TYPE));
+
+            assertTrue(store.remove_committed(u, TYPE));
+
+            uids.add(u);
+        }
+
+        store.sync();
+
+        // the cache is empty now, so this is what is on disk
+
+        for (Uid u : uids)
+            assertEquals(StateStatus.OS_UNKNOWN, store.currentState(u, TYPE));
+    }
+
+    @Test
+    public void testConcurrentWriters() throws Exception
+    {
+        final CacheStore store = new CacheStore(new ObjectStoreEnvironmentBean());
+        final ConcurrentLinkedQueue<Uid> uids = new ConcurrentLinkedQueue<Uid>();
+        final ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<Throwable>();
+        Thread[] writers = new Thread[8];
+
+        for (int i = 0; i < writers.length; i++)
+        {
+            writers[i] = new Thread(() -> {
+                try
+                {
+                    for (int j = 0; j < 50; j++)
+                    {
+                        Uid u = new Uid();
+
+                        if (!store.write_committed(u, TYPE, state(u, j)))
+                            throw new Exception("Could not write " + u);
+
+                        uids.add(u);
+                    }
+                }
+                catch (final Throwable ex)
+                {
+                    failures.add(ex);
+                }
+            });
+
+            writers[i].start();
+        }
+
+        for (Thread t : writers)
+            t.join();
+
+        assertTrue(failures.isEmpty());
+
+        store.sync();
+
+        for (Uid u : uids)
+        {
+            assertEquals(StateStatus.OS_COMMITTED, store.currentState(u, TYPE));
+            assertNotNull(store.read_committed(u, TYPE));
+            assertTrue(store.remove_committed(u, TYPE));
+        }
+
+        store.sync();
+    }
+
+    @Test
+    public void testLastWriteWins() throws Exception
+    {
+        CacheStore store = new CacheStore(new ObjectStoreEnvironmentBean());
+        Uid u = new Uid();
+
+        for (int i = 0; i < 20; i++)
+        {
+            assertTrue(store.write_committed(u, TYPE, state(u, i)));
+
+            if ((i % 5) == 0)
+                store.sync();
+        }
+
+        store.sync();
+
+        InputObjectState read = store.read_committed(u, TYPE);
+
+        assertNotNull(read);
+        assertEquals(19, read.unpackInt());
+        assertTrue(store.remove_committed(u, TYPE));
+
+        store.sync();
+    }
+
+    @Test
+    public void testRemovingLaterWriteKeepsEarlierCommit() throws Exception
+    {
+        CacheStore store = new CacheStore(new ObjectStoreEnvironmentBean());
+        Uid u = new Uid();
+
+        // the first transaction's shadow is on disk and its commit is queued
+
+        assertTrue(store.write_uncommitted(u, TYPE, state(u, 1)));
+
+        store.sync();
+
+        assertTrue(store.commit_state(u, TYPE));
+
+        // a second transaction writes a new shadow and then aborts
+
+        assertTrue(store.write_uncommitted(u, TYPE, state(u, 2)));
+        assertTrue(store.remove_uncommitted(u, TYPE));
+
+        store.sync();
+
+        assertEquals(StateStatus.OS_COMMITTED, store.currentState(u, TYPE));
+
+        InputObjectState read = store.read_committed(u, TYPE);
+
+        assertNotNull(read);
+        assertEquals(1, read.unpackInt());
+        assertTrue(store.remove_committed(u, TYPE));
+
+        store.sync();
+    }
+
+    private static OutputObjectState state(Uid u, int value) throws Exception
+    {
+        OutputObjectState state = new OutputObjectState(u, TYPE);
+
+        state.packInt(value);
+
+        return state;
+    }
+}
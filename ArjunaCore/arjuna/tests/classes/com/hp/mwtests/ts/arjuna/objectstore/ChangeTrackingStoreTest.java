@@ -0,0 +1,248 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.hp.mwtests.ts.arjuna.objectstore;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+import com.arjuna.ats.arjuna.common.ObjectStoreEnvironmentBean;
+import com.arjuna.ats.arjuna.common.Uid;
+import com.arjuna.ats.arjuna.common.arjPropertyManager;
+import com.arjuna.ats.arjuna.objectstore.ObjectStoreAPI;
+import com.arjuna.ats.arjuna.objectstore.StateStatus;
+import com.arjuna.ats.arjuna.state.InputObjectState;
+import com.arjuna.ats.arjuna.state.OutputObjectState;
+import com.arjuna.ats.internal.arjuna.common.UidHelper;
+import com.arjuna.ats.internal.arjuna.objectstore.HashedStore;
+import com.arjuna.ats.internal.arjuna.objectstore.ShadowNoFileLockStore;
+import com.arjuna.common.internal.util.propertyservice.BeanPopulator;
+
+public class ChangeTrackingStoreTest
+{
+    private static final String TYPE = "/StateManager/BasicAction/TwoPhaseCoordinator/AtomicAction/ChangeTrackingStoreTest";
+
+    @Test
+    public void testHashedStore () throws Exception
+    {
+        String dir = storeDir("hashed");
+
+        test(new HashedStore(bean(dir, false)), new HashedStore(bean(dir, true)));
+    }
+
+    @Test
+    public void testShadowNoFileLockStore () throws Exception
+    {
+        String dir = storeDir("shadow");
+
+        test(new ShadowNoFileLockStore(bean(dir, false)), new ShadowNoFileLockStore(bean(dir, true)));
+    }
+
+    @Test
+    public void testPropertyManager () throws Exception
+    {
+        ObjectStoreEnvironmentBean actionStore = BeanPopulator.getDefaultInstance(ObjectStoreEnvironmentBean.class);
+
+        arjPropertyManager.getObjectStoreEnvironmentBean().setChangeTracking(true);
+
+        try
+        {
+            assertTrue(actionStore.isChangeTracking());
+            assertTrue(BeanPopulator.getNamedInstance(ObjectStoreEnvironmentBean.class, "stateStore").isChangeTracking());
+            assertTrue(BeanPopulator.getNamedInstance(ObjectStoreEnvironmentBean.class, "communicationStore").isChangeTracking());
+            assertTrue(arjPropertyManager.getObjectStoreEnvironmentBean().isChangeTracking());
+
+            // a store configured from the property manager tracks its changes
+
+            assertTrue(new HashedStore(actionStore).changedObjUids(TYPE, new InputObjectState(), 0) > 0);
+        }
+        finally
+        {
+            arjPropertyManager.getObjectStoreEnvironmentBean().setChangeTracking(false);
+        }
+
+        assertFalse(actionStore.isChangeTracking());
+        assertFalse(BeanPopulator.getNamedInstance(ObjectStoreEnvironmentBean.class, "communicationStore").isChangeTracking());
+    }
+
+    @Test
+    public void testConcurrentWriters () throws Exception
+    {
+        final ObjectStoreAPI tracked = new HashedStore(bean(storeDir("concurrent"), true));
+        final Set<Uid> written = Collections.newSetFromMap(new ConcurrentHashMap<Uid, Boolean>());
+        final AtomicBoolean failed = new AtomicBoolean(false);
+        final int writers = 4;
+        final int writes = 250;
+        final CountDownLatch done = new CountDownLatch(writers);
+
+        for (int i = 0; i < writers; i++)
+        {
+            new Thread(() -> {
+                try
+                {
+                    for (int j = 0; j < writes; j++)
+                    {
+                        Uid u = new Uid();
+
+                        if (tracked.write_committed(u, TYPE, state()))
+                            written.add(u);
+                        else
+                            failed.set(true);
+                    }
+                }
+                catch (Exception e)
+                {
+                    failed.set(true);
+                }
+                finally
+                {
+                    done.countDown();
+                }
+            }).start();
+        }
+
+        // scan while the writers run, as a recovery pass does
+
+        Set<Uid> seen = new HashSet<Uid>();
+        long change = 0;
+
+        do
+        {
+            InputObjectState ios = new InputObjectState();
+
+            change = tracked.changedObjUids(TYPE, ios, change);
+            seen.addAll(uids(ios));
+        }
+        while (done.getCount() > 0);
+
+        InputObjectState ios = new InputObjectState();
+
+        tracked.changedObjUids(TYPE, ios, change);
+        seen.addAll(uids(ios));
+
+        assertFalse(failed.get());
+        assertEquals(writers * writes, written.size());
+        assertTrue(seen.containsAll(written));
+    }
+
+    private void test (ObjectStoreAPI untracked, ObjectStoreAPI tracked) throws Exception
+    {
+        // written before the index is built, so found by its first scan
+
+        Uid existing = new Uid();
+
+        assertTrue(untracked.write_committed(existing, TYPE, state()));
+
+        InputObjectState ios = new InputObjectState();
+        long change = tracked.changedObjUids(TYPE, ios, 0);
+
+        assertTrue(change > 0);
+        assertEquals(setOf(existing), uids(ios));
+
+        Uid added = new Uid();
+
+        assertTrue(tracked.write_committed(added, TYPE, state()));
+
+        ios = new InputObjectState();
+        change = tracked.changedObjUids(TYPE, ios, change);
+
+        assertEquals(setOf(added), uids(ios));
+
+        ios = new InputObjectState();
+        assertEquals(change, tracked.changedObjUids(TYPE, ios, change));
+        assertEquals(0, uids(ios).size());
+
+        ios = new InputObjectState();
+        assertTrue(tracked.allObjUids(TYPE, ios));
+        assertEquals(setOf(existing, added), uids(ios));
+
+        // removing the shadow leaves the committed state, so the object is still present
+
+        assertTrue(tracked.write_uncommitted(added, TYPE, state()));
+        assertTrue(tracked.remove_uncommitted(added, TYPE));
+
+        ios = new InputObjectState();
+        assertTrue(tracked.allObjUids(TYPE, ios, StateStatus.OS_COMMITTED));
+        assertEquals(setOf(existing, added), uids(ios));
+
+        assertTrue(tracked.remove_committed(existing, TYPE));
+
+        ios = new InputObjectState();
+        assertTrue(tracked.allObjUids(TYPE, ios));
+        assertEquals(setOf(added), uids(ios));
+
+        assertTrue(tracked.remove_committed(added, TYPE));
+
+        ios = new InputObjectState();
+        assertTrue(tracked.allObjUids(TYPE, ios));
+        assertEquals(0, uids(ios).size());
+
+        // and the untracked store agrees
+
+        ios = new InputObjectState();
+        assertTrue(untracked.allObjUids(TYPE, ios));
+        assertEquals(0, uids(ios).size());
+    }
+
+    private static ObjectStoreEnvironmentBean bean (String dir, boolean changeTracking)
+    {
+        ObjectStoreEnvironmentBean bean = new ObjectStoreEnvironmentBean();
+
+        bean.setObjectStoreDir(dir);
+        bean.setChangeTracking(changeTracking);
+
+        return bean;
+    }
+
+    private static String storeDir (String name)
+    {
+        return System.getProperty("java.io.tmpdir") + File.separator + "ChangeTrackingStoreTest" + File.separator + name + new Uid().fileStringForm();
+    }
+
+    private static OutputObjectState state () throws Exception
+    {
+        OutputObjectState state = new OutputObjectState();
+
+        state.packString("ChangeTrackingStoreTest");
+
+        return state;
+    }
+
+    private static Set<Uid> setOf (Uid... uids)
+    {
+        Set<Uid> set = new HashSet<Uid>();
+
+        for (Uid u : uids)
+            set.add(u);
+
+        return set;
+    }
+
+    private static Set<Uid> uids (InputObjectState ios) throws Exception
+    {
+        Set<Uid> found = new HashSet<Uid>();
+        Uid u = UidHelper.unpackFrom(ios);
+
+        while (u.notEquals(Uid.nullUid()))
+        {
+            found.add(u);
+
+            u = UidHelper.unpackFrom(ios);
+        }
+
+        return found;
+    }
+}
@@ -0,0 +1,180 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.hp.mwtests.ts.arjuna.objectstore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.arjuna.ats.arjuna.common.ObjectStoreEnvironmentBean;
+import com.arjuna.ats.arjuna.common.Uid;
+import com.arjuna.ats.arjuna.objectstore.ObjectStoreAPI;
+import com.arjuna.ats.arjuna.objectstore.StateStatus;
+import com.arjuna.ats.arjuna.state.InputObjectState;
+import com.arjuna.ats.arjuna.state.OutputObjectState;
+import com.arjuna.ats.internal.arjuna.common.UidHelper;
+import com.arjuna.ats.internal.arjuna.objectstore.jdbc.JDBCStore;
+
+/**
+ * Test the JDBCStore with concurrent writes and removals batched into group commits
+ */
+public class JDBCStoreGroupCommitTest {
+	private static final String TYPE = "StateManager/BasicAction/TwoPhaseCoordinator/AtomicAction/JDBCStoreGroupCommitTest";
+
+	private ObjectStoreAPI store;
+
+	@BeforeEach
+	public void before() throws Exception {
+		store = createStore(16);
+	}
+
+	private static ObjectStoreAPI createStore(int batchSize) throws Exception {
+		JdbcDataSource ds = new JdbcDataSource();
+
+		ds.setURL("jdbc:h2:mem:JDBCStoreGroupCommitTest;DB_CLOSE_DELAY=-1");
+		ds.setUser("sa");
+		ds.setPassword("sa");
+
+		ObjectStoreEnvironmentBean jdbcStoreEnvironmentBean = new ObjectStoreEnvironmentBean();
+
+		jdbcStoreEnvironmentBean.setJdbcDataSource(ds);
+		jdbcStoreEnvironmentBean.setDropTable(true);
+		jdbcStoreEnvironmentBean.setCreateTable(true);
+		jdbcStoreEnvironmentBean.setJdbcGroupCommit(true);
+		jdbcStoreEnvironmentBean.setJdbcGroupCommitBatchSize(batchSize);
+
+		return new JDBCStore(jdbcStoreEnvironmentBean);
+	}
+
+	@Test
+	public void testWriteAndRemove() throws Exception {
+		Uid uid = new Uid();
+
+		assertTrue(store.write_committed(uid, TYPE, stateOf(1)));
+		assertEquals(1, store.read_committed(uid, TYPE).unpackInt());
+
+		// a second write replaces the state
+		assertTrue(store.write_committed(uid, TYPE, stateOf(2)));
+		assertEquals(2, store.read_committed(uid, TYPE).unpackInt());
+		assertEquals(StateStatus.OS_COMMITTED, store.currentState(uid, TYPE));
+
+		assertTrue(store.write_uncommitted(uid, TYPE, stateOf(3)));
+		assertTrue(store.commit_state(uid, TYPE));
+		assertEquals(3, store.read_committed(uid, TYPE).unpackInt());
+
+		assertFalse(store.remove_uncommitted(uid, TYPE));
+		assertTrue(store.remove_committed(uid, TYPE));
+		assertFalse(store.remove_committed(uid, TYPE));
+		assertNull(store.read_committed(uid, TYPE));
+	}
+
+	@Test
+	public void testConcurrentWriters() throws Exception {
+		runConcurrentWriters(10);
+	}
+
+	@Test
+	public void testMoreWritersThanBatchSize() throws Exception {
+		// a leader's batch can leave its own operation behind for the next one
+		store = createStore(4);
+
+		runConcurrentWriters(24);
+	}
+
+	private void runConcurrentWriters(final int numberOfThreads) throws Exception {
+		final int transactionsPerThread = 200;
+		final int fakeData = 0xdeedbaaf;
+		final Uid[][] ids = new Uid[numberOfThreads][transactionsPerThread];
+		final CountDownLatch startLatch = new CountDownLatch(1);
+		final AtomicInteger failures = new AtomicInteger(0);
+		Thread[] workers = new Thread[numberOfThreads];
+
+		for (int t = 0; t < numberOfThreads; t++) {
+			final int thread = t;
+
+			workers[t] = new Thread(() -> {
+				try {
+					startLatch.await();
+
+					for (int i = 0; i < transactionsPerThread; i++) {
+						ids[thread][i] = new Uid();
+
+						if (!store.write_committed(ids[thread][i], TYPE, stateOf(fakeData)))
+							failures.incrementAndGet();
+
+						// remove every other entry, as a completed transaction would
+
+						if ((i % 2) == 0) {
+							if (!store.remove_committed(ids[thread][i], TYPE))
+								failures.incrementAndGet();
+						}
+					}
+				} catch (final Exception ex) {
+					ex.printStackTrace();
+
+					failures.incrementAndGet();
+				}
+			});
+
+			workers[t].start();
+		}
+
+		startLatch.countDown();
+
+		for (Thread worker : workers)
+			worker.join();
+
+		assertEquals(0, failures.get());
+
+		Set<Uid> expected = new HashSet<Uid>();
+
+		for (int t = 0; t < numberOfThreads; t++) {
+			for (int i = 1; i < transactionsPerThread; i += 2)
+				expected.add(ids[t][i]);
+		}
+
+		InputObjectState ios = new InputObjectState();
+		Set<Uid> found = new HashSet<Uid>();
+
+		assertTrue(store.allObjUids(TYPE, ios));
+
+		Uid id = UidHelper.unpackFrom(ios);
+
+		while (id.notEquals(Uid.nullUid())) {
+			assertTrue(expected.contains(id), "Found unexpected transaction " + id);
+
+			found.add(id);
+
+			id = UidHelper.unpackFrom(ios);
+		}
+
+		assertEquals(expected.size(), found.size());
+
+		InputObjectState state = store.read_committed(ids[0][1], TYPE);
+
+		assertNotNull(state);
+		assertEquals(fakeData, state.unpackInt());
+	}
+
+	private static OutputObjectState stateOf(int value) throws Exception {
+		OutputObjectState state = new OutputObjectState();
+
+		state.packInt(value);
+
+		return state;
+	}
+}
@@ -0,0 +1,138 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.hp.mwtests.ts.arjuna.objectstore;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.arjuna.ats.arjuna.common.Uid;
+import com.arjuna.ats.arjuna.state.InputObjectState;
+import com.arjuna.ats.arjuna.state.OutputObjectState;
+import com.arjuna.ats.internal.arjuna.objectstore.hornetq.HornetqJournalEnvironmentBean;
+import com.arjuna.ats.internal.arjuna.objectstore.hornetq.HornetqJournalStore;
+
+public class JournalStoreOffHeapTest {
+    private static final String TYPE_NAME = "/StateManager/junit";
+
+    private File storeDir;
+    private HornetqJournalStore store;
+
+    @Before
+    public void setUp() throws Exception {
+        storeDir = Files.createTempDirectory("JournalStoreOffHeapTest").toFile();
+        store = startStore();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        store.stop();
+
+        File[] files = storeDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        storeDir.delete();
+    }
+
+    @Test
+    public void testWriteReadRemove() throws Exception {
+        Random random = new Random(42);
+        Map<Uid, byte[]> expected = new HashMap<Uid, byte[]>();
+
+        // cover every block size and records too large for a block
+        for (int size : new int[] {0, 1, 63, 64, 65, 1000, 4096, 65535, 65536, 100000}) {
+            Uid uid = new Uid();
+            byte[] state = new byte[size];
+
+            random.nextBytes(state);
+            assertTrue(store.write_committed(uid, TYPE_NAME, stateOf(state)));
+            expected.put(uid, state);
+        }
+
+        for (Map.Entry<Uid, byte[]> entry : expected.entrySet()) {
+            assertArrayEquals(entry.getValue(), read(entry.getKey()));
+        }
+
+        assertTrue(store.getOffHeapBytesInUse() > 0);
+
+        // an update replaces the state
+        Uid updated = expected.keySet().iterator().next();
+        byte[] newState = new byte[200];
+
+        random.nextBytes(newState);
+        assertTrue(store.write_committed(updated, TYPE_NAME, stateOf(newState)));
+        expected.put(updated, newState);
+        assertArrayEquals(newState, read(updated));
+
+        for (Uid uid : expected.keySet()) {
+            assertTrue(store.remove_committed(uid, TYPE_NAME));
+            assertNull(store.read_committed(uid, TYPE_NAME));
+        }
+
+        assertEquals(0, store.getOffHeapBytesInUse());
+    }
+
+    @Test
+    public void testReload() throws Exception {
+        Uid kept = new Uid();
+        Uid removed = new Uid();
+        byte[] state = new byte[3000];
+
+        new Random(7).nextBytes(state);
+        assertTrue(store.write_committed(kept, TYPE_NAME, stateOf(state)));
+        assertTrue(store.write_committed(removed, TYPE_NAME, stateOf(state)));
+        assertTrue(store.remove_committed(removed, TYPE_NAME));
+
+        store.stop();
+        store = startStore();
+
+        assertArrayEquals(state, read(kept));
+        assertNull(store.read_committed(removed, TYPE_NAME));
+        assertEquals(1, store.getUidsForType(TYPE_NAME).length);
+    }
+
+    private HornetqJournalStore startStore() throws Exception {
+        HornetqJournalEnvironmentBean envBean = new HornetqJournalEnvironmentBean();
+
+        envBean.setStoreDir(storeDir.getPath());
+        envBean.setAsyncIO(false);
+        envBean.setOffHeapRecords(true);
+
+        HornetqJournalStore journalStore = new HornetqJournalStore(envBean);
+
+        journalStore.start();
+
+        return journalStore;
+    }
+
+    private byte[] read(Uid uid) throws Exception {
+        InputObjectState state = store.read_committed(uid, TYPE_NAME);
+
+        return state.unpackBytes();
+    }
+
+    private static OutputObjectState stateOf(byte[] bytes) throws Exception {
+        OutputObjectState state = new OutputObjectState();
+
+        state.packBytes(bytes);
+
+        return state;
+    }
+}
@@ -0,0 +1,134 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+
+
+package com.hp.mwtests.ts.arjuna.objectstore;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.arjuna.ats.arjuna.common.Uid;
+import com.arjuna.ats.arjuna.common.arjPropertyManager;
+import com.arjuna.ats.arjuna.objectstore.RecoveryStore;
+import com.arjuna.ats.arjuna.objectstore.StateStatus;
+import com.arjuna.ats.arjuna.objectstore.StoreManager;
+import com.arjuna.ats.arjuna.state.InputObjectState;
+import com.arjuna.ats.arjuna.state.OutputObjectState;
+import com.arjuna.ats.internal.arjuna.common.UidHelper;
+import com.arjuna.ats.internal.arjuna.objectstore.LogStore;
+import com.hp.mwtests.ts.arjuna.resources.TestBase;
+
+public class LogStoreGroupCommitTest extends TestBase
+{
+    @Before
+    public void setUp()
+    {
+        arjPropertyManager.getObjectStoreEnvironmentBean().setObjectStoreType(LogStore.class.getName());
+        arjPropertyManager.getObjectStoreEnvironmentBean().setTxLogGroupCommit(true);
+        // fewer than the number of writers, so that a leader's batch can leave its own entry behind
+        arjPropertyManager.getObjectStoreEnvironmentBean().setTxLogGroupCommitBatchSize(4);
+        arjPropertyManager.getObjectStoreEnvironmentBean().setTxLogGroupCommitWaitTime(100);
+
+        super.setUp();
+    }
+
+    @Test
+    public void test() throws Exception
+    {
+        final RecoveryStore recoveryStore = StoreManager.getRecoveryStore();
+        final int numberOfThreads = 10;
+        final int transactionsPerThread = 200;
+        final int fakeData = 0xdeedbaaf;
+        final String type = "/StateManager/BasicAction/TwoPhaseCoordinator/AtomicAction/LogStoreGroupCommitTest";
+        final Uid[][] ids = new Uid[numberOfThreads][transactionsPerThread];
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final AtomicInteger failures = new AtomicInteger(0);
+        Thread[] workers = new Thread[numberOfThreads];
+
+        for (int t = 0; t < numberOfThreads; t++) {
+            final int thread = t;
+
+            workers[t] = new Thread(() -> {
+                try {
+                    startLatch.await();
+
+                    for (int i = 0; i < transactionsPerThread; i++) {
+                        OutputObjectState dummyState = new OutputObjectState();
+
+                        dummyState.packInt(fakeData);
+                        ids[thread][i] = new Uid();
+
+                        if (!recoveryStore.write_committed(ids[thread][i], type, dummyState))
+                            failures.incrementAndGet();
+
+                        // remove every other entry, as a completed transaction would
+
+                        if ((i % 2) == 0) {
+                            if (!recoveryStore.remove_committed(ids[thread][i], type))
+                                failures.incrementAndGet();
+                        }
+                    }
+                }
+                catch (final Exception ex) {
+                    ex.printStackTrace();
+
+                    failures.incrementAndGet();
+                }
+            });
+
+            workers[t].start();
+        }
+
+        startLatch.countDown();
+
+        for (Thread worker : workers)
+            worker.join();
+
+        assertEquals(0, failures.get());
+
+        // the entries really were written by group commit
+        assertTrue(recoveryStore instanceof LogStore);
+        assertTrue(((LogStore) recoveryStore).getGroupCommitBatches() > 0);
+
+        Set<Uid> expected = new HashSet<Uid>();
+
+        for (int t = 0; t < numberOfThreads; t++) {
+            for (int i = 1; i < transactionsPerThread; i += 2)
+                expected.add(ids[t][i]);
+        }
+
+        InputObjectState ios = new InputObjectState();
+        Set<Uid> found = new HashSet<Uid>();
+
+        assertTrue(recoveryStore.allObjUids(type, ios, StateStatus.OS_UNKNOWN));
+
+        Uid id = UidHelper.unpackFrom(ios);
+
+        while (id.notEquals(Uid.nullUid())) {
+            assertTrue("Found unexpected transaction " + id, expected.contains(id));
+
+            found.add(id);
+
+            id = UidHelper.unpackFrom(ios);
+        }
+
+        assertEquals(expected.size(), found.size());
+
+        InputObjectState state = recoveryStore.read_committed(ids[0][1], type);
+
+        assertNotNull(state);
+        assertEquals(fakeData, state.unpackInt());
+    }
+}
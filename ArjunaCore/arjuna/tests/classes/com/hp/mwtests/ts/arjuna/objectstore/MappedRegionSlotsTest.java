@@ -0,0 +1,128 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.hp.mwtests.ts.arjuna.objectstore;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.arjuna.ats.internal.arjuna.objectstore.slot.MappedRegionSlots;
+import com.arjuna.ats.internal.arjuna.objectstore.slot.SlotStoreEnvironmentBean;
+
+public class MappedRegionSlotsTest
+{
+    private SlotStoreEnvironmentBean config;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        File storeDir = Files.createTempDirectory("MappedRegionSlotsTest").toFile();
+
+        config = new SlotStoreEnvironmentBean();
+        config.setStoreDir(storeDir.getPath());
+        config.setNumberOfSlots(64);
+        config.setBytesPerSlot(512);
+    }
+
+    @Test
+    public void testReadWrite() throws Exception
+    {
+        MappedRegionSlots slots = new MappedRegionSlots();
+        slots.init(config);
+
+        byte[] data = "some state".getBytes();
+
+        slots.write(3, data, true);
+        assertArrayEquals(data, slots.read(3));
+
+        // a full slot must not spill into its neighbour
+        byte[] full = new byte[config.getBytesPerSlot()];
+        for (int i = 0; i < full.length; i++)
+            full[i] = (byte) i;
+
+        slots.write(2, full, true);
+        assertArrayEquals(full, slots.read(2));
+        assertArrayEquals(data, slots.read(3));
+
+        slots.clear(3, true);
+        assertEquals(0, slots.read(3).length);
+
+        // a never written slot reads as empty, as for MappedDiskSlots
+        assertEquals(0, slots.read(10).length);
+    }
+
+    @Test
+    public void testReopen() throws Exception
+    {
+        MappedRegionSlots slots = new MappedRegionSlots();
+        slots.init(config);
+
+        byte[] data = "persistent state".getBytes();
+
+        slots.write(63, data, true);
+
+        MappedRegionSlots reopened = new MappedRegionSlots();
+        reopened.init(config);
+
+        assertArrayEquals(data, reopened.read(63));
+    }
+
+    @Test
+    public void testConcurrentSyncedWrites() throws Exception
+    {
+        final MappedRegionSlots slots = new MappedRegionSlots();
+        slots.init(config);
+
+        final int numberOfThreads = 8;
+        final int iterations = 200;
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final AtomicInteger failures = new AtomicInteger(0);
+        Thread[] workers = new Thread[numberOfThreads];
+
+        for (int t = 0; t < numberOfThreads; t++) {
+            final int thread = t;
+
+            workers[t] = new Thread(() -> {
+                try {
+                    startLatch.await();
+
+                    for (int i = 0; i < iterations; i++) {
+                        // each thread owns a band of slots, as the SlotStore hands out slots exclusively
+                        int slot = (thread * 8) + (i % 8);
+                        byte[] data = ("thread " + thread + " write " + i).getBytes();
+
+                        slots.write(slot, data, true);
+
+                        byte[] read = slots.read(slot);
+
+                        if (read == null || !new String(read).equals(new String(data)))
+                            failures.incrementAndGet();
+                    }
+                } catch (Exception e) {
+                    e.printStackTrace();
+
+                    failures.incrementAndGet();
+                }
+            });
+
+            workers[t].start();
+        }
+
+        startLatch.countDown();
+
+        for (Thread worker : workers)
+            worker.join();
+
+        assertEquals(0, failures.get());
+    }
+}
@@ -0,0 +1,251 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.hp.mwtests.ts.arjuna.reaper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.arjuna.ats.arjuna.common.Uid;
+import com.arjuna.ats.arjuna.common.arjPropertyManager;
+import com.arjuna.ats.arjuna.coordinator.ActionStatus;
+import com.arjuna.ats.arjuna.coordinator.Reapable;
+import com.arjuna.ats.arjuna.coordinator.TransactionReaper;
+import com.arjuna.ats.internal.arjuna.coordinator.ReaperElement;
+import com.arjuna.ats.internal.arjuna.coordinator.ReaperTimingWheel;
+
+/**
+ * Exercises the TIMING_WHEEL reaper mode and the ReaperTimingWheel it is built on.
+ */
+public class ReaperTimingWheelTest
+{
+    @Test
+    public void testOrdering() throws Exception
+    {
+        ReaperTimingWheel wheel = new ReaperTimingWheel();
+
+        // spread over several levels of the wheel: seconds, minutes and a day
+        ReaperElement e1 = new ReaperElement(new MockReapable(new Uid()), 86400);
+        ReaperElement e2 = new ReaperElement(new MockReapable(new Uid()), 600);
+        ReaperElement e3 = new ReaperElement(new MockReapable(new Uid()), 2);
+        ReaperElement e4 = new ReaperElement(new MockReapable(new Uid()), 30);
+
+        wheel.add(e1);
+        wheel.add(e2);
+        wheel.add(e3);
+        wheel.add(e4);
+
+        assertEquals(4, wheel.size());
+        assertSame(e3, wheel.getFirst());
+
+        try {
+            wheel.add(e3);
+            fail("duplicate insert failed to blow up");
+        } catch (IllegalStateException e) {
+        }
+
+        wheel.remove(e3);
+        assertSame(e4, wheel.getFirst());
+
+        wheel.remove(e4);
+        assertSame(e2, wheel.getFirst());
+
+        wheel.remove(e2);
+        assertSame(e1, wheel.getFirst());
+
+        wheel.remove(e1);
+        assertNull(wheel.getFirst());
+        assertTrue(wheel.isEmpty());
+    }
+
+    @Test
+    public void testExpiryAndReorder() throws Exception
+    {
+        ReaperTimingWheel wheel = new ReaperTimingWheel();
+
+        ReaperElement expired = new ReaperElement(new MockReapable(new Uid()), 0);
+        ReaperElement later = new ReaperElement(new MockReapable(new Uid()), 1);
+
+        wheel.add(later);
+        wheel.add(expired);
+
+        ReaperElement first = wheel.getFirst();
+
+        assertSame(expired, first);
+        assertTrue(first.getNextCheckAbsoluteMillis() <= System.currentTimeMillis());
+
+        // push the expired element behind the other one, as the reaper does while cancelling
+        long next = wheel.reorder(first, 5000);
+
+        assertEquals(later.getNextCheckAbsoluteMillis(), next);
+        assertSame(later, wheel.getFirst());
+
+        // let the wheel turn past the second element
+        Thread.sleep(1100);
+
+        first = wheel.getFirst();
+
+        assertSame(later, first);
+        assertTrue(first.getNextCheckAbsoluteMillis() <= System.currentTimeMillis());
+
+        wheel.remove(later);
+        assertSame(expired, wheel.getFirst());
+
+        wheel.setAllTimeoutsToZero();
+        assertEquals(0, wheel.getFirst().getNextCheckAbsoluteMillis());
+
+        wheel.remove(expired);
+        assertTrue(wheel.isEmpty());
+    }
+
+    @Test
+    public void testConcurrentAddRemove() throws Exception
+    {
+        final ReaperTimingWheel wheel = new ReaperTimingWheel();
+        final int numberOfThreads = 8;
+        final int iterations = 5000;
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final AtomicInteger failures = new AtomicInteger(0);
+        final List<ReaperElement> survivors = new ArrayList<ReaperElement>();
+        Thread[] workers = new Thread[numberOfThreads];
+
+        for (int t = 0; t < numberOfThreads; t++) {
+            workers[t] = new Thread(() -> {
+                try {
+                    startLatch.await();
+
+                    for (int i = 0; i < iterations; i++) {
+                        ReaperElement element = new ReaperElement(new MockReapable(new Uid()), 1 + (i % 300));
+
+                        wheel.add(element);
+
+                        if ((i % 1000) == 0) {
+                            synchronized (survivors) {
+                                survivors.add(element);
+                            }
+                        } else {
+                            wheel.remove(element);
+                        }
+                    }
+                } catch (Exception e) {
+                    e.printStackTrace();
+
+                    failures.incrementAndGet();
+                }
+            });
+
+            workers[t].start();
+        }
+
+        startLatch.countDown();
+
+        // keep the wheel turning while the workers run
+        while (workers[0].isAlive()) {
+            wheel.getFirst();
+            Thread.sleep(1);
+        }
+
+        for (Thread worker : workers)
+            worker.join();
+
+        assertEquals(0, failures.get());
+        assertEquals(survivors.size(), wheel.size());
+
+        for (ReaperElement element : survivors)
+            wheel.remove(element);
+
+        assertTrue(wheel.isEmpty());
+    }
+
+    @Test
+    public void testReaper() throws Exception
+    {
+        arjPropertyManager.getCoordinatorEnvironmentBean().setTxReaperMode(TransactionReaper.TIMING_WHEEL);
+
+        try {
+            TransactionReaper reaper = TransactionReaper.transactionReaper();
+
+            assertTrue(TransactionReaper.isDynamic());
+
+            MockReapable reapable = new MockReapable(new Uid());
+            MockReapable reapable2 = new MockReapable(new Uid());
+
+            reaper.insert(reapable, 1);
+            reaper.insert(reapable2, 100);
+
+            assertEquals(2, reaper.numberOfTransactions());
+
+            try {
+                reaper.insert(reapable2, 100);
+                fail("duplicate insert failed to blow up");
+            } catch (IllegalStateException e) {
+            }
+
+            reaper.remove(reapable2);
+            assertEquals(1, reaper.numberOfTransactions());
+
+            Thread.sleep(2000);
+
+            assertEquals(1, reapable.cancelCount.get());
+            assertEquals(0, reaper.numberOfTransactions());
+            assertEquals(0, reaper.numberOfTimeouts());
+
+            TransactionReaper.terminate(false);
+        } finally {
+            arjPropertyManager.getCoordinatorEnvironmentBean().setTxReaperMode(TransactionReaper.DYNAMIC);
+        }
+    }
+
+    public class MockReapable implements Reapable
+    {
+        private final Uid uid;
+        public final AtomicInteger cancelCount = new AtomicInteger(0);
+
+        public MockReapable(Uid uid)
+        {
+            this.uid = uid;
+        }
+
+        public boolean running()
+        {
+            return true;
+        }
+
+        public boolean preventCommit()
+        {
+            return false;
+        }
+
+        public int cancel()
+        {
+            cancelCount.incrementAndGet();
+
+            return ActionStatus.ABORTED;
+        }
+
+        public Uid get_uid()
+        {
+            return uid;
+        }
+
+        @Override
+        public void recordStackTraces() {
+        }
+
+        @Override
+        public void outputCapturedStackTraces() {
+        }
+    }
+}
@@ -5,8 +5,26 @@
 
 package com.hp.mwtests.ts.arjuna.recovery;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
 import org.junit.Test;
 
+import com.arjuna.ats.arjuna.AtomicAction;
+import com.arjuna.ats.arjuna.common.RecoveryEnvironmentBean;
+import com.arjuna.ats.arjuna.common.Uid;
+import com.arjuna.ats.arjuna.common.recoveryPropertyManager;
+import com.arjuna.ats.arjuna.objectstore.RecoveryStore;
+import com.arjuna.ats.arjuna.objectstore.StateStatus;
+import com.arjuna.ats.arjuna.objectstore.StoreManager;
+import com.arjuna.ats.arjuna.recovery.RecoveryProgressMBean;
+import com.arjuna.ats.arjuna.state.OutputObjectState;
+import com.arjuna.ats.arjuna.tools.osb.util.JMXServer;
+import com.arjuna.ats.internal.arjuna.common.UidHelper;
 import com.arjuna.ats.internal.arjuna.recovery.AtomicActionRecoveryModule;
 
 public class RecoveryModuleUnitTest
@@ -19,4 +37,92 @@ public class RecoveryModuleUnitTest
         aarm.periodicWorkFirstPass();
         aarm.periodicWorkSecondPass();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testParallelReplay () throws Exception
+    {
+        RecoveryEnvironmentBean recoveryEnvironmentBean = recoveryPropertyManager.getRecoveryEnvironmentBean();
+        RecoveryStore recoveryStore = StoreManager.getRecoveryStore();
+        String tn = new AtomicAction().type();
+        Uid[] logs = new Uid[50];
+
+        // logs which cannot be activated, so replaying them moves them aside
+
+        for (int i = 0; i < logs.length; i++)
+        {
+            OutputObjectState fluff = new OutputObjectState();
+
+            logs[i] = new Uid();
+            UidHelper.packInto(logs[i], fluff);
+
+            assertTrue(recoveryStore.write_committed(logs[i], tn, fluff));
+        }
+
+        recoveryEnvironmentBean.setRecoveryReplayThreads(4);
+        recoveryEnvironmentBean.setRecoveryReplayEndpointConcurrency(1);
+
+        try
+        {
+            AtomicActionRecoveryModule aarm = new AtomicActionRecoveryModule();
+
+            aarm.periodicWorkFirstPass();
+            aarm.periodicWorkSecondPass();
+
+            RecoveryProgressMBean progress = aarm.getProgress();
+
+            assertFalse(progress.isReplayInProgress());
+            assertTrue(progress.getRecordsFound() >= logs.length);
+            assertEquals(0, progress.getRecordsRemaining());
+            assertTrue(progress.getRecordsReplayed() >= logs.length);
+            assertEquals(progress.getRecordsReplayed(), progress.getTotalRecordsReplayed());
+
+            for (Uid log : logs)
+                assertEquals(StateStatus.OS_UNKNOWN, recoveryStore.currentState(log, tn));
+        }
+        finally
+        {
+            recoveryEnvironmentBean.setRecoveryReplayThreads(1);
+            recoveryEnvironmentBean.setRecoveryReplayEndpointConcurrency(0);
+        }
+    }
+
+    @Test
+    public void testProgressUnregisteredOnTerminate () throws Exception
+    {
+        MBeanServer server = JMXServer.getAgent().getServer();
+        ObjectName name = new ObjectName("jboss.jta:type=RecoveryProgress,name=" + ObjectName.quote(new AtomicAction().type()));
+
+        AtomicActionRecoveryModule stale = new AtomicActionRecoveryModule();
+
+        stale.periodicWorkFirstPass();
+        stale.periodicWorkSecondPass();
+
+        assertTrue(server.isRegistered(name));
+
+        // a module which was never terminated does not hide the progress of its replacement
+
+        AtomicActionRecoveryModule aarm = new AtomicActionRecoveryModule();
+
+        aarm.periodicWorkFirstPass();
+        aarm.periodicWorkSecondPass();
+
+        stale.terminate();
+
+        assertTrue(server.isRegistered(name));
+
+        aarm.terminate();
+
+        assertFalse(server.isRegistered(name));
+
+        // and is registered again if the module is driven after it was terminated
+
+        aarm.periodicWorkFirstPass();
+        aarm.periodicWorkSecondPass();
+
+        assertTrue(server.isRegistered(name));
+
+        aarm.terminate();
+
+        assertFalse(server.isRegistered(name));
+    }
+}
@@ -0,0 +1,93 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.hp.mwtests.ts.arjuna.recovery;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.arjuna.ats.arjuna.AtomicAction;
+import com.arjuna.ats.arjuna.common.Uid;
+import com.arjuna.ats.arjuna.coordinator.ActionStatus;
+import com.arjuna.ats.arjuna.recovery.ActionStatusService;
+import com.arjuna.ats.arjuna.recovery.Service;
+import com.arjuna.ats.arjuna.utils.Utility;
+import com.arjuna.ats.internal.arjuna.recovery.Listener;
+import com.arjuna.ats.internal.arjuna.recovery.TransactionStatusConnector;
+import com.arjuna.ats.internal.arjuna.recovery.TransactionStatusManagerItem;
+
+/*
+ * Check that the statuses of many transactions can be obtained over a
+ * single connection to an unmodified ActionStatusService.
+ */
+
+public class TransactionStatusConnectorPipelineTest
+{
+    @Test
+    public void testPipelinedStatuses () throws Exception
+    {
+        final AtomicInteger connections = new AtomicInteger(0);
+        final ActionStatusService service = new ActionStatusService();
+
+        Service countingService = new Service()
+        {
+            public void doWork (InputStream is, OutputStream os) throws IOException
+            {
+                connections.incrementAndGet();
+
+                service.doWork(is, os);
+            }
+        };
+
+        assertTrue(TransactionStatusManagerItem.createAndSave(_test_port));
+
+        Listener listener = new Listener(new ServerSocket(_test_port), countingService);
+
+        listener.start();
+
+        try
+        {
+            TransactionStatusConnector connector = new TransactionStatusConnector(Utility.intToHexString(Utility.getpid()), Utility.getProcessUid());
+            AtomicAction running = new AtomicAction();
+            List<Uid> uids = new ArrayList<Uid>();
+
+            running.begin();
+
+            // more than are sent before their replies are read
+            for (int i = 0; i < 150; i++)
+                uids.add((i == 75) ? running.get_uid() : new Uid());
+
+            int[] statuses = connector.getTransactionStatuses(running.type(), uids);
+
+            assertEquals(uids.size(), statuses.length);
+
+            for (int i = 0; i < statuses.length; i++)
+                assertEquals((i == 75) ? ActionStatus.RUNNING : ActionStatus.ABORTED, statuses[i]);
+
+            // and the connection is kept for later requests
+
+            assertEquals(ActionStatus.RUNNING, connector.getTransactionStatus(running.type(), running.get_uid()));
+            assertEquals(1, connections.get());
+
+            running.abort();
+        }
+        finally
+        {
+            listener.stopListener();
+        }
+    }
+
+    private static final int _test_port = 4322;
+}
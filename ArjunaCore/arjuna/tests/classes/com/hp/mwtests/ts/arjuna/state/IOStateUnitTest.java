@@ -5,12 +5,16 @@
 
 package com.hp.mwtests.ts.arjuna.state;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.nio.ByteBuffer;
 
 import org.junit.Test;
 
@@ -134,4 +138,99 @@ public class IOStateUnitTest
         
         assertFalse(temp.valid());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testWireFormat() throws Exception
+    {
+        // the bytes packed by the original DataOutputStream based implementation
+        String expected = "234245011020400000000001fffffffd000000e9fffffffe01020304fffffffffffffffb"
+                + "3fc00000c0020000000000000000000361620000000000000000000768c3a96c6c6f0000"
+                + "00000005090807060500000000000000";
+
+        OutputBuffer obuff = new OutputBuffer();
+
+        obuff.packBoolean(true);
+        obuff.packByte((byte) -3);
+        obuff.packChar('\u00e9');
+        obuff.packShort((short) -2);
+        obuff.packInt(0x01020304);
+        obuff.packLong(-5L);
+        obuff.packFloat(1.5f);
+        obuff.packDouble(-2.25);
+        obuff.packString("ab");
+        obuff.packString(null);
+        obuff.packString("h\u00e9llo");
+        obuff.packBytes(new byte[] {9, 8, 7, 6, 5});
+        obuff.packBytes(new byte[0]);
+
+        assertEquals(expected, toHex(obuff.buffer()));
+        assertEquals(obuff.length(), obuff.buffer().length);
+
+        InputBuffer ibuff = new InputBuffer(obuff.buffer());
+
+        assertTrue(ibuff.unpackBoolean());
+        assertEquals((byte) -3, ibuff.unpackByte());
+        assertEquals('\u00e9', ibuff.unpackChar());
+        assertEquals((short) -2, ibuff.unpackShort());
+        assertEquals(0x01020304, ibuff.unpackInt());
+        assertEquals(-5L, ibuff.unpackLong());
+        assertTrue(ibuff.unpackFloat() == 1.5f);
+        assertTrue(ibuff.unpackDouble() == -2.25);
+        assertEquals("ab", ibuff.unpackString());
+        assertEquals(null, ibuff.unpackString());
+        assertEquals("h\u00e9llo", ibuff.unpackString());
+        assertArrayEquals(new byte[] {9, 8, 7, 6, 5}, ibuff.unpackBytes());
+        assertEquals(0, ibuff.unpackBytes().length);
+
+        // running off the end invalidates the buffer
+        try {
+            ibuff.unpackInt();
+            fail();
+        } catch (IOException e) {
+            assertFalse(ibuff.valid());
+        }
+    }
+
+    @Test
+    public void testByteBufferView() throws Exception
+    {
+        OutputBuffer obuff = new OutputBuffer(8);
+        byte[] large = new byte[10000];
+
+        for (int i = 0; i < large.length; i++)
+            large[i] = (byte) i;
+
+        obuff.packBytes(large);
+        obuff.packString("grown");
+
+        ByteBuffer view = obuff.byteBuffer();
+
+        assertTrue(view.isReadOnly());
+        assertEquals(0, view.position());
+        assertEquals(obuff.length(), view.remaining());
+
+        byte[] viewed = new byte[view.remaining()];
+
+        view.get(viewed);
+        assertArrayEquals(obuff.buffer(), viewed);
+
+        InputBuffer ibuff = new InputBuffer(viewed);
+
+        assertArrayEquals(large, ibuff.unpackBytes());
+        assertEquals("grown", ibuff.unpackString());
+
+        obuff.reset();
+
+        assertEquals(8, obuff.length());
+    }
+
+    private static String toHex(byte[] bytes)
+    {
+        StringBuilder sb = new StringBuilder();
+
+        for (byte b : bytes)
+            sb.append(String.format("%02x", b));
+
+        return sb.toString();
+    }
+}
@@ -24,18 +24,27 @@ import com.arjuna.ats.arjuna.coordinator.ActionStatus;
 import com.arjuna.ats.arjuna.coordinator.RecordType;
 import com.arjuna.ats.arjuna.coordinator.abstractrecord.RecordTypeManager;
 import com.arjuna.ats.arjuna.coordinator.abstractrecord.RecordTypeMap;
+import com.arjuna.ats.arjuna.objectstore.RecoveryStore;
+import com.arjuna.ats.arjuna.objectstore.StoreManager;
+import com.arjuna.ats.arjuna.state.OutputObjectState;
 import com.arjuna.ats.arjuna.tools.osb.mbean.ActionBean;
 import com.arjuna.ats.arjuna.tools.osb.mbean.LogRecordWrapper;
+import com.arjuna.ats.arjuna.tools.osb.mbean.OSBTypeHandler;
 import com.arjuna.ats.arjuna.tools.osb.mbean.OSEntryBean;
 import com.arjuna.ats.arjuna.tools.osb.mbean.ObjStoreBrowser;
 import com.arjuna.ats.arjuna.tools.osb.mbean.ObjStoreItemMBean;
 import com.arjuna.ats.arjuna.tools.osb.mbean.UidWrapper;
 import com.arjuna.ats.arjuna.tools.osb.util.JMXServer;
+import com.arjuna.ats.internal.arjuna.common.UidHelper;
 import com.arjuna.ats.internal.arjuna.recovery.AtomicActionRecoveryModule;
 import com.arjuna.ats.internal.arjuna.recovery.RecoveryManagerImple;
 import com.hp.mwtests.ts.arjuna.resources.CrashRecord;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * @deprecated as of 5.0.5.Final In a subsequent release we will change packages names in order to 
@@ -223,6 +232,87 @@ public class ObjStoreBrowserTest {
 		osb.stop();
 	}
 
+	/**
+	 * Page through the records of a type without creating MBeans for them, filter them by state and age
+	 * and then register and unregister the MBean of just one of them.
+	 * @throws Exception if test fails unexpectedly
+	 */
+	@Test
+	public void pagedListingTest() throws Exception {
+		final String type = "StateManager/ObjStoreBrowserTest/PagedRecord";
+		final int records = 25;
+		final int pageSize = 10;
+		ObjStoreBrowser osb = createObjStoreBrowser();
+		RecoveryStore store = StoreManager.getRecoveryStore();
+		long now = System.currentTimeMillis();
+		Set<Uid> uids = new HashSet<>();
+
+		osb.registerHandler(new OSBTypeHandler(true, null, OSEntryBean.class.getName(), type, null));
+
+		for (int i = 0; i < records; i++) {
+			Uid uid = new Uid();
+			OutputObjectState os = new OutputObjectState();
+
+			// a standard record header, every other record was created an hour ago
+			os.packString("#ARJUNA#");
+			UidHelper.packInto(uid, os);
+			UidHelper.packInto(new Uid(), os);
+			os.packLong(i % 2 == 0 ? now - 3600000L : now);
+
+			assertTrue(store.write_committed(uid, type, os));
+			uids.add(uid);
+		}
+
+		try {
+			osb.start();
+
+			List<String> listed = new ArrayList<>();
+			String cursor = null;
+			String[] page;
+
+			do {
+				page = osb.listRecords(type, null, 0, cursor, pageSize);
+
+				for (String record : page) {
+					assertTrue(record.startsWith(type + '/'));
+					listed.add(record);
+					cursor = record;
+				}
+			} while (page.length == pageSize);
+
+			assertEquals(records, listed.size());
+
+			for (String record : listed) {
+				Uid uid = new Uid(record.substring(record.lastIndexOf('/') + 1));
+
+				assertTrue(uids.contains(uid));
+				// listing does not create any MBeans
+				assertNull(osb.findUid(uid));
+			}
+
+			assertEquals((records + 1) / 2, osb.listRecords(type, null, 60, null, records).length);
+			assertEquals(records, osb.listRecords(type, "COMMITTED", 0, null, records).length);
+			assertEquals(0, osb.listRecords(type, "UNCOMMITTED", 0, null, records).length);
+
+			String record = listed.get(0);
+			String name = osb.registerRecord(record);
+
+			assertNotNull(name);
+			assertEquals(name, osb.registerRecord(record));
+			assertEquals(1, JMXServer.getAgent().queryNames(name, null).size());
+			assertNotNull(osb.findUid(new Uid(record.substring(record.lastIndexOf('/') + 1))));
+
+			assertTrue(osb.unregisterRecord(record));
+			assertFalse(osb.unregisterRecord(record));
+			assertEquals(0, JMXServer.getAgent().queryNames(name, null).size());
+		} finally {
+			for (Uid uid : uids)
+				store.remove_committed(uid, type);
+
+			osb.stop();
+		}
+	}
+
 	private ActionBean lookupActionBean(ObjStoreBrowser osb, Uid uid) {
 		UidWrapper w = osb.findUid(uid);
 		assertNotNull(w);
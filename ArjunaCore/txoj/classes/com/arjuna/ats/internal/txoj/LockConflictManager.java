@@ -11,15 +11,13 @@ import java.util.Calendar;
 import java.util.Date;
 import java.util.concurrent.locks.ReentrantLock;
 
-import com.arjuna.ats.txoj.LockManager;
-
 /**
  * An instance of this class is used to determine what to do in the event of a
- * lock conflict for a given object. If the timeout and retry values are >=0
- * then we use them to sleep the thread which tried to get the lock. If the
- * retry value is -100 (LockManager.waitTotalTimeout) then the thread will block
- * for up to the total timeout and be signaled either when the timeout occurs,
- * or when the lock is actually released.
+ * lock conflict for a given object. The thread which tried to get the lock
+ * blocks for up to the given timeout and is signaled early if locks on the
+ * object are released in the meantime. If the retry value is -100
+ * (LockManager.waitTotalTimeout) then the timeout is the total time the
+ * thread will wait for, otherwise it is the time to wait before each retry.
  */
 
 public class LockConflictManager
@@ -45,41 +43,31 @@ public class LockConflictManager
     
     public int wait (int retry, int waitTime)
     {
+        Date d1 = Calendar.getInstance().getTime();
+
         /*
-         * Release the mutex on the LockManager instance.
+         * Enter the monitor before releasing the mutex on the LockManager
+         * instance. The locks we conflict with are released, and signal
+         * called, with that mutex held, so the signal cannot be sent between
+         * us releasing the mutex and starting to wait, and be missed.
          */
-        
+
         boolean lock = false;
-        
-        if (_instance.isHeldByCurrentThread())
-        {
-            _instance.unlock();
-            lock = true;
-        }
-            
-        Date d1 = Calendar.getInstance().getTime();
-        
-        if (retry == LockManager.waitTotalTimeout)
+
+        synchronized (_lock)
         {
-            try
+            if (_instance.isHeldByCurrentThread())
             {
-                Thread.sleep(waitTime);
+                _instance.unlock();
+                lock = true;
             }
-            catch (final Throwable ex)
+
+            try
             {
+                _lock.wait(waitTime);
             }
-        }
-        else
-        {
-            synchronized (_lock)
+            catch (InterruptedException e)
             {
-                try
-                {
-                    _lock.wait(waitTime);
-                }
-                catch (InterruptedException e)
-                {
-                }
             }
         }
 
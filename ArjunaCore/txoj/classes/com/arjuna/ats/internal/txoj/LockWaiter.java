@@ -0,0 +1,116 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+
+
+package com.arjuna.ats.internal.txoj;
+
+import java.util.concurrent.CompletableFuture;
+
+import com.arjuna.ats.arjuna.coordinator.BasicAction;
+import com.arjuna.ats.txoj.ConflictType;
+import com.arjuna.ats.txoj.Lock;
+
+/**
+ * A lock request waiting in a LockWaiterQueue. When the locks it conflicts
+ * with are released the request is granted: its lock is added to the
+ * object's held locks on its behalf, and it is then woken to take the lock
+ * up in its own transaction.
+ *
+ * Apart from waking, which may be waited for from any thread, a waiter is
+ * only changed or examined with the owning object's mutex held.
+ */
+
+public class LockWaiter
+{
+    public LockWaiter (Lock lock, BasicAction action)
+    {
+        _lock = lock;
+        _action = action;
+    }
+
+    /**
+     * @return the lock requested.
+     */
+
+    public final Lock getLock ()
+    {
+        return _lock;
+    }
+
+    /**
+     * @return the action which requested the lock, used to apply the nested
+     *         locking rules on its behalf.
+     */
+
+    public final BasicAction getAction ()
+    {
+        return _action;
+    }
+
+    /**
+     * @return <code>true</code> if the waiter has ever joined a queue.
+     */
+
+    public final boolean isQueued ()
+    {
+        return _queued;
+    }
+
+    /**
+     * @return <code>true</code> if the request has been handed its lock.
+     */
+
+    public final boolean isGranted ()
+    {
+        return _conflict != ConflictType.CONFLICT;
+    }
+
+    /**
+     * @return the <code>ConflictType</code> the request was granted with,
+     *         i.e., whether its lock was added to the held locks or was
+     *         already present.
+     */
+
+    public final int getConflict ()
+    {
+        return _conflict;
+    }
+
+    /**
+     * @return a future which completes when the request is granted.
+     */
+
+    public final CompletableFuture<Void> wakeUp ()
+    {
+        return _wakeUp;
+    }
+
+    final void queued ()
+    {
+        _queued = true;
+    }
+
+    final void grant (int conflict)
+    {
+        _conflict = conflict;
+    }
+
+    final void revoke ()
+    {
+        _conflict = ConflictType.CONFLICT;
+    }
+
+    final void wake ()
+    {
+        _wakeUp.complete(null);
+    }
+
+    private final Lock _lock;
+    private final BasicAction _action;
+    private final CompletableFuture<Void> _wakeUp = new CompletableFuture<Void>();
+    private volatile boolean _queued = false;
+    private volatile int _conflict = ConflictType.CONFLICT;
+}
@@ -0,0 +1,107 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+
+
+package com.arjuna.ats.internal.txoj;
+
+import java.util.ArrayDeque;
+import java.util.List;
+
+/**
+ * The requests waiting for locks on a given object to be released, in the
+ * order in which they conflicted. When locks are released the object grants
+ * requests from the head of the queue until one still conflicts, so a later
+ * request cannot overtake an earlier one, and then wakes those granted.
+ *
+ * The queue is only used with the owning object's mutex held.
+ */
+
+public class LockWaiterQueue
+{
+    /**
+     * Join the queue. This must be done while the conflict is still visible,
+     * i.e., before the locks which caused it can be released.
+     */
+
+    public void enqueue (LockWaiter waiter)
+    {
+        waiter.queued();
+
+        _waiters.addLast(waiter);
+    }
+
+    /**
+     * Leave the queue without having been granted, e.g., after a timeout.
+     */
+
+    public void remove (LockWaiter waiter)
+    {
+        _waiters.remove(waiter);
+    }
+
+    /**
+     * @return the request at the head of the queue, or <code>null</code>.
+     */
+
+    public LockWaiter peek ()
+    {
+        return _waiters.peekFirst();
+    }
+
+    /**
+     * Take the request at the head of the queue and grant it. It is not
+     * woken until {@link #wake} is called.
+     *
+     * @return the request granted.
+     */
+
+    public LockWaiter grant (int conflict)
+    {
+        LockWaiter waiter = _waiters.removeFirst();
+
+        waiter.grant(conflict);
+
+        return waiter;
+    }
+
+    /**
+     * Wake requests once the locks they were granted have been saved.
+     */
+
+    public void wake (List<LockWaiter> granted)
+    {
+        for (LockWaiter waiter : granted)
+            waiter.wake();
+    }
+
+    /**
+     * Take back grants whose locks could not be saved, returning the requests
+     * to the head of the queue in their original order.
+     */
+
+    public void revoke (List<LockWaiter> granted)
+    {
+        for (int i = granted.size() - 1; i >= 0; i--)
+        {
+            LockWaiter waiter = granted.get(i);
+
+            waiter.revoke();
+
+            _waiters.addFirst(waiter);
+        }
+    }
+
+    /**
+     * @return <code>true</code> if no requests are waiting.
+     */
+
+    public boolean isEmpty ()
+    {
+        return _waiters.isEmpty();
+    }
+
+    private final ArrayDeque<LockWaiter> _waiters = new ArrayDeque<LockWaiter>();
+}
@@ -9,7 +9,15 @@ package com.arjuna.ats.txoj;
 
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.locks.ReentrantLock;
 
 import com.arjuna.ats.arjuna.ObjectModel;
@@ -27,9 +35,12 @@ import com.arjuna.ats.arjuna.logging.tsLogger;
 import com.arjuna.ats.arjuna.state.InputObjectState;
 import com.arjuna.ats.arjuna.state.OutputObjectState;
 import com.arjuna.ats.internal.arjuna.common.UidHelper;
+import com.arjuna.ats.internal.arjuna.thread.ThreadActionData;
 import com.arjuna.ats.internal.txoj.LockConflictManager;
 import com.arjuna.ats.internal.txoj.LockList;
 import com.arjuna.ats.internal.txoj.LockListIterator;
+import com.arjuna.ats.internal.txoj.LockWaiter;
+import com.arjuna.ats.internal.txoj.LockWaiterQueue;
 import com.arjuna.ats.internal.txoj.abstractrecords.CadaverLockRecord;
 import com.arjuna.ats.internal.txoj.abstractrecords.LockRecord;
 import com.arjuna.ats.internal.txoj.lockstore.BasicLockStore;
@@ -226,7 +237,18 @@ public class LockManager extends StateManager
                         tsLogger.logger.trace("LockManager.propagate() Dozing");
                     }
 
-                    conflictManager.wait(1, LockManager.DOZE_TIME);
+                    /*
+                     * Keep the mutex while dozing, so that propagation is not
+                     * interleaved with other lock operations on the object.
+                     */
+
+                    try
+                    {
+                        Thread.sleep(LockManager.DOZE_TIME);
+                    }
+                    catch (InterruptedException e)
+                    {
+                    }
                 }
 
             }
@@ -242,6 +264,21 @@ public class LockManager extends StateManager
                 }
             }
             
+            /*
+             * Locks now owned by the parent may no longer conflict with
+             * requests from its other children.
+             */
+
+            if (result)
+            {
+                synchronized (locksHeldLockObject)
+                {
+                    grantWaiters();
+                }
+
+                conflictManager.signal();
+            }
+
             unlockMutex();
         }
 
@@ -321,7 +358,104 @@ public class LockManager extends StateManager
             txojLogger.logger.trace("LockManager::setlock(" + toSet + ", " + retry + ", "
                     + sleepTime + ")");
         }
-        
+
+        return setlock(toSet, retry, sleepTime, null);
+    }
+
+    /**
+     * Attempt to set the given lock on the current object without blocking
+     * the calling thread, using the default timeout.
+     * 
+     * @see #asyncSetlock(Lock, int, Executor)
+     */
+
+    public final CompletableFuture<Integer> asyncSetlock (Lock toSet)
+    {
+        return asyncSetlock(toSet, LockManager.defaultSleepTime);
+    }
+
+    /**
+     * Attempt to set the given lock on the current object without blocking
+     * the calling thread. The request is taken up on the common fork-join
+     * pool.
+     * 
+     * @see #asyncSetlock(Lock, int, Executor)
+     */
+
+    public final CompletableFuture<Integer> asyncSetlock (Lock toSet, int sleepTime)
+    {
+        return asyncSetlock(toSet, sleepTime, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Attempt to set the given lock on the current object without blocking
+     * the calling thread. The first attempt is made by the calling thread. If
+     * the lock conflicts with one that is held then the request joins this
+     * object's queue and no thread waits for it. When the request is handed
+     * the lock, or sleepTime milliseconds have passed, it is taken up on the
+     * given executor on behalf of the transaction that was current when this
+     * method was called. A request which timed out makes one last attempt.
+     * 
+     * @return a future which completes with the <code>LockResult</code> of
+     *         the request.
+     */
+
+    public final CompletableFuture<Integer> asyncSetlock (Lock toSet, int sleepTime, Executor executor)
+    {
+        if (txojLogger.logger.isTraceEnabled()) {
+            txojLogger.logger.trace("LockManager::asyncSetlock(" + toSet + ", " + sleepTime + ")");
+        }
+
+        if (toSet == null)
+        {
+            txojLogger.i18NLogger.warn_LockManager_2();
+
+            return CompletableFuture.completedFuture(LockResult.REFUSED);
+        }
+
+        final BasicAction action = BasicAction.Current();
+        final LockWaiter waiter = ((sleepTime > 0) ? new LockWaiter(toSet, action) : null);
+        int status = setlock(toSet, 0, 0, waiter);
+
+        if ((status == LockResult.GRANTED) || (waiter == null) || !waiter.isQueued())
+            return CompletableFuture.completedFuture(status);
+
+        final CompletableFuture<Integer> result = new CompletableFuture<Integer>();
+
+        waiter.wakeUp().completeOnTimeout(null, sleepTime, TimeUnit.MILLISECONDS).thenRunAsync(() -> {
+            BasicAction previous = ThreadActionData.currentAction();
+
+            ThreadActionData.restoreActions(action);
+
+            try
+            {
+                result.complete(setlock(toSet, 0, 0, waiter));
+            }
+            finally
+            {
+                ThreadActionData.restoreActions(previous);
+            }
+        }, executor).exceptionally(ex -> {
+            result.completeExceptionally(ex);
+
+            return null;
+        });
+
+        return result;
+    }
+
+    /*
+     * Does the work of setlock. If the object's requests are queued then a
+     * request which conflicts and is to wait joins the queue and is handed
+     * the lock when it is released, rather than sleeping and trying again.
+     *
+     * An asyncSetlock passes its own waiter. On the first attempt a conflict
+     * leaves it in the queue; when it is woken the grant is taken up, or if
+     * it timed out it leaves the queue and tries one last time.
+     */
+
+    private int setlock (Lock toSet, int retry, int sleepTime, LockWaiter asyncWaiter)
+    {
         int returnStatus = LockResult.REFUSED;
         
         // JBTM-2098, we need to have the action locked in case a simultaneous abort 
@@ -335,13 +469,29 @@ public class LockManager extends StateManager
         if (!lockMutex())
             return LockResult.REFUSED;
         
+        LockWaiter waiter = asyncWaiter; /* our place in the queue, if any */
+        boolean leaveQueued = ((asyncWaiter != null) && !asyncWaiter.isQueued());
+
         try
         {
             int conflict = ConflictType.CONFLICT;
             LockRecord newLockR = null;
             boolean modifyRequired = false;
+            boolean handedOff = false;
             BasicAction currAct = null;
 
+            /*
+             * An asyncSetlock woken by its timeout rather than a grant gives up
+             * its place in the queue and tries once more.
+             */
+
+            if ((waiter != null) && waiter.isQueued() && !waiter.isGranted())
+            {
+                lockWaiters.remove(waiter);
+
+                waiter = null;
+            }
+
             if (toSet == null)
             {
                 txojLogger.i18NLogger.warn_LockManager_2();
@@ -379,13 +529,28 @@ public class LockManager extends StateManager
 
                     if (loadState())
                     {
-                        conflict = lockConflict(toSet);
+                        if ((waiter != null) && waiter.isGranted())
+                        {
+                            /*
+                             * We were handed the lock when the locks it
+                             * conflicted with were released, so it is already
+                             * held and only needs taking up.
+                             */
+
+                            conflict = waiter.getConflict();
+                            handedOff = (conflict == ConflictType.COMPATIBLE);
+                            waiter = null;
+                        }
+                        else
+                            conflict = lockConflict(toSet);
                     }
                     else
                     {
                         txojLogger.i18NLogger.warn_LockManager_4();
                     }
 
+                    boolean conflicted = (conflict == ConflictType.CONFLICT);
+
                     if (conflict != ConflictType.CONFLICT)
                     {
                         /*
@@ -422,7 +587,7 @@ public class LockManager extends StateManager
                                     }
                                 }
 
-                                if (returnStatus == LockResult.GRANTED)
+                                if ((returnStatus == LockResult.GRANTED) && !handedOff)
                                 {
                                     locksHeld.insert(toSet); /*
                                      * add to local lock
@@ -483,19 +648,52 @@ public class LockManager extends StateManager
 
                     /*
                      * Make sure we free state while we still have the lock.
+                     * If we are going to wait in the queue then join it now,
+                     * while the conflict is still visible, so that the
+                     * release which resolves it hands us the lock.
                      */
 
                     if (conflict == ConflictType.CONFLICT)
+                    {
                         freeState();
+
+                        if (conflicted)
+                        {
+                            if (leaveQueued)
+                            {
+                                if (!waiter.isQueued())
+                                    lockWaiters.enqueue(waiter);
+                            }
+                            else if ((waiter == null) && lockWaitQueue && (retry != 0) && (sleepTime > 0))
+                            {
+                                waiter = new LockWaiter(toSet, currAct);
+
+                                lockWaiters.enqueue(waiter);
+                            }
+                        }
+                    }
                 }
 
+                /*
+                 * A lock we were handed but could not take up, and for which
+                 * the action has no record to release it, is passed on.
+                 */
+
+                if (handedOff && (returnStatus != LockResult.GRANTED) && (newLockR == null))
+                    doRelease(toSet.get_uid(), false);
+
+                handedOff = false;
+
                 if (conflict == ConflictType.CONFLICT)
                 {
                     if (retry != 0)
                     {
                         if (sleepTime > 0)
                         {
-                            sleepTime -= conflictManager.wait(retry, sleepTime);
+                            if (waiter != null)
+                                sleepTime -= waitForGrant(waiter, sleepTime);
+                            else
+                                sleepTime -= conflictManager.wait(retry, sleepTime);
                         }
                         else
                             retry = 0;
@@ -508,6 +706,19 @@ public class LockManager extends StateManager
         }
         finally
         {
+            /*
+             * Leave the queue, passing on a lock we were handed too late to
+             * take up.
+             */
+
+            if ((waiter != null) && !leaveQueued)
+            {
+                if (waiter.isGranted())
+                    doRelease(waiter.getLock().get_uid(), false);
+                else
+                    lockWaiters.remove(waiter);
+            }
+
             unlockMutex();
         }
         }
@@ -606,7 +817,13 @@ public class LockManager extends StateManager
         stateLoaded = false;
         hasBeenLocked = false;
         objectLocked = false;
-        conflictManager = new LockConflictManager(mutex);
+
+        /*
+         * A conflicting setlock waits holding the object's mutex, which must
+         * be given up while it waits for the releasing thread to get in.
+         */
+
+        conflictManager = new LockConflictManager(getMutex());
     }
     
     /*
@@ -640,7 +857,7 @@ public class LockManager extends StateManager
         stateLoaded = false;
         hasBeenLocked = false;
         objectLocked = false;
-        conflictManager = new LockConflictManager(mutex);
+        conflictManager = new LockConflictManager(getMutex());
     }
     
     /**
@@ -868,6 +1085,14 @@ public class LockManager extends StateManager
                     }
                 }
                 while ((!result) && (--retryCount > 0));
+
+                /*
+                 * Hand the lock to queued requests before any other thread
+                 * can get the mutex and take it first.
+                 */
+
+                if (releasedOK)
+                    grantWaiters();
             }
 
             /*
@@ -885,6 +1110,76 @@ public class LockManager extends StateManager
         return releasedOK;
     }
 
+    /*
+     * Wait in the queue to be handed the lock. The object mutex is given up
+     * while waiting so that the transaction holding the conflicting lock can
+     * release it. Returns the time taken to wait.
+     */
+
+    private int waitForGrant (LockWaiter waiter, int waitTime)
+    {
+        long start = System.nanoTime();
+
+        unlockMutex();
+
+        try
+        {
+            waiter.wakeUp().get(waitTime, TimeUnit.MILLISECONDS);
+        }
+        catch (final TimeoutException | InterruptedException | ExecutionException ex)
+        {
+            // as LockConflictManager, the caller just tries again
+        }
+        finally
+        {
+            lockMutex();
+        }
+
+        return (int) TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    /*
+     * Hand the lock to queued requests, in the order in which they joined the
+     * queue, until one still conflicts. The locks are added for the requests
+     * here, under the mutex, so that no other request can take them first;
+     * the requests are woken once the locks have been saved, to take them up
+     * in their own transactions. Must be called with the mutex and
+     * locksHeldLockObject held.
+     */
+
+    private void grantWaiters ()
+    {
+        if (lockWaiters.isEmpty() || !loadState())
+            return;
+
+        List<LockWaiter> granted = new ArrayList<LockWaiter>();
+        LockWaiter waiter;
+
+        while ((waiter = lockWaiters.peek()) != null)
+        {
+            int conflict = lockConflict(waiter.getLock(), waiter.getAction());
+
+            if (conflict == ConflictType.CONFLICT)
+                break;
+
+            if (conflict == ConflictType.COMPATIBLE)
+                locksHeld.insert(waiter.getLock());
+
+            granted.add(lockWaiters.grant(conflict));
+        }
+
+        if (granted.isEmpty())
+            freeState();
+        else if (unloadState())
+            lockWaiters.wake(granted);
+        else
+        {
+            txojLogger.i18NLogger.warn_LockManager_8();
+
+            lockWaiters.revoke(granted);
+        }
+    }
+
     /*
      * Simply free up the semaphore. We do this if we detect conflict. Since the
      * list has not been modified it can simply be discarded. Does not need
@@ -1166,6 +1461,17 @@ public class LockManager extends StateManager
             txojLogger.logger.trace("LockManager::lockConflict(" + otherLock.get_uid() + ")");
         }
 
+        return lockConflict(otherLock, BasicAction.Current());
+    }
+
+    /*
+     * As lockConflict, but applying the nested locking rules for the given
+     * action rather than the current one, so that a queued request can be
+     * granted by the thread which releases the locks.
+     */
+
+    private int lockConflict (Lock otherLock, BasicAction action)
+    {
         boolean matching = false;
         Lock heldLock = null;
         LockListIterator next = new LockListIterator(locksHeld);
@@ -1176,7 +1482,7 @@ public class LockManager extends StateManager
             {
                 if (LockManager.nestedLocking)
                 {
-                    if (!isAncestorOf(heldLock)) /* not quite Moss's rules */
+                    if ((action == null) || !action.isAncestor(heldLock.getCurrentOwner())) /* not quite Moss's rules */
                         return ConflictType.CONFLICT;
                 }
                 else
@@ -1328,6 +1634,10 @@ public class LockManager extends StateManager
     
     protected LockConflictManager conflictManager;
 
+    private final boolean lockWaitQueue = txojPropertyManager.getTxojEnvironmentBean().isLockWaitQueueEnabled();
+
+    private final LockWaiterQueue lockWaiters = new LockWaiterQueue(); /* requests waiting to be handed locks */
+
     protected static final int DOZE_TIME = 1000000;
 
     protected static final boolean nestedLocking = txojPropertyManager.getTxojEnvironmentBean().isAllowNestedLocking();
@@ -26,6 +26,7 @@ public class TxojEnvironmentBean implements TxojEnvironmentBeanMBean
     @Deprecated
     private volatile String singleLockStore = BasicLockStore.class.getName();
     private volatile boolean allowNestedLocking = true;
+    private volatile boolean lockWaitQueueEnabled = false;
 
     /**
      * Returns the directory path used for storing persistent locks.
@@ -148,4 +149,31 @@ public class TxojEnvironmentBean implements TxojEnvironmentBeanMBean
     {
         this.allowNestedLocking = allowNestedLocking;
     }
+
+    /**
+     * Returns if conflicting lock requests wait in a queue, to be handed the
+     * lock in turn when the locks they conflict with are released, rather
+     * than sleeping and trying again.
+     *
+     * Default: false
+     *
+     * @return true if lock requests are queued, false otherwise.
+     */
+    public boolean isLockWaitQueueEnabled()
+    {
+        return lockWaitQueueEnabled;
+    }
+
+    /**
+     * Sets if conflicting lock requests wait in a queue, to be handed the
+     * lock in turn when the locks they conflict with are released, rather
+     * than sleeping and trying again.
+     * Only affects objects created after it is set.
+     *
+     * @param lockWaitQueueEnabled true to enable, false to disable.
+     */
+    public void setLockWaitQueueEnabled(boolean lockWaitQueueEnabled)
+    {
+        this.lockWaitQueueEnabled = lockWaitQueueEnabled;
+    }
 }
\ No newline at end of file
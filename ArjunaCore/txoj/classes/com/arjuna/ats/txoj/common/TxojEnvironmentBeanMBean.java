@@ -22,4 +22,6 @@ public interface TxojEnvironmentBeanMBean
     String getSingleLockStore();
 
     boolean isAllowNestedLocking();
+
+    boolean isLockWaitQueueEnabled();
 }
\ No newline at end of file
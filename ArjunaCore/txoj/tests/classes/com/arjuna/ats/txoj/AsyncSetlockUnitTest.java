@@ -0,0 +1,319 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+
+
+package com.arjuna.ats.txoj;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import com.arjuna.ats.arjuna.AtomicAction;
+import com.arjuna.ats.arjuna.ObjectType;
+import com.arjuna.ats.arjuna.coordinator.ActionStatus;
+import com.arjuna.ats.arjuna.state.InputObjectState;
+import com.arjuna.ats.arjuna.state.OutputObjectState;
+import com.arjuna.ats.txoj.common.txojPropertyManager;
+
+public class AsyncSetlockUnitTest
+{
+    public static class Counter extends LockManager
+    {
+        public Counter ()
+        {
+            super(ObjectType.RECOVERABLE);
+        }
+
+        public boolean save_state (OutputObjectState os, int ot)
+        {
+            try
+            {
+                os.packInt(_value);
+
+                return true;
+            }
+            catch (final Exception ex)
+            {
+                return false;
+            }
+        }
+
+        public boolean restore_state (InputObjectState os, int ot)
+        {
+            try
+            {
+                _value = os.unpackInt();
+
+                return true;
+            }
+            catch (final Exception ex)
+            {
+                return false;
+            }
+        }
+
+        public String type ()
+        {
+            return "/StateManager/LockManager/AsyncSetlockUnitTest";
+        }
+
+        private int _value;
+    }
+
+    @Test
+    public void testWokenOnRelease () throws Exception
+    {
+        final Counter counter = new Counter();
+        final CountDownLatch waiting = new CountDownLatch(1);
+        final AtomicInteger result = new AtomicInteger(-1);
+        final AtomicLong granted = new AtomicLong();
+
+        AtomicAction holder = new AtomicAction();
+
+        holder.begin();
+
+        assertEquals(LockResult.GRANTED, counter.setlock(new Lock(LockMode.WRITE), 0));
+
+        Thread t = new Thread(() -> {
+            AtomicAction waiter = new AtomicAction();
+
+            waiter.begin();
+
+            waiting.countDown();
+
+            result.set(counter.setlock(new Lock(LockMode.WRITE), LockManager.waitTotalTimeout, 30000));
+            granted.set(System.nanoTime());
+
+            waiter.commit();
+        });
+
+        t.start();
+
+        waiting.await();
+
+        Thread.sleep(200);  // let it start waiting
+
+        long released = System.nanoTime();
+
+        assertEquals(ActionStatus.COMMITTED, holder.commit());
+
+        t.join(10000);
+
+        assertEquals(LockResult.GRANTED, result.get());
+
+        // woken by the release rather than after its wait time
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(granted.get() - released) < 10000);
+    }
+
+    @Test
+    public void testRetryWokenOnReleaseAll () throws Exception
+    {
+        final Counter counter = new Counter();
+        final CountDownLatch waiting = new CountDownLatch(1);
+        final AtomicInteger result = new AtomicInteger(-1);
+        final AtomicLong granted = new AtomicLong();
+
+        AtomicAction holder = new AtomicAction();
+
+        holder.begin();
+
+        assertEquals(LockResult.GRANTED, counter.setlock(new Lock(LockMode.WRITE), 0));
+
+        AtomicAction.suspend();
+
+        // the default mode, retrying after each wait rather than queueing
+
+        Thread t = new Thread(() -> {
+            AtomicAction waiter = new AtomicAction();
+
+            waiter.begin();
+
+            waiting.countDown();
+
+            result.set(counter.setlock(new Lock(LockMode.WRITE), 1, 30000));
+            granted.set(System.nanoTime());
+
+            waiter.commit();
+        });
+
+        t.start();
+
+        waiting.await();
+
+        Thread.sleep(200);  // let it start waiting
+
+        long released = System.nanoTime();
+
+        assertTrue(counter.releaseAll(holder.get_uid()));
+
+        t.join(10000);
+
+        assertFalse(t.isAlive());
+        assertEquals(LockResult.GRANTED, result.get());
+
+        // woken by the release rather than after its wait time
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(granted.get() - released) < 10000);
+
+        AtomicAction.resume(holder);
+
+        holder.abort();
+    }
+
+    @Test
+    public void testQueuedHandOff () throws Exception
+    {
+        txojPropertyManager.getTxojEnvironmentBean().setLockWaitQueueEnabled(true);
+
+        final Counter counter;
+
+        try
+        {
+            counter = new Counter();
+        }
+        finally
+        {
+            txojPropertyManager.getTxojEnvironmentBean().setLockWaitQueueEnabled(false);
+        }
+
+        final List<String> granted = new CopyOnWriteArrayList<String>();
+        AtomicAction holder = new AtomicAction();
+
+        holder.begin();
+
+        assertEquals(LockResult.GRANTED, counter.setlock(new Lock(LockMode.WRITE), 0));
+
+        Thread first = waiter(counter, "first", granted);
+
+        first.start();
+
+        Thread.sleep(200);  // let it join the queue
+
+        Thread second = waiter(counter, "second", granted);
+
+        second.start();
+
+        Thread.sleep(200);
+
+        assertEquals(ActionStatus.COMMITTED, holder.commit());
+
+        first.join(10000);
+        second.join(10000);
+
+        assertFalse(first.isAlive());
+        assertFalse(second.isAlive());
+
+        // handed the lock in the order in which they asked for it
+
+        assertEquals(2, granted.size());
+        assertEquals("first", granted.get(0));
+        assertEquals("second", granted.get(1));
+    }
+
+    @Test
+    public void testAsyncSetlock () throws Exception
+    {
+        Counter counter = new Counter();
+        AtomicAction holder = new AtomicAction();
+
+        holder.begin();
+
+        assertEquals(LockResult.GRANTED, counter.setlock(new Lock(LockMode.WRITE), 0));
+
+        AtomicAction.suspend();
+
+        AtomicAction waiter = new AtomicAction();
+
+        waiter.begin();
+
+        CompletableFuture<Integer> future = counter.asyncSetlock(new Lock(LockMode.WRITE), 30000);
+
+        assertFalse(future.isDone());
+
+        AtomicAction.suspend();
+        AtomicAction.resume(holder);
+
+        assertEquals(ActionStatus.COMMITTED, holder.commit());
+
+        assertEquals(LockResult.GRANTED, future.get(10, TimeUnit.SECONDS).intValue());
+
+        // the lock belongs to the waiting transaction
+
+        AtomicAction other = new AtomicAction();
+
+        other.begin();
+
+        assertEquals(LockResult.REFUSED, counter.setlock(new Lock(LockMode.READ), 0));
+
+        other.abort();
+
+        AtomicAction.resume(waiter);
+
+        assertEquals(ActionStatus.COMMITTED, waiter.commit());
+    }
+
+    @Test
+    public void testAsyncSetlockTimeout () throws Exception
+    {
+        Counter counter = new Counter();
+        AtomicAction holder = new AtomicAction();
+
+        holder.begin();
+
+        assertEquals(LockResult.GRANTED, counter.setlock(new Lock(LockMode.WRITE), 0));
+
+        AtomicAction.suspend();
+
+        AtomicAction waiter = new AtomicAction();
+
+        waiter.begin();
+
+        CompletableFuture<Integer> future = counter.asyncSetlock(new Lock(LockMode.WRITE), 100);
+
+        assertEquals(LockResult.REFUSED, future.get(10, TimeUnit.SECONDS).intValue());
+
+        waiter.abort();
+
+        AtomicAction.resume(holder);
+
+        assertEquals(ActionStatus.COMMITTED, holder.commit());
+    }
+
+    private static Thread waiter (final Counter counter, final String name, final List<String> granted)
+    {
+        return new Thread(() -> {
+            AtomicAction action = new AtomicAction();
+
+            action.begin();
+
+            if (counter.setlock(new Lock(LockMode.WRITE), LockManager.waitTotalTimeout, 30000) == LockResult.GRANTED)
+            {
+                granted.add(name);
+
+                try
+                {
+                    Thread.sleep(100);  // hold it while the other waits
+                }
+                catch (final InterruptedException ex)
+                {
+                }
+            }
+
+            action.commit();
+        });
+    }
+}
@@ -7,8 +7,12 @@
 
 package com.arjuna.ats.txoj;
 
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
 
 import org.junit.Test;
@@ -32,4 +36,54 @@ public class LockConflictUnitTest
         
         manager.signal();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testSignal () throws Exception
+    {
+        final ReentrantLock lock = new ReentrantLock();
+        final LockConflictManager manager = new LockConflictManager(lock);
+        final CountDownLatch locked = new CountDownLatch(1);
+        final AtomicInteger waited = new AtomicInteger(-1);
+        final AtomicBoolean relocked = new AtomicBoolean(false);
+
+        Thread t = new Thread(() -> {
+            lock.lock();
+
+            locked.countDown();
+
+            waited.set(manager.wait(LockManager.waitTotalTimeout, 30000));
+
+            relocked.set(lock.isHeldByCurrentThread());
+
+            lock.unlock();
+        });
+
+        t.start();
+
+        locked.await();
+
+        /*
+         * As soon as the waiter has given up the mutex, release "locks" and
+         * signal while holding it, as LockManager does. The signal must not
+         * be lost.
+         */
+
+        lock.lock();
+
+        try
+        {
+            manager.signal();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+
+        t.join(30000);
+
+        assertFalse(t.isAlive());
+        assertTrue(relocked.get());
+        assertTrue(waited.get() >= 0);
+        assertTrue(waited.get() < 10000);
+    }
+}
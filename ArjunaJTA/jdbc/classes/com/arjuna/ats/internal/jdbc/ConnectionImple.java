@@ -904,6 +904,9 @@ public class ConnectionImple implements Connection
 				if (!_transactionalDriverXAConnectionConnection.setTransaction(tx))
 					throw new SQLException( jdbcLogger.i18NLogger.get_alreadyassociated() );
 
+				if (_poolingEnabled)
+					ConnectionManager.associate(this, tx);
+
 				Object[] params;
 
 				if (_theModifier != null)
@@ -1074,4 +1077,11 @@ public class ConnectionImple implements Connection
 
 
     private AtomicInteger useCount = new AtomicInteger(0);
+
+    /*
+     * Maintained by the ConnectionManager for pooled connections.
+     */
+    volatile ConnectionManager.ConnectionKey _poolKey;
+
+    volatile jakarta.transaction.Transaction _associatedTransaction;
 }
\ No newline at end of file
@@ -11,19 +11,39 @@ import com.arjuna.ats.jdbc.TransactionalDriver;
 
 import com.arjuna.ats.jdbc.logging.jdbcLogger;
 import com.arjuna.ats.arjuna.common.arjPropertyManager;
+import jakarta.transaction.RollbackException;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.SystemException;
 import jakarta.transaction.Transaction;
 import jakarta.transaction.TransactionManager;
 import java.sql.Connection;
 import java.sql.SQLException;
-import java.util.HashSet;
-import java.util.Iterator;
+import java.util.Objects;
 import java.util.Properties;
-import java.util.Set;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /*
  * Only ever create a single instance of a given connection, based upon the
  * user/password/url/dynamic_class options. If the connection we have cached
  * has been closed, then create a new one.
+ *
+ * Pooled connections are indexed rather than searched. A connection which has
+ * been associated with a transaction is held in a map keyed by the transaction
+ * and its connection information, until it is released or the transaction
+ * completes, and a connection which is not in use is held
+ * on an idle queue for its connection information, so finding a connection
+ * does not depend on the size of the pool. The pool size is bounded by a
+ * counter, and only a caller which finds the pool full and no idle connection
+ * available blocks, until a connection is released.
+ *
+ * A connection's use count and transaction association are only checked and
+ * changed together while holding the connection's monitor, so a connection
+ * which has just been released is given either to its transaction or to an
+ * idle caller, never to both.
  */
 public class ConnectionManager {
 
@@ -46,122 +66,339 @@ public class ConnectionManager {
 
         boolean poolingEnabled = "true".equalsIgnoreCase(poolConnections);
 
-        ConnectionImple conn = null;
-
-        synchronized (_connections) {
-            if (poolingEnabled) {
-                Iterator<ConnectionImple> iterator = _connections.iterator();
-                while (iterator.hasNext()) {
-                    ConnectionImple c = iterator.next();
-                    ConnectionControl connControl = c.connectionControl();
-                    TransactionManager tm = com.arjuna.ats.jta.TransactionManager.transactionManager();
-                    Transaction tx1, tx2 = null;
-
-                    tx1 = connControl.transaction();
-                    try {
-                        tx2 = tm.getTransaction();
-                    } catch (jakarta.transaction.SystemException se) {
-                        /* Ignore: tx2 is null already */
-                    }
+        if (!poolingEnabled) {
+            return new ConnectionImple(dbUrl, info);
+        }
+
+        ConnectionKey key = new ConnectionKey(dbUrl, user, passwd, dynamic, xaDataSource);
+        ConnectionImple conn = getAssociatedConnection(key);
+
+        if (conn != null) {
+            // ConnectionImple does not actually implement Connection, but its
+            // concrete child classes do. See ConnectionImple javadoc.
+            return conn;
+        }
 
-                    /* Check transaction and database connection. */
-                    if ((tx1 != null && tx1.equals(tx2))
-                            && isSameConnection(dbUrl, user, passwd, dynamic, xaDataSource, connControl))
-                    {
+        conn = getIdleConnection(key);
+
+        if (conn == null && !reserve(maxConnections)) {
+            _waiters.incrementAndGet();
+
+            try {
+                synchronized (_available) {
+                    while ((conn = getIdleConnection(key)) == null && !reserve(maxConnections)) {
                         try {
-                            /*
-                             * Should not overload the meaning of closed. Change!
-                             */
-
-                            if (!c.isClosed()) {
-                                // ConnectionImple does not actually implement Connection, but its
-                                // concrete child classes do. See ConnectionImple javadoc.
-                                conn = c;
-                                conn.incrementUseCount();
-                                break;
-                            }
-                        } catch (Exception ex) {
-                            if (arjPropertyManager.getCoreEnvironmentBean().isLogAndRethrow()) {
-                                jdbcLogger.i18NLogger.warn_connection_problem(ex.getMessage(), ex); // JBTM-3990
-                            }
-                            SQLException sqlException = new SQLException(ex.getMessage());
-                            sqlException.initCause(ex);
-                            throw sqlException;
+                            _available.wait();
+                        } catch (InterruptedException e) {
+                            jdbcLogger.i18NLogger.warn_connection_problem(e.getMessage(), e);
                         }
-                    } else {
-                        // no longer being used by a transaction, so let's discard. JBTM-764
-                        //
-                        // TODO
-                        //
-                        //                    if (tx1 == null)
-                        //                        iterator.remove();
                     }
                 }
+            } finally {
+                _waiters.decrementAndGet();
+            }
+        }
 
-                while (conn == null) {
-                    if (conn == null) {
-                        for (ConnectionImple con : _connections) {
-                            if (!con.inUse() && isSameConnection(dbUrl, user, passwd, dynamic, xaDataSource, con.connectionControl())) {
-                                conn = con;
-                                conn.incrementUseCount();
-                                break;
-                            }
-                        }
-                    }
-                    if (conn == null) {
-                        if (_connections.size() == maxConnections) {
-                            try {
-                                _connections.wait();
-                            } catch (InterruptedException e) {
-                                jdbcLogger.i18NLogger.warn_connection_problem(e.getMessage(), e);
-                            }
-                        } else {
-                            break;
+        if (conn == null) {
+            /*
+             * We hold a reservation in the pool for the new connection, which
+             * must be given up if the connection cannot be created.
+             */
+
+            try {
+                conn = new ConnectionImple(dbUrl, info);
+            } catch (SQLException | RuntimeException ex) {
+                _size.decrementAndGet();
+                signal();
+
+                throw ex;
+            }
+
+            conn._poolKey = key;
+        }
+
+        // ConnectionImple does not actually implement Connection, but its
+        // concrete child classes do. See ConnectionImple javadoc.
+        return conn;
+    }
+
+    public static void remove(ConnectionImple conn) {
+        ConnectionKey key = conn._poolKey;
+
+        if (key == null) {
+            return;
+        }
+
+        disassociate(conn);
+
+        Queue<ConnectionImple> idle = _idle.get(key);
+
+        if (idle != null) {
+            idle.remove(conn);
+        }
+
+        conn._poolKey = null;
+        _size.decrementAndGet();
+        signal();
+    }
+
+    public static void release(ConnectionImple conn) {
+        ConnectionKey key = conn._poolKey;
+
+        if (key == null) {
+            return;
+        }
+
+        disassociate(conn);
+
+        _idle.computeIfAbsent(key, k -> new ConcurrentLinkedQueue<ConnectionImple>()).offer(conn);
+
+        signal();
+    }
+
+    /*
+     * Called when a pooled connection is enlisted with a transaction, so that
+     * later requests within the same transaction are given the same connection.
+     */
+    static void associate(ConnectionImple conn, Transaction tx) {
+        ConnectionKey key = conn._poolKey;
+
+        if (key == null || tx == null || tx == conn._associatedTransaction) {
+            return;
+        }
+
+        TransactionKey txKey = new TransactionKey(tx, key);
+
+        /*
+         * A connection which is never closed is not released, so the entry is
+         * also dropped when the transaction completes. If that cannot be
+         * arranged the transaction cannot take on new work anyway, so the
+         * connection is not indexed at all.
+         */
+
+        try {
+            tx.registerSynchronization(new Synchronization() {
+                public void beforeCompletion() {
+                }
+
+                public void afterCompletion(int status) {
+                    synchronized (conn) {
+                        if (conn._associatedTransaction == tx) {
+                            conn._associatedTransaction = null;
                         }
                     }
+
+                    _associated.remove(txKey, conn);
                 }
-            }
+            });
+        } catch (RollbackException | IllegalStateException | SystemException ex) {
+            return;
+        }
 
+        synchronized (conn) {
+            conn._associatedTransaction = tx;
+        }
 
-            if (conn == null) {
-                conn = new ConnectionImple(dbUrl, info);
+        _associated.putIfAbsent(txKey, conn);
+    }
+
+    private static void disassociate(ConnectionImple conn) {
+        Transaction tx;
+
+        synchronized (conn) {
+            tx = conn._associatedTransaction;
+            conn._associatedTransaction = null;
+        }
+
+        if (tx != null) {
+            _associated.remove(new TransactionKey(tx, conn._poolKey), conn);
+        }
+    }
+
+    private static ConnectionImple getAssociatedConnection(ConnectionKey key) throws SQLException {
+        TransactionManager tm = com.arjuna.ats.jta.TransactionManager.transactionManager();
+        Transaction tx = null;
+
+        try {
+            tx = tm.getTransaction();
+        } catch (jakarta.transaction.SystemException se) {
+            /* Ignore: tx is null already */
+        }
+
+        if (tx == null) {
+            return null;
+        }
+
+        ConnectionImple c = _associated.get(new TransactionKey(tx, key));
+
+        if (c == null) {
+            return null;
+        }
+
+        synchronized (c) {
+            /*
+             * Check the connection is still bound to this transaction, and has
+             * not been released and handed to another caller since it was
+             * looked up.
+             */
+            if (!tx.equals(c._associatedTransaction) || !tx.equals(c.connectionControl().transaction())) {
+                return null;
+            }
+
+            try {
                 /*
-                * Will replace any old (closed) connection which had the
-                * same connection information.
-                */
+                 * Should not overload the meaning of closed. Change!
+                 */
 
-                if (poolingEnabled) {
-                    _connections.add(conn);
+                if (c.isClosed()) {
+                    return null;
+                }
+            } catch (Exception ex) {
+                if (arjPropertyManager.getCoreEnvironmentBean().isLogAndRethrow()) {
+                    jdbcLogger.i18NLogger.warn_connection_problem(ex.getMessage(), ex); // JBTM-3990
                 }
+                SQLException sqlException = new SQLException(ex.getMessage());
+                sqlException.initCause(ex);
+                throw sqlException;
             }
 
-            // ConnectionImple does not actually implement Connection, but its
-            // concrete child classes do. See ConnectionImple javadoc.
-            return conn;
+            c.incrementUseCount();
         }
+
+        return c;
     }
 
-    public static void remove(ConnectionImple conn) {
-        synchronized (_connections) {
-            _connections.remove(conn);
+    private static ConnectionImple getIdleConnection(ConnectionKey key) {
+        Queue<ConnectionImple> idle = _idle.get(key);
+
+        if (idle == null) {
+            return null;
         }
+
+        ConnectionImple c;
+
+        while ((c = idle.poll()) != null) {
+            /*
+             * A connection may have been picked up again through its transaction
+             * after being released, in which case it is queued again on its next
+             * release and can be skipped here.
+             */
+
+            if (c._poolKey != null) {
+                synchronized (c) {
+                    if (!c.inUse()) {
+                        // no longer available to its previous transaction
+                        disassociate(c);
+                        c.incrementUseCount();
+
+                        return c;
+                    }
+                }
+            }
+        }
+
+        return null;
     }
 
-    public static void release(ConnectionImple conn) {
-        synchronized (_connections) {
-            _connections.notify();
+    private static boolean reserve(int maxConnections) {
+        int size;
+
+        do {
+            size = _size.get();
+
+            if (size >= maxConnections) {
+                return false;
+            }
+        } while (!_size.compareAndSet(size, size + 1));
+
+        return true;
+    }
+
+    private static void signal() {
+        if (_waiters.get() > 0) {
+            synchronized (_available) {
+                _available.notifyAll();
+            }
+        }
+    }
+
+    /*
+     * A requested xaDataSource is matched against the one given when the pooled
+     * connection was created, so a request without one is only given connections
+     * which were also created without one.
+     */
+    static final class ConnectionKey {
+        ConnectionKey(String dbUrl, String user, String passwd, String dynamic, Object xaDataSource) {
+            this.dbUrl = dbUrl;
+            this.user = user;
+            this.passwd = passwd;
+            this.dynamic = dynamic;
+            this.xaDataSource = xaDataSource;
+            this.hash = Objects.hash(dbUrl, user, passwd, dynamic, xaDataSource);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof ConnectionKey)) {
+                return false;
+            }
+
+            ConnectionKey other = (ConnectionKey) obj;
+
+            return hash == other.hash
+                && dbUrl.equals(other.dbUrl)
+                && user.equals(other.user)
+                && passwd.equals(other.passwd)
+                && dynamic.equals(other.dynamic)
+                // equal ProvidedXADataSourceConnection instances should have the same data source
+                && Objects.equals(xaDataSource, other.xaDataSource);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
         }
+
+        private final String dbUrl;
+        private final String user;
+        private final String passwd;
+        private final String dynamic;
+        private final Object xaDataSource;
+        private final int hash;
     }
 
-    private static boolean isSameConnection(String dbUrl, String user, String passwd, String dynamic, Object xaDataSource, ConnectionControl connControl) {
-        return 
-            dbUrl.equals(connControl.url())
-            && user.equals(connControl.user())
-            && passwd.equals(connControl.password())
-            && dynamic.equals(connControl.dynamicClass())
-            // equal ProvidedXADataSourceConnection instances should have the same data source
-            && (xaDataSource == null || xaDataSource.equals(connControl.xaDataSource()));
+    private static final class TransactionKey {
+        TransactionKey(Transaction tx, ConnectionKey key) {
+            this.tx = tx;
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof TransactionKey)) {
+                return false;
+            }
+
+            TransactionKey other = (TransactionKey) obj;
+
+            return tx.equals(other.tx) && key.equals(other.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * tx.hashCode() + key.hashCode();
+        }
+
+        private final Transaction tx;
+        private final ConnectionKey key;
     }
 
-    private static Set<ConnectionImple> _connections = new HashSet<ConnectionImple>();
+    private static final ConcurrentMap<TransactionKey, ConnectionImple> _associated = new ConcurrentHashMap<TransactionKey, ConnectionImple>();
+    private static final ConcurrentMap<ConnectionKey, Queue<ConnectionImple>> _idle = new ConcurrentHashMap<ConnectionKey, Queue<ConnectionImple>>();
+    private static final AtomicInteger _size = new AtomicInteger(0);
+    private static final AtomicInteger _waiters = new AtomicInteger(0);
+    private static final Object _available = new Object();
 }
@@ -10,10 +10,13 @@ import com.arjuna.ats.jdbc.TransactionalDriver;
 import com.arjuna.ats.jta.common.jtaPropertyManager;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import javax.sql.XADataSource;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
 import jakarta.transaction.SystemException;
 import jakarta.transaction.Transaction;
 import jakarta.transaction.TransactionManager;
@@ -22,6 +25,8 @@ import java.util.Properties;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -58,6 +63,7 @@ public class ConnectionManagerUnitTest {
         ConnectionImple connection = (ConnectionImple) ConnectionManager.create(null, properties);
         // Make connection part of the transaction
         ((TransactionalDriverXAConnection) connection.connectionControl()).setTransaction(transaction);
+        ConnectionManager.associate(connection, transaction);
         ConnectionImple otherConnection = (ConnectionImple) ConnectionManager.create(null, properties);
 
         assertEquals(connection, otherConnection);
@@ -77,9 +83,35 @@ public class ConnectionManagerUnitTest {
         ConnectionImple connection = (ConnectionImple) ConnectionManager.create(null, properties);
         // Make connection part of the transaction
         ((TransactionalDriverXAConnection) connection.connectionControl()).setTransaction(transaction);
+        ConnectionManager.associate(connection, transaction);
         ConnectionImple otherConnection = (ConnectionImple) ConnectionManager.create(null, otherProperties);
 
         assertNotEquals(connection, otherConnection);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void shouldForgetConnectionWhenTransactionCompletes() throws Exception {
+        // Assume that transaction is available
+        when(transactionManager.getTransaction()).thenReturn(transaction);
+        jtaPropertyManager.getJTAEnvironmentBean().setTransactionManager(transactionManager);
+
+        Properties properties = new Properties();
+        properties.put(TransactionalDriver.XADataSource, xaDataSource);
+
+        ConnectionImple connection = (ConnectionImple) ConnectionManager.create(null, properties);
+        // Make connection part of the transaction
+        ((TransactionalDriverXAConnection) connection.connectionControl()).setTransaction(transaction);
+        ConnectionManager.associate(connection, transaction);
+
+        ArgumentCaptor<Synchronization> synchronization = ArgumentCaptor.forClass(Synchronization.class);
+        verify(transaction).registerSynchronization(synchronization.capture());
+
+        // the connection is never closed, but the transaction ends
+        synchronization.getValue().afterCompletion(Status.STATUS_COMMITTED);
+
+        ConnectionImple otherConnection = (ConnectionImple) ConnectionManager.create(null, properties);
+
+        assertNotEquals(connection, otherConnection);
+        assertNull(connection._associatedTransaction);
+    }
+}
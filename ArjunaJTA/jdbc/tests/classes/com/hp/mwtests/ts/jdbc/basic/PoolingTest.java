@@ -28,6 +28,8 @@ import java.util.Properties;
 import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 public class PoolingTest {
     private static final int POOLSIZE = 400;
@@ -125,4 +127,38 @@ public class PoolingTest {
             thread.join();
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testTransactionAffinity() throws Exception {
+        jakarta.transaction.TransactionManager tm = com.arjuna.ats.jta.TransactionManager.transactionManager();
+
+        tm.begin();
+
+        Connection conn1 = DriverManager.getConnection(url, dbProperties);
+        Connection conn2 = DriverManager.getConnection(url, dbProperties);
+
+        // the first connection is not bound to the transaction until it is used
+        assertNotSame(conn1, conn2);
+
+        conn1.createStatement().execute("INSERT INTO test_table (a) VALUES ('affinity')");
+
+        Connection conn3 = DriverManager.getConnection(url, dbProperties);
+
+        assertSame(conn1, conn3);
+
+        conn3.close();
+        conn2.close();
+        conn1.close();
+
+        tm.commit();
+
+        // released connections are reused by the next caller
+        Connection conn4 = DriverManager.getConnection(url, dbProperties);
+
+        try {
+            assertEquals(true, conn4 == conn1 || conn4 == conn2);
+        } finally {
+            conn4.close();
+        }
+    }
+}
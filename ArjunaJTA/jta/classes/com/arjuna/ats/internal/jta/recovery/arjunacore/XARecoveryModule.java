@@ -12,9 +12,18 @@ import java.util.Enumeration;
 import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.Vector;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -62,6 +71,29 @@ public class XARecoveryModule implements ExtendedRecoveryModule {
         return Collections.unmodifiableSet(contactedJndiNames);
     }
 
+    /**
+     * The time each resource manager took to answer the XAResource.recover calls of its most recent
+     * successful recovery scan, keyed by jndi name, or by XAResource class where it has none. Helpers
+     * may hand out new XAResource instances for every scan, so instances are not used as keys.
+     *
+     * @return scan durations in milliseconds
+     */
+    public Map<String, Long> getScanDurations() {
+        return Collections.unmodifiableMap(scanDurations);
+    }
+
+    /**
+     * Stop the threads which scan resource managers. A scan which is still stuck in a resource manager
+     * is left to finish, and the threads are started again if the module is used after this.
+     */
+    @Override
+    public void terminate() {
+        ThreadPoolExecutor executor = scanExecutor;
+
+        if (executor != null)
+            executor.shutdown();
+    }
+
     @Override
     public boolean isPeriodicWorkSuccessful() {
         return !this.isRecoveryProblems();
@@ -212,12 +244,16 @@ public class XARecoveryModule implements ExtendedRecoveryModule {
         _resources.addAll(resourceInitiatedRecoveryForRecoveryHelpers());
 
         List<NameScopedXAResource> resources = new ArrayList<>(_resources);
-        for (NameScopedXAResource xaResource : resources) {
-            try {
-                xaRecoveryFirstPass(xaResource);
-            } catch (Exception ex) {
-                this.setRecoveryProblems(true);
-                jtaLogger.i18NLogger.warn_recovery_getxaresource(ex);
+        if (_scanPoolSize > 0) {
+            parallelFirstPass(resources);
+        } else {
+            for (NameScopedXAResource xaResource : resources) {
+                try {
+                    xaRecoveryFirstPass(xaResource);
+                } catch (Exception ex) {
+                    this.setRecoveryProblems(true);
+                    jtaLogger.i18NLogger.warn_recovery_getxaresource(ex);
+                }
             }
         }
 
@@ -428,6 +464,8 @@ public class XARecoveryModule implements ExtendedRecoveryModule {
 
         _xaRecoverers = jtaPropertyManager.getJTAEnvironmentBean().getXaResourceRecoveries();
         _xaResourceOrphanFilters = jtaPropertyManager.getJTAEnvironmentBean().getXaResourceOrphanFilters();
+        _scanPoolSize = jtaPropertyManager.getJTAEnvironmentBean().getXaRecoveryScanPoolSize();
+        _scanTimeout = jtaPropertyManager.getJTAEnvironmentBean().getXaRecoveryScanTimeout();
     }
 
     private final boolean transactionInitiatedRecovery() {
@@ -542,12 +580,16 @@ public class XARecoveryModule implements ExtendedRecoveryModule {
      * @see XARecoveryModule#getNewXAResource(XAResourceRecord)
      */
     private void bottomUpRecovery() {
-        for (NameScopedXAResource xaResource : _resources) {
-            try {
-                xaRecoverySecondPass(xaResource);
-            } catch (Exception ex) {
-                this.setRecoveryProblems(true);
-                jtaLogger.i18NLogger.warn_recovery_getxaresource(ex);
+        if (_scanPoolSize > 0) {
+            parallelSecondPass();
+        } else {
+            for (NameScopedXAResource xaResource : _resources) {
+                try {
+                    xaRecoverySecondPass(xaResource);
+                } catch (Exception ex) {
+                    this.setRecoveryProblems(true);
+                    jtaLogger.i18NLogger.warn_recovery_getxaresource(ex);
+                }
             }
         }
 
@@ -649,57 +691,189 @@ public class XARecoveryModule implements ExtendedRecoveryModule {
 
 
     private final void xaRecoveryFirstPass(NameScopedXAResource xares) {
+        Xid[] trans = null;
+
+        try {
+            trans = xaRecoveryScan(xares);
+        } catch (XAException e) {
+            xaRecoveryScanFailed(xares, e);
+
+            return;
+        }
+
+        updateXidScans(xares, trans);
+    }
+
+    /**
+     * Run the first pass over the resources on the scan pool, so that the time taken is that of the
+     * slowest resource manager rather than the sum of them all. Only the XAResource.recover calls are
+     * made on the pool, the results are applied to _xidScans here, in resource order, just as they are
+     * for a sequential scan.
+     */
+    private void parallelFirstPass(List<NameScopedXAResource> resources) {
+        List<ResourceScan<Xid[]>> scans = new ArrayList<>(resources.size());
+
+        for (NameScopedXAResource xaResource : resources) {
+            scans.add(submitScan(xaResource, () -> xaRecoveryScan(xaResource)));
+        }
+
+        for (ResourceScan<Xid[]> scan : scans) {
+            if (scan.isSkipped()) {
+                if (_xidScans != null)
+                    _xidScans.remove(scan.getXAResource());
+
+                continue;
+            }
+
+            try {
+                updateXidScans(scan.getXAResource(), scan.await());
+            } catch (XAException e) {
+                xaRecoveryScanFailed(scan.getXAResource(), e);
+            } catch (TimeoutException e) {
+                this.setRecoveryProblems(true);
+                jtaLogger.i18NLogger.warn_recovery_scantimeout(_logName + ".xaRecovery", scan.getXAResource().toString(), _scanTimeout);
+
+                if (_xidScans != null)
+                    _xidScans.remove(scan.getXAResource());
+            } catch (Exception ex) {
+                this.setRecoveryProblems(true);
+                jtaLogger.i18NLogger.warn_recovery_getxaresource(ex);
+            }
+        }
+    }
+
+    /**
+     * Run the second pass over the resources. Xids which need recovering from the failure list are
+     * dealt with here, as for a sequential scan, while the orphans found for each resource are passed
+     * through the orphan filters, and rolled back if need be, on the scan pool.
+     */
+    private void parallelSecondPass() {
+        List<ResourceScan<Void>> scans = new ArrayList<>();
+
+        for (NameScopedXAResource xaResource : _resources) {
+            try {
+                List<Xid> orphans = new ArrayList<>();
+
+                xaRecoverySecondPass(xaResource, orphans);
+
+                if (!orphans.isEmpty()) {
+                    scans.add(submitScan(xaResource, () -> {
+                        for (Xid xid : orphans) {
+                            handleOrphanAndForget(xaResource, xid);
+                        }
+
+                        return null;
+                    }));
+                }
+            } catch (Exception ex) {
+                this.setRecoveryProblems(true);
+                jtaLogger.i18NLogger.warn_recovery_getxaresource(ex);
+            }
+        }
+
+        for (ResourceScan<Void> scan : scans) {
+            if (scan.isSkipped()) {
+                hasWorkLeftToDo = true;
+
+                continue;
+            }
+
+            try {
+                scan.await();
+            } catch (TimeoutException e) {
+                hasWorkLeftToDo = true;
+                this.setRecoveryProblems(true);
+                jtaLogger.i18NLogger.warn_recovery_scantimeout(_logName + ".xaRecovery", scan.getXAResource().toString(), _scanTimeout);
+            } catch (Exception ex) {
+                this.setRecoveryProblems(true);
+                jtaLogger.i18NLogger.warn_recovery_getxaresource(ex);
+            }
+        }
+    }
+
+    private <T> ResourceScan<T> submitScan(NameScopedXAResource xares, Callable<T> work) {
+        ResourceScan<T> scan = new ResourceScan<>(xares, work);
+
+        if (!scansInProgress.add(xares)) {
+            // a call from an earlier pass is still stuck in the resource manager, don't pile another one on top
+            this.setRecoveryProblems(true);
+            jtaLogger.i18NLogger.warn_recovery_scanstillrunning(_logName + ".xaRecovery", xares.toString());
+
+            return scan;
+        }
+
+        if (scanExecutor == null || scanExecutor.isShutdown()) {
+            scanExecutor = new ThreadPoolExecutor(_scanPoolSize, _scanPoolSize, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(), r -> {
+                        Thread thread = new Thread(r, "XARecoveryScan-Thread_" + scanThreadCounter.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            scanExecutor.allowCoreThreadTimeOut(true);
+        }
+
+        scan.submitTo(scanExecutor);
+
+        return scan;
+    }
+
+    private Xid[] xaRecoveryScan(NameScopedXAResource xares) throws XAException {
         if (jtaLogger.logger.isDebugEnabled()) {
             jtaLogger.logger.debug("xarecovery of " + xares);
         }
 
+        long start = System.currentTimeMillis();
 
-        Xid[] trans = null;
-
-        try {
-            trans = xares.getXaResource().recover(XAResource.TMSTARTRSCAN);
+        Xid[] trans = xares.getXaResource().recover(XAResource.TMSTARTRSCAN);
             /*
              * it should be possible to do a single call with combined flags
              * .recover(XAResource.TMSTARTRSCAN | XAResource.TMENDRSCAN)
              * but Agroal doesn't like that at present.
              */
-            xares.getXaResource().recover(XAResource.TMENDRSCAN);
+        xares.getXaResource().recover(XAResource.TMENDRSCAN);
 
-            if (jtaLogger.logger.isDebugEnabled()) {
-                jtaLogger.logger.debug("Found "
-                        + ((trans != null) ? trans.length : 0)
-                        + " xids in doubt");
-            }
+        long duration = System.currentTimeMillis() - start;
 
-            if (trans != null) {
-                for (Xid xid : trans) {
-                    if (xid != null) {
-                        byte[] globalTransactionId = xid.getGlobalTransactionId();
-                        byte[] branchQualifier = xid.getBranchQualifier();
-                        int formatId = xid.getFormatId();
-                        if (globalTransactionId == null || branchQualifier == null) {
-                            if (formatId != -1 && globalTransactionId == null && branchQualifier == null) {
-                                jtaLogger.i18NLogger.warn_recovery_transaction_id_and_branch_qualifier_are_null_wrong_format_id(xares.toString() + getXidLogInfo(xid));
-                            } else {
-                                jtaLogger.i18NLogger.info_recovery_transaction_id_or_branch_qualifier_is_null(xares.toString() + getXidLogInfo(xid));
-                            }
-                        }
-                        if (jtaLogger.logger.isDebugEnabled()) {
-                            jtaLogger.logger.debug("Recovered: " + getXidLogInfo(xid));
+        scanDurations.put(xares.getJndiName() != null ? xares.getJndiName() : xares.getXaResource().getClass().getName(), duration);
+
+        if (jtaLogger.logger.isDebugEnabled()) {
+            jtaLogger.logger.debug("Found "
+                    + ((trans != null) ? trans.length : 0)
+                    + " xids in doubt in " + duration + " ms");
+        }
+
+        if (trans != null) {
+            for (Xid xid : trans) {
+                if (xid != null) {
+                    byte[] globalTransactionId = xid.getGlobalTransactionId();
+                    byte[] branchQualifier = xid.getBranchQualifier();
+                    int formatId = xid.getFormatId();
+                    if (globalTransactionId == null || branchQualifier == null) {
+                        if (formatId != -1 && globalTransactionId == null && branchQualifier == null) {
+                            jtaLogger.i18NLogger.warn_recovery_transaction_id_and_branch_qualifier_are_null_wrong_format_id(xares.toString() + getXidLogInfo(xid));
+                        } else {
+                            jtaLogger.i18NLogger.info_recovery_transaction_id_or_branch_qualifier_is_null(xares.toString() + getXidLogInfo(xid));
                         }
                     }
+                    if (jtaLogger.logger.isDebugEnabled()) {
+                        jtaLogger.logger.debug("Recovered: " + getXidLogInfo(xid));
+                    }
                 }
             }
-        } catch (XAException e) {
-            this.setRecoveryProblems(true);
-            jtaLogger.i18NLogger.warn_recovery_xarecovery1(_logName + ".xaRecovery", XAHelper.printXAErrorCode(e), e);
+        }
 
-            if (_xidScans != null)
-                _xidScans.remove(xares);
+        return trans;
+    }
 
-            return;
-        }
+    private void xaRecoveryScanFailed(NameScopedXAResource xares, XAException e) {
+        this.setRecoveryProblems(true);
+        jtaLogger.i18NLogger.warn_recovery_xarecovery1(_logName + ".xaRecovery", XAHelper.printXAErrorCode(e), e);
 
+        if (_xidScans != null)
+            _xidScans.remove(xares);
+    }
+
+    private void updateXidScans(NameScopedXAResource xares, Xid[] trans) {
         RecoveryXids xidsToRecover = null;
 
         if (_xidScans == null)
@@ -744,6 +918,15 @@ public class XARecoveryModule implements ExtendedRecoveryModule {
     }
 
     private void xaRecoverySecondPass(NameScopedXAResource xares) {
+        xaRecoverySecondPass(xares, null);
+    }
+
+    /**
+     * @param xares the resource to recover
+     * @param orphans if not null, orphans are added to it for the caller to deal with rather than
+     *                being handled here
+     */
+    private void xaRecoverySecondPass(NameScopedXAResource xares, List<Xid> orphans) {
 
         if (jtaLogger.logger.isDebugEnabled()) {
             jtaLogger.logger.debug("xarecovery second pass of " + xares);
@@ -765,8 +948,6 @@ public class XARecoveryModule implements ExtendedRecoveryModule {
                     }
 
                     for (int j = 0; j < xids.length; j++) {
-                        boolean doForget = false;
-
                         /*
                          * Check if in failure list.
                          */
@@ -789,7 +970,11 @@ public class XARecoveryModule implements ExtendedRecoveryModule {
                                  * RM knows about it, but we don't. Therefore it may
                                  * have to be rolled back.
                                  */
-                                doForget = handleOrphan(xares, xids[j]);
+                                if (orphans != null) {
+                                    orphans.add(xids[j]);
+                                } else {
+                                    handleOrphanAndForget(xares, xids[j]);
+                                }
                             } else {
                                 foundTransaction = true;
 
@@ -813,15 +998,6 @@ public class XARecoveryModule implements ExtendedRecoveryModule {
                                 removeFailure(record.getXid(), record.get_uid());
                             }
 
-                            if (doForget) {
-                                try {
-                                    xares.getXaResource().forget(xids[j]);
-                                } catch (Exception e) {
-                                    this.setRecoveryProblems(true);
-                                    jtaLogger.i18NLogger.warn_recovery_forgetfailed(_logName + ".xaRecovery", e);
-                                }
-                            }
-
                         } while (recordUid != null);
                     }
                 }
@@ -834,6 +1010,17 @@ public class XARecoveryModule implements ExtendedRecoveryModule {
         return;
     }
 
+    private void handleOrphanAndForget(NameScopedXAResource xares, Xid xid) {
+        if (handleOrphan(xares, xid)) {
+            try {
+                xares.getXaResource().forget(xid);
+            } catch (Exception e) {
+                this.setRecoveryProblems(true);
+                jtaLogger.i18NLogger.warn_recovery_forgetfailed(_logName + ".xaRecovery", e);
+            }
+        }
+    }
+
     /**
      * Apply use configurable filtering to determine how to handle the in-doubt resource.
      *
@@ -1166,7 +1353,120 @@ public class XARecoveryModule implements ExtendedRecoveryModule {
 
     private Set<String> contactedJndiNames = new HashSet<String>();
 
-    private boolean hasWorkLeftToDo;
+    private volatile boolean hasWorkLeftToDo;
+
+    private final int _scanPoolSize;
+
+    private final long _scanTimeout;
+
+    // created on first use, and again after terminate, by the thread running the scan, which holds the module lock.
+    private volatile ThreadPoolExecutor scanExecutor;
+
+    private final AtomicInteger scanThreadCounter = new AtomicInteger();
+
+    // resources with a call outstanding on the scan pool, possibly from an earlier pass which timed out.
+    private final Set<NameScopedXAResource> scansInProgress = ConcurrentHashMap.newKeySet();
+
+    private final Map<String, Long> scanDurations = new ConcurrentHashMap<>();
 
     private static XARecoveryModule registeredXARecoveryModule;
+
+    /**
+     * A call made on the scan pool on behalf of a single resource manager, which the scanning thread
+     * waits for for no more than the scan timeout once it has started. A call which is still queued
+     * when it runs out of time is abandoned and never made, one which is running is interrupted,
+     * although the resource manager may well ignore that, in which case the resource stays in
+     * scansInProgress, and is skipped by later passes, until the call does return.
+     */
+    private final class ResourceScan<T> implements Callable<T> {
+        private static final int QUEUED = 0;
+        private static final int RUNNING = 1;
+        private static final int ABANDONED = 2;
+
+        private final NameScopedXAResource xares;
+        private final Callable<T> work;
+        private final AtomicInteger state = new AtomicInteger(QUEUED);
+        private volatile long startedAt;
+        private long submittedAt;
+        private Future<T> future;
+
+        ResourceScan(NameScopedXAResource xares, Callable<T> work) {
+            this.xares = xares;
+            this.work = work;
+        }
+
+        NameScopedXAResource getXAResource() {
+            return xares;
+        }
+
+        boolean isSkipped() {
+            return future == null;
+        }
+
+        void submitTo(ThreadPoolExecutor executor) {
+            submittedAt = System.currentTimeMillis();
+            future = executor.submit(this);
+        }
+
+        @Override
+        public T call() throws Exception {
+            // set before the state change so that a waiter which sees RUNNING also sees the start time
+            startedAt = System.currentTimeMillis();
+
+            if (!state.compareAndSet(QUEUED, RUNNING)) {
+                return null;
+            }
+
+            try {
+                return work.call();
+            } finally {
+                scansInProgress.remove(xares);
+            }
+        }
+
+        T await() throws Exception {
+            for (;;) {
+                long started = startedAt;
+                long remaining = (started != 0 ? started : submittedAt) + _scanTimeout - System.currentTimeMillis();
+
+                if (remaining <= 0) {
+                    if (started == 0) {
+                        if (state.compareAndSet(QUEUED, ABANDONED)) {
+                            scansInProgress.remove(xares);
+
+                            throw new TimeoutException();
+                        }
+
+                        // it has only just started, so give it its full time
+                        continue;
+                    }
+
+                    if (future.cancel(true)) {
+                        throw new TimeoutException();
+                    }
+
+                    // it finished in the meantime, so the get below returns immediately
+                    remaining = 1;
+                }
+
+                try {
+                    return future.get(remaining, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    // go round again, the call may have been queued until now
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof Exception) {
+                        throw (Exception) e.getCause();
+                    }
+
+                    throw e;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+
+                    future.cancel(true);
+
+                    throw e;
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,43 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.arjuna.ats.internal.jta.recovery.arjunacore;
+
+import java.io.IOException;
+
+import javax.transaction.xa.XAResource;
+
+import org.jboss.tm.XAResourceWrapper;
+
+import com.arjuna.ats.arjuna.state.InputObjectState;
+import com.arjuna.ats.arjuna.state.OutputObjectState;
+import com.arjuna.ats.jta.recovery.XAResourceCodec;
+
+/**
+ * A codec for the resources of pooled JDBC datasources and JMS connection factories,
+ * which are enlisted wrapped in an {@link XAResourceWrapper} that gives their JNDI name.
+ * <p>
+ * Such resources are looked up again at recovery through the XAResourceRecovery and
+ * XAResourceRecoveryHelper instances registered for the datasource or connection factory,
+ * so there is nothing to be gained by serializing them: the JNDI name, product and Xid
+ * already held by the XAResourceRecord are enough. This codec writes nothing else, and
+ * leaves the record to find the resource through the XARecoveryModule.
+ * <p>
+ * Only use this codec where every such resource has recovery configured for it.
+ */
+public class XAResourceWrapperCodec implements XAResourceCodec {
+
+	public boolean canEncode(XAResource xaResource) {
+		return (xaResource instanceof XAResourceWrapper)
+				&& (((XAResourceWrapper) xaResource).getJndiName() != null);
+	}
+
+	public void encode(XAResource xaResource, OutputObjectState os) throws IOException {
+	}
+
+	public XAResource decode(InputObjectState is) throws IOException {
+		return null;
+	}
+}
@@ -582,4 +582,8 @@ public class CommitMarkableResourceRecord extends AbstractRecord {
 	public boolean shouldReplace(AbstractRecord a) {
 		return false;
 	}
+
+	public boolean orderedInsertOnly() {
+		return true;
+	}
 }
\ No newline at end of file
@@ -25,6 +25,7 @@ import com.arjuna.ats.internal.jta.xa.TxInfo;
 import com.arjuna.ats.jta.common.jtaPropertyManager;
 import com.arjuna.ats.jta.logging.jtaLogger;
 import com.arjuna.ats.jta.recovery.SerializableXAResourceDeserializer;
+import com.arjuna.ats.jta.recovery.XAResourceCodec;
 import com.arjuna.ats.jta.recovery.XARecoveryResource;
 import com.arjuna.ats.jta.utils.XAHelper;
 import com.arjuna.ats.jta.xa.RecoverableXAConnection;
@@ -821,9 +822,21 @@ public class XAResourceRecord extends AbstractRecord implements ExceptionDeferre
             XidImple.pack(os, _tranID);
 
             /*
-             * If no recovery object set then rely upon object serialisation!
+             * If no recovery object set then use a codec if there is one for
+             * the resource, otherwise rely upon object serialisation!
              */
-            if (_recoveryObject == null) {
+            XAResourceCodec codec = (_recoveryObject == null) ? getCodecFor(_theXAResource) : null;
+
+            if (codec != null) {
+                os.packInt(CODEC_RECOVERY);
+
+                os.packString(_productName);
+                os.packString(_productVersion);
+                os.packString(_jndiName);
+                os.packString(codec.getClass().getName());
+
+                codec.encode(_theXAResource, os);
+            } else if (_recoveryObject == null) {
                 os.packInt(RecoverableXAConnection.OBJECT_RECOVERY);
 
                 os.packString(_productName);
@@ -885,7 +898,34 @@ public class XAResourceRecord extends AbstractRecord implements ExceptionDeferre
             _theXAResource = null;
             _recoveryObject = null;
 
-            if (os.unpackInt() == RecoverableXAConnection.OBJECT_RECOVERY) {
+            int recoveryType = os.unpackInt();
+
+            if (recoveryType == CODEC_RECOVERY) {
+                _productName = os.unpackString();
+                _productVersion = os.unpackString();
+                _jndiName = os.unpackString();
+
+                String codecName = os.unpackString();
+                XAResourceCodec codec = getCodecNamed(codecName);
+
+                if (codec == null) {
+                    throw new ClassNotFoundException(codecName);
+                }
+
+                _theXAResource = codec.decode(os);
+
+                if (_theXAResource == null) {
+                    _theXAResource = getNewXAResource();
+
+                    if (_theXAResource == null) {
+                        jtaLogger.i18NLogger.warn_resources_arjunacore_norecoveryxa(toString());
+                    }
+                }
+
+                if (jtaLogger.logger.isTraceEnabled()) {
+                    jtaLogger.logger.trace("XAResourceRecord.restore_state - XAResource got from " + codecName);
+                }
+            } else if (recoveryType == RecoverableXAConnection.OBJECT_RECOVERY) {
                 _productName = os.unpackString();
                 _productVersion = os.unpackString();
                 _jndiName = os.unpackString();
@@ -1026,6 +1066,10 @@ public class XAResourceRecord extends AbstractRecord implements ExceptionDeferre
         return false;
     }
 
+    public boolean orderedInsertOnly() {
+        return true;
+    }
+
     /**
      * Returns the resource manager product name.
      *
@@ -1072,6 +1116,21 @@ public class XAResourceRecord extends AbstractRecord implements ExceptionDeferre
         return _jndiName;
     }
 
+    /**
+     * Recovery identifies the resource manager by its JNDI name, or failing that
+     * by its product name and version.
+     */
+    @Override
+    public String getRecoveryEndpoint() {
+        if (_jndiName != null)
+            return _jndiName;
+
+        if (_productName != null)
+            return _productName + " " + _productVersion;
+
+        return null;
+    }
+
     /**
      * Sets the resource manager JNDI name.
      * Note this is not used for lookup, only for information.
@@ -1090,6 +1149,31 @@ public class XAResourceRecord extends AbstractRecord implements ExceptionDeferre
                 " " + super.toString() + " >";
     }
 
+    private static XAResourceCodec getCodecFor(XAResource xaResource) {
+        if (xaResource == null) {
+            return null;
+        }
+
+        for (XAResourceCodec codec : jtaPropertyManager.getJTAEnvironmentBean().getXaResourceCodecs()) {
+            if (codec.canEncode(xaResource)) {
+                return codec;
+            }
+        }
+
+        return null;
+    }
+
+    private static XAResourceCodec getCodecNamed(String className) {
+        for (XAResourceCodec codec : jtaPropertyManager.getJTAEnvironmentBean().getXaResourceCodecs()) {
+            if (codec.getClass().getName().equals(className)) {
+                return codec;
+            }
+        }
+
+        // the codec may have been removed from the configuration since the record was written
+        return ClassloadingUtility.loadAndInstantiateClass(XAResourceCodec.class, className, null);
+    }
+
     private List<SerializableXAResourceDeserializer> getXAResourceDeserializers() {
         if (serializableXAResourceDeserializers != null) {
             return serializableXAResourceDeserializers;
@@ -1212,6 +1296,12 @@ public class XAResourceRecord extends AbstractRecord implements ExceptionDeferre
 
     private static final Uid END_XARESOURCE = Uid.maxUid();
 
+    /*
+     * Alongside RecoverableXAConnection.AUTO_RECOVERY and OBJECT_RECOVERY: the
+     * resource was saved by an XAResourceCodec.
+     */
+    private static final int CODEC_RECOVERY = 2;
+
     protected XAResource _theXAResource;
     private boolean _forgotten;
 
@@ -9,12 +9,11 @@ package com.arjuna.ats.internal.jta.transaction.arjunacore;
 
 import java.io.IOException;
 import java.util.Collections;
-import java.util.Enumeration;
 import java.util.HashMap;
-import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.arjuna.ats.arjuna.common.arjPropertyManager;
 import com.arjuna.ats.arjuna.coordinator.RecordType;
@@ -80,9 +79,9 @@ public class TransactionImple implements jakarta.transaction.Transaction,
 
 		_theTransaction.begin(timeout);
 
-		_resources = new Hashtable();
-		_duplicateResources = new Hashtable();
-		_suspendCount = 0;
+		_resources = new ConcurrentHashMap<XAResource, TxInfo>();
+		_duplicateResources = new ConcurrentHashMap<XAResource, TxInfo>();
+		_suspendCount = new AtomicInteger();
 		_xaTransactionTimeoutEnabled = getXATransactionTimeoutEnabled();
 
         _txLocalResources = Collections.synchronizedMap(new HashMap());
@@ -464,19 +463,16 @@ public class TransactionImple implements jakarta.transaction.Transaction,
 
 			try
 			{
-				synchronized (this)
-				{
-					info = (TxInfo) _resources.get(xaRes);
+				info = _resources.get(xaRes);
 
-					if (info == null)
-					{
-						/*
-						 * Null info means it's not in the main resources list,
-						 * but may be in the duplicates.
-						 */
+				if (info == null)
+				{
+					/*
+					 * Null info means it's not in the main resources list,
+					 * but may be in the duplicates.
+					 */
 
-						info = (TxInfo) _duplicateResources.get(xaRes);
-					}
+					info = _duplicateResources.get(xaRes);
 				}
 
 				if (info != null)
@@ -499,10 +495,7 @@ public class TransactionImple implements jakarta.transaction.Transaction,
 
 						info.setState(TxInfo.ASSOCIATED);
 
-						synchronized (this)
-						{
-							_suspendCount--;
-						}
+						_suspendCount.decrementAndGet();
 
 						return true; // already registered resource with this
 						// transaction!
@@ -579,14 +572,11 @@ public class TransactionImple implements jakarta.transaction.Transaction,
 
 				boolean branchRequired = true;
 
-				synchronized (this)
+				if (_resources.isEmpty())// first ever, so no need for
+				// branch
 				{
-					if (_resources.isEmpty())// first ever, so no need for
-					// branch
-					{
-						// branchRequired = false;
-						branchRequired = true;
-					}
+					// branchRequired = false;
+					branchRequired = true;
 				}
 
 				xid = createXid(branchRequired, theModifier, xaRes);
@@ -844,13 +834,10 @@ public class TransactionImple implements jakarta.transaction.Transaction,
 
 		try
 		{
-			synchronized (this)
-			{
-				info = (TxInfo) _resources.get(xaRes);
+			info = _resources.get(xaRes);
 
-				if (info == null)
-					info = (TxInfo) _duplicateResources.get(xaRes);
-			}
+			if (info == null)
+				info = _duplicateResources.get(xaRes);
 
 			if (info == null)
 			{
@@ -920,10 +907,7 @@ public class TransactionImple implements jakarta.transaction.Transaction,
 							xaRes.end(info.xid(), XAResource.TMSUSPEND);
 							info.setState(TxInfo.ASSOCIATION_SUSPENDED);
 
-							synchronized (this)
-							{
-								_suspendCount++;
-							}
+							_suspendCount.incrementAndGet();
 						}
 						else
 						{
@@ -946,10 +930,7 @@ public class TransactionImple implements jakarta.transaction.Transaction,
 						xaRes.end(info.xid(), XAResource.TMSUCCESS);
 						info.setState(TxInfo.NOT_ASSOCIATED);
 
-						synchronized (this)
-						{
-							_suspendCount--;
-						}
+						_suspendCount.decrementAndGet();
 					}
 					else
 					{
@@ -966,10 +947,7 @@ public class TransactionImple implements jakarta.transaction.Transaction,
 							xaRes.end(info.xid(), XAResource.TMFAIL);
 							info.setState(TxInfo.FAILED);
 
-							synchronized (this)
-							{
-								_suspendCount--;
-							}
+							_suspendCount.decrementAndGet();
 						}
 					}
 				}
@@ -1078,8 +1056,7 @@ public class TransactionImple implements jakarta.transaction.Transaction,
 				toThrow = e;
 			}
 		}
-		for (Object resource : _duplicateResources.keySet()) {
-			XAResource dupXar = (XAResource) resource;
+		for (XAResource dupXar : _duplicateResources.keySet()) {
 			if (XAUtils.isSameRM(_theXAResource, dupXar)) {
 				try {
 					doEnd(_tranID, dupXar, xaState, txInfoState);
@@ -1137,11 +1114,11 @@ public class TransactionImple implements jakarta.transaction.Transaction,
 
 		if (xaRes != null)
 		{
-			TxInfo info = (TxInfo) _resources.get(xaRes);
+			TxInfo info = _resources.get(xaRes);
 
 			if (info == null)
 			{
-				info = (TxInfo) _duplicateResources.get(xaRes);
+				info = _duplicateResources.get(xaRes);
 			}
 
 			if (info != null)
@@ -1155,11 +1132,11 @@ public class TransactionImple implements jakarta.transaction.Transaction,
 	{
 		if (xaRes != null)
 		{
-			TxInfo info = (TxInfo) _resources.get(xaRes);
+			TxInfo info = _resources.get(xaRes);
 
 			if (info == null)
 			{
-				info = (TxInfo) _duplicateResources.get(xaRes);
+				info = _duplicateResources.get(xaRes);
 			}
 
 			if (info != null)
@@ -1259,8 +1236,8 @@ public class TransactionImple implements jakarta.transaction.Transaction,
 
 		if (_theTransaction != null)
 		{
-			_resources = new Hashtable();
-			_duplicateResources = new Hashtable();
+			_resources = new ConcurrentHashMap<XAResource, TxInfo>();
+			_duplicateResources = new ConcurrentHashMap<XAResource, TxInfo>();
             _txLocalResources = Collections.synchronizedMap(new HashMap());
 		}
 		else
@@ -1269,7 +1246,7 @@ public class TransactionImple implements jakarta.transaction.Transaction,
 			_duplicateResources = null;
 		}
 
-		_suspendCount = 0;
+		_suspendCount = new AtomicInteger();
 		_xaTransactionTimeoutEnabled = getXATransactionTimeoutEnabled();
 	}
 
@@ -1427,10 +1404,8 @@ public class TransactionImple implements jakarta.transaction.Transaction,
 	{
 		boolean result = true;
 
-		if (_suspendCount > 0)
+		if (_suspendCount.get() > 0)
 		{
-			Enumeration el = _resources.keys();
-
 			/*
 			 * Loop over all registered resources. Those that are in a suspended
 			 * state must have end called on them. If this fails, then we will
@@ -1438,86 +1413,57 @@ public class TransactionImple implements jakarta.transaction.Transaction,
 			 * the list to try to end any other suspended resources.
 			 */
 
-			if (el != null)
-			{
-				try
-				{
-					/*
-					 * Would it gain us much to just loop for _suspendCount?
-					 */
-
-					while (el.hasMoreElements())
-					{
-						/*
-						 * Get the XAResource in case we have to call end on it.
-						 */
+			if (!endSuspendedRMs(_resources))
+				result = false;
 
-						XAResource xaRes = (XAResource) el.nextElement();
-						TxInfo info = (TxInfo) _resources.get(xaRes);
+			/*
+			 * need to do the same for all duplicated resources
+			 */
 
-						if (info.getState() == TxInfo.ASSOCIATION_SUSPENDED)
-						{
-							if (XAUtils.mustEndSuspendedRMs(xaRes))
-								xaRes.start(info.xid(), XAResource.TMRESUME);
+			if (!endSuspendedRMs(_duplicateResources))
+				result = false;
 
-							xaRes.end(info.xid(), XAResource.TMSUCCESS);
-							info.setState(TxInfo.NOT_ASSOCIATED);
-						}
-					}
-				}
-				catch (XAException ex)
-				{
-                    jtaLogger.i18NLogger.warn_transaction_arjunacore_xaenderror(ex);
+			_suspendCount.set(0);
+		}
 
-					result = false;
-				}
-			}
+		return result;
+	}
 
+	private final boolean endSuspendedRMs(Map<XAResource, TxInfo> resources)
+	{
+		try
+		{
 			/*
-			 * need to do the same for all duplicated resources
+			 * Would it gain us much to just loop for _suspendCount?
 			 */
 
-			el = _duplicateResources.keys();
-
-			if (el != null)
+			for (Map.Entry<XAResource, TxInfo> entry : resources.entrySet())
 			{
-				try
-				{
-					/*
-					 * Would it gain us much to just loop for _suspendCount?
-					 */
-
-					while (el.hasMoreElements())
-					{
-						/*
-						 * Get the XAResource in case we have to call end on it.
-						 */
-
-						XAResource xaRes = (XAResource) el.nextElement();
-						TxInfo info = (TxInfo) _duplicateResources.get(xaRes);
+				/*
+				 * Get the XAResource in case we have to call end on it.
+				 */
 
-						if (info.getState() == TxInfo.ASSOCIATION_SUSPENDED)
-						{
-							if (XAUtils.mustEndSuspendedRMs(xaRes))
-								xaRes.start(info.xid(), XAResource.TMRESUME);
+				XAResource xaRes = entry.getKey();
+				TxInfo info = entry.getValue();
 
-							xaRes.end(info.xid(), XAResource.TMSUCCESS);
-							info.setState(TxInfo.NOT_ASSOCIATED);
-						}
-					}
-				}
-				catch (XAException ex)
+				if (info.getState() == TxInfo.ASSOCIATION_SUSPENDED)
 				{
-                    jtaLogger.i18NLogger.warn_transaction_arjunacore_xaenderror(ex);
+					if (XAUtils.mustEndSuspendedRMs(xaRes))
+						xaRes.start(info.xid(), XAResource.TMRESUME);
 
-					result = false;
+					xaRes.end(info.xid(), XAResource.TMSUCCESS);
+					info.setState(TxInfo.NOT_ASSOCIATED);
 				}
 			}
+		}
+		catch (XAException ex)
+		{
+            jtaLogger.i18NLogger.warn_transaction_arjunacore_xaenderror(ex);
 
-			_suspendCount = 0;
+			return false;
 		}
 
-		return result;
+		return true;
 	}
 
 	/*
@@ -1533,40 +1479,16 @@ public class TransactionImple implements jakarta.transaction.Transaction,
 
 		try
 		{
-			Enumeration el = _resources.keys();
-
-			if (el != null)
+			for (Map.Entry<XAResource, TxInfo> entry : _resources.entrySet())
 			{
-				while (el.hasMoreElements())
-				{
-					XAResource x = (XAResource) el.nextElement();
-
-					if (XAUtils.isSameRM(x, xaRes))
-					{
-						TxInfo info = (TxInfo) _resources.get(x);
-
-						if (info.thread() == t)
-							return true;
-					}
-				}
+				if (XAUtils.isSameRM(entry.getKey(), xaRes) && entry.getValue().thread() == t)
+					return true;
 			}
 
-			el = _duplicateResources.keys();
-
-			if (el != null)
+			for (Map.Entry<XAResource, TxInfo> entry : _duplicateResources.entrySet())
 			{
-				while (el.hasMoreElements())
-				{
-					XAResource x = (XAResource) el.nextElement();
-
-					if (XAUtils.isSameRM(x, xaRes))
-					{
-						TxInfo info = (TxInfo) _resources.get(x);
-
-						if (info.thread() == t)
-							return true;
-					}
-				}
+				if (XAUtils.isSameRM(entry.getKey(), xaRes) && entry.getValue().thread() == t)
+					return true;
 			}
 		}
 		catch (Exception e)
@@ -1584,42 +1506,23 @@ public class TransactionImple implements jakarta.transaction.Transaction,
 	/**
 	 * isNewRM returns an existing TxInfo for the same RM, if present. Null
 	 * otherwise.
+	 * <p>
+	 * Only the main resources list is searched. A resource is only ever put
+	 * there when it matched no RM already enlisted, so the list holds one entry
+	 * per RM, and every duplicate joined the branch of one of those entries
+	 * with the same xid. The search therefore costs one isSameRM call per
+	 * distinct RM rather than one per enlisted connection.
 	 */
 
 	private final TxInfo isNewRM(XAResource xaRes)
 	{
 		try
 		{
-			synchronized (this)
+			for (Map.Entry<XAResource, TxInfo> entry : _resources.entrySet())
 			{
-				Enumeration el = _resources.keys();
-
-				if (el != null)
+				if (XAUtils.isSameRM(entry.getKey(), xaRes))
 				{
-					while (el.hasMoreElements())
-					{
-						XAResource x = (XAResource) el.nextElement();
-
-						if (XAUtils.isSameRM(x, xaRes))
-						{
-							return (TxInfo) _resources.get(x);
-						}
-					}
-				}
-
-				el = _duplicateResources.keys();
-
-				if (el != null)
-				{
-					while (el.hasMoreElements())
-					{
-						XAResource x = (XAResource) el.nextElement();
-
-						if (XAUtils.isSameRM(x, xaRes))
-						{
-							return (TxInfo) _duplicateResources.get(x);
-						}
-					}
+					return entry.getValue();
 				}
 			}
 		}
@@ -1740,11 +1643,11 @@ public class TransactionImple implements jakarta.transaction.Transaction,
 
     protected com.arjuna.ats.arjuna.AtomicAction _theTransaction;
 
-	private Hashtable _resources;
+	private Map<XAResource, TxInfo> _resources;
 
-	private Hashtable _duplicateResources;
+	private Map<XAResource, TxInfo> _duplicateResources;
 
-	private int _suspendCount;
+	private final AtomicInteger _suspendCount;
 
 	private final boolean _xaTransactionTimeoutEnabled;
 
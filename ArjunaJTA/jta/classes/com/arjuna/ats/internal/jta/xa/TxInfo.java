@@ -60,7 +60,7 @@ public class TxInfo
     }
 
     private Xid    _xid;
-    private int    _state;
+    private volatile int _state;
     private Thread _thread;
     
 }
\ No newline at end of file
@@ -9,6 +9,7 @@ import static java.security.AccessController.doPrivileged;
 
 import java.security.PrivilegedAction;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -22,6 +23,7 @@ import org.jboss.tm.usertx.client.ServerVMClientUserTransactionOperationsProvide
 
 import com.arjuna.ats.internal.jta.resources.arjunacore.XAResourceRecordWrappingPlugin;
 import com.arjuna.ats.jta.logging.jtaLogger;
+import com.arjuna.ats.jta.recovery.XAResourceCodec;
 import com.arjuna.ats.jta.recovery.XAResourceOrphanFilter;
 import com.arjuna.ats.jta.recovery.XAResourceRecovery;
 import com.arjuna.ats.jta.resources.XAResourceMap;
@@ -72,6 +74,9 @@ public class JTAEnvironmentBean implements JTAEnvironmentBeanMBean {
     private volatile List<String> xaResourceMapClassNames = new ArrayList<String>();
     private volatile List<XAResourceMap> xaResourceMaps = null;
 
+    private volatile List<String> xaResourceCodecClassNames = new ArrayList<String>();
+    private volatile List<XAResourceCodec> xaResourceCodecs = null;
+
     private volatile boolean xaTransactionTimeoutEnabled = true;
 
     private volatile String lastResourceOptimisationInterfaceClassName = "com.arjuna.ats.jta.resources.LastResourceCommitOptimisation";
@@ -110,6 +115,10 @@ public class JTAEnvironmentBean implements JTAEnvironmentBeanMBean {
 
     private List<String> xaResourceIsSameRMClassNames = new ArrayList<>();
 
+    private volatile int xaRecoveryScanPoolSize = 0;
+
+    private volatile int xaRecoveryScanTimeout = 60000;
+
     /**
      * Returns true if subtransactions are allowed.
      * Warning: subtransactions are not JTA spec compliant and most XA resource managers don't understand them.
@@ -701,6 +710,87 @@ public class JTAEnvironmentBean implements JTAEnvironmentBeanMBean {
         }
     }
 
+    /**
+     * Returns the names of the XAResourceCodec classes used to save XAResources
+     * in the transaction log in place of Java serialization.
+     * The returned list is a copy. May return an empty list, will not return null.
+     *
+     * Default: empty list.
+     *
+     * @return a list of class names, each an implementation of XAResourceCodec.
+     */
+    public List<String> getXaResourceCodecClassNames() {
+        synchronized (this) {
+            return new ArrayList<String>(xaResourceCodecClassNames);
+        }
+    }
+
+    /**
+     * Sets the names of the XAResourceCodec classes used to save XAResources.
+     * The provided list will be copied, not retained.
+     *
+     * @param xaResourceCodecClassNames a list of names of classes, each implementing XAResourceCodec.
+     */
+    public void setXaResourceCodecClassNames(List<String> xaResourceCodecClassNames) {
+        synchronized (this) {
+            if (xaResourceCodecClassNames == null) {
+                this.xaResourceCodecs = null;
+                this.xaResourceCodecClassNames = new ArrayList<String>();
+            } else if (!xaResourceCodecClassNames.equals(this.xaResourceCodecClassNames)) {
+                this.xaResourceCodecs = null;
+                this.xaResourceCodecClassNames = new ArrayList<String>(xaResourceCodecClassNames);
+            }
+        }
+    }
+
+    /**
+     * Returns the set of XAResourceCodec instances, in the order in which they are consulted.
+     * The returned list is unmodifiable. May return an empty list, will not return null.
+     * <p>
+     * The codecs are consulted each time an XAResource is saved or restored, so once they have been
+     * instantiated this method neither locks nor copies; setting them replaces the list.
+     * <p>
+     * If there is no pre-instantiated instance set and classloading or instantiation of one or more
+     * elements fails, this method will log an appropriate warning and return a non-null set with
+     * fewer elements.
+     *
+     * @return the set of XAResourceCodec instances.
+     */
+    public List<XAResourceCodec> getXaResourceCodecs() {
+        List<XAResourceCodec> instances = xaResourceCodecs;
+
+        if (instances != null) {
+            return instances;
+        }
+
+        synchronized (this) {
+            if (xaResourceCodecs == null) {
+                instances = ClassloadingUtility.loadAndInstantiateClassesWithInit(XAResourceCodec.class, xaResourceCodecClassNames);
+                xaResourceCodecs = Collections.unmodifiableList(instances);
+            }
+            return xaResourceCodecs;
+        }
+    }
+
+    /**
+     * Sets the instances of XAResourceCodec.
+     * The provided list will be copied, not retained.
+     *
+     * @param xaResourceCodecs the set of XAResourceCodec instances.
+     */
+    public void setXaResourceCodecs(List<XAResourceCodec> xaResourceCodecs) {
+        synchronized (this) {
+            if (xaResourceCodecs == null) {
+                this.xaResourceCodecs = Collections.emptyList();
+                this.xaResourceCodecClassNames = new ArrayList<String>();
+            } else {
+                this.xaResourceCodecs = Collections.unmodifiableList(new ArrayList<XAResourceCodec>(xaResourceCodecs));
+                List<String> names = ClassloadingUtility.getNamesForClasses(this.xaResourceCodecs);
+                this.xaResourceCodecClassNames = names;
+            }
+        }
+    }
+
     /**
      * Returns if the transaction timeout is passed on to the enlisted XAResources.
      * <p>
@@ -1238,4 +1328,50 @@ public class JTAEnvironmentBean implements JTAEnvironmentBeanMBean {
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the number of threads the XARecoveryModule uses to scan resource managers in parallel.
+     * When greater than zero the XAResource.recover calls of the first pass, and the orphan filtering
+     * and rollback of the second pass, are run for all resource managers at once on a pool of at most
+     * this many threads, so that one slow resource manager does not hold up the others.
+     * <p>
+     * Default: 0 (resource managers are scanned one after another by the recovery thread).
+     *
+     * @return the maximum number of resource managers scanned at once, or 0 for sequential scans.
+     */
+    public int getXaRecoveryScanPoolSize() {
+        return xaRecoveryScanPoolSize;
+    }
+
+    /**
+     * Sets the number of threads the XARecoveryModule uses to scan resource managers in parallel.
+     *
+     * @param xaRecoveryScanPoolSize the maximum number of resource managers scanned at once, or 0 for sequential scans.
+     */
+    public void setXaRecoveryScanPoolSize(int xaRecoveryScanPoolSize) {
+        this.xaRecoveryScanPoolSize = xaRecoveryScanPoolSize;
+    }
+
+    /**
+     * Returns the time, in milliseconds, a parallel recovery scan waits for a single resource manager
+     * before giving up on it for the current recovery pass. A resource manager which times out is
+     * reported as a recovery problem and is tried again on the next pass.
+     * Only used when the xaRecoveryScanPoolSize is greater than zero.
+     * <p>
+     * Default: 60000 milliseconds.
+     *
+     * @return the per resource manager scan timeout in milliseconds.
+     */
+    public int getXaRecoveryScanTimeout() {
+        return xaRecoveryScanTimeout;
+    }
+
+    /**
+     * Sets the time, in milliseconds, a parallel recovery scan waits for a single resource manager.
+     *
+     * @param xaRecoveryScanTimeout the per resource manager scan timeout in milliseconds.
+     */
+    public void setXaRecoveryScanTimeout(int xaRecoveryScanTimeout) {
+        this.xaRecoveryScanTimeout = xaRecoveryScanTimeout;
+    }
+}
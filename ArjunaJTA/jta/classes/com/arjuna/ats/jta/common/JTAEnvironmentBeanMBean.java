@@ -32,6 +32,10 @@ public interface JTAEnvironmentBeanMBean {
 
     boolean isXaAssumeRecoveryComplete();
 
+    int getXaRecoveryScanPoolSize();
+
+    int getXaRecoveryScanTimeout();
+
     String getUserTransactionJNDIContext();
 
     String getTransactionManagerJNDIContext();
@@ -40,6 +44,8 @@ public interface JTAEnvironmentBeanMBean {
 
     List<String> getXaResourceMapClassNames();
 
+    List<String> getXaResourceCodecClassNames();
+
     boolean isXaTransactionTimeoutEnabled();
 
     String getLastResourceOptimisationInterfaceClassName();
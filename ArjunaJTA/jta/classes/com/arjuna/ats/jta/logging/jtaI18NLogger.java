@@ -612,6 +612,14 @@ public interface jtaI18NLogger {
     @LogMessage(level = WARN)
     public void warn_xa_rollback_optimization_deprecated();
 
+    @Message(id = 16156, value = "{0} gave up waiting for {1} after {2} milliseconds, it will be tried again on the next recovery pass", format = MESSAGE_FORMAT)
+    @LogMessage(level = WARN)
+    public void warn_recovery_scantimeout(String logName, String xaResource, long timeoutMillis);
+
+    @Message(id = 16157, value = "{0} skipped {1} as its scan from an earlier recovery pass has not yet returned", format = MESSAGE_FORMAT)
+    @LogMessage(level = WARN)
+    public void warn_recovery_scanstillrunning(String logName, String xaResource);
+
     /*
      * Allocate new messages directly above this notice.
      * - id: use the next id number in sequence. Don't reuse ids.
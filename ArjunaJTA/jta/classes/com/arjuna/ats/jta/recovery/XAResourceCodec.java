@@ -0,0 +1,66 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.arjuna.ats.jta.recovery;
+
+import java.io.IOException;
+
+import javax.transaction.xa.XAResource;
+
+import com.arjuna.ats.arjuna.state.InputObjectState;
+import com.arjuna.ats.arjuna.state.OutputObjectState;
+
+/**
+ * Persists an XAResource in the transaction log in place of Java serialization.
+ * <p>
+ * When an XAResourceRecord is saved and the resource was not enlisted through a
+ * RecoverableXAConnection, each configured codec (see
+ * {@link com.arjuna.ats.jta.common.JTAEnvironmentBean#getXaResourceCodecs()}) is asked in turn
+ * whether it can encode the resource. The first that can writes whatever it needs to
+ * obtain the resource again after a crash. The record already holds the Xid and the
+ * resource manager's product name, product version and JNDI name, so a codec only has
+ * to write information beyond those. Only if no codec accepts the resource does the record
+ * fall back to serializing it with {@link java.io.ObjectOutputStream}.
+ * <p>
+ * At recovery the codec is found by class name, among the configured codecs or else by
+ * loading the class, so a codec must have a public no-argument constructor.
+ */
+public interface XAResourceCodec {
+
+	/**
+	 * Can this codec persist the specified resource.
+	 *
+	 * @param xaResource
+	 *            The resource to be saved.
+	 *
+	 * @return true if {@link #encode} can be called for the resource.
+	 */
+	public boolean canEncode(XAResource xaResource);
+
+	/**
+	 * Write the state needed to recreate the resource.
+	 *
+	 * @param xaResource
+	 *            The resource to be saved.
+	 * @param os
+	 *            The state to write to.
+	 * @throws IOException
+	 *             If the state cannot be written.
+	 */
+	public void encode(XAResource xaResource, OutputObjectState os) throws IOException;
+
+	/**
+	 * Read the state written by {@link #encode} and recreate the resource.
+	 *
+	 * @param is
+	 *            The state to read from.
+	 * @throws IOException
+	 *             If the state cannot be read.
+	 * @return The resource, or null if it should instead be obtained from the
+	 *         recovery helpers registered with the XARecoveryModule, as is done
+	 *         for resources which could not be serialized.
+	 */
+	public XAResource decode(InputObjectState is) throws IOException;
+}
@@ -261,10 +261,16 @@ public class XidImple implements javax.transaction.xa.Xid, Serializable {
 		return result;
 	}
 
+	/**
+	 * Pack an Xid of any type. Xids are always packed in the compact form
+	 * used by XidImple, so one of another type is unpacked as the equivalent
+	 * XidImple. Xids packed as serialized objects by earlier releases can
+	 * still be unpacked.
+	 */
 	public static final void pack(OutputObjectState os, Xid xid)
 			throws IOException {
-		if (xid instanceof XidImple) {
-			XidImple x = (XidImple) xid;
+		if ((xid instanceof XidImple) || isPackable(xid)) {
+			XidImple x = (xid instanceof XidImple) ? (XidImple) xid : new XidImple(xid);
 
 			os.packBoolean(true);
 
@@ -283,6 +289,20 @@ public class XidImple implements javax.transaction.xa.Xid, Serializable {
 		}
 	}
 
+	/*
+	 * Can the Xid be held in an XID, so packed without Java serialization.
+	 */
+	private static boolean isPackable(Xid xid) {
+		if (xid == null)
+			return false;
+
+		byte[] gtrid = xid.getGlobalTransactionId();
+		byte[] bqual = xid.getBranchQualifier();
+
+		return (gtrid != null) && (gtrid.length <= XID.MAXGTRIDSIZE)
+				&& (bqual != null) && (bqual.length <= XID.MAXBQUALSIZE);
+	}
+
 	public static final Xid unpack(InputObjectState os) throws IOException {
 		if (os.unpackBoolean()) {
 			XidImple x = new XidImple();
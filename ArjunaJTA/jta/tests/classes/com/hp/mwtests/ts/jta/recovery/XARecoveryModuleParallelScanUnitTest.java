@@ -0,0 +1,294 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.hp.mwtests.ts.jta.recovery;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.transaction.xa.XAException;
+import javax.transaction.xa.XAResource;
+import javax.transaction.xa.Xid;
+
+import org.jboss.tm.XAResourceWrapper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.arjuna.ats.arjuna.common.Uid;
+import com.arjuna.ats.internal.jta.recovery.arjunacore.RecoveryXids;
+import com.arjuna.ats.internal.jta.recovery.arjunacore.XARecoveryModule;
+import com.arjuna.ats.jta.common.jtaPropertyManager;
+import com.arjuna.ats.jta.recovery.XAResourceOrphanFilter;
+import com.arjuna.ats.jta.recovery.XAResourceRecoveryHelper;
+
+/**
+ * Checks that with xaRecoveryScanPoolSize set one hung resource manager does not hold up the
+ * recovery of the others.
+ */
+public class XARecoveryModuleParallelScanUnitTest
+{
+    private static final long SCAN_TIMEOUT = 500;
+
+    private Object originalSafetyInterval;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        jtaPropertyManager.getJTAEnvironmentBean().setXaRecoveryScanPoolSize(4);
+        jtaPropertyManager.getJTAEnvironmentBean().setXaRecoveryScanTimeout((int) SCAN_TIMEOUT);
+
+        Field safetyIntervalMillis = RecoveryXids.class.getDeclaredField("safetyIntervalMillis");
+        safetyIntervalMillis.setAccessible(true);
+        originalSafetyInterval = safetyIntervalMillis.get(null);
+        safetyIntervalMillis.set(null, 0);
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+        jtaPropertyManager.getJTAEnvironmentBean().setXaRecoveryScanPoolSize(0);
+        jtaPropertyManager.getJTAEnvironmentBean().setXaRecoveryScanTimeout(60000);
+
+        Field safetyIntervalMillis = RecoveryXids.class.getDeclaredField("safetyIntervalMillis");
+        safetyIntervalMillis.setAccessible(true);
+        safetyIntervalMillis.set(null, originalSafetyInterval);
+    }
+
+    @Test
+    public void testHungResourceManager() throws Exception
+    {
+        final CountDownLatch release = new CountDownLatch(1);
+        final ScanResource fast1 = new ScanResource("fast1", null);
+        final ScanResource fast2 = new ScanResource("fast2", null);
+        final ScanResource hung = new ScanResource("hung", release);
+
+        XARecoveryModule xarm = new XARecoveryModule();
+
+        xarm.addXAResourceRecoveryHelper(new XAResourceRecoveryHelper() {
+            public boolean initialise(String p) throws Exception
+            {
+                return true;
+            }
+
+            public XAResource[] getXAResources() throws Exception
+            {
+                return new XAResource[] { fast1, hung, fast2 };
+            }
+        });
+        xarm.addXAResourceOrphanFilter(new XAResourceOrphanFilter() {
+            public Vote checkXid(Xid xid)
+            {
+                return Vote.ROLLBACK;
+            }
+        });
+
+        try {
+            long start = System.currentTimeMillis();
+
+            xarm.periodicWorkFirstPass();
+
+            // we waited for the hung resource manager once, not for it and then everything else
+            assertTrue(System.currentTimeMillis() - start < SCAN_TIMEOUT * 4);
+            assertFalse(xarm.isPeriodicWorkSuccessful());
+            assertTrue(xarm.getScanDurations().containsKey("fast1"));
+            assertTrue(xarm.getScanDurations().containsKey("fast2"));
+            assertFalse(xarm.getScanDurations().containsKey("hung"));
+
+            xarm.periodicWorkSecondPass();
+
+            // orphans of the healthy resource managers were still rolled back
+            assertEquals(1, fast1.rollbacks.get());
+            assertEquals(1, fast2.rollbacks.get());
+            assertEquals(0, hung.rollbacks.get());
+
+            // the hung call is still outstanding, so the next pass must not make another
+            xarm.periodicWorkFirstPass();
+            xarm.periodicWorkSecondPass();
+
+            assertEquals(1, hung.recoverCalls.get());
+            assertFalse(xarm.isPeriodicWorkSuccessful());
+
+            release.countDown();
+            hung.awaitReturn();
+
+            xarm.periodicWorkFirstPass();
+            xarm.periodicWorkSecondPass();
+
+            assertTrue(xarm.getScanDurations().containsKey("hung"));
+            assertEquals(1, hung.rollbacks.get());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void testScanAfterTerminate() throws Exception
+    {
+        final ScanResource resource = new ScanResource("resource", null);
+
+        XARecoveryModule xarm = new XARecoveryModule();
+
+        xarm.addXAResourceRecoveryHelper(new XAResourceRecoveryHelper() {
+            public boolean initialise(String p) throws Exception
+            {
+                return true;
+            }
+
+            public XAResource[] getXAResources() throws Exception
+            {
+                return new XAResource[] { resource };
+            }
+        });
+
+        xarm.periodicWorkFirstPass();
+        xarm.periodicWorkSecondPass();
+
+        xarm.terminate();
+
+        // the scan threads are started again when the module is next used
+        xarm.periodicWorkFirstPass();
+        xarm.periodicWorkSecondPass();
+
+        assertEquals(2, resource.recoverCalls.get());
+        assertTrue(xarm.isPeriodicWorkSuccessful());
+        assertEquals(1, xarm.getScanDurations().size());
+
+        xarm.terminate();
+    }
+
+    private static class ScanResource implements XAResource, XAResourceWrapper
+    {
+        private final String name;
+        private final CountDownLatch release;
+        private final CountDownLatch returned = new CountDownLatch(1);
+        private final AtomicInteger recoverCalls = new AtomicInteger();
+        private final AtomicInteger rollbacks = new AtomicInteger();
+        private final Xid xid = new TestXid();
+
+        ScanResource(String name, CountDownLatch release)
+        {
+            this.name = name;
+            this.release = release;
+        }
+
+        void awaitReturn() throws InterruptedException
+        {
+            assertTrue(returned.await(10, TimeUnit.SECONDS));
+        }
+
+        public Xid[] recover(int flag) throws XAException
+        {
+            if (flag == XAResource.TMSTARTRSCAN) {
+                recoverCalls.incrementAndGet();
+
+                if (release != null) {
+                    // ignore interrupts, as some drivers do
+                    boolean released = false;
+
+                    while (!released) {
+                        try {
+                            released = release.await(10, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                        }
+                    }
+
+                    returned.countDown();
+                }
+
+                return new Xid[] { xid };
+            }
+
+            return new Xid[0];
+        }
+
+        public void rollback(Xid xid) throws XAException
+        {
+            rollbacks.incrementAndGet();
+        }
+
+        public void commit(Xid xid, boolean onePhase) throws XAException
+        {
+        }
+
+        public void end(Xid xid, int flags) throws XAException
+        {
+        }
+
+        public void forget(Xid xid) throws XAException
+        {
+        }
+
+        public int getTransactionTimeout() throws XAException
+        {
+            return 0;
+        }
+
+        public boolean isSameRM(XAResource xares) throws XAException
+        {
+            return xares == this;
+        }
+
+        public int prepare(Xid xid) throws XAException
+        {
+            return XAResource.XA_OK;
+        }
+
+        public boolean setTransactionTimeout(int seconds) throws XAException
+        {
+            return false;
+        }
+
+        public void start(Xid xid, int flags) throws XAException
+        {
+        }
+
+        public XAResource getResource()
+        {
+            return this;
+        }
+
+        public String getProductName()
+        {
+            return "test";
+        }
+
+        public String getProductVersion()
+        {
+            return "1.0";
+        }
+
+        public String getJndiName()
+        {
+            return name;
+        }
+    }
+
+    private static class TestXid implements Xid
+    {
+        private final byte[] gtrid = new Uid().getBytes();
+
+        public int getFormatId()
+        {
+            return 0x1234;
+        }
+
+        public byte[] getGlobalTransactionId()
+        {
+            return gtrid;
+        }
+
+        public byte[] getBranchQualifier()
+        {
+            return new byte[] { 1 };
+        }
+    }
+}
@@ -15,6 +15,12 @@ import static org.junit.Assert.fail;
 
 import java.lang.reflect.Method;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.naming.InitialContext;
 import jakarta.transaction.HeuristicMixedException;
@@ -28,6 +34,7 @@ import org.junit.Test;
 
 import com.arjuna.ats.internal.arjuna.thread.ThreadActionData;
 import com.arjuna.ats.internal.jta.transaction.arjunacore.TransactionImple;
+import com.arjuna.ats.internal.jta.xa.TxInfo;
 import com.arjuna.ats.jta.TransactionManager;
 import com.arjuna.ats.jta.exceptions.NotImplementedException;
 import com.arjuna.ats.jta.xa.XAModifier;
@@ -72,8 +79,106 @@ class DummyXAModifier implements XAModifier
     
 }
 
+class SameRMXAResource extends DummyXA
+{
+    private static final long serialVersionUID = 1L;
+
+    public SameRMXAResource (int rm)
+    {
+        super(false);
+
+        this.rm = rm;
+    }
+
+    public boolean isSameRM (XAResource xares)
+    {
+        return (xares instanceof SameRMXAResource) && ((SameRMXAResource) xares).rm == rm;
+    }
+
+    public void start (Xid xid, int flags)
+    {
+        startXid = xid;
+        startFlags = flags;
+    }
+
+    final int rm;
+    volatile Xid startXid;
+    volatile int startFlags;
+}
+
 public class TransactionImpleUnitTest
 {
+    @Test
+    public void testConcurrentEnlistment () throws Exception
+    {
+        ThreadActionData.purgeActions();
+
+        final TransactionImple tx = new TransactionImple(0);
+        final int rms = 3;
+        final int threads = 8;
+        final int perThread = 25;
+        SameRMXAResource[] first = new SameRMXAResource[rms];
+
+        for (int i = 0; i < rms; i++)
+        {
+            first[i] = new SameRMXAResource(i);
+
+            assertTrue(tx.enlistResource(first[i]));
+            assertEquals(XAResource.TMNOFLAGS, first[i].startFlags);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<List<SameRMXAResource>>> futures = new ArrayList<Future<List<SameRMXAResource>>>();
+
+        try
+        {
+            for (int t = 0; t < threads; t++)
+            {
+                futures.add(executor.submit(new Callable<List<SameRMXAResource>>()
+                {
+                    public List<SameRMXAResource> call () throws Exception
+                    {
+                        List<SameRMXAResource> enlisted = new ArrayList<SameRMXAResource>();
+
+                        for (int i = 0; i < perThread; i++)
+                        {
+                            SameRMXAResource res = new SameRMXAResource(i % rms);
+
+                            assertTrue(tx.enlistResource(res));
+                            enlisted.add(res);
+
+                            if (i % 2 == 0)
+                                assertTrue(tx.delistResource(res, XAResource.TMSUCCESS));
+                        }
+
+                        return enlisted;
+                    }
+                }));
+            }
+
+            for (Future<List<SameRMXAResource>> future : futures)
+            {
+                for (SameRMXAResource res : future.get())
+                {
+                    // every later connection to an RM joins the branch of the first
+                    assertEquals(XAResource.TMJOIN, res.startFlags);
+                    assertEquals(first[res.rm].startXid, res.startXid);
+                }
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        assertEquals(rms, tx.getResources().size());
+
+        for (TxInfo info : tx.getResources().values())
+            assertEquals(TxInfo.ASSOCIATED, info.getState());
+
+        tx.commit();
+    }
+
     @Test
     public void test () throws Exception
     {
@@ -9,6 +9,11 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.io.IOException;
+import java.util.Arrays;
+
+import javax.transaction.xa.XAResource;
+
 import org.junit.Test;
 
 import com.arjuna.ats.arjuna.ObjectType;
@@ -18,6 +23,8 @@ import com.arjuna.ats.arjuna.state.InputObjectState;
 import com.arjuna.ats.arjuna.state.OutputObjectState;
 import com.arjuna.ats.internal.jta.resources.arjunacore.XAResourceRecord;
 import com.arjuna.ats.internal.jta.transaction.arjunacore.TransactionImple;
+import com.arjuna.ats.jta.common.jtaPropertyManager;
+import com.arjuna.ats.jta.recovery.XAResourceCodec;
 import com.arjuna.ats.jta.xa.XidImple;
 import com.hp.mwtests.ts.jta.common.DummyRecoverableXAConnection;
 import com.hp.mwtests.ts.jta.common.DummyXA;
@@ -80,6 +87,43 @@ public class XAResourceRecordUnitTest {
         assertTrue(xares.restore_state(is, ObjectType.ANDPERSISTENT));
     }
 
+    @Test
+    public void testPackUnpackWithCodec() throws Exception {
+        jtaPropertyManager.getJTAEnvironmentBean().setXaResourceCodecs(Arrays.asList(new DummyXACodec()));
+
+        try {
+            XAResourceRecord xares = new XAResourceRecord(new TransactionImple(0), new DummyXA(false), new XidImple(new Uid()), null);
+            OutputObjectState os = new OutputObjectState();
+
+            assertTrue(xares.save_state(os, ObjectType.ANDPERSISTENT));
+
+            XAResourceRecord restored = new XAResourceRecord();
+            InputObjectState is = new InputObjectState(os);
+
+            assertTrue(restored.restore_state(is, ObjectType.ANDPERSISTENT));
+            assertTrue(restored.value() instanceof DummyXA);
+            assertTrue(restored.value() != xares.value());
+        } finally {
+            jtaPropertyManager.getJTAEnvironmentBean().setXaResourceCodecs(null);
+        }
+    }
+
+    public static class DummyXACodec implements XAResourceCodec {
+        public boolean canEncode(XAResource xaResource) {
+            return xaResource instanceof DummyXA;
+        }
+
+        public void encode(XAResource xaResource, OutputObjectState os) throws IOException {
+            os.packString("DummyXA");
+        }
+
+        public XAResource decode(InputObjectState is) throws IOException {
+            assertEquals("DummyXA", is.unpackString());
+
+            return new DummyXA(false);
+        }
+    }
+
     @Test
     public void testReadonly() throws Exception {
         XAResourceRecord xares;
@@ -11,6 +11,8 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import javax.transaction.xa.Xid;
+
 import org.junit.Test;
 
 import com.arjuna.ats.arjuna.AtomicAction;
@@ -102,4 +104,38 @@ public class xidcheck
         
         assertTrue(xid1.equals(xid2));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testPackUnpackForeignXid () throws Exception
+    {
+        final XidImple xid1 = new XidImple(new Uid());
+        Xid foreign = new Xid()
+        {
+            public int getFormatId ()
+            {
+                return xid1.getFormatId();
+            }
+
+            public byte[] getGlobalTransactionId ()
+            {
+                return xid1.getGlobalTransactionId();
+            }
+
+            public byte[] getBranchQualifier ()
+            {
+                return xid1.getBranchQualifier();
+            }
+        };
+
+        OutputObjectState os = new OutputObjectState();
+
+        XidImple.pack(os, foreign);
+
+        InputObjectState is = new InputObjectState(os);
+
+        Xid xid2 = XidImple.unpack(is);
+
+        assertTrue(xid2 instanceof XidImple);
+        assertTrue(xid1.equals(xid2));
+    }
+}
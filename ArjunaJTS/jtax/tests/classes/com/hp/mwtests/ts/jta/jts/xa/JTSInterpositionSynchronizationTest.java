@@ -211,7 +211,7 @@ public class JTSInterpositionSynchronizationTest {
 		Control recreate = creator.recreate(ctx);
 		assertTrue(recreate != null);
 
-		Object remove = ControlImple.allControls.remove(get_uid);
+		ControlImple remove = ControlImple.allControls.remove(get_uid);
 		ServerControl sc = new ServerControl(get_uid, get_control, null,
 				cont.get_coordinator(), cont.get_terminator());
 		ControlImple.allControls.put(get_uid, remove);
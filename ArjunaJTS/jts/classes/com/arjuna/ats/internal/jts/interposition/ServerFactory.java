@@ -7,7 +7,6 @@
 
 package com.arjuna.ats.internal.jts.interposition;
 
-import java.util.Enumeration;
 
 import org.omg.CORBA.BAD_PARAM;
 import org.omg.CORBA.SystemException;
@@ -55,12 +54,7 @@ public class ServerFactory
 		{
 			try
 			{
-				ControlImple ctx = null;
-
-				synchronized (ServerControl.allServerControls)
-				{
-					ctx = (ServerControl) ServerControl.allServerControls.get(uid);
-				}
+				ControlImple ctx = ServerControl.allServerControls.get(uid);
 
 				/*
 				 * If it's not present then check each element's savingUid just
@@ -70,22 +64,20 @@ public class ServerFactory
 				 * (i) the tid it pretends to be (ii) the tid it actually is and
 				 * saves its intentions list in.
 				 * 
-				 * Don't bother synchronizing since the hash table is
-				 * synchronized anyway, and we're not bothered if new items go
-				 * in while we're looking. If the element we're looking for
-				 * isn't there now it won't be there at all.
+				 * Don't bother synchronizing since the iteration is weakly
+				 * consistent, and we're not bothered if new items go in while
+				 * we're looking. If the element we're looking for isn't there
+				 * now it won't be there at all.
 				 */
 
 				if (ctx == null)
 				{
-					Enumeration e = ServerControl.allServerControls.elements();
-
-					while (e.hasMoreElements())
+					for (ServerControl sc : ServerControl.allServerControls.values())
 					{
-						ctx = (ServerControl) e.nextElement();
-
-						if (ctx.getImplHandle().getSavingUid().equals(uid))
+						if (sc.getImplHandle().getSavingUid().equals(uid))
 						{
+							ctx = sc;
+
 							break;
 						}
 					}
@@ -7,7 +7,7 @@
 
 package com.arjuna.ats.internal.jts.orbspecific;
 
-import java.util.Hashtable;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.omg.CORBA.BAD_OPERATION;
 import org.omg.CORBA.SystemException;
@@ -277,10 +277,7 @@ public class ControlImple extends com.arjuna.ArjunaOTS.ActionControlPOA
 		{
 			try
 			{
-				synchronized (ControlImple.allControls)
-				{
-					return (ControlImple) ControlImple.allControls.get(parent.get_uid());
-				}
+				return ControlImple.allControls.get(parent.get_uid());
 			}
 			catch (Exception ex)
 			{
@@ -534,10 +531,7 @@ public class ControlImple extends com.arjuna.ArjunaOTS.ActionControlPOA
 
 		try
 		{
-			synchronized (ControlImple.allControls)
-			{
-				ControlImple.allControls.put(get_uid(), this);
-			}
+			ControlImple.allControls.put(get_uid(), this);
 		}
 		catch (Exception ex)
 		{
@@ -555,10 +549,7 @@ public class ControlImple extends com.arjuna.ArjunaOTS.ActionControlPOA
 
 		try
 		{
-			synchronized (ControlImple.allControls)
-			{
-				ControlImple.allControls.remove(get_uid());
-			}
+			ControlImple.allControls.remove(get_uid());
 		}
 		catch (Exception ex)
 		{
@@ -604,9 +595,14 @@ public class ControlImple extends com.arjuna.ArjunaOTS.ActionControlPOA
 	
 	/*
 	 * Make private, with public accessor.
+	 *
+	 * Every begin and end of a local transaction updates this, so it is a
+	 * concurrent map rather than a single monitor. Iteration over it is weakly
+	 * consistent: it never fails, but may or may not see transactions which
+	 * begin or end while it is in progress.
 	 */
 
-	public static Hashtable allControls = new Hashtable();
+	public static final ConcurrentHashMap<Uid, ControlImple> allControls = new ConcurrentHashMap<Uid, ControlImple>();
 
 	protected Terminator _theTerminator;
 
@@ -7,7 +7,7 @@
 
 package com.arjuna.ats.internal.jts.orbspecific;
 
-import java.util.Enumeration;
+import java.util.ArrayList;
 
 import org.omg.CORBA.BAD_OPERATION;
 import org.omg.CORBA.BAD_PARAM;
@@ -287,16 +287,10 @@ public class TransactionFactoryImple extends
 				 * allServerControls contains only the proxy implementations.
 				 */
 
-				if (ServerControl.allServerControls != null)
-				{
-					synchronized (ServerControl.allServerControls)
-					{
-						ControlImple c = (ControlImple) ServerControl.allServerControls.get(theUid);
+				ControlImple c = ServerControl.allServerControls.get(theUid);
 
-						if (c != null)
-							return c.getControl();
-					}
-				}
+				if (c != null)
+					return c.getControl();
 			}
 			catch (Exception e)
 			{
@@ -437,12 +431,7 @@ public class TransactionFactoryImple extends
 		{
 			try
 			{
-				ControlImple ctx = null;
-
-				synchronized (ControlImple.allControls)
-				{
-					ctx = (ControlImple) ControlImple.allControls.get(u);
-				}
+				ControlImple ctx = ControlImple.allControls.get(u);
 
 				if (ctx != null)
 					return ctx.getImplHandle().get_status();
@@ -662,27 +651,24 @@ public class TransactionFactoryImple extends
 		{
 			try
 			{
-				synchronized (ControlImple.allControls)
-				{
-					ControlImple ctx = (ControlImple) ControlImple.allControls.get(u);
+				ControlImple ctx = ControlImple.allControls.get(u);
 
-					if (ctx != null)
-					{
-						TransactionInfo info = new TransactionInfo();
+				if (ctx != null)
+				{
+					TransactionInfo info = new TransactionInfo();
 
-						info.currentDepth = ctx.getImplHandle().getHierarchy().depth();
+					info.currentDepth = ctx.getImplHandle().getHierarchy().depth();
 
-						TransactionReaper reaper = TransactionReaper.transactionReaper();
+					TransactionReaper reaper = TransactionReaper.transactionReaper();
 
-						info.timeout = reaper.getTimeout(ctx);
+					info.timeout = reaper.getTimeout(ctx);
 
-						info.numberOfThreads = ctx.getImplHandle().activeThreads();
+					info.numberOfThreads = ctx.getImplHandle().activeThreads();
 
-						return info;
-					}
-					else
-						throw new NoTransaction();
+					return info;
 				}
+				else
+					throw new NoTransaction();
 			}
 			catch (NoTransaction ex)
 			{
@@ -731,16 +717,12 @@ public class TransactionFactoryImple extends
 		{
 			try
 			{
-				synchronized (ControlImple.allControls)
-				{
-					ControlImple ctx = (ControlImple) ControlImple.allControls.get(u);
-
-					if (ctx != null)
-						return ctx.getControl();
-					else
-						throw new NoTransaction();
-				}
+				ControlImple ctx = ControlImple.allControls.get(u);
 
+				if (ctx != null)
+					return ctx.getControl();
+				else
+					throw new NoTransaction();
 			}
 			catch (NoTransaction ex)
 			{
@@ -764,36 +746,20 @@ public class TransactionFactoryImple extends
             jtsLogger.logger.trace("TransactionFactoryImple::activeTransactions ()");
         }
 
-		if (ControlImple.allControls == null)
-			throw new Inactive();
-		else
-		{
-			synchronized (ControlImple.allControls)
-			{
-				if (ControlImple.allControls.isEmpty())
-					throw new NoTransaction();
-				else
-				{
-					org.omg.CosTransactions.otid_t[] ids = new org.omg.CosTransactions.otid_t[ControlImple.allControls.size()];
+		/*
+		 * The iteration is weakly consistent, so transactions may begin or end
+		 * while it is in progress and the number of ids is not known up front.
+		 */
 
-					Enumeration iter = ControlImple.allControls.elements();
-					int i = 0;
+		ArrayList<org.omg.CosTransactions.otid_t> ids = new ArrayList<org.omg.CosTransactions.otid_t>();
 
-					while (iter.hasMoreElements())
-					{
-						ControlImple cont = (ControlImple) iter.nextElement();
+		for (ControlImple cont : ControlImple.allControls.values())
+			ids.add(Utility.uidToOtid(cont.get_uid().stringForm()));
 
-						if (cont != null)
-						{
-							ids[i] = Utility.uidToOtid(cont.get_uid().stringForm());
-							i++;
-						}
-					}
+		if (ids.isEmpty())
+			throw new NoTransaction();
 
-					return ids;
-				}
-			}
-		}
+		return ids.toArray(new org.omg.CosTransactions.otid_t[ids.size()]);
 	}
 
 	private final org.omg.CosTransactions.otid_t[] unresolvedTransactions ()
@@ -7,7 +7,7 @@
 
 package com.arjuna.ats.internal.jts.orbspecific.interposition;
 
-import java.util.Hashtable;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.omg.CORBA.BAD_PARAM;
 import org.omg.CORBA.SystemException;
@@ -58,8 +58,7 @@ public class ServerControl extends ControlImple
 		 * are re-importing?
 		 */
 
-		ControlImple cont = ((ControlImple.allControls != null) ? (ControlImple) ControlImple.allControls.get(actUid)
-				: null);
+		ControlImple cont = ControlImple.allControls.get(actUid);
 
 		/*
 		 * We could do optimisations based on whether this is a transaction we
@@ -207,10 +206,7 @@ public class ServerControl extends ControlImple
 
 		if (parent != null)
 		{
-			synchronized (ServerControl.allControls)
-			{
-				return (ControlImple) ServerControl.allServerControls.get(parent.get_uid());
-			}
+			return ServerControl.allServerControls.get(parent.get_uid());
 		}
 		else
 			return null;
@@ -231,10 +227,7 @@ public class ServerControl extends ControlImple
 
 	protected boolean addControl ()
 	{
-		synchronized (ServerControl.allServerControls)
-		{
-			ServerControl.allServerControls.put(get_uid(), this);
-		}
+		ServerControl.allServerControls.put(get_uid(), this);
 
 		return true;
 	}
@@ -243,10 +236,7 @@ public class ServerControl extends ControlImple
 	{
 		try
 		{
-			synchronized (ServerControl.allServerControls)
-			{
-				ServerControl.allServerControls.remove(get_uid());
-			}
+			ServerControl.allServerControls.remove(get_uid());
 		}
 		catch (Exception ex)
 		{
@@ -258,9 +248,12 @@ public class ServerControl extends ControlImple
 
 	/*
 	 * Make private, with public accessor.
+	 *
+	 * As with ControlImple.allControls this is a concurrent map, so importing
+	 * transactions does not contend on a single monitor.
 	 */
 
-	public static Hashtable allServerControls = new Hashtable();
+	public static final ConcurrentHashMap<Uid, ServerControl> allServerControls = new ConcurrentHashMap<Uid, ServerControl>();
 
 	private Coordinator _realCoordinator;
 	private Terminator _realTerminator;
@@ -97,24 +97,10 @@ public class Helper
  		 * allControls only contains local controls.
  		 */
 
-		if (ControlImple.allControls != null)
-		{
-		    synchronized (ControlImple.allControls)
-			{
-			    toReturn = (ControlImple) ControlImple.allControls.get(u);
-			}
-		}
+		toReturn = ControlImple.allControls.get(u);
 		
 		if (toReturn == null)
-		{
-		    if (ServerControl.allServerControls != null)
-		    {
-			synchronized (ServerControl.allServerControls)
-			    {
-				toReturn = (ControlImple) ServerControl.allServerControls.get(u);				
-			    }
-		    }
-		}
+		    toReturn = ServerControl.allServerControls.get(u);
 
 		u = null;
 
@@ -0,0 +1,125 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+
+
+package com.hp.mwtests.ts.jts.local.transactions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import io.narayana.perf.Measurement;
+import io.narayana.perf.WorkerWorkload;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.omg.CosTransactions.Current;
+
+import com.arjuna.ats.internal.jts.ORBManager;
+import com.arjuna.ats.internal.jts.orbspecific.ControlImple;
+import com.arjuna.ats.internal.jts.orbspecific.interposition.ServerControl;
+import com.arjuna.ats.jts.OTSManager;
+import com.arjuna.orbportability.OA;
+import com.arjuna.orbportability.ORB;
+import com.arjuna.orbportability.RootOA;
+
+/**
+ * Begin and commit of local top-level transactions, each with a nested
+ * transaction, from an increasing number of threads. Every begin and end
+ * registers and removes a ControlImple, so this shows how well that scales
+ * with the number of threads.
+ */
+
+public class ConcurrentBeginCommitPerformance
+{
+    @BeforeClass
+    public static void setUp () throws Exception
+    {
+        myORB = ORB.getInstance("test");
+        myOA = OA.getRootOA(myORB);
+
+        myORB.initORB(new String[] {}, null);
+        myOA.initOA();
+
+        ORBManager.setORB(myORB);
+        ORBManager.setPOA(myOA);
+    }
+
+    @AfterClass
+    public static void tearDown () throws Exception
+    {
+        myOA.destroy();
+        myORB.shutdown();
+    }
+
+    @Test
+    public void test () throws Exception
+    {
+        int numberOfCalls = 10000;
+        int controls = ControlImple.allControls.size();
+        double singleThreaded = 0;
+
+        for (int numberOfThreads = 1; numberOfThreads <= 16; numberOfThreads *= 2)
+        {
+            Measurement<Void> measurement = new Measurement.Builder(getClass().getName() + "_" + numberOfThreads)
+                    .maxTestTime(0L).numberOfCalls(numberOfCalls)
+                    .numberOfThreads(numberOfThreads).batchSize(100)
+                    .numberOfWarmupCalls(numberOfCalls / 10).build().measure(worker);
+
+            assertEquals(0, measurement.getNumberOfErrors());
+            assertFalse(measurement.getInfo(), measurement.shouldFail());
+
+            if (numberOfThreads == 1)
+                singleThreaded = measurement.getThroughput();
+
+            System.out.printf("%d threads: TPS %f (%.2fx single threaded)%n", numberOfThreads,
+                    measurement.getThroughput(), measurement.getThroughput() / singleThreaded);
+
+            // every transaction has been removed from the registries again
+
+            assertEquals(controls, ControlImple.allControls.size());
+            assertTrue(ServerControl.allServerControls.isEmpty());
+        }
+    }
+
+    private final WorkerWorkload<Void> worker = new WorkerWorkload<Void>()
+    {
+        @Override
+        public Void doWork (Void context, int batchSize, Measurement<Void> measurement)
+        {
+            Current current = OTSManager.get_current();
+
+            for (int i = 0; i < batchSize; i++)
+            {
+                try
+                {
+                    current.begin();
+                    current.begin();
+
+                    current.commit(true);
+                    current.commit(true);
+                }
+                catch (Exception e)
+                {
+                    if (measurement.getNumberOfErrors() == 0)
+                        e.printStackTrace();
+
+                    measurement.incrementErrorCount();
+                }
+            }
+
+            return context;
+        }
+
+        @Override
+        public void finishWork (Measurement<Void> measurement)
+        {
+        }
+    };
+
+    private static ORB myORB = null;
+    private static RootOA myOA = null;
+}
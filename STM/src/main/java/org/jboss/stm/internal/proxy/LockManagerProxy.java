@@ -7,6 +7,10 @@
 package org.jboss.stm.internal.proxy;
 
 import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.WrongMethodTypeException;
 import java.lang.reflect.Array;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
@@ -883,13 +887,13 @@ public class LockManagerProxy<T> extends LockManager
     {
         boolean res = false;
         
-        checkValidity(_theObject.getClass());
+        StateMethods methods = checkValidity(_theObject.getClass());
         
-        if (_saveState != null)
+        if (methods._saveState != null)
         {
             try
             {
-                _saveState.invoke(_theObject, os);
+                methods._saveState.invoke(_theObject, os);
                 
                 res = true;
             }
@@ -906,13 +910,13 @@ public class LockManagerProxy<T> extends LockManager
     {
         boolean res = false;
         
-        checkValidity(_theObject.getClass());
+        StateMethods methods = checkValidity(_theObject.getClass());
         
-        if (_restoreState != null)
+        if (methods._restoreState != null)
         {
             try
             {
-                _restoreState.invoke(_theObject, os);
+                methods._restoreState.invoke(_theObject, os);
                 
                 res = true;
             }
@@ -925,52 +929,90 @@ public class LockManagerProxy<T> extends LockManager
         return res;
     }
     
-    private void checkValidity (Class<?> toCheck) throws InvalidAnnotationException
+    private StateMethods checkValidity (Class<?> toCheck) throws InvalidAnnotationException
     {
-        if (_checkSaveRestore)
-            return;
+        StateMethods methods = STATE_METHODS.get(toCheck);
         
-        try
-        {
-            Method[] methods = toCheck.getDeclaredMethods();
+        if (methods._invalid)
+            throw new InvalidAnnotationException("WARNING: both save_state and restore_state are not present!");
+        
+        return methods;
+    }
+    
+    /*
+     * The @SaveState and @RestoreState methods of a class, looked up once for
+     * the class rather than for each instance and called through method handles.
+     */
     
-            if (methods != null)
+    private static class StateMethods
+    {
+        StateMethods (Class<?> toCheck)
+        {
+            Method saveState = null;
+            Method restoreState = null;
+            
+            while ((toCheck != null) && (toCheck != Object.class))
             {
-                for (Method mt : methods)
+                Method[] methods = toCheck.getDeclaredMethods();
+    
+                if (methods != null)
                 {
-                    if ((mt.isAnnotationPresent(SaveState.class) && (_saveState == null)))
-                    {
-                        _saveState = mt;
-                    }
-                    
-                    if ((mt.isAnnotationPresent(RestoreState.class) && (_restoreState == null)))
+                    for (Method mt : methods)
                     {
-                        _restoreState = mt;
+                        if ((mt.isAnnotationPresent(SaveState.class) && (saveState == null)))
+                        {
+                            saveState = mt;
+                        }
+                        
+                        if ((mt.isAnnotationPresent(RestoreState.class) && (restoreState == null)))
+                        {
+                            restoreState = mt;
+                        }
                     }
                 }
+                
+                // only look at the super class if this one has neither
+                
+                if ((saveState != null) || (restoreState != null))
+                    break;
+                
+                toCheck = toCheck.getSuperclass();
             }
             
-            if ((_saveState != null) && (_restoreState != null))
-            {
-                return;
-            }
-            else
+            _invalid = ((saveState == null) != (restoreState == null));
+            _saveState = stateHandle(saveState, OutputObjectState.class);
+            _restoreState = stateHandle(restoreState, InputObjectState.class);
+        }
+        
+        private static MethodHandle stateHandle (Method method, Class<?> stateType)
+        {
+            if (method == null)
+                return null;
+            
+            try
             {
-                if ((_restoreState == null) && (_saveState == null))
+                MethodHandle handle = MethodHandles.lookup().unreflect(method);
+                
+                try
                 {
-                    Class<?> superClass = toCheck.getSuperclass();
-    
-                    if (superClass != Object.class)
-                        checkValidity(superClass);
+                    return handle.asType(MethodType.methodType(void.class, Object.class, stateType));
+                }
+                catch (final WrongMethodTypeException ex)
+                {
+                    return handle;  // fails when called, as Method.invoke would
                 }
-                else
-                    throw new InvalidAnnotationException("WARNING: both save_state and restore_state are not present!");
+            }
+            catch (final IllegalAccessException ex)
+            {
+                // not accessible from here, so leave Method.invoke to report it each time
+                
+                return MethodHandles.insertArguments(REFLECTIVE_INVOKE, 0, method).asCollector(Object[].class, 1);
             }
         }
-        finally
-        {      
-            _checkSaveRestore = true;
-        }
+        
+        final boolean _invalid;
+        final MethodHandle _saveState;
+        final MethodHandle _restoreState;
     }
     
     private boolean unpackPrimitive (final Field afield, InputObjectState os)
@@ -1096,12 +1138,31 @@ public class LockManagerProxy<T> extends LockManager
     
     // the cached methods/fields
     
-    private boolean _checkSaveRestore = false;
-    private Method _saveState = null;
-    private Method _restoreState = null;
     private RecoverableContainer<T> _container = null;
     
     private ArrayList<Field> _fields = null;
     
     private static final String THIS_NAME = "this$0";  // stop us trying to pack this!
+    
+    private static final MethodHandle REFLECTIVE_INVOKE;
+    
+    static
+    {
+        try
+        {
+            REFLECTIVE_INVOKE = MethodHandles.lookup().findVirtual(Method.class, "invoke", MethodType.methodType(Object.class, Object.class, Object[].class));
+        }
+        catch (final ReflectiveOperationException ex)
+        {
+            throw new ExceptionInInitializerError(ex);
+        }
+    }
+    
+    private static final ClassValue<StateMethods> STATE_METHODS = new ClassValue<StateMethods>()
+    {
+        protected StateMethods computeValue (Class<?> c)
+        {
+            return new StateMethods(c);
+        }
+    };
 }
\ No newline at end of file
@@ -0,0 +1,228 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+
+package org.jboss.stm.internal.reflect;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.arjuna.ats.txoj.LockManager;
+import com.arjuna.ats.txoj.LockMode;
+import org.jboss.stm.annotations.LockFree;
+import org.jboss.stm.annotations.ReadLock;
+import org.jboss.stm.annotations.Retry;
+import org.jboss.stm.annotations.Timeout;
+import org.jboss.stm.annotations.TransactionFree;
+import org.jboss.stm.annotations.WriteLock;
+
+/**
+ * The methods of a transactional implementation class, as called through its
+ * proxy. Each entry records the lock the method needs, taken from the annotations
+ * on the implementation, and a method handle through which it is called.
+ *
+ * There is one table per implementation class, built when the first instance of
+ * that class is handed to a container and then shared by every proxy for the
+ * class, so the annotations are only read once and a call does not need to search
+ * the declared methods or go through Method.invoke.
+ */
+
+class DispatchTable
+{
+    static class Entry
+    {
+        Entry (Method method, Method implementation)
+        {
+            _method = method;
+            _implementation = implementation;
+
+            if (implementation == null)
+            {
+                _lockType = -1;
+                _timeout = LockManager.defaultSleepTime;
+                _retry = LockManager.defaultRetry;
+                _lockFree = false;
+                _transactionFree = false;
+            }
+            else
+            {
+                int lockType = -1;
+                boolean lockFree = false;
+                boolean transactionFree = false;
+
+                /*
+                 * What about other lock types?
+                 */
+
+                if (implementation.isAnnotationPresent(ReadLock.class))
+                    lockType = LockMode.READ;
+                else
+                {
+                    if (implementation.isAnnotationPresent(WriteLock.class))
+                        lockType = LockMode.WRITE;
+                    else
+                    {
+                        if (implementation.isAnnotationPresent(TransactionFree.class))
+                            transactionFree = true;
+                        else
+                        {
+                            if (implementation.isAnnotationPresent(LockFree.class))
+                                lockFree = true;
+                        }
+                    }
+                }
+
+                if (lockType == -1)  // default to WRITE
+                    lockType = LockMode.WRITE;
+
+                _lockType = lockType;
+                _timeout = (implementation.isAnnotationPresent(Timeout.class) ? implementation.getAnnotation(Timeout.class).period() : LockManager.defaultSleepTime);
+                _retry = (implementation.isAnnotationPresent(Retry.class) ? implementation.getAnnotation(Retry.class).count() : LockManager.defaultRetry);
+                _lockFree = lockFree;
+                _transactionFree = transactionFree;
+            }
+
+            _handle = spreadHandle(method);
+        }
+
+        /**
+         * Call the method on the given object, throwing whatever the method
+         * itself throws.
+         */
+
+        Object invoke (Object target, Object[] args) throws Throwable
+        {
+            if (_handle != null)
+                return _handle.invokeExact(target, args);
+
+            try
+            {
+                return _method.invoke(target, args);
+            }
+            catch (InvocationTargetException e)
+            {
+                throw e.getCause() != null ? e.getCause() : e;
+            }
+        }
+
+        /**
+         * @return true if the implementation class declares the method.
+         */
+
+        boolean isLocated ()
+        {
+            return _implementation != null;
+        }
+
+        public String toString ()
+        {
+            return "Lock < "+LockMode.stringForm(_lockType)+", "+_timeout+", "+_retry+" >";
+        }
+
+        final int _lockType;
+        final int _timeout;
+        final int _retry;
+        final boolean _lockFree;
+        final boolean _transactionFree;
+
+        private final Method _method;
+        private final Method _implementation;
+        private final MethodHandle _handle;
+    }
+
+    /**
+     * @return the table for the given implementation class.
+     */
+
+    static DispatchTable forClass (Class<?> c)
+    {
+        return TABLES.get(c);
+    }
+
+    private DispatchTable (Class<?> c)
+    {
+        _methods = c.getDeclaredMethods();
+
+        // everything the proxy can be called with, apart from the methods of Object
+
+        for (Class<?> i : c.getInterfaces())
+        {
+            for (Method method : i.getMethods())
+                _entries.putIfAbsent(method, new Entry(method, locate(method)));
+        }
+    }
+
+    /**
+     * @return the entry for a method called through the proxy.
+     */
+
+    Entry get (Method method)
+    {
+        Entry entry = _entries.get(method);
+
+        if (entry == null)
+            entry = _entries.computeIfAbsent(method, m -> new Entry(m, locate(m)));
+
+        return entry;
+    }
+
+    /*
+     * Look for the corresponding method in the original object so that the
+     * annotations applied there can be checked.
+     */
+
+    private Method locate (Method method)
+    {
+        Method theMethod = null;
+
+        for (Method mt : _methods)
+        {
+            if (mt.getName().equals(method.getName()))
+            {
+                if (mt.getReturnType().equals(method.getReturnType()))
+                {
+                    if (Arrays.equals(mt.getParameterTypes(), method.getParameterTypes()))
+                        theMethod = mt;
+                }
+            }
+        }
+
+        return theMethod;
+    }
+
+    /*
+     * A handle of type (Object, Object[])Object for the method, or null if it
+     * cannot be accessed from here, in which case Method.invoke is used.
+     */
+
+    private static MethodHandle spreadHandle (Method method)
+    {
+        try
+        {
+            MethodHandle handle = MethodHandles.lookup().unreflect(method);
+
+            return handle.asType(handle.type().generic()).asSpreader(Object[].class, method.getParameterCount());
+        }
+        catch (final IllegalAccessException ex)
+        {
+            return null;
+        }
+    }
+
+    private static final ClassValue<DispatchTable> TABLES = new ClassValue<DispatchTable>()
+    {
+        protected DispatchTable computeValue (Class<?> c)
+        {
+            return new DispatchTable(c);
+        }
+    };
+
+    private final Method[] _methods;
+    private final ConcurrentHashMap<Method, Entry> _entries = new ConcurrentHashMap<Method, Entry>();
+}
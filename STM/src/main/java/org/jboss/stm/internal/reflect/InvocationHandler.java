@@ -6,23 +6,12 @@
 
 package org.jboss.stm.internal.reflect;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.util.Arrays;
-import java.util.HashMap;
-
 import com.arjuna.ats.txoj.logging.txojLogger;
 import org.jboss.stm.LockException;
 import org.jboss.stm.TransactionException;
-import org.jboss.stm.annotations.LockFree;
 import org.jboss.stm.annotations.NestedTopLevel;
 import org.jboss.stm.annotations.Optimistic;
-import org.jboss.stm.annotations.Retry;
-import org.jboss.stm.annotations.Timeout;
-import org.jboss.stm.annotations.TransactionFree;
 import org.jboss.stm.annotations.Nested;
-import org.jboss.stm.annotations.ReadLock;
-import org.jboss.stm.annotations.WriteLock;
 import org.jboss.stm.internal.RecoverableContainer;
 import org.jboss.stm.internal.optimistic.OptimisticLock;
 import org.jboss.stm.internal.proxy.LockManagerProxy;
@@ -60,30 +49,6 @@ public class InvocationHandler<T> implements java.lang.reflect.InvocationHandler
     @SuppressWarnings("unused")
     private static final String SETTER_NAME = "SET";
     
-    class LockInformation
-    {
-        public LockInformation (int lockType)
-        {
-            this(lockType, LockManager.defaultSleepTime, LockManager.defaultRetry);
-        }
-        
-        public LockInformation (int lockType, int timeout, int retry)
-        {
-            _lockType = lockType;
-            _timeout = timeout;
-            _retry = retry;
-        }
-        
-        public String toString ()
-        {
-            return "Lock < "+LockMode.stringForm(_lockType)+", "+_timeout+", "+_retry+" >";
-        }
-        
-        public int _lockType;
-        public int _timeout;
-        public int _retry;
-    }
-    
     /*
      * Not all possible LockManager options are available. We only support those that we need
      * at any given moment in STM.
@@ -197,7 +162,11 @@ public class InvocationHandler<T> implements java.lang.reflect.InvocationHandler
             action.commit();
         }
         
-        _methods = obj.getClass().getDeclaredMethods();
+        /*
+         * Shared by all instances of the class, so only built for the first.
+         */
+        
+        _dispatch = DispatchTable.forClass(obj.getClass());
         
         /*
          * Do we need to create (sub-) transactions when each method
@@ -304,118 +273,46 @@ public class InvocationHandler<T> implements java.lang.reflect.InvocationHandler
                 
                 try
                 {
-                    LockInformation cachedLock = _cachedMethods.get(method);
-        
+                    DispatchTable.Entry entry = _dispatch.get(method);
                     
                     // todo allow null transaction context - not an issue for now with STM though!
                     
                     if (BasicAction.Current() != null)
                     {
-                        Method theMethod = null;
-        
                         /*
-                         * Look for the corresponding method in the original object and
-                         * check the annotations applied there.
-                         * 
-                         * Check to see if we've cached this before.
+                         * Should we catch common methods, like equals, and call Object... automatically?
                          */
         
-                        int lockType = -1;
-                        boolean lockFree = false;
-                        boolean transactionFree = false;
-        
-                        if (cachedLock == null)
-                        {
-                            for (Method mt : _methods)
-                            {
-                                if (mt.getName().equals(method.getName()))
-                                {
-                                    if (mt.getReturnType().equals(method.getReturnType()))
-                                    {
-                                        if (Arrays.equals(mt.getParameterTypes(), method.getParameterTypes()))
-                                            theMethod = mt;
-                                    }
-                                }
-                            }
-        
-                            /*
-                             * Should we catch common methods, like equals, and call Object... automatically?
-                             */
-        
-                            if (theMethod == null)
-                                throw new LockException("Could not locate method "+method);
-        
-                            /*
-                             * What about other lock types?
-                             */
-                            
-                            if (theMethod.isAnnotationPresent(ReadLock.class))
-                                lockType = LockMode.READ;
-                            else
-                            {
-                                if (theMethod.isAnnotationPresent(WriteLock.class))
-                                    lockType = LockMode.WRITE;
-                                else
-                                {
-                                    if (theMethod.isAnnotationPresent(TransactionFree.class))
-                                        transactionFree = true;
-                                    else
-                                    {
-                                        if (theMethod.isAnnotationPresent(LockFree.class))
-                                            lockFree = true;
-                                    }
-                                }
-                            }
+                        if (!entry.isLocated())
+                            throw new LockException("Could not locate method "+method);
 
-                            // if TransactionFree then suspend any transactions and don't do locking
+                        // if TransactionFree then suspend any transactions and don't do locking
 
-                            if (!lockFree && !transactionFree)
-                            {
-                                int timeout = LockManager.defaultSleepTime;
-                                int retry = LockManager.defaultRetry;
-            
-                                if (theMethod.isAnnotationPresent(Timeout.class))
-                                    timeout = theMethod.getAnnotation(Timeout.class).period();
-            
-                                if (theMethod.isAnnotationPresent(Retry.class))
-                                    retry = theMethod.getAnnotation(Retry.class).count();
-            
-                                if (lockType == -1) // default to WRITE
-                                    lockType = LockMode.WRITE;    
-
-                                cachedLock = new LockInformation(lockType, timeout, retry);
-                                _cachedMethods.put(method, cachedLock);
-                            }
-                            else
-                            {
-                                if (transactionFree)
-                                    currentTx = AtomicAction.suspend();
-                            }
-                        }          
+                        if (entry._transactionFree)
+                            currentTx = AtomicAction.suspend();
         
                         // TODO type specific concurrency control (define Lock class in annotation?)
 
-                        if (!lockFree && !transactionFree)
+                        if (!entry._lockFree && !entry._transactionFree)
                         {
-                            int result = _txObject.setlock((_optimistic ? new OptimisticLock(cachedLock._lockType) : new Lock(cachedLock._lockType)), cachedLock._retry, cachedLock._timeout);
+                            int result = _txObject.setlock((_optimistic ? new OptimisticLock(entry._lockType) : new Lock(entry._lockType)), entry._retry, entry._timeout);
 
                             if (result != GRANTED)
                             {
-                                throw new LockException(Thread.currentThread()+" could not set "+LockMode.stringForm(cachedLock._lockType)+" lock. Got: "+LockResult.stringForm(result));
+                                throw new LockException(Thread.currentThread()+" could not set "+LockMode.stringForm(entry._lockType)+" lock. Got: "+LockResult.stringForm(result));
                             }
                         }
                     }
 
                     try {
-                        return method.invoke(_theObject, args);
-                    } catch (InvocationTargetException e) {
+                        return entry.invoke(_theObject, args);
+                    } catch (Throwable e) {
                         if (txojLogger.logger.isTraceEnabled()) {
-                            Throwable ae = e.getCause() != null ? e.getCause() : e;
                             txojLogger.logger.tracef("STM InvocationHandler::invoke application method %s threw exception %s",
-                                    method.getName(), ae.getMessage());
+                                    method.getName(), e.getMessage());
                         }
 
-                        throw e.getCause() != null ? e.getCause() : e;
+                        throw e;
                     }
                 }
                 finally
@@ -495,8 +392,7 @@ public class InvocationHandler<T> implements java.lang.reflect.InvocationHandler
     private RecoverableContainer<T> _container;  // could be a persistent container, but not an issue for this class
     private T _theObject;
     private LockManager _txObject;
-    private Method[] _methods;
-    private HashMap<Method, InvocationHandler<T>.LockInformation> _cachedMethods = new HashMap<Method, InvocationHandler<T>.LockInformation>();
+    private DispatchTable _dispatch;
     private boolean _nestedTransactions = false;  // todo change default?
     private boolean _nestedTopLevel = false;
     private boolean _optimistic = false;
@@ -0,0 +1,133 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+
+package org.jboss.stm.internal.reflect;
+
+import java.io.IOException;
+
+import org.jboss.stm.annotations.LockFree;
+import org.jboss.stm.annotations.ReadLock;
+import org.jboss.stm.annotations.Retry;
+import org.jboss.stm.annotations.Timeout;
+import org.jboss.stm.annotations.TransactionFree;
+import org.jboss.stm.annotations.Transactional;
+
+import com.arjuna.ats.txoj.LockManager;
+import com.arjuna.ats.txoj.LockMode;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for the DispatchTable class.
+ */
+
+public class DispatchTableUnitTest extends TestCase
+{
+    @Transactional
+    public interface Sample
+    {
+        public int add (int a, int b);
+
+        public void write (String value);
+
+        public String read ();
+
+        public void lockFree ();
+
+        public void transactionFree ();
+
+        public void fail () throws IOException;
+    }
+
+    public static class SampleImple implements Sample
+    {
+        public int add (int a, int b)
+        {
+            return a + b;
+        }
+
+        public void write (String value)
+        {
+            _value = value;
+        }
+
+        @ReadLock
+        @Timeout(period=10)
+        @Retry(count=2)
+        public String read ()
+        {
+            return _value;
+        }
+
+        @LockFree
+        public void lockFree ()
+        {
+        }
+
+        @TransactionFree
+        public void transactionFree ()
+        {
+        }
+
+        public void fail () throws IOException
+        {
+            throw new IOException("fail");
+        }
+
+        private String _value;
+    }
+
+    public void testShared () throws Exception
+    {
+        assertSame(DispatchTable.forClass(SampleImple.class), DispatchTable.forClass(SampleImple.class));
+    }
+
+    public void testLockInformation () throws Exception
+    {
+        DispatchTable table = DispatchTable.forClass(SampleImple.class);
+
+        DispatchTable.Entry entry = table.get(Sample.class.getMethod("write", String.class));
+
+        assertTrue(entry.isLocated());
+        assertEquals(LockMode.WRITE, entry._lockType);
+        assertEquals(LockManager.defaultSleepTime, entry._timeout);
+        assertEquals(LockManager.defaultRetry, entry._retry);
+
+        entry = table.get(Sample.class.getMethod("read"));
+
+        assertEquals(LockMode.READ, entry._lockType);
+        assertEquals(10, entry._timeout);
+        assertEquals(2, entry._retry);
+
+        assertTrue(table.get(Sample.class.getMethod("lockFree"))._lockFree);
+        assertTrue(table.get(Sample.class.getMethod("transactionFree"))._transactionFree);
+
+        // not declared by the implementation class itself
+
+        assertFalse(table.get(Object.class.getMethod("hashCode")).isLocated());
+    }
+
+    public void testInvoke () throws Throwable
+    {
+        DispatchTable table = DispatchTable.forClass(SampleImple.class);
+        SampleImple tester = new SampleImple();
+
+        assertEquals(5, table.get(Sample.class.getMethod("add", int.class, int.class)).invoke(tester, new Object[] { 2, 3 }));
+        assertNull(table.get(Sample.class.getMethod("write", String.class)).invoke(tester, new Object[] { "value" }));
+        assertEquals("value", table.get(Sample.class.getMethod("read")).invoke(tester, null));
+
+        try
+        {
+            table.get(Sample.class.getMethod("fail")).invoke(tester, null);
+
+            fail();
+        }
+        catch (final IOException ex)
+        {
+            // thrown directly, not wrapped
+        }
+    }
+}
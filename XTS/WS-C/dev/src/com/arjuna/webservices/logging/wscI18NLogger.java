@@ -304,6 +304,14 @@ public interface wscI18NLogger {
 	@LogMessage(level = ERROR)
 	public void error_failure_to_create_coordination_context(String coordinationType, @Cause() Throwable t);
 
+	@Message(id = 42089, value = "Unable to create transport scheduler {0}, using the default scheduler", format = MESSAGE_FORMAT)
+	@LogMessage(level = WARN)
+	public void warn_webservices_util_TransportTimer_1(String className, @Cause() Throwable t);
+
+	@Message(id = 42090, value = "Unhandled error executing transport timer task", format = MESSAGE_FORMAT)
+	@LogMessage(level = ERROR)
+	public void error_webservices_util_TransportTimer_2(@Cause() Throwable t);
+
     /*
         Allocate new messages directly above this notice.
           - id: use the next id number in numeric sequence. Don't reuse ids.
@@ -0,0 +1,307 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.arjuna.webservices.util;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.jbossts.xts.environment.WSCEnvironmentBean;
+import org.jboss.jbossts.xts.environment.XTSPropertyManager;
+
+import com.arjuna.webservices.logging.WSCLogger;
+
+/**
+ * The default transport scheduler, a hashed timing wheel.
+ * <p>
+ * The wheel is an array of buckets, each holding the tasks due in one tick.
+ * A single ticker thread wakes each tick and hands the tasks in that tick's
+ * bucket to a pool of worker threads, so that a slow resend does not hold up
+ * the others. Scheduling and cancelling only add the task to a queue which
+ * the ticker drains on its next tick, so neither contends with the ticker or
+ * with each other, and a cancelled task is unlinked from its bucket within a
+ * tick rather than being kept until it would have been due.
+ * <p>
+ * A task is never run before it is due, but may be run up to a tick after.
+ */
+public class HashedWheelTransportScheduler implements TransportScheduler
+{
+    /**
+     * The number of buckets in the wheel.
+     */
+    private static final int DEFAULT_TICKS_PER_WHEEL = 512 ;
+
+    /**
+     * The tasks due in one tick of the wheel, or in a later rotation of it.
+     * Only accessed by the ticker thread.
+     */
+    private static final class Bucket
+    {
+        private TransportTimerTask head ;
+        private TransportTimerTask tail ;
+
+        void add(final TransportTimerTask task)
+        {
+            task.handle = this ;
+
+            if (head == null)
+            {
+                head = tail = task ;
+            }
+            else
+            {
+                tail.next = task ;
+                task.prev = tail ;
+                tail = task ;
+            }
+        }
+
+        void remove(final TransportTimerTask task)
+        {
+            final TransportTimerTask next = task.next ;
+
+            if (task.prev != null)
+            {
+                task.prev.next = next ;
+            }
+            if (task.next != null)
+            {
+                task.next.prev = task.prev ;
+            }
+            if (task == head)
+            {
+                head = next ;
+            }
+            if (task == tail)
+            {
+                tail = task.prev ;
+            }
+
+            task.prev = null ;
+            task.next = null ;
+            task.handle = null ;
+        }
+    }
+
+    private final long tickDuration ;
+    private final Bucket[] wheel ;
+    private final int mask ;
+    private final long startTime ;
+
+    private final Queue<TransportTimerTask> added = new ConcurrentLinkedQueue<TransportTimerTask>() ;
+    private final Queue<TransportTimerTask> removed = new ConcurrentLinkedQueue<TransportTimerTask>() ;
+
+    private final ExecutorService workers ;
+    private final Thread ticker ;
+    private volatile boolean shutdown ;
+
+    private final TransportTimerStatistics statistics = new TransportTimerStatistics() ;
+
+    /**
+     * Create a scheduler configured from the WSCEnvironmentBean.
+     */
+    public HashedWheelTransportScheduler()
+    {
+        this(XTSPropertyManager.getWSCEnvironmentBean()) ;
+    }
+
+    private HashedWheelTransportScheduler(final WSCEnvironmentBean wscEnvironmentBean)
+    {
+        this(wscEnvironmentBean.getTransportSchedulerThreads(), wscEnvironmentBean.getTransportSchedulerTickDuration(),
+            DEFAULT_TICKS_PER_WHEEL) ;
+    }
+
+    /**
+     * Create a scheduler.
+     * @param threads The number of threads which run the tasks.
+     * @param tickDuration The duration of a tick in milliseconds.
+     * @param ticksPerWheel The number of buckets in the wheel, rounded up to a power of two.
+     */
+    public HashedWheelTransportScheduler(final int threads, final long tickDuration, final int ticksPerWheel)
+    {
+        int size = 1 ;
+        while (size < ticksPerWheel)
+        {
+            size <<= 1 ;
+        }
+
+        this.tickDuration = TimeUnit.MILLISECONDS.toNanos(Math.max(1, tickDuration)) ;
+        this.wheel = new Bucket[size] ;
+        this.mask = size - 1 ;
+
+        for (int i = 0; i < size; i++)
+        {
+            wheel[i] = new Bucket() ;
+        }
+
+        final AtomicInteger threadCount = new AtomicInteger() ;
+        workers = Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            final Thread thread = new Thread(r, "XTS transport timer worker " + threadCount.incrementAndGet()) ;
+            thread.setDaemon(true) ;
+            return thread ;
+        }) ;
+
+        startTime = System.nanoTime() ;
+
+        ticker = new Thread(this::tick, "XTS transport timer") ;
+        ticker.setDaemon(true) ;
+        ticker.start() ;
+    }
+
+    public void schedule(final TransportTimerTask task, final long delay)
+    {
+        if (shutdown)
+        {
+            throw new IllegalStateException("Transport scheduler has been shut down") ;
+        }
+
+        task.deadline = System.nanoTime() - startTime + TimeUnit.MILLISECONDS.toNanos(Math.max(0, delay)) ;
+        task.scheduled(this) ;
+        statistics.scheduled() ;
+        added.add(task) ;
+    }
+
+    public void remove(final TransportTimerTask task)
+    {
+        statistics.cancelled() ;
+        removed.add(task) ;
+    }
+
+    public TransportTimerStatistics getStatistics()
+    {
+        return statistics ;
+    }
+
+    public void shutdown()
+    {
+        shutdown = true ;
+        ticker.interrupt() ;
+        workers.shutdownNow() ;
+    }
+
+    /*
+     * The ticker thread. Tick n is processed once the time since the start
+     * reaches n+1 ticks, so every task in its bucket is due.
+     */
+    private void tick()
+    {
+        long tick = 0 ;
+
+        while (!shutdown)
+        {
+            final long sleepNanos = (tick + 1) * tickDuration - (System.nanoTime() - startTime) ;
+
+            if (sleepNanos > 0)
+            {
+                try
+                {
+                    Thread.sleep(TimeUnit.NANOSECONDS.toMillis(sleepNanos), (int) (sleepNanos % 1000000)) ;
+                }
+                catch (final InterruptedException ie)
+                {
+                    if (shutdown)
+                    {
+                        break ;
+                    }
+                }
+                continue ;
+            }
+
+            processRemoved() ;
+            transferAdded(tick) ;
+            expire(wheel[(int) (tick & mask)]) ;
+
+            tick++ ;
+        }
+    }
+
+    private void processRemoved()
+    {
+        TransportTimerTask task ;
+
+        while ((task = removed.poll()) != null)
+        {
+            // not yet in a bucket if it was cancelled before the ticker saw it
+            if (task.handle != null)
+            {
+                ((Bucket) task.handle).remove(task) ;
+            }
+        }
+    }
+
+    private void transferAdded(final long tick)
+    {
+        TransportTimerTask task ;
+
+        while ((task = added.poll()) != null)
+        {
+            if (task.isCancelled())
+            {
+                continue ;
+            }
+
+            final long dueTick = task.deadline / tickDuration ;
+
+            task.remainingRounds = (dueTick - tick) / wheel.length ;
+
+            // a task already due goes in the current bucket
+            wheel[(int) (Math.max(dueTick, tick) & mask)].add(task) ;
+        }
+    }
+
+    private void expire(final Bucket bucket)
+    {
+        TransportTimerTask task = bucket.head ;
+
+        while (task != null)
+        {
+            final TransportTimerTask next = task.next ;
+
+            if (task.remainingRounds <= 0)
+            {
+                bucket.remove(task) ;
+
+                if (task.expire())
+                {
+                    run(task) ;
+                }
+            }
+            else
+            {
+                task.remainingRounds-- ;
+            }
+
+            task = next ;
+        }
+    }
+
+    private void run(final TransportTimerTask task)
+    {
+        try
+        {
+            workers.execute(() -> {
+                statistics.expired(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime - task.deadline)) ;
+
+                try
+                {
+                    task.run() ;
+                }
+                catch (final Throwable th)
+                {
+                    WSCLogger.i18NLogger.error_webservices_util_TransportTimer_2(th) ;
+                }
+            }) ;
+        }
+        catch (final RejectedExecutionException ree)
+        {
+            // shut down
+        }
+    }
+}
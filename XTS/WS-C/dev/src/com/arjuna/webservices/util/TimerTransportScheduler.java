@@ -0,0 +1,69 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.arjuna.webservices.util;
+
+import java.util.Timer;
+import java.util.TimerTask;
+
+import com.arjuna.webservices.logging.WSCLogger;
+
+/**
+ * A transport scheduler which runs every task on the single thread of a
+ * java.util.Timer, as XTS did before the scheduler could be configured.
+ */
+public class TimerTransportScheduler implements TransportScheduler
+{
+    /**
+     * Daemon timer.
+     */
+    private final Timer timer = new Timer("XTS transport timer", true) ;
+
+    private final TransportTimerStatistics statistics = new TransportTimerStatistics() ;
+
+    public void schedule(final TransportTimerTask task, final long delay)
+    {
+        final TimerTask timerTask = new TimerTask() {
+            public void run() {
+                if (task.expire())
+                {
+                    statistics.expired(System.currentTimeMillis() - scheduledExecutionTime()) ;
+
+                    try
+                    {
+                        task.run() ;
+                    }
+                    catch (final Throwable th)
+                    {
+                        WSCLogger.i18NLogger.error_webservices_util_TransportTimer_2(th) ;
+                    }
+                }
+            }
+        } ;
+
+        task.handle = timerTask ;
+        task.scheduled(this) ;
+        statistics.scheduled() ;
+        timer.schedule(timerTask, Math.max(0, delay)) ;
+    }
+
+    public void remove(final TransportTimerTask task)
+    {
+        statistics.cancelled() ;
+
+        // as before, the timer keeps the cancelled task until it would have been due
+        ((TimerTask) task.handle).cancel() ;
+    }
+
+    public TransportTimerStatistics getStatistics()
+    {
+        return statistics ;
+    }
+
+    public void shutdown()
+    {
+        timer.cancel() ;
+    }
+}
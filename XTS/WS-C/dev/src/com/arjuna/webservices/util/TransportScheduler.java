@@ -0,0 +1,42 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.arjuna.webservices.util;
+
+/**
+ * Runs the message resends and timeouts of the XTS protocol engines.
+ * <p>
+ * The implementation is configured by class name using
+ * {@link org.jboss.jbossts.xts.environment.WSCEnvironmentBean#setTransportSchedulerClassName(String)}
+ * and must have a public no-argument constructor.
+ */
+public interface TransportScheduler
+{
+    /**
+     * Schedule a task to be run once after the specified delay.
+     * Implementations must call {@link TransportTimerTask#scheduled(TransportScheduler)}
+     * before returning, and {@link TransportTimerTask#expire()} before running the task.
+     * @param task The task.
+     * @param delay The delay in milliseconds.
+     */
+    public void schedule(final TransportTimerTask task, final long delay) ;
+
+    /**
+     * Called by a scheduled task when it is cancelled, to release it.
+     * @param task The cancelled task.
+     */
+    public void remove(final TransportTimerTask task) ;
+
+    /**
+     * Get the statistics for the tasks run by this scheduler.
+     * @return The statistics.
+     */
+    public TransportTimerStatistics getStatistics() ;
+
+    /**
+     * Stop the scheduler. Tasks which have not yet run will not be run.
+     */
+    public void shutdown() ;
+}
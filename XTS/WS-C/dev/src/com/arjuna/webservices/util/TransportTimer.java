@@ -8,6 +8,8 @@ package com.arjuna.webservices.util;
 import org.jboss.jbossts.xts.environment.WSCEnvironmentBean;
 import org.jboss.jbossts.xts.environment.XTSPropertyManager;
 
+import com.arjuna.webservices.logging.WSCLogger;
+
 import java.util.Timer;
 
 /**
@@ -17,9 +19,17 @@ import java.util.Timer;
 public class TransportTimer
 {
     /**
-     * Daemon timer.
+     * Holder for the daemon timer, only created if it is used.
+     */
+    private static class TimerHolder
+    {
+        private static final Timer TIMER = new Timer(true) ;
+    }
+
+    /**
+     * The scheduler which runs the resends and timeouts.
      */
-    private static final Timer TIMER = new Timer(true) ;
+    private static final TransportScheduler SCHEDULER ;
     
     /**
      * The transport timeout.
@@ -38,10 +48,32 @@ public class TransportTimer
     /**
      * Get the transport timer.
      * @return The transport timer.
+     * @deprecated schedule a {@link TransportTimerTask} using {@link #schedule(TransportTimerTask, long)},
+     * which is run by the configured transport scheduler, rather than sharing this single timer thread.
      */
+    @Deprecated
     public static Timer getTimer()
     {
-        return TIMER ;
+        return TimerHolder.TIMER ;
+    }
+
+    /**
+     * Schedule a task with the transport scheduler.
+     * @param task The task.
+     * @param delay The delay in milliseconds before the task is run.
+     */
+    public static void schedule(final TransportTimerTask task, final long delay)
+    {
+        SCHEDULER.schedule(task, delay) ;
+    }
+
+    /**
+     * Get the transport scheduler.
+     * @return The transport scheduler.
+     */
+    public static TransportScheduler getScheduler()
+    {
+        return SCHEDULER ;
     }
     
     /**
@@ -111,5 +143,23 @@ public class TransportTimer
         setTransportPeriod(wscEnvironmentBean.getInitialTransportPeriod());
         setMaximumTransportPeriod(wscEnvironmentBean.getMaximumTransportPeriod());
         setTransportTimeout(wscEnvironmentBean.getTransportTimeout());
+        SCHEDULER = createScheduler(wscEnvironmentBean.getTransportSchedulerClassName());
+    }
+
+    private static TransportScheduler createScheduler(final String className)
+    {
+        if (className != null && !HashedWheelTransportScheduler.class.getName().equals(className))
+        {
+            try
+            {
+                return (TransportScheduler) ClassLoaderHelper.forName(TransportTimer.class, className).getDeclaredConstructor().newInstance() ;
+            }
+            catch (final Exception ex)
+            {
+                WSCLogger.i18NLogger.warn_webservices_util_TransportTimer_1(className, ex) ;
+            }
+        }
+
+        return new HashedWheelTransportScheduler() ;
     }
 }
\ No newline at end of file
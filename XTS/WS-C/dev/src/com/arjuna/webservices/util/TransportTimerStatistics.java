@@ -0,0 +1,99 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.arjuna.webservices.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the tasks of a transport scheduler and measures their lag, the time
+ * from when a task was due until it started to run. A growing lag means the
+ * resends and timeouts are not keeping up.
+ */
+public class TransportTimerStatistics
+{
+    private final LongAdder scheduled = new LongAdder() ;
+    private final LongAdder cancelled = new LongAdder() ;
+    private final LongAdder expired = new LongAdder() ;
+    private final LongAdder totalLag = new LongAdder() ;
+    private final AtomicLong maximumLag = new AtomicLong() ;
+
+    /**
+     * Record that a task has been scheduled.
+     */
+    public void scheduled()
+    {
+        scheduled.increment() ;
+    }
+
+    /**
+     * Record that a scheduled task has been cancelled.
+     */
+    public void cancelled()
+    {
+        cancelled.increment() ;
+    }
+
+    /**
+     * Record that a task has started to run.
+     * @param lag The time in milliseconds since the task was due.
+     */
+    public void expired(final long lag)
+    {
+        final long positiveLag = Math.max(0, lag) ;
+
+        expired.increment() ;
+        totalLag.add(positiveLag) ;
+        maximumLag.accumulateAndGet(positiveLag, Math::max) ;
+    }
+
+    /**
+     * Get the number of tasks scheduled which have neither run nor been cancelled.
+     * @return The number of pending tasks.
+     */
+    public long getPendingCount()
+    {
+        return scheduled.sum() - cancelled.sum() - expired.sum() ;
+    }
+
+    /**
+     * Get the number of scheduled tasks which have been cancelled.
+     * @return The number of cancelled tasks.
+     */
+    public long getCancelledCount()
+    {
+        return cancelled.sum() ;
+    }
+
+    /**
+     * Get the number of tasks which have been run.
+     * @return The number of tasks run.
+     */
+    public long getExpiredCount()
+    {
+        return expired.sum() ;
+    }
+
+    /**
+     * Get the average time from when a task was due until it started to run.
+     * @return The average lag in milliseconds.
+     */
+    public long getAverageLag()
+    {
+        final long count = expired.sum() ;
+
+        return (count == 0 ? 0 : totalLag.sum() / count) ;
+    }
+
+    /**
+     * Get the longest time from when a task was due until it started to run.
+     * @return The maximum lag in milliseconds.
+     */
+    public long getMaximumLag()
+    {
+        return maximumLag.get() ;
+    }
+}
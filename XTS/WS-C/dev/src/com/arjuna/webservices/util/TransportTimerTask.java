@@ -0,0 +1,95 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.arjuna.webservices.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A resend or timeout to be run once by the transport scheduler.
+ * @see TransportTimer#schedule(TransportTimerTask, long)
+ */
+public abstract class TransportTimerTask implements Runnable
+{
+    private static final int INITIAL = 0 ;
+    private static final int SCHEDULED = 1 ;
+    private static final int CANCELLED = 2 ;
+    private static final int EXPIRED = 3 ;
+
+    /**
+     * The state of the task.
+     */
+    private final AtomicInteger state = new AtomicInteger(INITIAL) ;
+
+    /**
+     * The scheduler the task was scheduled with.
+     */
+    private volatile TransportScheduler scheduler ;
+
+    /*
+     * Used by the schedulers in this package to track the task.
+     */
+    long deadline ;
+    long remainingRounds ;
+    TransportTimerTask next ;
+    TransportTimerTask prev ;
+    Object handle ;
+
+    /**
+     * The action to be performed when the task is due.
+     */
+    public abstract void run() ;
+
+    /**
+     * Cancel the task. A cancelled task is removed from its scheduler so that
+     * it does not have to be kept until it would have been due.
+     * @return true if the task had been scheduled and will now not run, false
+     * if it was never scheduled, has already run or had already been cancelled.
+     */
+    public boolean cancel()
+    {
+        if (state.compareAndSet(SCHEDULED, CANCELLED))
+        {
+            scheduler.remove(this) ;
+            return true ;
+        }
+
+        state.compareAndSet(INITIAL, CANCELLED) ;
+        return false ;
+    }
+
+    /**
+     * Has the task been cancelled.
+     * @return true if the task has been cancelled, false otherwise.
+     */
+    public boolean isCancelled()
+    {
+        return state.get() == CANCELLED ;
+    }
+
+    /**
+     * Called by a scheduler when the task is scheduled.
+     * @param scheduler The scheduler.
+     * @throws IllegalStateException if the task has already been scheduled or cancelled.
+     */
+    public final void scheduled(final TransportScheduler scheduler)
+    {
+        this.scheduler = scheduler ;
+
+        if (!state.compareAndSet(INITIAL, SCHEDULED))
+        {
+            throw new IllegalStateException("Task already scheduled or cancelled") ;
+        }
+    }
+
+    /**
+     * Called by a scheduler when the task is due, before running it.
+     * @return true if the task should now be run, false if it has been cancelled.
+     */
+    public final boolean expire()
+    {
+        return state.compareAndSet(SCHEDULED, EXPIRED) ;
+    }
+}
@@ -38,6 +38,26 @@ public class WSCEnvironmentBean
     @FullPropertyName(name="org.jboss.jbossts.xts.transport.transportTimeout")
     private volatile int transportTimeout =  30 * 1000;
 
+    /**
+     * the class name of the scheduler which runs the protocol message resends and timeouts. it must implement
+     * com.arjuna.webservices.util.TransportScheduler and have a public no-argument constructor.
+     */
+    @FullPropertyName(name="org.jboss.jbossts.xts.transport.schedulerClassName")
+    private volatile String transportSchedulerClassName = "com.arjuna.webservices.util.HashedWheelTransportScheduler";
+
+    /**
+     * the number of threads which run the protocol message resends and timeouts, when using the default scheduler
+     */
+    @FullPropertyName(name="org.jboss.jbossts.xts.transport.schedulerThreads")
+    private volatile int transportSchedulerThreads = 4;
+
+    /**
+     * the interval in milliseconds at which the default scheduler checks for resends and timeouts which are due.
+     * none is run before it is due, but one may be run up to this long after.
+     */
+    @FullPropertyName(name="org.jboss.jbossts.xts.transport.schedulerTickDuration")
+    private volatile int transportSchedulerTickDuration = 100;
+
     /**
      * the bind address on which the web service is listening. when running in JBoss AS this is derived from
      * the JBoss Web service bean by injection.
@@ -236,6 +256,66 @@ public class WSCEnvironmentBean
         this.bindAddress10 = this.bindAddress11;
     }
 
+    /**
+     * Returns the class name of the scheduler which runs the protocol message resends and timeouts.
+     *
+     * @return the class name of the transport scheduler.
+     */
+    public String getTransportSchedulerClassName() {
+        return transportSchedulerClassName;
+    }
+
+    /**
+     * Sets the class name of the scheduler which runs the protocol message resends and timeouts.
+     * The class must implement com.arjuna.webservices.util.TransportScheduler and have a public
+     * no-argument constructor.
+     *
+     * @param transportSchedulerClassName the class name of the transport scheduler.
+     */
+    public void setTransportSchedulerClassName(String transportSchedulerClassName) {
+        this.transportSchedulerClassName = transportSchedulerClassName;
+    }
+
+    /**
+     * Returns the number of threads which run the protocol message resends and timeouts
+     * when using the default scheduler.
+     *
+     * @return the number of transport scheduler threads.
+     */
+    public int getTransportSchedulerThreads() {
+        return transportSchedulerThreads;
+    }
+
+    /**
+     * Sets the number of threads which run the protocol message resends and timeouts
+     * when using the default scheduler.
+     *
+     * @param transportSchedulerThreads the number of transport scheduler threads.
+     */
+    public void setTransportSchedulerThreads(int transportSchedulerThreads) {
+        this.transportSchedulerThreads = transportSchedulerThreads;
+    }
+
+    /**
+     * Returns the interval in milliseconds at which the default scheduler checks for resends and
+     * timeouts which are due.
+     *
+     * @return the transport scheduler tick duration in milliseconds.
+     */
+    public int getTransportSchedulerTickDuration() {
+        return transportSchedulerTickDuration;
+    }
+
+    /**
+     * Sets the interval in milliseconds at which the default scheduler checks for resends and
+     * timeouts which are due. None is run before it is due, but one may be run up to this long after.
+     *
+     * @param transportSchedulerTickDuration the transport scheduler tick duration in milliseconds.
+     */
+    public void setTransportSchedulerTickDuration(int transportSchedulerTickDuration) {
+        this.transportSchedulerTickDuration = transportSchedulerTickDuration;
+    }
+
     /**
      * Returns the bind address on which the web service is listening.
      * When running in JBoss AS this is derived from the JBoss Web service bean by injection.
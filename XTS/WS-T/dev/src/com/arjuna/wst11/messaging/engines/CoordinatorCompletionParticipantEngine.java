@@ -8,6 +8,7 @@ package com.arjuna.wst11.messaging.engines;
 import com.arjuna.webservices.SoapFault;
 import com.arjuna.webservices.logging.WSTLogger;
 import com.arjuna.webservices.util.TransportTimer;
+import com.arjuna.webservices.util.TransportTimerTask;
 import com.arjuna.webservices11.wsaddr.AddressingHelper;
 import com.arjuna.wst11.ConfirmCompletedParticipant;
 import org.jboss.ws.api.addressing.MAP;
@@ -29,7 +30,6 @@ import org.jboss.jbossts.xts11.recovery.participant.ba.BAParticipantRecoveryReco
 
 import javax.xml.namespace.QName;
 import jakarta.xml.ws.wsaddressing.W3CEndpointReference;
-import java.util.TimerTask;
 
 /**
  * The coordinator completion participant state engine
@@ -60,7 +60,7 @@ public class CoordinatorCompletionParticipantEngine implements CoordinatorComple
     /**
      * The associated timer task or null.
      */
-    private TimerTask timerTask ;
+    private TransportTimerTask timerTask ;
 
     /**
      * the time which will elapse before the next message resend. this is incrementally increased
@@ -810,7 +810,7 @@ public class CoordinatorCompletionParticipantEngine implements CoordinatorComple
      *
      * Completed -&gt; Completed (resend Completed)
      */
-    private void commsTimeout(TimerTask caller)
+    private void commsTimeout(TransportTimerTask caller)
     {
         final State current ;
         synchronized(this)
@@ -1417,12 +1417,12 @@ public class CoordinatorCompletionParticipantEngine implements CoordinatorComple
 
         if (state == State.STATE_COMPLETED)
         {
-            timerTask = new TimerTask() {
+            timerTask = new TransportTimerTask() {
                 public void run() {
                     commsTimeout(this) ;
                 }
             } ;
-            TransportTimer.getTimer().schedule(timerTask, resendPeriod) ;
+            TransportTimer.schedule(timerTask, resendPeriod) ;
         }
         else
         {
@@ -8,6 +8,7 @@ import com.arjuna.webservices.SoapFault;
 import com.arjuna.webservices.SoapFaultType;
 import com.arjuna.webservices.logging.WSTLogger;
 import com.arjuna.webservices.util.TransportTimer;
+import com.arjuna.webservices.util.TransportTimerTask;
 import com.arjuna.webservices11.SoapFault11;
 import com.arjuna.webservices11.wsaddr.AddressingHelper;
 import org.jboss.ws.api.addressing.MAP;
@@ -23,7 +24,6 @@ import org.oasis_open.docs.ws_tx.wsat._2006._06.Notification;
 
 import javax.xml.namespace.QName;
 import jakarta.xml.ws.wsaddressing.W3CEndpointReference;
-import java.util.TimerTask;
 
 /**
  * The coordinator state engine
@@ -62,7 +62,7 @@ public class CoordinatorEngine implements CoordinatorInboundEvents
     /**
      * The associated timer task or null.
      */
-    private TimerTask timerTask ;
+    private TransportTimerTask timerTask ;
 
     /**
      * Construct the initial engine for the coordinator.
@@ -423,7 +423,7 @@ public class CoordinatorEngine implements CoordinatorInboundEvents
      * Preparing -&gt; Preparing (resend Prepare)
      * Committing -&gt; Committing (resend Commit)
      */
-    private void commsTimeout(TimerTask caller)
+    private void commsTimeout(TransportTimerTask caller)
     {
         final State current ;
         synchronized(this)
@@ -571,7 +571,7 @@ public class CoordinatorEngine implements CoordinatorInboundEvents
      */
     private void sendPrepare()
     {
-        TimerTask newTimerTask = createTimerTask();
+        TransportTimerTask newTimerTask = createTimerTask();
         synchronized (this) {
             // cancel any existing timer task
 
@@ -622,7 +622,7 @@ public class CoordinatorEngine implements CoordinatorInboundEvents
      */
     private void sendCommit()
     {
-        TimerTask newTimerTask = createTimerTask();
+        TransportTimerTask newTimerTask = createTimerTask();
         synchronized (this) {
             // cancel any existing timer task
 
@@ -712,9 +712,9 @@ public class CoordinatorEngine implements CoordinatorInboundEvents
      *
      * @return the timer task
      */
-    private TimerTask createTimerTask()
+    private TransportTimerTask createTimerTask()
     {
-        return new TimerTask() {
+        return new TransportTimerTask() {
             public void run() {
                 commsTimeout(this) ;
             }
@@ -726,9 +726,9 @@ public class CoordinatorEngine implements CoordinatorInboundEvents
      * @param timerTask the timer task to be scheduled
      */
 
-    private void scheduleTimer(TimerTask timerTask)
+    private void scheduleTimer(TransportTimerTask timerTask)
     {
-        TransportTimer.getTimer().schedule(timerTask, TransportTimer.getTransportPeriod()) ;
+        TransportTimer.schedule(timerTask, TransportTimer.getTransportPeriod()) ;
     }
 
     /**
@@ -8,6 +8,7 @@ import com.arjuna.webservices.SoapFault;
 import com.arjuna.webservices.SoapFaultType;
 import com.arjuna.webservices.logging.WSTLogger;
 import com.arjuna.webservices.util.TransportTimer;
+import com.arjuna.webservices.util.TransportTimerTask;
 import com.arjuna.webservices11.wsaddr.AddressingHelper;
 import org.jboss.ws.api.addressing.MAP;
 import com.arjuna.webservices11.wsarj.ArjunaContext;
@@ -26,7 +27,6 @@ import org.jboss.jbossts.xts.recovery.participant.at.XTSATRecoveryManager;
 
 import javax.xml.namespace.QName;
 import jakarta.xml.ws.wsaddressing.W3CEndpointReference;
-import java.util.TimerTask;
 
 /**
  * The participant state engine
@@ -53,7 +53,7 @@ public class ParticipantEngine implements ParticipantInboundEvents
     /**
      * The associated timer task or null.
      */
-    private TimerTask timerTask ;
+    private TransportTimerTask timerTask ;
 
     /**
      * the time which will elapse before the next message resend. this is incrementally increased
@@ -540,7 +540,7 @@ public class ParticipantEngine implements ParticipantInboundEvents
      *
      * PreparedSuccess -&gt; PreparedSuccess (resend Prepared)
      */
-    private void commsTimeout(TimerTask caller)
+    private void commsTimeout(TransportTimerTask caller)
     {
         final State current ;
         synchronized(this)
@@ -823,12 +823,12 @@ public class ParticipantEngine implements ParticipantInboundEvents
 
         if (state == State.STATE_PREPARED_SUCCESS)
         {
-            timerTask = new TimerTask() {
+            timerTask = new TransportTimerTask() {
                 public void run() {
                     commsTimeout(this) ;
                 }
             } ;
-            TransportTimer.getTimer().schedule(timerTask, resendPeriod) ;
+            TransportTimer.schedule(timerTask, resendPeriod) ;
         }
         else
         {
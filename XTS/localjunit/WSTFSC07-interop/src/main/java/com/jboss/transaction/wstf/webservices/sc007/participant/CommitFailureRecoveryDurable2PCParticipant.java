@@ -5,9 +5,8 @@
 
 package com.jboss.transaction.wstf.webservices.sc007.participant;
 
-import java.util.TimerTask;
-
 import com.arjuna.webservices.util.TransportTimer;
+import com.arjuna.webservices.util.TransportTimerTask;
 import com.arjuna.wst.Durable2PCParticipant;
 import com.arjuna.wst.Prepared;
 import com.arjuna.wst.SystemException;
@@ -57,13 +56,13 @@ public class CommitFailureRecoveryDurable2PCParticipant extends ParticipantAdapt
         if (!setRecovery)
         {
             setRecovery = true ;
-            final TimerTask timerTask = new TimerTask() {
+            final TransportTimerTask timerTask = new TransportTimerTask() {
                 public void run() {
                     recovering = true ;
                     engine.recovery() ;
                 }
             } ;
-            TransportTimer.getTimer().schedule(timerTask, 2000) ;
+            TransportTimer.schedule(timerTask, 2000) ;
         }
         
         if (!recovering)
@@ -5,9 +5,8 @@
 
 package com.jboss.transaction.txinterop.webservices.bainterop.participant;
 
-import java.util.TimerTask;
-
 import com.arjuna.webservices.util.TransportTimer;
+import com.arjuna.webservices.util.TransportTimerTask;
 import com.arjuna.wst11.messaging.engines.CoordinatorCompletionParticipantEngine;
 
 public class ExitParticipant extends CoordinatorCompletionParticipantAdapter
@@ -21,11 +20,11 @@ public class ExitParticipant extends CoordinatorCompletionParticipantAdapter
     
     public void initialiseTimeout()
     {
-        final TimerTask timerTask = new TimerTask() {
+        final TransportTimerTask timerTask = new TransportTimerTask() {
             public void run() {
                 engine.exit() ;
             }
         } ;
-        TransportTimer.getTimer().schedule(timerTask, 2000) ;
+        TransportTimer.schedule(timerTask, 2000) ;
     }
 }
\ No newline at end of file
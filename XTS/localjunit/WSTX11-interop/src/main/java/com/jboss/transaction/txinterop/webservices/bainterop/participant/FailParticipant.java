@@ -5,9 +5,8 @@
 
 package com.jboss.transaction.txinterop.webservices.bainterop.participant;
 
-import java.util.TimerTask;
-
 import com.arjuna.webservices.util.TransportTimer;
+import com.arjuna.webservices.util.TransportTimerTask;
 import com.arjuna.wst11.messaging.engines.ParticipantCompletionParticipantEngine;
 import com.jboss.transaction.txinterop.webservices.bainterop.BAInteropConstants;
 
@@ -22,11 +21,11 @@ public class FailParticipant extends ParticipantCompletionParticipantAdapter
     
     public void initialiseTimeout()
     {
-        final TimerTask timerTask = new TimerTask() {
+        final TransportTimerTask timerTask = new TransportTimerTask() {
             public void run() {
                 engine.fail(BAInteropConstants.INTEROP_ELEMENT_QNAME_FAIL) ;
             }
         } ;
-        TransportTimer.getTimer().schedule(timerTask, 2000) ;
+        TransportTimer.schedule(timerTask, 2000) ;
     }
 }
\ No newline at end of file
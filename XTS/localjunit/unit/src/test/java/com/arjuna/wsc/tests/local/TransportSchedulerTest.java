@@ -0,0 +1,133 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.arjuna.wsc.tests.local;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.arjuna.webservices.util.HashedWheelTransportScheduler;
+import com.arjuna.webservices.util.TransportScheduler;
+import com.arjuna.webservices.util.TransportTimerTask;
+
+/**
+ * Tests for the hashed wheel transport scheduler.
+ */
+public class TransportSchedulerTest {
+
+    private TransportScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        // a small wheel, so that the longer delays take several rotations
+        scheduler = new HashedWheelTransportScheduler(2, 10, 8);
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void testTasksRunNoEarlierThanDue() throws Exception {
+        final long[] delays = {0, 5, 25, 120, 300};
+        final CountDownLatch latch = new CountDownLatch(delays.length);
+        final AtomicInteger early = new AtomicInteger();
+
+        for (final long delay : delays) {
+            final long due = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay);
+
+            scheduler.schedule(new TransportTimerTask() {
+                public void run() {
+                    if (System.nanoTime() < due) {
+                        early.incrementAndGet();
+                    }
+                    latch.countDown();
+                }
+            }, delay);
+        }
+
+        Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(0, early.get());
+        Assert.assertEquals(delays.length, scheduler.getStatistics().getExpiredCount());
+        Assert.assertEquals(0, scheduler.getStatistics().getPendingCount());
+    }
+
+    @Test
+    public void testCancelledTasksDoNotRun() throws Exception {
+        final AtomicInteger runs = new AtomicInteger();
+        final CountDownLatch latch = new CountDownLatch(1);
+        final TransportTimerTask[] tasks = new TransportTimerTask[100];
+
+        for (int i = 0; i < tasks.length; i++) {
+            tasks[i] = new TransportTimerTask() {
+                public void run() {
+                    runs.incrementAndGet();
+                }
+            };
+            scheduler.schedule(tasks[i], 50);
+        }
+
+        for (TransportTimerTask task : tasks) {
+            Assert.assertTrue(task.cancel());
+            Assert.assertFalse(task.cancel());
+        }
+
+        scheduler.schedule(new TransportTimerTask() {
+            public void run() {
+                latch.countDown();
+            }
+        }, 100);
+
+        Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(0, runs.get());
+        Assert.assertEquals(tasks.length, scheduler.getStatistics().getCancelledCount());
+        Assert.assertEquals(0, scheduler.getStatistics().getPendingCount());
+    }
+
+    @Test
+    public void testSlowTaskDoesNotDelayOthers() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch ran = new CountDownLatch(1);
+
+        scheduler.schedule(new TransportTimerTask() {
+            public void run() {
+                try {
+                    release.await();
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }, 0);
+        scheduler.schedule(new TransportTimerTask() {
+            public void run() {
+                ran.countDown();
+            }
+        }, 20);
+
+        try {
+            Assert.assertTrue(ran.await(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testTaskScheduledOnce() {
+        final TransportTimerTask task = new TransportTimerTask() {
+            public void run() {
+            }
+        };
+
+        scheduler.schedule(task, 1000);
+        scheduler.schedule(task, 1000);
+    }
+}
@@ -0,0 +1,120 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.benchmarks;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+
+import io.narayana.perf.RegressionChecker;
+
+/**
+ * Entry point of the benchmarks jar. Without {@value #COMPARE_OPTION} the arguments are handed
+ * straight to JMH, so the usual options (a benchmark regex, -p, -t, -f, -prof gc and so on) all work.
+ * <p>
+ * With {@value #COMPARE_OPTION} the results are also checked against a baseline using the
+ * {@link RegressionChecker} shared with the JUnit performance tests: throughput of every benchmark
+ * and, when run with -prof gc, the bytes allocated per operation. The baseline lives in the
+ * directory named by the {@value RegressionChecker#BASE_DIRECTORY_PROPERTY} system property (the
+ * current directory by default), is created by the first run and is updated whenever a metric
+ * improves. Tolerances come from the same variance file as the other performance tests. The process
+ * exits with status 1 if any metric regressed.
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar AtomicActionBenchmark -prof gc
+ * java -Dperformanceprofilestore.dir=/var/tmp/baseline -jar benchmarks/target/benchmarks.jar --compare -prof gc
+ * </pre>
+ */
+public class BenchmarkRunner
+{
+    public static final String COMPARE_OPTION = "--compare";
+
+    private static final String ALLOCATION_METRIC = "gc.alloc.rate.norm";
+
+    public static void main(String[] args) throws Exception
+    {
+        boolean compare = false;
+        List<String> jmhArgs = new ArrayList<>();
+
+        for (String arg : args) {
+            if (COMPARE_OPTION.equals(arg))
+                compare = true;
+            else
+                jmhArgs.add(arg);
+        }
+
+        if (!compare) {
+            Main.main(jmhArgs.toArray(new String[0]));
+
+            return;
+        }
+
+        Collection<RunResult> results = new Runner(new CommandLineOptions(jmhArgs.toArray(new String[0]))).run();
+
+        if (!compare(results))
+            System.exit(1);
+    }
+
+    private static boolean compare(Collection<RunResult> results) throws Exception
+    {
+        String baseDir = System.getProperty(RegressionChecker.BASE_DIRECTORY_PROPERTY, ".");
+        RegressionChecker checker = new RegressionChecker(
+                baseDir + File.separator + RegressionChecker.PERF_ARGS_FILENAME,
+                baseDir + File.separator + RegressionChecker.PERF_DATA_FILENAME,
+                baseDir + File.separator + RegressionChecker.PERF_VAR_FILENAME);
+        boolean passed = true;
+
+        // record new baselines as well as checking against the old ones
+        checker.setFailOnRegression(true);
+
+        for (RunResult result : results) {
+            String metricName = metricName(result.getParams());
+
+            passed &= check(checker, metricName, result.getPrimaryResult().getScore(), true);
+
+            for (Map.Entry<String, Result> secondary : result.getSecondaryResults().entrySet()) {
+                if (secondary.getKey().endsWith(ALLOCATION_METRIC))
+                    passed &= check(checker, metricName + ".alloc", secondary.getValue().getScore(), false);
+            }
+        }
+
+        return passed;
+    }
+
+    private static boolean check(RegressionChecker checker, String metricName, double value, boolean largerIsBetter)
+    {
+        StringBuilder info = new StringBuilder();
+        boolean within = checker.checkMetric(info, metricName, value, largerIsBetter);
+
+        System.out.println(info);
+
+        return within;
+    }
+
+    /*
+     * The benchmark name qualified by its parameters, using characters which need no escaping in a
+     * properties file, eg AtomicActionBenchmark.beginCommit_records-2_store-VolatileStore
+     */
+    private static String metricName(BenchmarkParams params)
+    {
+        String benchmark = params.getBenchmark();
+        StringBuilder name = new StringBuilder(benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1));
+
+        for (String key : params.getParamsKeys()) {
+            name.append('_').append(key).append('-').append(params.getParam(key));
+        }
+
+        return name.toString();
+    }
+}
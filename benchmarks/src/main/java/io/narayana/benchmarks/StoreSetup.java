@@ -0,0 +1,97 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import com.arjuna.ats.arjuna.common.ObjectStoreEnvironmentBean;
+import com.arjuna.ats.arjuna.common.arjPropertyManager;
+import com.arjuna.ats.internal.arjuna.objectstore.LogStore;
+import com.arjuna.ats.internal.arjuna.objectstore.ShadowNoFileLockStore;
+import com.arjuna.ats.internal.arjuna.objectstore.VolatileStore;
+import com.arjuna.ats.internal.arjuna.objectstore.hornetq.HornetqJournalEnvironmentBean;
+import com.arjuna.ats.internal.arjuna.objectstore.hornetq.HornetqObjectStoreAdaptor;
+import com.arjuna.ats.internal.arjuna.objectstore.slot.MappedRegionSlots;
+import com.arjuna.ats.internal.arjuna.objectstore.slot.SlotStoreAdaptor;
+import com.arjuna.ats.internal.arjuna.objectstore.slot.SlotStoreEnvironmentBean;
+import com.arjuna.common.internal.util.propertyservice.BeanPopulator;
+
+/**
+ * Points the default object store at a fresh directory and selects its implementation by short
+ * name. This must be called before anything touches the StoreManager, which JMH makes easy as
+ * every trial runs in its own JVM.
+ */
+public final class StoreSetup
+{
+    public static final String SHADOW_NO_FILE_LOCK_STORE = "ShadowNoFileLockStore";
+    public static final String LOG_STORE = "LogStore";
+    public static final String SLOT_STORE = "SlotStore";
+    public static final String HORNETQ_JOURNAL_STORE = "HornetqJournalStore";
+    public static final String VOLATILE_STORE = "VolatileStore";
+
+    private StoreSetup()
+    {
+    }
+
+    /**
+     * @param storeType one of the store names defined by this class
+     * @return the directory holding the store, for {@link #delete(File)} at the end of the trial
+     * @throws IOException if the directory cannot be created
+     */
+    public static File configure(String storeType) throws IOException
+    {
+        File dir = Files.createTempDirectory("narayana-benchmark-" + storeType).toFile();
+        ObjectStoreEnvironmentBean objectStoreEnvironmentBean = arjPropertyManager.getObjectStoreEnvironmentBean();
+
+        objectStoreEnvironmentBean.setObjectStoreDir(dir.getPath());
+
+        switch (storeType) {
+            case SHADOW_NO_FILE_LOCK_STORE:
+                objectStoreEnvironmentBean.setObjectStoreType(ShadowNoFileLockStore.class.getName());
+                break;
+            case LOG_STORE:
+                objectStoreEnvironmentBean.setObjectStoreType(LogStore.class.getName());
+                break;
+            case SLOT_STORE:
+                SlotStoreEnvironmentBean slotStoreEnvironmentBean = BeanPopulator.getDefaultInstance(SlotStoreEnvironmentBean.class);
+                slotStoreEnvironmentBean.setStoreDir(new File(dir, "slots").getPath());
+                slotStoreEnvironmentBean.setBackingSlotsClassName(MappedRegionSlots.class.getName());
+                slotStoreEnvironmentBean.setSyncWrites(true);
+
+                objectStoreEnvironmentBean.setObjectStoreType(SlotStoreAdaptor.class.getName());
+                break;
+            case HORNETQ_JOURNAL_STORE:
+                HornetqJournalEnvironmentBean hornetqJournalEnvironmentBean = BeanPopulator.getDefaultInstance(HornetqJournalEnvironmentBean.class);
+                hornetqJournalEnvironmentBean.setStoreDir(new File(dir, "journal").getPath());
+                hornetqJournalEnvironmentBean.setAsyncIO(false);
+
+                objectStoreEnvironmentBean.setObjectStoreType(HornetqObjectStoreAdaptor.class.getName());
+                break;
+            case VOLATILE_STORE:
+                objectStoreEnvironmentBean.setObjectStoreType(VolatileStore.class.getName());
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown store type " + storeType);
+        }
+
+        return dir;
+    }
+
+    public static void delete(File dir) throws IOException
+    {
+        if (dir == null || !dir.exists())
+            return;
+
+        try (Stream<Path> paths = Files.walk(dir.toPath())) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+}
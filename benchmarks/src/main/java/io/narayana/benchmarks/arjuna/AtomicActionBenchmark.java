@@ -0,0 +1,95 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.benchmarks.arjuna;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.arjuna.ats.arjuna.AtomicAction;
+import com.arjuna.ats.arjuna.coordinator.ActionStatus;
+
+import io.narayana.benchmarks.StoreSetup;
+
+/**
+ * Begin and commit of an AtomicAction with a number of participants. A single participant takes
+ * the one phase commit path, more take two phase commit and so write a log record to the store.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AtomicActionBenchmark
+{
+    @Param({ "1", "2", "10" })
+    public int records;
+
+    @Param({ StoreSetup.SHADOW_NO_FILE_LOCK_STORE, StoreSetup.VOLATILE_STORE })
+    public String store;
+
+    private File storeDir;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        storeDir = StoreSetup.configure(store);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception
+    {
+        StoreSetup.delete(storeDir);
+    }
+
+    @Benchmark
+    public int beginCommit()
+    {
+        AtomicAction aa = new AtomicAction();
+
+        aa.begin();
+
+        for (int i = 0; i < records; i++) {
+            aa.add(new DummyRecord());
+        }
+
+        int outcome = aa.commit();
+
+        if (outcome != ActionStatus.COMMITTED) {
+            throw new IllegalStateException("Transaction did not commit: " + ActionStatus.stringForm(outcome));
+        }
+
+        return outcome;
+    }
+
+    @Benchmark
+    public int beginAbort()
+    {
+        AtomicAction aa = new AtomicAction();
+
+        aa.begin();
+
+        for (int i = 0; i < records; i++) {
+            aa.add(new DummyRecord());
+        }
+
+        return aa.abort();
+    }
+}
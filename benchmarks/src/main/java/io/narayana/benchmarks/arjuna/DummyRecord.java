@@ -0,0 +1,122 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.benchmarks.arjuna;
+
+import com.arjuna.ats.arjuna.common.Uid;
+import com.arjuna.ats.arjuna.coordinator.AbstractRecord;
+import com.arjuna.ats.arjuna.coordinator.RecordType;
+import com.arjuna.ats.arjuna.coordinator.TwoPhaseOutcome;
+import com.arjuna.ats.arjuna.state.InputObjectState;
+import com.arjuna.ats.arjuna.state.OutputObjectState;
+
+/**
+ * A participant which votes yes and does no work of its own, so that a benchmark measures only the
+ * cost of the coordinator driving it.
+ */
+public class DummyRecord extends AbstractRecord
+{
+    public DummyRecord()
+    {
+        super(new Uid());
+    }
+
+    public int typeIs()
+    {
+        return RecordType.USER_DEF_FIRST0;
+    }
+
+    public int nestedAbort()
+    {
+        return TwoPhaseOutcome.FINISH_OK;
+    }
+
+    public int nestedCommit()
+    {
+        return TwoPhaseOutcome.FINISH_OK;
+    }
+
+    public int nestedPrepare()
+    {
+        return TwoPhaseOutcome.PREPARE_OK;
+    }
+
+    public int topLevelAbort()
+    {
+        return TwoPhaseOutcome.FINISH_OK;
+    }
+
+    public int topLevelCommit()
+    {
+        return TwoPhaseOutcome.FINISH_OK;
+    }
+
+    public int topLevelPrepare()
+    {
+        return TwoPhaseOutcome.PREPARE_OK;
+    }
+
+    public boolean doSave()
+    {
+        return true;
+    }
+
+    public boolean save_state(OutputObjectState os, int ot)
+    {
+        return true;
+    }
+
+    public boolean restore_state(InputObjectState os, int ot)
+    {
+        return true;
+    }
+
+    public String type()
+    {
+        return "/StateManager/AbstractRecord/DummyRecord";
+    }
+
+    public boolean shouldAdd(AbstractRecord a)
+    {
+        return false;
+    }
+
+    public boolean shouldMerge(AbstractRecord a)
+    {
+        return false;
+    }
+
+    public boolean shouldReplace(AbstractRecord a)
+    {
+        return false;
+    }
+
+    public boolean shouldAlter(AbstractRecord a)
+    {
+        return false;
+    }
+
+    public boolean orderedInsertOnly()
+    {
+        return true;
+    }
+
+    public void merge(AbstractRecord a)
+    {
+    }
+
+    public void alter(AbstractRecord a)
+    {
+    }
+
+    public Object value()
+    {
+        return null;
+    }
+
+    public void setValue(Object o)
+    {
+    }
+}
@@ -0,0 +1,93 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.benchmarks.arjuna;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.arjuna.ats.arjuna.common.Uid;
+import com.arjuna.ats.arjuna.objectstore.RecoveryStore;
+import com.arjuna.ats.arjuna.objectstore.StoreManager;
+import com.arjuna.ats.arjuna.state.OutputObjectState;
+
+import io.narayana.benchmarks.StoreSetup;
+
+/**
+ * The log write and removal every two phase commit makes, against each object store implementation.
+ * Run with -t to see how a store copes with concurrent committers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(1)
+@Fork(1)
+public class ObjectStoreBenchmark
+{
+    private static final String TYPE = "/StateManager/BasicAction/TwoPhaseCoordinator/AtomicAction/ObjectStoreBenchmark";
+
+    @Param({
+            StoreSetup.SHADOW_NO_FILE_LOCK_STORE,
+            StoreSetup.LOG_STORE,
+            StoreSetup.SLOT_STORE,
+            StoreSetup.HORNETQ_JOURNAL_STORE,
+            StoreSetup.VOLATILE_STORE
+    })
+    public String store;
+
+    @Param({ "512" })
+    public int stateSize;
+
+    private File storeDir;
+    private RecoveryStore recoveryStore;
+    private byte[] state;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        storeDir = StoreSetup.configure(store);
+        recoveryStore = StoreManager.getRecoveryStore();
+        state = new byte[stateSize];
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception
+    {
+        StoreManager.shutdown();
+        StoreSetup.delete(storeDir);
+    }
+
+    @Benchmark
+    public boolean writeRemove() throws Exception
+    {
+        Uid uid = new Uid();
+        OutputObjectState os = new OutputObjectState();
+
+        os.packBytes(state);
+
+        if (!recoveryStore.write_committed(uid, TYPE, os)) {
+            throw new IllegalStateException("write_committed failed");
+        }
+
+        return recoveryStore.remove_committed(uid, TYPE);
+    }
+}
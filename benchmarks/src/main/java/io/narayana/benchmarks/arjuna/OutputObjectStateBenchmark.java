@@ -0,0 +1,96 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.benchmarks.arjuna;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.arjuna.ats.arjuna.common.Uid;
+import com.arjuna.ats.arjuna.state.InputObjectState;
+import com.arjuna.ats.arjuna.state.OutputObjectState;
+import com.arjuna.ats.internal.arjuna.common.UidHelper;
+
+/**
+ * Packing and unpacking of object state, shaped roughly like the intentions list a two phase
+ * commit writes: a Uid, a type name and some opaque participant state for each record.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OutputObjectStateBenchmark
+{
+    private static final String TYPE = "/StateManager/AbstractRecord/DummyRecord";
+
+    @Param({ "1", "10" })
+    public int records;
+
+    @Param({ "64", "1024" })
+    public int stateSize;
+
+    private Uid[] uids;
+    private byte[] state;
+    private byte[] packed;
+
+    @Setup
+    public void setUp() throws IOException
+    {
+        uids = new Uid[records];
+
+        for (int i = 0; i < records; i++) {
+            uids[i] = new Uid();
+        }
+
+        state = new byte[stateSize];
+        packed = pack().buffer();
+    }
+
+    @Benchmark
+    public OutputObjectState pack() throws IOException
+    {
+        OutputObjectState os = new OutputObjectState();
+
+        os.packInt(records);
+
+        for (Uid uid : uids) {
+            UidHelper.packInto(uid, os);
+            os.packString(TYPE);
+            os.packBytes(state);
+        }
+
+        return os;
+    }
+
+    @Benchmark
+    public byte[] unpack() throws IOException
+    {
+        InputObjectState is = new InputObjectState(new Uid(), TYPE, packed);
+        int count = is.unpackInt();
+        byte[] last = null;
+
+        for (int i = 0; i < count; i++) {
+            UidHelper.unpackFrom(is);
+            is.unpackString();
+            last = is.unpackBytes();
+        }
+
+        return last;
+    }
+}
@@ -0,0 +1,99 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.benchmarks.arjuna;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.arjuna.ats.arjuna.coordinator.AbstractRecord;
+import com.arjuna.ats.arjuna.coordinator.RecordList;
+
+/**
+ * Inserting a number of participants into an intentions list, as enlisting them in a transaction
+ * does. Records which are positioned by their ordering alone are found a place using the list's
+ * index once it is long enough, the others by walking the list, so comparing the two modes shows
+ * the cost of each for the same list.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecordListBenchmark
+{
+    @Param({ "10", "100", "1000", "2000" })
+    public int records;
+
+    @Param({ "indexed", "walked" })
+    public String mode;
+
+    @Param({ "ascending", "shuffled" })
+    public String order;
+
+    private AbstractRecord[] participants;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        List<AbstractRecord> list = new ArrayList<>(records);
+
+        for (int i = 0; i < records; i++) {
+            list.add("indexed".equals(mode) ? new DummyRecord() : new WalkedRecord());
+        }
+
+        if ("shuffled".equals(order)) {
+            Collections.shuffle(list, new Random(42));
+        }
+
+        participants = list.toArray(new AbstractRecord[0]);
+    }
+
+    @Benchmark
+    public RecordList insert()
+    {
+        RecordList list = new RecordList();
+
+        for (AbstractRecord participant : participants) {
+            list.insert(participant);
+        }
+
+        // empty it again so that the records can be inserted next time
+
+        while (list.getFront() != null) {
+        }
+
+        return list;
+    }
+
+    /**
+     * The same participant but, like most record types, not declaring that it is positioned by
+     * its ordering alone.
+     */
+    public static class WalkedRecord extends DummyRecord
+    {
+        public boolean orderedInsertOnly()
+        {
+            return false;
+        }
+    }
+}
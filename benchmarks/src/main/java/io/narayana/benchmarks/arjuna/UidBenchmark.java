@@ -0,0 +1,62 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.benchmarks.arjuna;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.arjuna.ats.arjuna.common.Uid;
+
+/**
+ * Construction of Uids, which happens for every transaction and every participant, and their
+ * conversion to and from the string form used as object store keys.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UidBenchmark
+{
+    private Uid uid;
+    private String stringForm;
+
+    @Setup
+    public void setUp()
+    {
+        uid = new Uid();
+        stringForm = uid.stringForm();
+    }
+
+    @Benchmark
+    public Uid newUid()
+    {
+        return new Uid();
+    }
+
+    @Benchmark
+    public String stringForm()
+    {
+        return uid.stringForm();
+    }
+
+    @Benchmark
+    public Uid fromString()
+    {
+        return new Uid(stringForm);
+    }
+}
@@ -0,0 +1,62 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.benchmarks.jta;
+
+import javax.transaction.xa.XAException;
+import javax.transaction.xa.XAResource;
+import javax.transaction.xa.Xid;
+
+/**
+ * An XAResource which votes yes and does no work of its own. Each instance is its own resource
+ * manager, so every enlistment becomes a separate branch.
+ */
+public class DummyXAResource implements XAResource
+{
+    public void commit(Xid xid, boolean onePhase) throws XAException
+    {
+    }
+
+    public void end(Xid xid, int flags) throws XAException
+    {
+    }
+
+    public void forget(Xid xid) throws XAException
+    {
+    }
+
+    public int getTransactionTimeout() throws XAException
+    {
+        return 0;
+    }
+
+    public boolean isSameRM(XAResource xares) throws XAException
+    {
+        return xares == this;
+    }
+
+    public int prepare(Xid xid) throws XAException
+    {
+        return XA_OK;
+    }
+
+    public Xid[] recover(int flag) throws XAException
+    {
+        return new Xid[0];
+    }
+
+    public void rollback(Xid xid) throws XAException
+    {
+    }
+
+    public boolean setTransactionTimeout(int seconds) throws XAException
+    {
+        return false;
+    }
+
+    public void start(Xid xid, int flags) throws XAException
+    {
+    }
+}
@@ -0,0 +1,96 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.benchmarks.jta;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.transaction.Transaction;
+import jakarta.transaction.TransactionManager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.narayana.benchmarks.StoreSetup;
+
+/**
+ * A JTA transaction enlisting a number of XAResources through TransactionImple.enlistResource and
+ * then completing, so covering the enlistment bookkeeping as well as the delist/end calls made
+ * when the transaction ends.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnlistResourceBenchmark
+{
+    @Param({ "1", "2", "10" })
+    public int resources;
+
+    @Param({ StoreSetup.VOLATILE_STORE })
+    public String store;
+
+    private File storeDir;
+    private TransactionManager transactionManager;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        storeDir = StoreSetup.configure(store);
+        transactionManager = com.arjuna.ats.jta.TransactionManager.transactionManager();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception
+    {
+        StoreSetup.delete(storeDir);
+    }
+
+    @Benchmark
+    public Transaction enlistCommit() throws Exception
+    {
+        transactionManager.begin();
+
+        Transaction tx = transactionManager.getTransaction();
+
+        for (int i = 0; i < resources; i++) {
+            tx.enlistResource(new DummyXAResource());
+        }
+
+        transactionManager.commit();
+
+        return tx;
+    }
+
+    @Benchmark
+    public Transaction enlistRollback() throws Exception
+    {
+        transactionManager.begin();
+
+        Transaction tx = transactionManager.getTransaction();
+
+        for (int i = 0; i < resources; i++) {
+            tx.enlistResource(new DummyXAResource());
+        }
+
+        transactionManager.rollback();
+
+        return tx;
+    }
+}
@@ -16,12 +16,16 @@ import jakarta.enterprise.context.spi.Contextual;
 import jakarta.enterprise.context.spi.CreationalContext;
 import jakarta.enterprise.inject.spi.PassivationCapable;
 import java.lang.annotation.Annotation;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class CompensationContext implements Context {
 
-    private static final Map<Object, Map<String, Object>> beanStorePerTransaction = new HashMap<Object, Map<String, Object>>();
+    /*
+     * Compensation scoped beans of every running transaction. Transactions are begun, used and completed
+     * on many threads at once, so both the store and the beans of each transaction are concurrent maps.
+     */
+    private static final Map<Object, Map<String, Object>> beanStorePerTransaction = new ConcurrentHashMap<Object, Map<String, Object>>();
 
     private static ThreadLocal<Object> txContextToExtend = new ThreadLocal<Object>();
 
@@ -41,14 +45,21 @@ public class CompensationContext implements Context {
         }
 
         PassivationCapable bean = (PassivationCapable) contextual;
-        Map beans = getBeansForThisTransaction();
+        Map<String, Object> beans = getBeansForThisTransaction();
         Object resource = beans.get(bean.getId());
 
         if (resource != null) {
             return (T) resource;
         } else if (creationalContext != null) {
+            // not created inside computeIfAbsent, as creating a bean may look up others in the same transaction
             T t = contextual.create(creationalContext);
-            beans.put(bean.getId(), t);
+            Object existing = beans.putIfAbsent(bean.getId(), t);
+
+            if (existing != null) {
+                // another thread of the same transaction got there first
+                contextual.destroy(t, creationalContext);
+                return (T) existing;
+            }
             return t;
         } else {
             return null;
@@ -60,7 +71,7 @@ public class CompensationContext implements Context {
         return get(contextual, null);
     }
 
-    private Map getBeansForThisTransaction() {
+    private Map<String, Object> getBeansForThisTransaction() {
 
         try {
 
@@ -69,10 +80,7 @@ public class CompensationContext implements Context {
                 currentTX = BAControllerFactory.getInstance().getCurrentTransaction();
             }
 
-            if (beanStorePerTransaction.get(currentTX) == null) {
-                beanStorePerTransaction.put(currentTX, new HashMap<String, Object>());
-            }
-            return beanStorePerTransaction.get(currentTX);
+            return beanStorePerTransaction.computeIfAbsent(currentTX, tx -> new ConcurrentHashMap<String, Object>());
 
         } catch (Exception e) {
             throw new CompensationTransactionRuntimeException("Error looking up Transaction", e);
@@ -95,7 +103,11 @@ public class CompensationContext implements Context {
 
     public static void setTxContextToExtend(Object currentTX) {
 
-        txContextToExtend.set(currentTX);
+        if (currentTX == null) {
+            txContextToExtend.remove();
+        } else {
+            txContextToExtend.set(currentTX);
+        }
     }
 
     /**
@@ -105,7 +117,15 @@ public class CompensationContext implements Context {
      */
     public static void close(Object currentTX) {
 
-        txContextToExtend.set(null);
+        txContextToExtend.remove();
         beanStorePerTransaction.remove(currentTX);
     }
+
+    /**
+     * @return the number of transactions which currently have compensation scoped beans.
+     */
+    static int getTransactionCount() {
+
+        return beanStorePerTransaction.size();
+    }
 }
\ No newline at end of file
@@ -33,6 +33,7 @@ public class CompensationInterceptorBase {
             baController = BAControllerFactory.getLocalInstance();
         }
         baController.beginBusinessActivity();
+        Object currentTX = baController.getCurrentTransaction();
 
         Object result = null;
         boolean isException = false;
@@ -43,7 +44,11 @@ public class CompensationInterceptorBase {
             isException = true;
             handleException(ic, e, true);
         } finally {
-            baController.completeBusinessActivity(isException);
+            try {
+                baController.completeBusinessActivity(isException);
+            } finally {
+                ParticipantImpl.businessActivityCompleted(currentTX);
+            }
         }
 
         return result;
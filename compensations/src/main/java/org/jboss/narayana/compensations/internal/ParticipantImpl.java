@@ -16,9 +16,9 @@ import org.jboss.narayana.compensations.api.CompensationHandler;
 import org.jboss.narayana.compensations.api.ConfirmationHandler;
 import org.jboss.narayana.compensations.api.TransactionLoggedHandler;
 
-import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * @author paul.robinson@redhat.com 22/03/2013
@@ -27,7 +27,11 @@ public class ParticipantImpl implements BusinessAgreementWithParticipantCompleti
 
     private static final Logger LOGGER = Logger.getLogger(ParticipantImpl.class);
 
-    private static final Map<Object, AtomicInteger> PARTICIPANT_COUNTERS = new HashMap<>();
+    /*
+     * Number of participants of each transaction which have not finished yet. Updated per transaction, so
+     * participants of different transactions never wait for each other.
+     */
+    private static final Map<Object, Integer> PARTICIPANT_COUNTERS = new ConcurrentHashMap<>();
 
     private CompensationHandler compensationHandler;
 
@@ -39,6 +43,8 @@ public class ParticipantImpl implements BusinessAgreementWithParticipantCompleti
 
     private Object currentTX;
 
+    private final AtomicBoolean finished = new AtomicBoolean();
+
     public ParticipantImpl(CompensationHandler compensationHandler, ConfirmationHandler confirmationHandler,
             TransactionLoggedHandler transactionLoggedHandler, Object currentTX) {
 
@@ -69,23 +75,29 @@ public class ParticipantImpl implements BusinessAgreementWithParticipantCompleti
     @Override
     public void close() throws WrongStateException, SystemException {
 
-        if (confirmationHandler != null) {
-
-            ClassLoader origClassLoader = Thread.currentThread().getContextClassLoader();
-            Thread.currentThread().setContextClassLoader(applicationClassloader);
-            CompensationContext.setTxContextToExtend(currentTX);
+        try {
+            if (confirmationHandler != null) {
 
-            confirmationHandler.confirm();
+                ClassLoader origClassLoader = Thread.currentThread().getContextClassLoader();
+                Thread.currentThread().setContextClassLoader(applicationClassloader);
+                CompensationContext.setTxContextToExtend(currentTX);
 
-            Thread.currentThread().setContextClassLoader(origClassLoader);
+                try {
+                    confirmationHandler.confirm();
+                } finally {
+                    CompensationContext.setTxContextToExtend(null);
+                    Thread.currentThread().setContextClassLoader(origClassLoader);
+                }
+            }
+        } finally {
+            decrementParticipantsCounter();
         }
-
-        decrementParticipantsCounter();
     }
 
     @Override
     public void cancel() throws FaultedException, WrongStateException, SystemException {
-        //TODO: Do nothing?
+        // There is no work to undo, but the participant has finished, so it no longer keeps the compensation context open
+        decrementParticipantsCounter();
     }
 
     @Override
@@ -98,9 +110,12 @@ public class ParticipantImpl implements BusinessAgreementWithParticipantCompleti
                 Thread.currentThread().setContextClassLoader(applicationClassloader);
                 CompensationContext.setTxContextToExtend(currentTX);
 
-                compensationHandler.compensate();
-
-                Thread.currentThread().setContextClassLoader(origClassLoader);
+                try {
+                    compensationHandler.compensate();
+                } finally {
+                    CompensationContext.setTxContextToExtend(null);
+                    Thread.currentThread().setContextClassLoader(origClassLoader);
+                }
             }
         } catch (Exception e) {
             LOGGER.warn(e.getMessage(), e);
@@ -123,6 +138,21 @@ public class ParticipantImpl implements BusinessAgreementWithParticipantCompleti
     @Override
     public void error() throws SystemException {
 
+        decrementParticipantsCounter();
+    }
+
+    /**
+     * Destroys the CompensationContext of a business activity which has completed, unless some of its
+     * participants have still to finish, in which case the last of them does so. This covers business
+     * activities which used compensation scoped beans but enlisted no participants.
+     *
+     * @param currentTX the completed transaction.
+     */
+    static void businessActivityCompleted(Object currentTX) {
+
+        if (currentTX != null && !PARTICIPANT_COUNTERS.containsKey(currentTX)) {
+            CompensationContext.close(currentTX);
+        }
     }
 
     /**
@@ -130,33 +160,22 @@ public class ParticipantImpl implements BusinessAgreementWithParticipantCompleti
      */
     private void incrementParticipantsCounter() {
 
-        synchronized (PARTICIPANT_COUNTERS) {
-            final AtomicInteger counter = PARTICIPANT_COUNTERS.get(currentTX);
-
-            if (counter == null) {
-                PARTICIPANT_COUNTERS.put(currentTX, new AtomicInteger(1));
-            } else {
-                counter.incrementAndGet();
-            }
-        }
+        PARTICIPANT_COUNTERS.merge(currentTX, 1, Integer::sum);
     }
 
     /**
      * Decrements the counter of the Compensations participants in the transaction.
      * CompensationContext of the current transaction is destroyed once the counter reaches 0.
+     * Each participant is only counted down once, however it finishes.
      */
     private void decrementParticipantsCounter() {
 
-        synchronized (PARTICIPANT_COUNTERS) {
-            final AtomicInteger counter = PARTICIPANT_COUNTERS.get(currentTX);
-
-            if (counter == null || counter.decrementAndGet() > 0) {
-                return;
-            }
-
-            PARTICIPANT_COUNTERS.remove(currentTX);
+        if (!finished.compareAndSet(false, true)) {
+            return;
         }
 
-        CompensationContext.close(currentTX);
+        if (PARTICIPANT_COUNTERS.computeIfPresent(currentTX, (tx, counter) -> counter > 1 ? counter - 1 : null) == null) {
+            CompensationContext.close(currentTX);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,144 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+
+package org.jboss.narayana.compensations.internal;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import jakarta.enterprise.context.spi.Contextual;
+import jakarta.enterprise.context.spi.CreationalContext;
+import jakarta.enterprise.inject.spi.PassivationCapable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs many business activities in parallel against the compensation scoped bean store and the participant
+ * bookkeeping, without a container. Each business activity creates a bean, enlists some participants which
+ * look the bean up again when they confirm or compensate, and finishes them on other threads. Once they have
+ * all finished no business activity may have been left behind.
+ */
+public class CompensationContextLoadTest {
+
+    private static final int THREADS = 16;
+
+    private static final int BUSINESS_ACTIVITIES = 2000;
+
+    private static final int PARTICIPANTS = 3;
+
+    private final CompensationContext context = new CompensationContext();
+
+    private final TestBean bean = new TestBean();
+
+    private final AtomicInteger errors = new AtomicInteger();
+
+    @Test
+    public void testParallelBusinessActivities() throws Exception {
+
+        ExecutorService participantExecutor = Executors.newFixedThreadPool(THREADS);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+
+        long start = System.nanoTime();
+
+        for (int i = 0; i < BUSINESS_ACTIVITIES; i++) {
+            final int activity = i;
+
+            futures.add(executor.submit(() -> runBusinessActivity(activity, participantExecutor)));
+        }
+
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+
+        executor.shutdown();
+        participantExecutor.shutdown();
+        Assert.assertTrue(participantExecutor.awaitTermination(60, TimeUnit.SECONDS));
+
+        System.out.printf("%d business activities on %d threads: %d ms%n", BUSINESS_ACTIVITIES, THREADS,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        Assert.assertEquals(0, errors.get());
+        Assert.assertEquals(0, CompensationContext.getTransactionCount());
+    }
+
+    private Void runBusinessActivity(int activity, ExecutorService participantExecutor) throws Exception {
+
+        Object currentTX = new Object();
+        List<ParticipantImpl> participants = new ArrayList<>();
+
+        CompensationContext.setTxContextToExtend(currentTX);
+        try {
+            Object value = context.get(bean, new TestCreationalContext());
+
+            // every fourth business activity uses the bean without enlisting anything
+            if (activity % 4 != 0) {
+                for (int i = 0; i < PARTICIPANTS; i++) {
+                    participants.add(new ParticipantImpl(() -> check(value), () -> check(value), null, currentTX));
+                }
+            }
+        } finally {
+            CompensationContext.setTxContextToExtend(null);
+        }
+
+        ParticipantImpl.businessActivityCompleted(currentTX);
+
+        for (ParticipantImpl participant : participants) {
+            participantExecutor.submit(() -> {
+                if (activity % 2 == 0) {
+                    participant.compensate();
+                } else {
+                    participant.close();
+                }
+                return null;
+            });
+        }
+
+        return null;
+    }
+
+    private void check(Object value) {
+
+        if (context.get(bean) != value) {
+            errors.incrementAndGet();
+        }
+    }
+
+    private static class TestBean implements Contextual<Object>, PassivationCapable {
+
+        @Override
+        public Object create(CreationalContext<Object> creationalContext) {
+
+            return new Object();
+        }
+
+        @Override
+        public void destroy(Object instance, CreationalContext<Object> creationalContext) {
+        }
+
+        @Override
+        public String getId() {
+
+            return TestBean.class.getName();
+        }
+    }
+
+    private static class TestCreationalContext implements CreationalContext<Object> {
+
+        @Override
+        public void push(Object incompleteInstance) {
+        }
+
+        @Override
+        public void release() {
+        }
+    }
+}
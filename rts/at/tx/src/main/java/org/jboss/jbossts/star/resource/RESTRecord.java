@@ -8,6 +8,9 @@ package org.jboss.jbossts.star.resource;
 import java.net.HttpURLConnection;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 import org.jboss.jbossts.star.provider.HttpResponseException;
 import org.jboss.jbossts.star.util.TxLinkNames;
@@ -49,6 +52,11 @@ public class RESTRecord extends AbstractRecord implements Comparable {
     private String recoveryURI;
     private long age = System.currentTimeMillis();
 
+    // set when the transaction sends prepare and commit to all of its participants at once
+    private Transaction transaction;
+    private CompletableFuture<Integer> pendingPrepare;
+    private CompletableFuture<Integer> pendingCommit;
+
     public RESTRecord() {
         status = TxStatus.TransactionStatusUnknown;
     }
@@ -196,6 +204,52 @@ public class RESTRecord extends AbstractRecord implements Comparable {
         if (prepareURI == null || txId == null)
             return TwoPhaseOutcome.PREPARE_READONLY;
 
+        if (pendingPrepare != null)
+            return awaitOutcome(pendingPrepare);
+
+        return prepareParticipant();
+    }
+
+    /**
+     * Send the prepare request now, on the given executor, rather than when the coordinator gets to this
+     * participant. Its vote is collected by topLevelPrepare. Once it has voted the commit requests to all
+     * of the transaction's prepared participants are sent at once too.
+     */
+    void startPrepare(Transaction transaction, Executor executor) {
+        if (fault.equals(Fault.none) && prepareURI != null && txId != null) {
+            this.transaction = transaction;
+            pendingPrepare = CompletableFuture.supplyAsync(this::prepareParticipant, executor);
+        }
+    }
+
+    /**
+     * Send the commit request now, on the given executor. Its outcome is collected by topLevelCommit.
+     */
+    void startCommit(Executor executor) {
+        if (fault.equals(Fault.none) && prepared && pendingCommit == null && commitURI != null && txId != null)
+            pendingCommit = CompletableFuture.supplyAsync(() -> doCommit(TxStatus.TransactionCommitted), executor);
+    }
+
+    /*
+     * Wait for a request sent ahead of time. The coordinator only reads the fields it updated after this.
+     */
+    private int awaitOutcome(CompletableFuture<Integer> pending) {
+        try {
+            return pending.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+
+            throw e;
+        } finally {
+            if (pending == pendingPrepare)
+                pendingPrepare = null;
+            else if (pending == pendingCommit)
+                pendingCommit = null;
+        }
+    }
+
+    private int prepareParticipant() {
         try {
             String body = new TxSupport().httpRequest(new int[] {HttpURLConnection.HTTP_OK}, this.prepareURI, "PUT",
                     TxMediaType.TX_STATUS_MEDIA_TYPE, TxSupport.toStatusContent(TxStatus.TransactionPrepared.name()));
@@ -233,6 +287,16 @@ public class RESTRecord extends AbstractRecord implements Comparable {
         if (rollbackURI == null || txId == null)
             return TwoPhaseOutcome.FINISH_ERROR;
 
+        // do not let the rollback overtake a prepare request which is still in flight
+        if (pendingPrepare != null) {
+            try {
+                awaitOutcome(pendingPrepare);
+            } catch (RuntimeException e) {
+                if (log.isTraceEnabled())
+                    log.tracef(e, "prepare of %s failed before rollback", prepareURI);
+            }
+        }
+
         try {
             String body = new TxSupport().httpRequest(new int[] {HttpURLConnection.HTTP_OK}, this.rollbackURI, "PUT",
                     TxMediaType.TX_STATUS_MEDIA_TYPE, TxSupport.toStatusContent(TxStatus.TransactionRolledBack.name()));
@@ -261,6 +325,12 @@ public class RESTRecord extends AbstractRecord implements Comparable {
         if (!prepared)
             return TwoPhaseOutcome.NOT_PREPARED;
 
+        if (transaction != null)
+            transaction.startCommits();
+
+        if (pendingCommit != null)
+            return awaitOutcome(pendingCommit);
+
         return doCommit(TxStatus.TransactionCommitted);
     }
 
@@ -275,6 +345,23 @@ public class RESTRecord extends AbstractRecord implements Comparable {
      * coordinator, since it will not have an intentions list anyway.
      */
     public int topLevelOnePhaseCommit() {
+        if (pendingPrepare != null) {
+            /*
+             * The coordinator optimised to one phase commit because all the other participants were read only,
+             * but this one has already been asked to prepare.
+             */
+            int outcome = awaitOutcome(pendingPrepare);
+
+            if (outcome == TwoPhaseOutcome.PREPARE_OK)
+                return doCommit(TxStatus.TransactionCommitted);
+            else if (outcome == TwoPhaseOutcome.PREPARE_READONLY)
+                return TwoPhaseOutcome.FINISH_OK;
+            else if (outcome == TwoPhaseOutcome.PREPARE_NOTOK)
+                return TwoPhaseOutcome.ONE_PHASE_ERROR;
+
+            return outcome;
+        }
+
         return doCommit(TxStatus.TransactionCommittedOnePhase);
     }
 
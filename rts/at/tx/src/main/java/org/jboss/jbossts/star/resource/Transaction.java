@@ -9,6 +9,9 @@ import java.net.HttpURLConnection;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import jakarta.xml.bind.annotation.XmlAttribute;
 import jakarta.xml.bind.annotation.XmlElement;
@@ -39,6 +42,22 @@ public class Transaction extends AtomicAction {
     private String initiator;
     private String recoveryUrl = null;
     private Collection<String> volatileParticipants; // synchronizations
+    private boolean commitsStarted;
+
+    /*
+     * Whether prepare, and then commit, are sent to all of the participants at once rather than one after
+     * another as the coordinator works through them, so that completing the transaction takes about one
+     * round trip per phase instead of one per participant.
+     */
+    private static volatile boolean asyncParticipants = Boolean.getBoolean("rest.tx.async.participants");
+
+    public static void setAsyncParticipants(boolean asyncParticipants) {
+        Transaction.asyncParticipants = asyncParticipants;
+    }
+
+    public static boolean isAsyncParticipants() {
+        return asyncParticipants;
+    }
 
     public Transaction() {
         super();
@@ -269,9 +288,62 @@ public class Transaction extends AtomicAction {
         enlistmentIds = new ArrayList<String>();
         getParticipants(enlistmentIds);
 
+        if (commit && asyncParticipants)
+            startPrepares();
+
         return commit;
     }
 
+    private void startPrepares() {
+        // a single participant is committed in one phase
+        if (pendingList == null || pendingList.size() < 2)
+            return;
+
+        RecordListIterator i = new RecordListIterator(pendingList);
+        AbstractRecord r;
+
+        while ((r = i.iterate()) != null) {
+            if (r instanceof RESTRecord)
+                ((RESTRecord) r).startPrepare(this, ParticipantExecutor.EXECUTOR);
+        }
+    }
+
+    /**
+     * Called by the first participant to be committed. Every participant has voted to commit by now so the
+     * others can be told to commit as well, while the coordinator waits for the outcomes in turn.
+     */
+    void startCommits() {
+        if (commitsStarted)
+            return;
+
+        commitsStarted = true;
+
+        if (preparedList != null) {
+            RecordListIterator i = new RecordListIterator(preparedList);
+            AbstractRecord r;
+
+            while ((r = i.iterate()) != null) {
+                if (r instanceof RESTRecord)
+                    ((RESTRecord) r).startCommit(ParticipantExecutor.EXECUTOR);
+            }
+        }
+    }
+
+    /*
+     * Threads for the requests sent to participants ahead of the coordinator. Created on first use.
+     */
+    private static class ParticipantExecutor {
+        private static final AtomicInteger count = new AtomicInteger();
+
+        static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "rest-at-participant-" + count.incrementAndGet());
+
+            t.setDaemon(true);
+
+            return t;
+        });
+    }
+
     @Override
     protected boolean afterCompletion(int arjunaStatus) {
         return afterCompletion(arjunaStatus, false);
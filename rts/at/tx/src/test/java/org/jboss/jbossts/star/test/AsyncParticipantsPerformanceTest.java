@@ -0,0 +1,99 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.jboss.jbossts.star.test;
+
+import com.arjuna.ats.arjuna.coordinator.ActionStatus;
+import io.narayana.perf.Measurement;
+import io.narayana.perf.WorkerWorkload;
+import org.jboss.jbossts.star.resource.Transaction;
+import org.jboss.jbossts.star.service.Coordinator;
+import org.jboss.logging.Logger;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Completes transactions with a number of slow participants, first telling the participants one after
+ * the other and then sending the prepare and commit requests to all of them ahead of the coordinator.
+ * The participants run in a {@link StubParticipantServer} so no container is needed.
+ */
+public class AsyncParticipantsPerformanceTest {
+    private static final Logger log = Logger.getLogger(AsyncParticipantsPerformanceTest.class);
+    private static final int PARTICIPANTS = 10;
+    private static final long PARTICIPANT_DELAY = 20L;
+
+    private StubParticipantServer server;
+    private boolean asyncParticipants;
+
+    @Before
+    public void before() throws Exception {
+        server = new StubParticipantServer(0, PARTICIPANT_DELAY);
+        asyncParticipants = Transaction.isAsyncParticipants();
+    }
+
+    @After
+    public void after() {
+        Transaction.setAsyncParticipants(asyncParticipants);
+        server.close();
+    }
+
+    @Test
+    public void measureFanOut() throws Exception {
+        Measurement<Void> serial = measure(false);
+        Measurement<Void> async = measure(true);
+
+        log.infof("%d participants: serial %d ms, async %d ms",
+                PARTICIPANTS, serial.getTotalMillis(), async.getTotalMillis());
+    }
+
+    private Measurement<Void> measure(boolean async) {
+        int requests = server.getRequestCount();
+
+        Transaction.setAsyncParticipants(async);
+
+        Measurement<Void> measurement = new Measurement.Builder(getClass().getName() + "_" + (async ? "async" : "serial"))
+                .maxTestTime(0L).numberOfCalls(10)
+                .numberOfThreads(1).batchSize(1)
+                .numberOfWarmupCalls(0).build().measure(new FanOutWorker());
+
+        Assert.assertEquals(0, measurement.getNumberOfErrors());
+        Assert.assertFalse(measurement.getInfo(), measurement.shouldFail());
+
+        // each participant is asked to prepare and then to commit
+        Assert.assertEquals(2 * PARTICIPANTS * measurement.getNumberOfCalls() * measurement.getNumberOfMeasurements(),
+                server.getRequestCount() - requests);
+
+        return measurement;
+    }
+
+    private class FanOutWorker implements WorkerWorkload<Void> {
+        private final Coordinator coordinator = new Coordinator();
+
+        @Override
+        public Void doWork(Void context, int batchSize, Measurement<Void> measurement) {
+            for (int i = 0; i < batchSize; i++) {
+                Transaction txn = new Transaction(coordinator, getClass().getSimpleName());
+
+                txn.begin();
+
+                for (int p = 0; p < PARTICIPANTS; p++) {
+                    txn.enlistParticipant("http://localhost/tx/", server.getParticipantUrl(p),
+                            "http://localhost/tx/recovery-coordinator/", server.getTerminatorUrl(p));
+                }
+
+                if (txn.commit() != ActionStatus.COMMITTED)
+                    measurement.incrementErrorCount();
+            }
+
+            return context;
+        }
+
+        @Override
+        public void finishWork(Measurement<Void> measurement) {
+        }
+    }
+}
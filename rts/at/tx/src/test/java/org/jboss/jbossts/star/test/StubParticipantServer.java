@@ -0,0 +1,100 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.jboss.jbossts.star.test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A minimal two phase aware REST-AT participant for driving the coordinator without a container. Every
+ * participant has the terminator URI {@link #getTerminatorUrl(int)}, waits for the configured time to
+ * simulate the work and the network, and then agrees to whatever it was asked to do by echoing the
+ * requested status back. Requests are handled concurrently and connections are kept alive.
+ */
+public class StubParticipantServer implements AutoCloseable {
+    private static final String CONTEXT = "/stub-participant/";
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final long delayMillis;
+    private final AtomicInteger requests = new AtomicInteger();
+
+    public StubParticipantServer(int port, long delayMillis) throws IOException {
+        this.delayMillis = delayMillis;
+
+        server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        server.createContext(CONTEXT, this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public String getParticipantUrl(int id) {
+        return "http://localhost:" + server.getAddress().getPort() + CONTEXT + id;
+    }
+
+    public String getTerminatorUrl(int id) {
+        return getParticipantUrl(id) + "/terminator";
+    }
+
+    /**
+     * @return the number of requests handled so far
+     */
+    public int getRequestCount() {
+        return requests.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            byte[] content = read(exchange.getRequestBody());
+
+            if (delayMillis > 0)
+                TimeUnit.MILLISECONDS.sleep(delayMillis);
+
+            requests.incrementAndGet();
+
+            if ("PUT".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(200, content.length == 0 ? -1 : content.length);
+
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(content);
+                }
+            } else {
+                exchange.sendResponseHeaders(200, -1);
+            }
+        } catch (InterruptedException e) {
+            exchange.sendResponseHeaders(503, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static byte[] read(InputStream is) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int wasRead;
+
+        while ((wasRead = is.read(buffer)) != -1)
+            bytes.write(buffer, 0, wasRead);
+
+        return bytes.toByteArray();
+    }
+}
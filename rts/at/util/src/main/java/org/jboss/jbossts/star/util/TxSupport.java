@@ -8,6 +8,7 @@ package org.jboss.jbossts.star.util;
 import java.io.BufferedReader;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.StringReader;
@@ -91,6 +92,15 @@ public class TxSupport {
             return (HttpURLConnection) url.openConnection();
         }
     };
+    /*
+     * Whether to leave connections open once a response has been read so that later requests to the same
+     * host and port reuse them, rather than every request to a participant paying for a new connection.
+     * The JDK pools idle connections per destination, and the standard http.maxConnections and
+     * http.keepAlive system properties control how many are kept and whether it is enabled at all.
+     * Off unless rest.tx.keepalive is set, so callers which rely on every request using a new connection
+     * are not affected.
+     */
+    private static volatile boolean keepAlive = Boolean.getBoolean("rest.tx.keepalive");
 
     public static void setTxnMgrUrl(String txnMgrUrl) {
         TXN_MGR_URL = txnMgrUrl;
@@ -116,6 +126,14 @@ public class TxSupport {
         TxSupport.creator = creator;
     }
 
+    public static void setKeepAlive(boolean keepAlive) {
+        TxSupport.keepAlive = keepAlive;
+    }
+
+    public static boolean isKeepAlive() {
+        return keepAlive;
+    }
+
     public static void addLinkHeader(Response.ResponseBuilder response, UriInfo info, String title, String name,
                                      String ... pathComponents) {
         String basePath = info.getMatchedURIs().get(0);
@@ -461,6 +479,7 @@ public class TxSupport {
                               Map<String, String> linkHeaders, Map<String, String> reqHeaders)
             throws HttpResponseException {
         HttpURLConnection connection = null;
+        boolean reusable = false;
 
         try {
             connection = openConnection(null, url, method, mediaType, content, reqHeaders);
@@ -475,8 +494,11 @@ public class TxSupport {
                     RESTATLogger.atI18NLogger.info_txSupportHttpRequest(e.getMessage(), e); // JBTM-3990
                 }
                 body = "";
+                discardErrorContent(connection);
             }
 
+            reusable = true;
+
             if (linkHeaders != null) {
                 extractLinkHeaders(connection, linkHeaders);
                 addLocationHeader(connection, linkHeaders);
@@ -506,11 +528,33 @@ public class TxSupport {
                 log.tracef("httpRequest: io error: %s%n", e.getMessage());
             throw new HttpResponseException(e, "", expect, HttpURLConnection.HTTP_UNAVAILABLE);
         } finally {
-            if (connection != null)
+            // the response has been consumed so, unless the request failed, the connection can go back to the pool
+            if (connection != null && !(keepAlive && reusable))
                 connection.disconnect();
         }
     }
 
+    private static void discardErrorContent(HttpURLConnection connection) {
+        // an error response must also be read in full before the connection can be reused
+        InputStream es = connection.getErrorStream();
+
+        if (es != null) {
+            try {
+                byte[] buffer = new byte[1024];
+
+                while (es.read(buffer) != -1) {
+                }
+            } catch (IOException e) {
+                // it just will not be reused
+            } finally {
+                try {
+                    es.close();
+                } catch (IOException e) {
+                }
+            }
+        }
+    }
+
     private static Map<String, String> extractLinkHeaders(String header, Map<String, String> links) {
         if (header != null) {
             for (String linkHeader : header.split(",")) {
@@ -190,6 +190,21 @@ public class RegressionChecker {
         return Double.parseDouble(testHistory.getProperty(name, Double.toString(defaultValue)));
     }
 
+    /**
+     * Compare a metric with the best value recorded for it by earlier runs. The new value is recorded if
+     * there is no earlier one, if it is an improvement or if metrics are being reset, and is persisted
+     * if {@link RegressionChecker#isFailOnRegression()} is true.
+     *
+     * @param info if not null a description of the comparison is appended to it, otherwise it is printed
+     * @param metricName the name of the metric
+     * @param metricValue the value measured by this run
+     * @param largerIsBetter whether an increase in the metric is an improvement (throughput) or a regression (duration)
+     * @return false if the value is worse than the recorded one by more than the configured variance
+     */
+    public boolean checkMetric(StringBuilder info, String metricName, double metricValue, boolean largerIsBetter) {
+        return updateMetric(info, metricName, metricValue, largerIsBetter);
+    }
+
     boolean updateMetric(StringBuilder info, String metricName, double metricValue, boolean largerIsBetter) {
         return updateMetric(info, getVariance(metricName), metricName, metricValue, largerIsBetter);
     }